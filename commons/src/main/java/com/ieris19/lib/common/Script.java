@@ -17,12 +17,22 @@
 
 package com.ieris19.lib.common;
 
+import java.time.Duration;
+import java.util.concurrent.*;
+
 /**
  * Script is a {@link FunctionalInterface} designed to implement an executable class. The intended use is to utilize a
  * lambda expression in order to implement the {@link #execute(String...) execute} method whenever an executable script
  * is needed. This way, code is linked with a variable that can be executed at will by methods in a predetermined
  * library. If needed, it can also be implemented by a class for more complex executables, as class implementations
- * allow for both longer, more.
+ * allow for both longer, more.<br><br>
+ *
+ * Scripts can be composed into larger scripts: they can run {@link #andThen(Script) one after another},
+ * {@link #parallel(Executor, Script...) concurrently} on an {@link Executor}, or {@link #withTimeout(Duration, Executor)
+ * with a time limit}, and any script can be started {@link #executeAsync(Executor, String...) asynchronously}. Any
+ * executor can be used, including a thread pool or, from Java 21 onwards, a virtual thread per task executor. The
+ * composed scripts are scripts themselves, so they can be handed to any method expecting a script, such as the
+ * initialization of an application, where independent startup steps can then run at the same time.
  */
 @FunctionalInterface
 public interface Script {
@@ -32,4 +42,159 @@ public interface Script {
 	 * @param arguments arguments to be used by the command
 	 */
 	void execute(String... arguments);
+
+	/**
+	 * Returns a script that executes this script and then the next one, with the same arguments. If this script throws,
+	 * the next one is not executed
+	 *
+	 * @param next the script to execute afterwards
+	 *
+	 * @return a script executing both scripts in order
+	 */
+	default Script andThen(Script next) {
+		return arguments -> {
+			execute(arguments);
+			next.execute(arguments);
+		};
+	}
+
+	/**
+	 * Returns a script that executes the scripts one after another, with the same arguments. If any script throws, the
+	 * remaining ones are not executed
+	 *
+	 * @param scripts the scripts to execute in order
+	 *
+	 * @return a script executing all the scripts in order
+	 */
+	static Script sequence(Script... scripts) {
+		Script[] steps = scripts.clone();
+		return arguments -> {
+			for (Script step : steps) {
+				step.execute(arguments);
+			}
+		};
+	}
+
+	/**
+	 * Returns a script that executes all the scripts concurrently, with the same arguments, and waits for all of them
+	 * to finish. The first script runs on the calling thread and the rest are submitted to the executor. <br> If any
+	 * script throws, the exception is rethrown once every script has finished, with the exceptions of the other failed
+	 * scripts {@link Throwable#addSuppressed(Throwable) suppressed}. An {@link Error} takes precedence over exceptions,
+	 * but the other scripts are still waited for.
+	 *
+	 * @param executor the executor running the scripts
+	 * @param scripts  the independent scripts to execute
+	 *
+	 * @return a script executing all the scripts concurrently
+	 */
+	static Script parallel(Executor executor, Script... scripts) {
+		Script[] steps = scripts.clone();
+		return arguments -> {
+			if (steps.length == 0)
+				return;
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[steps.length - 1];
+			for (int i = 1; i < steps.length; i++) {
+				futures[i - 1] = steps[i].executeAsync(executor, arguments);
+			}
+			Throwable failure = null;
+			try {
+				steps[0].execute(arguments);
+			} catch (Throwable e) {
+				failure = e;
+			}
+			// Every other script is waited for, even if the first one failed with an error
+			for (CompletableFuture<?> future : futures) {
+				try {
+					future.join();
+				} catch (CompletionException | CancellationException e) {
+					failure = combine(failure, e instanceof CancellationException || e.getCause() == null ? e :
+					                           e.getCause());
+				}
+			}
+			if (failure instanceof RuntimeException exception)
+				throw exception;
+			if (failure instanceof Error error)
+				throw error;
+			if (failure != null)
+				throw new IllegalStateException("The script failed", failure);
+		};
+	}
+
+	/**
+	 * Returns a script that executes this script on the executor and waits up to the given time for it to finish. If
+	 * the time runs out, the script is interrupted and a {@link ScriptTimeoutException} is thrown
+	 *
+	 * @param timeout  the maximum time to wait for the script
+	 * @param executor the executor running the script, it must not run it on the calling thread
+	 *
+	 * @return a script executing this script with a time limit
+	 */
+	default Script withTimeout(Duration timeout, Executor executor) {
+		long nanos = timeout.toNanos();
+		return arguments -> {
+			FutureTask<Void> task = new FutureTask<>(() -> execute(arguments), null);
+			executor.execute(task);
+			try {
+				task.get(nanos, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				task.cancel(true);
+				throw new ScriptTimeoutException(timeout, e);
+			} catch (InterruptedException e) {
+				task.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the script to finish", e);
+			} catch (ExecutionException e) {
+				throw unwrap(e);
+			}
+		};
+	}
+
+	/**
+	 * Executes this script on the executor
+	 *
+	 * @param executor  the executor running the script
+	 * @param arguments arguments to be used by the script
+	 *
+	 * @return a future completed when the script finishes, or completed exceptionally with whatever the script throws
+	 */
+	default CompletableFuture<Void> executeAsync(Executor executor, String... arguments) {
+		return CompletableFuture.runAsync(() -> execute(arguments), executor);
+	}
+
+	/**
+	 * Adds the failure of a script to the failures of the scripts that failed before it. The first failure is kept and
+	 * the rest are suppressed by it, unless a later failure is an {@link Error} and the first one is not
+	 *
+	 * @param failure the failure so far, or null if no script has failed
+	 * @param next    the failure of another script
+	 *
+	 * @return the failure to throw
+	 */
+	private static Throwable combine(Throwable failure, Throwable next) {
+		if (failure == null)
+			return next;
+		if (next instanceof Error && !(failure instanceof Error)) {
+			next.addSuppressed(failure);
+			return next;
+		}
+		failure.addSuppressed(next);
+		return failure;
+	}
+
+	/**
+	 * Extracts the exception thrown by a script from the exception wrapping it
+	 *
+	 * @param wrapper the exception thrown when waiting for the script
+	 *
+	 * @return the exception thrown by the script, wrapped in an {@link IllegalStateException} if it's not unchecked
+	 */
+	private static RuntimeException unwrap(Exception wrapper) {
+		Throwable cause = wrapper instanceof CancellationException || wrapper.getCause() == null ? wrapper :
+		                  wrapper.getCause();
+		if (cause instanceof RuntimeException exception)
+			return exception;
+		if (cause instanceof Error error)
+			throw error;
+		return new IllegalStateException("The script failed", cause);
+	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common;
+
+import java.time.Duration;
+
+/**
+ * A type of exception that is thrown when a {@link Script} does not finish within the time it was given
+ *
+ * @see Script#withTimeout(Duration, java.util.concurrent.Executor)
+ */
+public class ScriptTimeoutException extends RuntimeException {
+	/**
+	 * The version of the serialized form of this exception
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a {@code ScriptTimeoutException} with a detail message built from the time limit
+	 *
+	 * @param timeout the time the script was given
+	 * @param cause   exception that caused this exception
+	 */
+	public ScriptTimeoutException(Duration timeout, Throwable cause) {
+		super("The script did not finish within " + timeout.toMillis() + " ms", cause);
+	}
+}
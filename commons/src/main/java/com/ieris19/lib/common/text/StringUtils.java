@@ -1,12 +1,27 @@
 package com.ieris19.lib.common.text;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * A class that provides utility methods for operating with Strings
+ * A class that provides utility methods for operating with Strings. <br> Every operation is also available as an
+ * overload that writes into a {@link StringBuilder} or any other {@link Appendable} instead of returning a new string.
+ * These overloads go through their input once and do not create any intermediate strings or arrays, so they can be
+ * chained into a single builder when composing larger texts.
  */
 public class StringUtils {
+    /**
+     * Length of the cached padding strings
+     */
+    private static final int PADDING_LENGTH = 64;
+    /**
+     * Strings made of a single repeated character, lazily created for each Latin-1 character used as filler. Appending
+     * a range of one of these is a plain array copy, which is much faster than appending the filler one by one
+     */
+    private static final String[] PADDING = new String[256];
+
     //------------------------------------------------------------------------------------------------------------------
     // CASING
     //------------------------------------------------------------------------------------------------------------------
@@ -16,18 +31,35 @@ public class StringUtils {
      *
      * @param str The string to title case
      * @return The title cased string
+     * @see TextCase#TITLE
      */
     public static String titleCase(String str) {
-        char[] string = str.toCharArray();
-        string[0] = Character.toUpperCase(string[0]);
-        for (int i = 1; i < string.length; i++) {
-            if (Character.isWhitespace(string[i - 1])) {
-                string[i] = Character.toUpperCase(string[i]);
-            } else {
-                string[i] = Character.toLowerCase(string[i]);
-            }
-        }
-        return new String(string);
+        return TextCase.TITLE.apply(str);
+    }
+
+    /**
+     * Appends the title cased string to the builder
+     *
+     * @param str     The string to title case
+     * @param builder The builder receiving the title cased string
+     * @return The provided builder
+     * @see #titleCase(String)
+     */
+    public static StringBuilder titleCase(CharSequence str, StringBuilder builder) {
+        return TextCase.TITLE.apply(str, builder);
+    }
+
+    /**
+     * Appends the title cased string to the appendable
+     *
+     * @param str The string to title case
+     * @param out The appendable receiving the title cased string
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #titleCase(String)
+     */
+    public static <A extends Appendable> A titleCase(CharSequence str, A out) throws IOException {
+        return TextCase.TITLE.apply(str, out);
     }
 
     //------------------------------------------------------------------------------------------------------------------
@@ -47,15 +79,7 @@ public class StringUtils {
         return switch (args.length) {
             case 0 -> "";
             case 1 -> args[0];
-            case 2 -> args[0] + finalizer + args[1];
-            default -> {
-                StringBuilder builder = new StringBuilder(args[0]);
-                for (int i = 1; i < args.length - 1; i++) {
-                    builder.append(separator).append(args[i]);
-                }
-                builder.append(finalizer).append(args[args.length - 1]);
-                yield builder.toString();
-            }
+            default -> listOut(separator, finalizer, args, new StringBuilder()).toString();
         };
     }
 
@@ -68,10 +92,98 @@ public class StringUtils {
      * @see #listOut(String, String, String...)
      */
     public static String listOut(String separator, String finalizer, List<?> objects) {
-        Object[] listArray = objects.toArray(new Object[0]);
-        Arrays.stream(listArray).forEach(o -> o = o.toString());
-        String[] varargs = Arrays.copyOf(listArray, listArray.length, String[].class);
-        return listOut(separator, finalizer, varargs);
+        return listOut(separator, finalizer, objects, new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the elements to the builder, with the separator in between them and the finalizer separating the last
+     * element from the rest
+     *
+     * @param separator The separator to use between the elements
+     * @param finalizer The finalizer to use between the last element and the rest
+     * @param args      The elements to concatenate
+     * @param builder   The builder receiving the concatenated elements
+     * @return The provided builder
+     * @see #listOut(String, String, String...)
+     */
+    public static StringBuilder listOut(String separator, String finalizer, CharSequence[] args,
+                                        StringBuilder builder) {
+        try {
+            listOut(separator, finalizer, args, (Appendable) builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder;
+    }
+
+    /**
+     * Appends the elements to the appendable, with the separator in between them and the finalizer separating the last
+     * element from the rest
+     *
+     * @param separator The separator to use between the elements
+     * @param finalizer The finalizer to use between the last element and the rest
+     * @param args      The elements to concatenate
+     * @param out       The appendable receiving the concatenated elements
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #listOut(String, String, String...)
+     */
+    public static <A extends Appendable> A listOut(String separator, String finalizer, CharSequence[] args, A out)
+            throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                out.append(i == args.length - 1 ? finalizer : separator);
+            }
+            out.append(args[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the elements converted to Strings to the builder, with the separator in between them and the finalizer
+     * separating the last element from the rest
+     *
+     * @param separator The separator to use between the elements
+     * @param finalizer The finalizer to use between the last element and the rest
+     * @param objects   The elements to concatenate
+     * @param builder   The builder receiving the concatenated elements
+     * @return The provided builder
+     * @see #listOut(String, String, List)
+     */
+    public static StringBuilder listOut(String separator, String finalizer, Iterable<?> objects,
+                                        StringBuilder builder) {
+        try {
+            listOut(separator, finalizer, objects, (Appendable) builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder;
+    }
+
+    /**
+     * Appends the elements converted to Strings to the appendable, with the separator in between them and the
+     * finalizer separating the last element from the rest. The elements are iterated only once.
+     *
+     * @param separator The separator to use between the elements
+     * @param finalizer The finalizer to use between the last element and the rest
+     * @param objects   The elements to concatenate
+     * @param out       The appendable receiving the concatenated elements
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #listOut(String, String, List)
+     */
+    public static <A extends Appendable> A listOut(String separator, String finalizer, Iterable<?> objects, A out)
+            throws IOException {
+        Iterator<?> iterator = objects.iterator();
+        if (!iterator.hasNext()) {
+            return out;
+        }
+        out.append(String.valueOf(iterator.next()));
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            out.append(iterator.hasNext() ? separator : finalizer).append(String.valueOf(element));
+        }
+        return out;
     }
 
     /**
@@ -86,6 +198,34 @@ public class StringUtils {
         return listOut(separator, separator, args);
     }
 
+    /**
+     * Appends the elements to the builder using the same string for the separator and the finalizer
+     *
+     * @param separator The separator to use between the elements
+     * @param args      The elements to concatenate
+     * @param builder   The builder receiving the concatenated elements
+     * @return The provided builder
+     * @see #concatenate(String, String...)
+     */
+    public static StringBuilder concatenate(String separator, CharSequence[] args, StringBuilder builder) {
+        return listOut(separator, separator, args, builder);
+    }
+
+    /**
+     * Appends the elements to the appendable using the same string for the separator and the finalizer
+     *
+     * @param separator The separator to use between the elements
+     * @param args      The elements to concatenate
+     * @param out       The appendable receiving the concatenated elements
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #concatenate(String, String...)
+     */
+    public static <A extends Appendable> A concatenate(String separator, CharSequence[] args, A out)
+            throws IOException {
+        return listOut(separator, separator, args, out);
+    }
+
     /**
      * List out the varargs in natural language, using a comma to separate all but the last element using the word "and"
      * there instead
@@ -97,32 +237,327 @@ public class StringUtils {
         return listOut(", ", " and ", args);
     }
 
+    /**
+     * Appends the elements to the builder in natural language
+     *
+     * @param args    The elements to concatenate
+     * @param builder The builder receiving the natural language list
+     * @return The provided builder
+     * @see #enumerate(String...)
+     */
+    public static StringBuilder enumerate(CharSequence[] args, StringBuilder builder) {
+        return listOut(", ", " and ", args, builder);
+    }
+
+    /**
+     * Appends the elements to the appendable in natural language
+     *
+     * @param args The elements to concatenate
+     * @param out  The appendable receiving the natural language list
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #enumerate(String...)
+     */
+    public static <A extends Appendable> A enumerate(CharSequence[] args, A out) throws IOException {
+        return listOut(", ", " and ", args, out);
+    }
+
     //------------------------------------------------------------------------------------------------------------------
     // LENGTH
     //------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the string without leading and trailing whitespace, cut to the given length. A positive length keeps the
+     * beginning of the string, while a negative length keeps the end of the string. If the string is shorter than the
+     * requested length, it is returned untouched.
+     *
+     * @param string The string to trim
+     * @param length The amount of characters to keep, negative to keep the end of the string
+     * @return The trimmed string
+     */
     public static String trim(String string, int length) {
-        if (length > string.length() || length < string.length() * -1)
+        long range = trimmedRange(string, length);
+        int start = (int) (range >>> 32);
+        int end = (int) range;
+        return start == 0 && end == string.length() ? string : string.substring(start, end);
+    }
+
+    /**
+     * Appends the trimmed string to the builder
+     *
+     * @param string  The string to trim
+     * @param length  The amount of characters to keep, negative to keep the end of the string
+     * @param builder The builder receiving the trimmed string
+     * @return The provided builder
+     * @see #trim(String, int)
+     */
+    public static StringBuilder trim(CharSequence string, int length, StringBuilder builder) {
+        long range = trimmedRange(string, length);
+        return builder.append(string, (int) (range >>> 32), (int) range);
+    }
+
+    /**
+     * Appends the trimmed string to the appendable
+     *
+     * @param string The string to trim
+     * @param length The amount of characters to keep, negative to keep the end of the string
+     * @param out    The appendable receiving the trimmed string
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #trim(String, int)
+     */
+    public static <A extends Appendable> A trim(CharSequence string, int length, A out) throws IOException {
+        long range = trimmedRange(string, length);
+        out.append(string, (int) (range >>> 32), (int) range);
+        return out;
+    }
+
+    /**
+     * Returns a string at least as long as the given length, by adding the filler character to the right
+     *
+     * @param string The string to pad
+     * @param length The minimum length of the result
+     * @param filler The character used to fill the missing length
+     * @return The padded string
+     */
+    public static String padRight(String string, int length, char filler) {
+        if (string.length() >= length) {
             return string;
-        if (length < 0) {
-            String trimmed = string.trim();
-            return trimmed.substring(trimmed.length() + length);
         }
-        return string.trim().substring(0, length);
+        return padRight(string, length, filler, new StringBuilder(length)).toString();
     }
 
-    public static String padRight(String string, int length, char filler) {
-        return string + String.valueOf(filler).repeat(Math.max(0, length - string.length()));
+    /**
+     * Appends the string to the builder followed by as many filler characters as needed to reach the given length
+     *
+     * @param string  The string to pad
+     * @param length  The minimum length of the appended text
+     * @param filler  The character used to fill the missing length
+     * @param builder The builder receiving the padded string
+     * @return The provided builder
+     * @see #padRight(String, int, char)
+     */
+    public static StringBuilder padRight(CharSequence string, int length, char filler, StringBuilder builder) {
+        return fill(builder.append(string), filler, length - string.length());
+    }
+
+    /**
+     * Appends the string to the appendable followed by as many filler characters as needed to reach the given length
+     *
+     * @param string The string to pad
+     * @param length The minimum length of the appended text
+     * @param filler The character used to fill the missing length
+     * @param out    The appendable receiving the padded string
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #padRight(String, int, char)
+     */
+    public static <A extends Appendable> A padRight(CharSequence string, int length, char filler, A out)
+            throws IOException {
+        out.append(string);
+        return fill(out, filler, length - string.length());
     }
 
+    /**
+     * Returns a string at least as long as the given length, by adding the filler character to the left
+     *
+     * @param string The string to pad
+     * @param length The minimum length of the result
+     * @param filler The character used to fill the missing length
+     * @return The padded string
+     */
     public static String padLeft(String string, int length, char filler) {
-        return String.valueOf(filler).repeat(Math.max(0, length - string.length())) + string;
+        if (string.length() >= length) {
+            return string;
+        }
+        return padLeft(string, length, filler, new StringBuilder(length)).toString();
+    }
+
+    /**
+     * Appends as many filler characters as needed to reach the given length to the builder, followed by the string
+     *
+     * @param string  The string to pad
+     * @param length  The minimum length of the appended text
+     * @param filler  The character used to fill the missing length
+     * @param builder The builder receiving the padded string
+     * @return The provided builder
+     * @see #padLeft(String, int, char)
+     */
+    public static StringBuilder padLeft(CharSequence string, int length, char filler, StringBuilder builder) {
+        return fill(builder, filler, length - string.length()).append(string);
+    }
+
+    /**
+     * Appends as many filler characters as needed to reach the given length to the appendable, followed by the string
+     *
+     * @param string The string to pad
+     * @param length The minimum length of the appended text
+     * @param filler The character used to fill the missing length
+     * @param out    The appendable receiving the padded string
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #padLeft(String, int, char)
+     */
+    public static <A extends Appendable> A padLeft(CharSequence string, int length, char filler, A out)
+            throws IOException {
+        fill(out, filler, length - string.length()).append(string);
+        return out;
     }
 
+    /**
+     * Returns a string of exactly the desired length, trimming the string if it's too long or padding it if it's too
+     * short
+     *
+     * @param str           The string to fit
+     * @param desiredLength The length of the result
+     * @param filler        The character used to fill the missing length
+     * @param reversed      Whether to keep the end of the string and pad on the left
+     * @return The string with the desired length
+     */
     public static String fixedLength(String str, int desiredLength, char filler, boolean reversed) {
+        long range = trimmedRange(str, reversed ? -desiredLength : desiredLength);
+        int start = (int) (range >>> 32);
+        int end = (int) range;
+        if (end - start == desiredLength) {
+            return start == 0 && end == str.length() ? str : str.substring(start, end);
+        }
+        return fixedLength(str, desiredLength, filler, reversed, new StringBuilder(desiredLength)).toString();
+    }
+
+    /**
+     * Appends the string fitted to exactly the desired length to the builder
+     *
+     * @param str           The string to fit
+     * @param desiredLength The length of the appended text
+     * @param filler        The character used to fill the missing length
+     * @param reversed      Whether to keep the end of the string and pad on the left
+     * @param builder       The builder receiving the fitted string
+     * @return The provided builder
+     * @see #fixedLength(String, int, char, boolean)
+     */
+    public static StringBuilder fixedLength(CharSequence str, int desiredLength, char filler, boolean reversed,
+                                            StringBuilder builder) {
+        long range = trimmedRange(str, reversed ? -desiredLength : desiredLength);
+        int start = (int) (range >>> 32);
+        int end = (int) range;
+        if (reversed) {
+            return fill(builder, filler, desiredLength - (end - start)).append(str, start, end);
+        }
+        return fill(builder.append(str, start, end), filler, desiredLength - (end - start));
+    }
+
+    /**
+     * Appends the string fitted to exactly the desired length to the appendable
+     *
+     * @param str           The string to fit
+     * @param desiredLength The length of the appended text
+     * @param filler        The character used to fill the missing length
+     * @param reversed      Whether to keep the end of the string and pad on the left
+     * @param out           The appendable receiving the fitted string
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     * @see #fixedLength(String, int, char, boolean)
+     */
+    public static <A extends Appendable> A fixedLength(CharSequence str, int desiredLength, char filler,
+                                                       boolean reversed, A out) throws IOException {
+        long range = trimmedRange(str, reversed ? -desiredLength : desiredLength);
+        int start = (int) (range >>> 32);
+        int end = (int) range;
         if (reversed) {
-            return padLeft(trim(str, -1 * desiredLength), desiredLength, filler);
+            fill(out, filler, desiredLength - (end - start)).append(str, start, end);
         } else {
-            return padRight(trim(str, desiredLength), desiredLength, filler);
+            fill(out.append(str, start, end), filler, desiredLength - (end - start));
+        }
+        return out;
+    }
+
+    /**
+     * Computes the range of the string that {@link #trim(String, int)} keeps, without creating any substring
+     *
+     * @param string The string to trim
+     * @param length The amount of characters to keep, negative to keep the end of the string
+     * @return The start index in the high 32 bits and the end index in the low 32 bits
+     */
+    private static long trimmedRange(CharSequence string, int length) {
+        int start = 0;
+        int end = string.length();
+        if (length <= end && length >= -end) {
+            while (start < end && string.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && string.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (length < 0) {
+                start = Math.max(start, end + length);
+            } else {
+                end = Math.min(end, start + length);
+            }
+        }
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * Appends the filler character the given amount of times
+     *
+     * @param builder The builder receiving the filler
+     * @param filler  The character to repeat
+     * @param count   The amount of repetitions, nothing is appended if it isn't positive
+     * @return The provided builder
+     */
+    static StringBuilder fill(StringBuilder builder, char filler, int count) {
+        String padding = padding(filler);
+        if (padding == null) {
+            for (int i = 0; i < count; i++) {
+                builder.append(filler);
+            }
+            return builder;
+        }
+        for (; count > 0; count -= PADDING_LENGTH) {
+            builder.append(padding, 0, Math.min(count, PADDING_LENGTH));
+        }
+        return builder;
+    }
+
+    /**
+     * Appends the filler character the given amount of times
+     *
+     * @param out    The appendable receiving the filler
+     * @param filler The character to repeat
+     * @param count  The amount of repetitions, nothing is appended if it isn't positive
+     * @return The provided appendable
+     * @throws IOException if the appendable fails to append
+     */
+    private static <A extends Appendable> A fill(A out, char filler, int count) throws IOException {
+        String padding = padding(filler);
+        if (padding == null) {
+            for (int i = 0; i < count; i++) {
+                out.append(filler);
+            }
+            return out;
+        }
+        for (; count > 0; count -= PADDING_LENGTH) {
+            out.append(padding, 0, Math.min(count, PADDING_LENGTH));
+        }
+        return out;
+    }
+
+    /**
+     * Returns the cached padding string for the filler, creating it on first use. Concurrent callers might create the
+     * same string twice, which is harmless as both are equal
+     *
+     * @param filler The character to repeat
+     * @return The padding string, or null if the filler is not a Latin-1 character
+     */
+    private static String padding(char filler) {
+        if (filler >= PADDING.length) {
+            return null;
+        }
+        String padding = PADDING[filler];
+        if (padding == null) {
+            padding = String.valueOf(filler).repeat(PADDING_LENGTH);
+            PADDING[filler] = padding;
         }
+        return padding;
     }
 }
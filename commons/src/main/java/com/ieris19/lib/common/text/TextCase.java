@@ -0,0 +1,363 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Enum of the supported letter case conventions. Each convention converts text on a per-code-point basis, so
+ * characters outside the Basic Multilingual Plane are never split. Text made only of ASCII characters takes a faster
+ * path that works directly on bytes, which can also be used on its own through
+ * {@link #apply(byte[], int, int, byte[], int)}. <br><br>
+ *
+ * {@link #TITLE} keeps the text as is, only changing the case of its letters. The rest of the conventions split the
+ * text into words and join them again. A word ends at any character that is neither a letter nor a digit, when a
+ * lowercase letter or digit is followed by an uppercase letter ({@code fileName}), and at the end of a run of uppercase
+ * letters followed by a lowercase letter ({@code HTTPServer}).
+ */
+public enum TextCase {
+	/**
+	 * The first letter of every word is capitalized and the rest are lowercase, e.g. {@code This Is A Title}. Words are
+	 * separated by whitespace, and every character is kept
+	 */
+	TITLE('\0'),
+	/**
+	 * Words are joined together, the first one lowercase and the rest capitalized, e.g. {@code camelCase}
+	 */
+	CAMEL('\0'),
+	/**
+	 * Words are joined together and capitalized, e.g. {@code PascalCase}
+	 */
+	PASCAL('\0'),
+	/**
+	 * Words are lowercase and joined by underscores, e.g. {@code snake_case}
+	 */
+	SNAKE('_'),
+	/**
+	 * Words are lowercase and joined by hyphens, e.g. {@code kebab-case}
+	 */
+	KEBAB('-');
+
+	/**
+	 * Character classes used to find word boundaries. Every class above {@code SPACE} is part of a word
+	 */
+	private static final byte OTHER = 0, SPACE = 1, LOWER = 2, UPPER = 3, DIGIT = 4;
+	/**
+	 * The character class of every ASCII character, looked up instead of branching on character ranges
+	 */
+	private static final byte[] ASCII_CLASSES = new byte[0x80];
+
+	static {
+		for (int c = 0; c < ASCII_CLASSES.length; c++) {
+			if (c >= 'a' && c <= 'z')
+				ASCII_CLASSES[c] = LOWER;
+			else if (c >= 'A' && c <= 'Z')
+				ASCII_CLASSES[c] = UPPER;
+			else if (c >= '0' && c <= '9')
+				ASCII_CLASSES[c] = DIGIT;
+			else if (Character.isWhitespace(c))
+				ASCII_CLASSES[c] = SPACE;
+			else
+				ASCII_CLASSES[c] = OTHER;
+		}
+	}
+
+	/**
+	 * The character placed between words, or {@code '\0'} if words are joined directly
+	 */
+	private final char separator;
+
+	/**
+	 * Creates a case convention
+	 *
+	 * @param separator the character placed between words, or {@code '\0'} if words are joined directly
+	 */
+	TextCase(char separator) {
+		this.separator = separator;
+	}
+
+	/**
+	 * Converts the text to this case convention
+	 *
+	 * @param text the text to convert
+	 *
+	 * @return the converted text
+	 */
+	public String apply(CharSequence text) {
+		int length = text.length();
+		if (length == 0)
+			return "";
+		if (isAscii(text)) {
+			byte[] source = text.toString().getBytes(StandardCharsets.ISO_8859_1);
+			byte[] target = new byte[maxLength(length)];
+			int written = apply(source, 0, length, target, 0);
+			return new String(target, 0, written, StandardCharsets.ISO_8859_1);
+		}
+		return apply(text, new StringBuilder(length)).toString();
+	}
+
+	/**
+	 * Appends the text converted to this case convention to the builder
+	 *
+	 * @param text    the text to convert
+	 * @param builder the builder receiving the converted text
+	 *
+	 * @return the provided builder
+	 */
+	public StringBuilder apply(CharSequence text, StringBuilder builder) {
+		try {
+			apply(text, (Appendable) builder);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return builder;
+	}
+
+	/**
+	 * Appends the text converted to this case convention to the appendable
+	 *
+	 * @param text the text to convert
+	 * @param out  the appendable receiving the converted text
+	 *
+	 * @return the provided appendable
+	 *
+	 * @throws IOException if the appendable fails to append
+	 */
+	public <A extends Appendable> A apply(CharSequence text, A out) throws IOException {
+		int length = text.length();
+		if (this == TITLE) {
+			boolean wordStart = true;
+			for (int i = 0; i < length; ) {
+				char c = text.charAt(i);
+				if (c < 0x80) {
+					out.append((char) (wordStart ? toUpperAscii(c) : toLowerAscii(c)));
+					wordStart = ASCII_CLASSES[c] == SPACE;
+					i++;
+					continue;
+				}
+				int codePoint = Character.codePointAt(text, i);
+				appendCodePoint(out, wordStart ? Character.toTitleCase(codePoint) : Character.toLowerCase(codePoint));
+				wordStart = Character.isWhitespace(codePoint);
+				i += Character.charCount(codePoint);
+			}
+			return out;
+		}
+		int words = 0;
+		int previous = OTHER;
+		int codePoint = length > 0 ? Character.codePointAt(text, 0) : 0;
+		int current = classify(codePoint);
+		for (int i = 0; i < length; ) {
+			i += Character.charCount(codePoint);
+			int nextCodePoint = i < length ? Character.codePointAt(text, i) : 0;
+			int next = i < length ? classify(nextCodePoint) : OTHER;
+			if (current > SPACE) {
+				if (isBoundary(previous, current, next)) {
+					if (words++ > 0 && separator != '\0')
+						out.append(separator);
+					appendCodePoint(out, capitalizes(words) ?
+					                     Character.toTitleCase(codePoint) : Character.toLowerCase(codePoint));
+				} else {
+					appendCodePoint(out, Character.toLowerCase(codePoint));
+				}
+			}
+			previous = current;
+			current = next;
+			codePoint = nextCodePoint;
+		}
+		return out;
+	}
+
+	/**
+	 * Converts ASCII text stored in a byte array into this case convention. This method is the fast path used for ASCII
+	 * strings, and it can be used directly on buffers of ASCII text. The target array must be able to hold
+	 * {@link #maxLength(int)} bytes from the target offset.
+	 *
+	 * @param source       the bytes of the text to convert
+	 * @param offset       the index of the first byte to convert
+	 * @param length       the amount of bytes to convert
+	 * @param target       the array receiving the converted text, it can be the source array for {@link #TITLE}
+	 * @param targetOffset the index where the converted text will be written
+	 *
+	 * @return the amount of bytes written
+	 *
+	 * @throws IllegalArgumentException  if the source contains bytes outside the ASCII range
+	 * @throws IndexOutOfBoundsException if the arrays are too small
+	 */
+	public int apply(byte[] source, int offset, int length, byte[] target, int targetOffset)
+	throws IllegalArgumentException, IndexOutOfBoundsException {
+		int end = offset + length;
+		int t = targetOffset;
+		if (this == TITLE) {
+			boolean wordStart = true;
+			for (int i = offset; i < end; i++) {
+				int b = ascii(source[i]);
+				target[t++] = (byte) (wordStart ? toUpperAscii(b) : toLowerAscii(b));
+				wordStart = ASCII_CLASSES[b] == SPACE;
+			}
+			return t - targetOffset;
+		}
+		int words = 0;
+		int previous = OTHER;
+		int current = end > offset ? ASCII_CLASSES[ascii(source[offset])] : OTHER;
+		for (int i = offset; i < end; i++) {
+			int b = source[i];
+			int next = i + 1 < end ? ASCII_CLASSES[ascii(source[i + 1])] : OTHER;
+			if (current > SPACE) {
+				if (isBoundary(previous, current, next)) {
+					if (words++ > 0 && separator != '\0')
+						target[t++] = (byte) separator;
+					target[t++] = (byte) (capitalizes(words) ? toUpperAscii(b) : toLowerAscii(b));
+				} else {
+					target[t++] = (byte) toLowerAscii(b);
+				}
+			}
+			previous = current;
+			current = next;
+		}
+		return t - targetOffset;
+	}
+
+	/**
+	 * The maximum length that converting a text of the given length can produce. Conventions with a separator might
+	 * need to insert one between every pair of characters, the rest never produce longer texts
+	 *
+	 * @param length the length of the text to convert
+	 *
+	 * @return the maximum length of the converted text
+	 */
+	public int maxLength(int length) {
+		return separator == '\0' ? length : Math.max(0, 2 * length - 1);
+	}
+
+	/**
+	 * Decides whether the first letter of a word is capitalized
+	 *
+	 * @param words the amount of words so far, including the current one
+	 *
+	 * @return true if the letter that starts the word is capitalized
+	 */
+	private boolean capitalizes(int words) {
+		return this == PASCAL || (this == CAMEL && words > 1);
+	}
+
+	/**
+	 * Decides whether a letter or digit starts a new word
+	 *
+	 * @param previous the class of the previous character
+	 * @param current  the class of the current character
+	 * @param next     the class of the next character
+	 *
+	 * @return true if the current character starts a new word
+	 */
+	private static boolean isBoundary(int previous, int current, int next) {
+		return previous <= SPACE ||
+		       (current == UPPER && (previous == LOWER || previous == DIGIT)) ||
+		       (current == UPPER && previous == UPPER && next == LOWER);
+	}
+
+	/**
+	 * Classifies a code point for word splitting. Letters without case and combining marks are considered lowercase, so
+	 * they never start a word by themselves
+	 *
+	 * @param codePoint the code point to classify
+	 *
+	 * @return the class of the code point
+	 */
+	private static byte classify(int codePoint) {
+		if (codePoint < 0x80)
+			return ASCII_CLASSES[codePoint];
+		if (Character.isUpperCase(codePoint) || Character.isTitleCase(codePoint))
+			return UPPER;
+		if (Character.isDigit(codePoint))
+			return DIGIT;
+		return switch (Character.getType(codePoint)) {
+			case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK -> LOWER;
+			default -> Character.isLetter(codePoint) ? LOWER : OTHER;
+		};
+	}
+
+	/**
+	 * Converts an ASCII letter to uppercase, leaving any other character untouched
+	 *
+	 * @param c the character to convert
+	 *
+	 * @return the uppercase character
+	 */
+	private static int toUpperAscii(int c) {
+		return c - 'a' >= 0 && c - 'a' < 26 ? c & ~0x20 : c;
+	}
+
+	/**
+	 * Converts an ASCII letter to lowercase, leaving any other character untouched
+	 *
+	 * @param c the character to convert
+	 *
+	 * @return the lowercase character
+	 */
+	private static int toLowerAscii(int c) {
+		return c - 'A' >= 0 && c - 'A' < 26 ? c | 0x20 : c;
+	}
+
+	/**
+	 * Validates that a byte is an ASCII character
+	 *
+	 * @param b the byte to validate
+	 *
+	 * @return the byte as a character
+	 *
+	 * @throws IllegalArgumentException if the byte is not ASCII
+	 */
+	private static int ascii(byte b) throws IllegalArgumentException {
+		if (b < 0)
+			throw new IllegalArgumentException("Byte 0x" + Integer.toHexString(b & 0xFF) + " is not an ASCII character");
+		return b;
+	}
+
+	/**
+	 * Checks whether every character of the text is ASCII
+	 *
+	 * @param text the text to check
+	 *
+	 * @return true if the text only contains ASCII characters
+	 */
+	private static boolean isAscii(CharSequence text) {
+		int bits = 0;
+		for (int i = 0; i < text.length(); i++) {
+			bits |= text.charAt(i);
+		}
+		return bits < 0x80;
+	}
+
+	/**
+	 * Appends a code point, which might take two characters
+	 *
+	 * @param out       the appendable receiving the code point
+	 * @param codePoint the code point to append
+	 *
+	 * @throws IOException if the appendable fails to append
+	 */
+	private static void appendCodePoint(Appendable out, int codePoint) throws IOException {
+		if (Character.isBmpCodePoint(codePoint)) {
+			out.append((char) codePoint);
+		} else {
+			out.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+		}
+	}
+}
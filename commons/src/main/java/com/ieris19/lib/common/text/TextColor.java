@@ -17,7 +17,7 @@
 
 package com.ieris19.lib.common.text;
 
-import java.io.PrintStream;
+import java.nio.CharBuffer;
 
 /**
  * Enum containing the ANSI character strings that format the color of the logs to the console
@@ -26,53 +26,73 @@ public enum TextColor {
 	/**
 	 * ANSI code that changes the color back to default
 	 */
-	RESET("\u001B[0m"),
+	RESET(0),
 	/**
 	 * ANSI code that changes the text color to red
 	 */
-	RED("\u001B[31m"),
+	RED(31),
 	/**
 	 * ANSI code that changes text color to green
 	 */
-	GREEN("\u001B[32m"),
+	GREEN(32),
 	/**
 	 * ANSI code that changes text color to yellow
 	 */
-	YELLOW("\u001B[33m"),
+	YELLOW(33),
 	/**
 	 * ANSI code that changes text color to blue
 	 */
-	BLUE("\u001B[34m"),
+	BLUE(34),
 	/**
 	 * ANSI code that changes text color to magenta
 	 */
-	MAGENTA("\u001b[35m"),
+	MAGENTA(35),
 	/**
 	 * ANSI code that changes text color to cyan
 	 */
-	CYAN("\u001b[36m"),
+	CYAN(36),
 	/**
 	 * ANSI code that changes text color to white
 	 */
-	WHITE("\u001b[37m"),
+	WHITE(37),
 	/**
 	 * ANSI code that changes text color to black
 	 */
-	BLACK("\u001b[30m");
+	BLACK(30);
+
+	/**
+	 * The escape character that introduces every ANSI sequence
+	 */
+	static final char ESCAPE = '\u001B';
 
 	/**
 	 * The ANSI code corresponding to the text color {@link Enum#name() name}
 	 */
 	private final String ANSICode;
+	/**
+	 * The Select Graphic Rendition (SGR) parameter of this color, e.g. {@code 31} for red foreground text
+	 */
+	private final int parameter;
 
 	/**
 	 * Constructs a text color object by identifying through a human-readable color {@link Enum#name() name} to the
 	 * corresponding ANSI code that will format text in the desired color
 	 *
-	 * @param code the ANSI code corresponding to the <code>name</code>
+	 * @param parameter the SGR parameter corresponding to the <code>name</code>
+	 */
+	TextColor(int parameter) {
+		this.parameter = parameter;
+		this.ANSICode = ESCAPE + "[" + parameter + 'm';
+	}
+
+	/**
+	 * The Select Graphic Rendition parameter of this color. Foreground colors are in the range {@code 30-37}, and the
+	 * matching background color is obtained by adding {@code 10}
+	 *
+	 * @return the SGR parameter of this color
 	 */
-	TextColor(String code) {
-		this.ANSICode = code;
+	public int parameter() {
+		return parameter;
 	}
 
 	/**
@@ -96,10 +116,144 @@ public enum TextColor {
 	 * @return the colored string
 	 */
 	public static String format(String string, TextColor color) {
-		return color + string + RESET;
+		StringBuilder builder = new StringBuilder(string.length() + color.ANSICode.length() + RESET.ANSICode.length());
+		return format(string, color, builder).toString();
 	}
 
+	/**
+	 * Appends the colored text to the provided builder, without creating any intermediate strings
+	 *
+	 * @param text    Text to be colored
+	 * @param color   Desired Text color
+	 * @param builder the builder receiving the colored text
+	 *
+	 * @return the provided builder
+	 */
+	public static StringBuilder format(CharSequence text, TextColor color, StringBuilder builder) {
+		return builder.append(color.ANSICode).append(text).append(RESET.ANSICode);
+	}
+
+	/**
+	 * Writes the colored text into the provided buffer, without creating any intermediate strings
+	 *
+	 * @param text   Text to be colored
+	 * @param color  Desired Text color
+	 * @param buffer the buffer receiving the colored text
+	 *
+	 * @return the provided buffer
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining
+	 */
+	public static CharBuffer format(CharSequence text, TextColor color, CharBuffer buffer) {
+		buffer.put(color.ANSICode);
+		return put(text, 0, text.length(), buffer).put(RESET.ANSICode);
+	}
+
+	/**
+	 * Removes every ANSI Select Graphic Rendition sequence from the string. This includes the colors in this class as
+	 * well as any other style, such as bold text, 256-color and true color codes. If the string does not contain any
+	 * escape character, it is returned as is.
+	 *
+	 * @param string Text to be cleared
+	 *
+	 * @return the text without any formatting codes
+	 */
 	public static String clear(String string) {
-		return string.replaceAll("\\u001b\\[\\d{1,2}m", "");
+		if (string.indexOf(ESCAPE) < 0)
+			return string;
+		return clear(string, new StringBuilder(string.length())).toString();
+	}
+
+	/**
+	 * Appends the text to the provided builder, skipping every ANSI Select Graphic Rendition sequence in a single pass
+	 *
+	 * @param text    Text to be cleared
+	 * @param builder the builder receiving the cleared text
+	 *
+	 * @return the provided builder
+	 *
+	 * @see #clear(String)
+	 */
+	public static StringBuilder clear(CharSequence text, StringBuilder builder) {
+		int length = text.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			int sequence = sequenceLength(text, i);
+			if (sequence > 0) {
+				builder.append(text, start, i);
+				i += sequence - 1;
+				start = i + 1;
+			}
+		}
+		return builder.append(text, start, length);
+	}
+
+	/**
+	 * Writes the text into the provided buffer, skipping every ANSI Select Graphic Rendition sequence in a single pass
+	 *
+	 * @param text   Text to be cleared
+	 * @param buffer the buffer receiving the cleared text
+	 *
+	 * @return the provided buffer
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining
+	 * @see #clear(String)
+	 */
+	public static CharBuffer clear(CharSequence text, CharBuffer buffer) {
+		int length = text.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			int sequence = sequenceLength(text, i);
+			if (sequence > 0) {
+				put(text, start, i, buffer);
+				i += sequence - 1;
+				start = i + 1;
+			}
+		}
+		return put(text, start, length, buffer);
+	}
+
+	/**
+	 * Copies a range of characters into the buffer. Unlike {@link CharBuffer#append(CharSequence, int, int)}, this does
+	 * not create a sub-sequence of the text
+	 *
+	 * @param text   the characters to copy
+	 * @param start  the index of the first character to copy
+	 * @param end    the index after the last character to copy
+	 * @param buffer the buffer receiving the characters
+	 *
+	 * @return the provided buffer
+	 */
+	static CharBuffer put(CharSequence text, int start, int end, CharBuffer buffer) {
+		if (text instanceof String string)
+			return buffer.put(string, start, end);
+		for (int i = start; i < end; i++) {
+			buffer.put(text.charAt(i));
+		}
+		return buffer;
+	}
+
+	/**
+	 * Measures the Select Graphic Rendition sequence starting at the given index. A sequence is the escape character
+	 * followed by {@code [}, any amount of digits or parameter separators ({@code ;} or {@code :}) and a final
+	 * {@code m}. Other escape sequences are not considered formatting and are left untouched.
+	 *
+	 * @param text  the text being scanned
+	 * @param index the index where the sequence might start
+	 *
+	 * @return the length of the sequence, or 0 if there isn't a sequence at the given index
+	 */
+	static int sequenceLength(CharSequence text, int index) {
+		int length = text.length();
+		if (text.charAt(index) != ESCAPE || index + 2 >= length || text.charAt(index + 1) != '[')
+			return 0;
+		for (int i = index + 2; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == 'm')
+				return i - index + 1;
+			if ((c < '0' || c > '9') && c != ';' && c != ':')
+				return 0;
+		}
+		return 0;
 	}
 }
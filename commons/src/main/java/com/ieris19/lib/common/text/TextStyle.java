@@ -0,0 +1,316 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable combination of ANSI Select Graphic Rendition (SGR) attributes. While {@link TextColor} only covers the
+ * basic 8 colors, a style can combine them with attributes such as bold or underlined text, as well as 256-color and
+ * true color (24-bit) foreground and background colors. <br> The escape sequence of a style is computed once when the
+ * style is created, so formatting text only copies characters into the destination.
+ *
+ * <pre>{@code
+ * TextStyle warning = TextStyle.plain().bold().foreground(255, 165, 0);
+ * String text = warning.format("Careful!");
+ * }</pre>
+ */
+public final class TextStyle {
+	/**
+	 * A style without any attributes
+	 */
+	private static final TextStyle PLAIN = new TextStyle(new int[0]);
+
+	/**
+	 * The SGR parameters of this style, in the order they were added
+	 */
+	private final int[] parameters;
+	/**
+	 * The escape sequence applying all the parameters, or an empty string for a plain style
+	 */
+	private final String code;
+
+	/**
+	 * Creates a style with the given SGR parameters
+	 *
+	 * @param parameters the SGR parameters of the style
+	 */
+	private TextStyle(int[] parameters) {
+		this.parameters = parameters;
+		if (parameters.length == 0) {
+			this.code = "";
+		} else {
+			StringBuilder builder = new StringBuilder(parameters.length * 4 + 2).append(TextColor.ESCAPE).append('[');
+			for (int i = 0; i < parameters.length; i++) {
+				if (i > 0)
+					builder.append(';');
+				builder.append(parameters[i]);
+			}
+			this.code = builder.append('m').toString();
+		}
+	}
+
+	/**
+	 * Returns a style without any attributes, formatting text with it will leave the text untouched
+	 *
+	 * @return a plain style
+	 */
+	public static TextStyle plain() {
+		return PLAIN;
+	}
+
+	/**
+	 * Returns a style that colors the text with the given color
+	 *
+	 * @param color the foreground color
+	 *
+	 * @return a style with the given foreground color
+	 */
+	public static TextStyle of(TextColor color) {
+		return PLAIN.foreground(color);
+	}
+
+	/**
+	 * Returns a copy of this style with the provided SGR parameters appended
+	 *
+	 * @param added the SGR parameters to add
+	 *
+	 * @return a new style with the added parameters
+	 */
+	private TextStyle with(int... added) {
+		int[] combined = Arrays.copyOf(parameters, parameters.length + added.length);
+		System.arraycopy(added, 0, combined, parameters.length, added.length);
+		return new TextStyle(combined);
+	}
+
+	/**
+	 * Returns a copy of this style that also makes text bold
+	 *
+	 * @return a new bold style
+	 */
+	public TextStyle bold() {
+		return with(1);
+	}
+
+	/**
+	 * Returns a copy of this style that also makes text faint
+	 *
+	 * @return a new faint style
+	 */
+	public TextStyle faint() {
+		return with(2);
+	}
+
+	/**
+	 * Returns a copy of this style that also makes text italic
+	 *
+	 * @return a new italic style
+	 */
+	public TextStyle italic() {
+		return with(3);
+	}
+
+	/**
+	 * Returns a copy of this style that also underlines text
+	 *
+	 * @return a new underlined style
+	 */
+	public TextStyle underline() {
+		return with(4);
+	}
+
+	/**
+	 * Returns a copy of this style that also crosses out text
+	 *
+	 * @return a new strikethrough style
+	 */
+	public TextStyle strikethrough() {
+		return with(9);
+	}
+
+	/**
+	 * Returns a copy of this style with the given foreground color. {@link TextColor#RESET} restores the default
+	 * foreground color.
+	 *
+	 * @param color the foreground color
+	 *
+	 * @return a new style with the given foreground color
+	 */
+	public TextStyle foreground(TextColor color) {
+		return with(color == TextColor.RESET ? 39 : color.parameter());
+	}
+
+	/**
+	 * Returns a copy of this style with the given background color. {@link TextColor#RESET} restores the default
+	 * background color.
+	 *
+	 * @param color the background color
+	 *
+	 * @return a new style with the given background color
+	 */
+	public TextStyle background(TextColor color) {
+		return with(color == TextColor.RESET ? 49 : color.parameter() + 10);
+	}
+
+	/**
+	 * Returns a copy of this style with a foreground color from the 256-color palette
+	 *
+	 * @param index the index of the color in the palette
+	 *
+	 * @return a new style with the given foreground color
+	 *
+	 * @throws IllegalArgumentException if the index is not within 0 and 255
+	 */
+	public TextStyle foreground(int index) throws IllegalArgumentException {
+		return with(38, 5, channel(index));
+	}
+
+	/**
+	 * Returns a copy of this style with a background color from the 256-color palette
+	 *
+	 * @param index the index of the color in the palette
+	 *
+	 * @return a new style with the given background color
+	 *
+	 * @throws IllegalArgumentException if the index is not within 0 and 255
+	 */
+	public TextStyle background(int index) throws IllegalArgumentException {
+		return with(48, 5, channel(index));
+	}
+
+	/**
+	 * Returns a copy of this style with a true color (24-bit) foreground color
+	 *
+	 * @param red   the red channel of the color
+	 * @param green the green channel of the color
+	 * @param blue  the blue channel of the color
+	 *
+	 * @return a new style with the given foreground color
+	 *
+	 * @throws IllegalArgumentException if any of the channels is not within 0 and 255
+	 */
+	public TextStyle foreground(int red, int green, int blue) throws IllegalArgumentException {
+		return with(38, 2, channel(red), channel(green), channel(blue));
+	}
+
+	/**
+	 * Returns a copy of this style with a true color (24-bit) background color
+	 *
+	 * @param red   the red channel of the color
+	 * @param green the green channel of the color
+	 * @param blue  the blue channel of the color
+	 *
+	 * @return a new style with the given background color
+	 *
+	 * @throws IllegalArgumentException if any of the channels is not within 0 and 255
+	 */
+	public TextStyle background(int red, int green, int blue) throws IllegalArgumentException {
+		return with(48, 2, channel(red), channel(green), channel(blue));
+	}
+
+	/**
+	 * Validates a palette index or color channel
+	 *
+	 * @param value the value to validate
+	 *
+	 * @return the value itself
+	 *
+	 * @throws IllegalArgumentException if the value is not within 0 and 255
+	 */
+	private static int channel(int value) throws IllegalArgumentException {
+		if (value < 0 || value > 255)
+			throw new IllegalArgumentException("Color values must be between 0 and 255, got " + value);
+		return value;
+	}
+
+	/**
+	 * Formats the text with this style, resetting the formatting afterwards
+	 *
+	 * @param text the text to format
+	 *
+	 * @return the formatted text
+	 */
+	public String format(CharSequence text) {
+		if (code.isEmpty())
+			return text.toString();
+		StringBuilder builder = new StringBuilder(code.length() + text.length() + TextColor.RESET.toString().length());
+		return format(text, builder).toString();
+	}
+
+	/**
+	 * Appends the text formatted with this style to the builder, resetting the formatting afterwards
+	 *
+	 * @param text    the text to format
+	 * @param builder the builder receiving the formatted text
+	 *
+	 * @return the provided builder
+	 */
+	public StringBuilder format(CharSequence text, StringBuilder builder) {
+		if (code.isEmpty())
+			return builder.append(text);
+		return builder.append(code).append(text).append(TextColor.RESET);
+	}
+
+	/**
+	 * Writes the text formatted with this style into the buffer, resetting the formatting afterwards
+	 *
+	 * @param text   the text to format
+	 * @param buffer the buffer receiving the formatted text
+	 *
+	 * @return the provided buffer
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining
+	 */
+	public CharBuffer format(CharSequence text, CharBuffer buffer) {
+		if (code.isEmpty())
+			return TextColor.put(text, 0, text.length(), buffer);
+		buffer.put(code);
+		return TextColor.put(text, 0, text.length(), buffer).put(TextColor.RESET.toString());
+	}
+
+	/**
+	 * Whether this style is equal to another one. Two styles are equal if they apply the same parameters in the same
+	 * order
+	 *
+	 * @param o the object to compare to
+	 *
+	 * @return true if the object is an equivalent style
+	 */
+	@Override public boolean equals(Object o) {
+		return this == o || (o instanceof TextStyle style && Arrays.equals(parameters, style.parameters));
+	}
+
+	/**
+	 * Computes the hash code of the style from its parameters
+	 *
+	 * @return the hash code of the style
+	 */
+	@Override public int hashCode() {
+		return Arrays.hashCode(parameters);
+	}
+
+	/**
+	 * Much like {@link TextColor#toString()}, a style turned string corresponds to its escape sequence
+	 *
+	 * @return the escape sequence of this style, or an empty string for a plain style
+	 */
+	@Override public String toString() {
+		return code;
+	}
+}
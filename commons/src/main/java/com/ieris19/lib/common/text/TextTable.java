@@ -0,0 +1,406 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table of text whose columns are aligned when rendered. Column widths are updated as rows are added, so rendering
+ * doesn't need to measure the rows again, and the rendered text is written into a single buffer whose size is known
+ * before any cell is written. Rendering is therefore linear in the amount of rows, regardless of how many rows there
+ * are. <br> Each cell can optionally be colored with a {@link TextColor}, the color codes do not count towards the width
+ * of the column.
+ *
+ * <pre>{@code
+ * TextTable table = new TextTable("Player", "Score");
+ * table.setAlignment(1, TextTable.Alignment.RIGHT);
+ * table.addRow("Alice", 120);
+ * table.addRow(TextColor.RED, "Bob", 7);
+ * System.out.print(table);
+ * }</pre>
+ */
+public class TextTable {
+	/**
+	 * The alignment of the content of a column
+	 */
+	public enum Alignment {
+		/**
+		 * Content is written at the start of the column, padded on the right
+		 */
+		LEFT,
+		/**
+		 * Content is written at the end of the column, padded on the left
+		 */
+		RIGHT,
+		/**
+		 * Content is written in the middle of the column, padded on both sides
+		 */
+		CENTER
+	}
+
+	/**
+	 * A row of the table
+	 */
+	private static final class Row {
+		/**
+		 * The text of each cell
+		 */
+		private final String[] cells;
+		/**
+		 * The visible length of each cell, measured once when the row is added
+		 */
+		private final int[] visible;
+		/**
+		 * The color of each cell, null if no cell of the row has been colored
+		 */
+		private TextColor[] colors;
+		/**
+		 * The amount of characters in the row that are not displayed, such as color codes
+		 */
+		private int invisible;
+
+		private Row(String[] cells) {
+			this.cells = cells;
+			this.visible = new int[cells.length];
+		}
+	}
+
+	/**
+	 * The amount of characters that the reset code appended after each colored cell takes
+	 */
+	private static final int RESET_LENGTH = TextColor.RESET.toString().length();
+
+	/**
+	 * The amount of columns in this table
+	 */
+	private final int columns;
+	/**
+	 * The rows of this table, including the header if there is one
+	 */
+	private final List<Row> rows;
+	/**
+	 * The widest visible text of each column
+	 */
+	private final int[] widths;
+	/**
+	 * The alignment of each column
+	 */
+	private final Alignment[] alignments;
+	/**
+	 * Whether the first row is a header, which is followed by a horizontal rule
+	 */
+	private final boolean header;
+	/**
+	 * The amount of invisible characters in the whole table
+	 */
+	private long invisible;
+	/**
+	 * The text that separates two adjacent columns
+	 */
+	private String separator;
+
+	/**
+	 * Creates an empty table with the given amount of columns and without a header
+	 *
+	 * @param columns the amount of columns
+	 *
+	 * @throws IllegalArgumentException if there are no columns
+	 */
+	public TextTable(int columns) throws IllegalArgumentException {
+		this(columns, false);
+	}
+
+	/**
+	 * Creates a table with a header row. The table will have as many columns as headers
+	 *
+	 * @param headers the title of each column
+	 *
+	 * @throws IllegalArgumentException if there are no headers
+	 */
+	public TextTable(String... headers) throws IllegalArgumentException {
+		this(headers.length, true);
+		addRow((Object[]) headers);
+	}
+
+	/**
+	 * Creates an empty table
+	 *
+	 * @param columns the amount of columns
+	 * @param header  whether the first row will be a header
+	 *
+	 * @throws IllegalArgumentException if there are no columns
+	 */
+	private TextTable(int columns, boolean header) throws IllegalArgumentException {
+		if (columns < 1)
+			throw new IllegalArgumentException("A table needs at least one column");
+		this.columns = columns;
+		this.header = header;
+		this.rows = new ArrayList<>();
+		this.widths = new int[columns];
+		this.alignments = new Alignment[columns];
+		Arrays.fill(alignments, Alignment.LEFT);
+		this.separator = " | ";
+	}
+
+	/**
+	 * Sets the text that separates two adjacent columns, which is {@code " | "} by default
+	 *
+	 * @param separator the column separator
+	 *
+	 * @return this table
+	 */
+	public TextTable setSeparator(String separator) {
+		this.separator = separator;
+		return this;
+	}
+
+	/**
+	 * Sets the alignment of a column, which is {@link Alignment#LEFT} by default
+	 *
+	 * @param column    the index of the column
+	 * @param alignment the alignment of the column
+	 *
+	 * @return this table
+	 *
+	 * @throws IndexOutOfBoundsException if the column does not exist
+	 */
+	public TextTable setAlignment(int column, Alignment alignment) throws IndexOutOfBoundsException {
+		alignments[column] = alignment;
+		return this;
+	}
+
+	/**
+	 * Adds a row to the table. Cells are converted to text with {@link String#valueOf(Object)}, missing cells are left
+	 * empty
+	 *
+	 * @param cells the content of each cell
+	 *
+	 * @return this table
+	 *
+	 * @throws IllegalArgumentException if there are more cells than columns
+	 */
+	public TextTable addRow(Object... cells) throws IllegalArgumentException {
+		if (cells.length > columns)
+			throw new IllegalArgumentException("The row has " + cells.length + " cells, but the table " + columns);
+		String[] text = new String[columns];
+		Row row = new Row(text);
+		for (int i = 0; i < columns; i++) {
+			text[i] = i < cells.length ? String.valueOf(cells[i]) : "";
+			int visible = visibleLength(text[i]);
+			row.visible[i] = visible;
+			row.invisible += text[i].length() - visible;
+			if (visible > widths[i])
+				widths[i] = visible;
+		}
+		invisible += row.invisible;
+		rows.add(row);
+		return this;
+	}
+
+	/**
+	 * Adds a row to the table where every cell has the same color
+	 *
+	 * @param color the color of the row
+	 * @param cells the content of each cell
+	 *
+	 * @return this table
+	 *
+	 * @throws IllegalArgumentException if there are more cells than columns
+	 * @see #addRow(Object...)
+	 */
+	public TextTable addRow(TextColor color, Object... cells) throws IllegalArgumentException {
+		addRow(cells);
+		int row = rows.size() - 1;
+		for (int i = 0; i < columns; i++) {
+			setColor(row, i, color);
+		}
+		return this;
+	}
+
+	/**
+	 * Colors a single cell of the table
+	 *
+	 * @param row    the index of the row, counting the header if there is one
+	 * @param column the index of the column
+	 * @param color  the color of the cell, null to remove the color
+	 *
+	 * @return this table
+	 *
+	 * @throws IndexOutOfBoundsException if the cell does not exist
+	 */
+	public TextTable setColor(int row, int column, TextColor color) throws IndexOutOfBoundsException {
+		Row target = rows.get(row);
+		if (target.colors == null) {
+			if (color == null)
+				return this;
+			target.colors = new TextColor[columns];
+		}
+		TextColor old = target.colors[column];
+		int difference = colorLength(color) - colorLength(old);
+		target.colors[column] = color;
+		target.invisible += difference;
+		invisible += difference;
+		return this;
+	}
+
+	/**
+	 * The amount of rows in this table, counting the header if there is one
+	 *
+	 * @return the amount of rows
+	 */
+	public int size() {
+		return rows.size();
+	}
+
+	/**
+	 * The upper bound of the length of the rendered table. It's computed from the column widths without looking at the
+	 * rows, and it's exact unless the last column is left aligned
+	 *
+	 * @return the maximum amount of characters that rendering the table will produce
+	 */
+	public int renderedLength() {
+		long line = (long) separator.length() * (columns - 1) + 1;
+		for (int width : widths) {
+			line += width;
+		}
+		long length = line * (rows.size() + (header ? 1 : 0)) + invisible;
+		if (length > Integer.MAX_VALUE - 8)
+			throw new IllegalStateException("The table is too large to be rendered into a single string");
+		return (int) length;
+	}
+
+	/**
+	 * Renders the table into the builder, one row per line
+	 *
+	 * @param builder the builder receiving the table
+	 *
+	 * @return the provided builder
+	 */
+	public StringBuilder render(StringBuilder builder) {
+		builder.ensureCapacity(builder.length() + renderedLength());
+		for (int r = 0; r < rows.size(); r++) {
+			Row row = rows.get(r);
+			for (int c = 0; c < columns; c++) {
+				if (c > 0)
+					builder.append(separator);
+				renderCell(row, c, builder);
+			}
+			builder.append('\n');
+			if (r == 0 && header)
+				StringUtils.fill(builder, '-', renderedLineLength()).append('\n');
+		}
+		return builder;
+	}
+
+	/**
+	 * Renders the table into the appendable, one row per line
+	 *
+	 * @param out the appendable receiving the table
+	 *
+	 * @return the provided appendable
+	 *
+	 * @throws IOException if the appendable fails to append
+	 */
+	public <A extends Appendable> A render(A out) throws IOException {
+		out.append(render(new StringBuilder(renderedLength())));
+		return out;
+	}
+
+	/**
+	 * Writes a single cell, padded and aligned to the width of its column. The padding is computed from the length of
+	 * the cell measured when its row was added, so the cell is not scanned again
+	 *
+	 * @param row     the row containing the cell
+	 * @param column  the index of the column of the cell
+	 * @param builder the builder receiving the cell
+	 */
+	private void renderCell(Row row, int column, StringBuilder builder) {
+		String text = row.cells[column];
+		TextColor color = row.colors == null ? null : row.colors[column];
+		int padding = widths[column] - row.visible[column];
+		int before = switch (alignments[column]) {
+			case LEFT -> 0;
+			case RIGHT -> padding;
+			case CENTER -> padding / 2;
+		};
+		StringUtils.fill(builder, ' ', before);
+		if (color == null)
+			builder.append(text);
+		else
+			TextColor.format(text, color, builder);
+		if (column < columns - 1 || alignments[column] != Alignment.LEFT)
+			StringUtils.fill(builder, ' ', padding - before);
+	}
+
+	/**
+	 * The visible length of a full line, used to draw the rule under the header
+	 *
+	 * @return the length of a line without invisible characters
+	 */
+	private int renderedLineLength() {
+		int line = separator.length() * (columns - 1);
+		for (int width : widths) {
+			line += width;
+		}
+		return line;
+	}
+
+	/**
+	 * The amount of characters of the text that are displayed, ignoring any ANSI formatting it might contain
+	 *
+	 * @param text the text to measure
+	 *
+	 * @return the visible length of the text
+	 */
+	private static int visibleLength(String text) {
+		if (text.indexOf(TextColor.ESCAPE) < 0)
+			return text.length();
+		int visible = 0;
+		for (int i = 0; i < text.length(); i++) {
+			int sequence = TextColor.sequenceLength(text, i);
+			if (sequence > 0)
+				i += sequence - 1;
+			else
+				visible++;
+		}
+		return visible;
+	}
+
+	/**
+	 * The amount of characters that coloring a cell adds
+	 *
+	 * @param color the color of the cell, or null
+	 *
+	 * @return the length of the color code and the reset code, or 0 if there is no color
+	 */
+	private static int colorLength(TextColor color) {
+		return color == null ? 0 : color.toString().length() + RESET_LENGTH;
+	}
+
+	/**
+	 * Renders the table into a string, one row per line
+	 *
+	 * @return the rendered table
+	 */
+	@Override public String toString() {
+		return render(new StringBuilder(renderedLength())).toString();
+	}
+}
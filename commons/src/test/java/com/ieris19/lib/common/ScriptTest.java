@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Script Composition Test")
+class ScriptTest {
+	private ExecutorService executor;
+
+	@BeforeEach void setUp() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test @DisplayName ("Sequential scripts") void sequence() {
+		List<String> calls = new CopyOnWriteArrayList<>();
+		Script first = args -> calls.add("first " + args[0]);
+		Script second = args -> calls.add("second " + args[0]);
+		Script.sequence(first, second).andThen(first).execute("x");
+		assertEquals(List.of("first x", "second x", "first x"), calls);
+	}
+
+	@Test @DisplayName ("Sequence stops on failure") void sequenceFailure() {
+		List<String> calls = new CopyOnWriteArrayList<>();
+		Script failing = args -> {
+			throw new IllegalArgumentException("fail");
+		};
+		Script script = failing.andThen(args -> calls.add("never"));
+		assertThrows(IllegalArgumentException.class, script::execute);
+		assertTrue(calls.isEmpty());
+	}
+
+	@Test @DisplayName ("Parallel scripts run concurrently") void parallel() {
+		CountDownLatch latch = new CountDownLatch(3);
+		Script waiting = args -> {
+			latch.countDown();
+			try {
+				assertTrue(latch.await(5, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+		assertDoesNotThrow(() -> Script.parallel(executor, waiting, waiting, waiting).execute());
+	}
+
+	@Test @DisplayName ("Parallel failures are collected") void parallelFailure() {
+		Script ok = args -> {};
+		Script first = args -> {
+			throw new IllegalStateException("first");
+		};
+		Script second = args -> {
+			throw new IllegalArgumentException("second");
+		};
+		RuntimeException thrown = assertThrows(RuntimeException.class,
+		                                       () -> Script.parallel(executor, ok, first, second).execute());
+		assertEquals(1, thrown.getSuppressed().length);
+	}
+
+	@Test @DisplayName ("Parallel scripts finish when the first fails with an error") void parallelError() {
+		AtomicBoolean finished = new AtomicBoolean();
+		Script failing = args -> {
+			throw new AssertionError("first");
+		};
+		Script slow = args -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			finished.set(true);
+		};
+		assertThrows(AssertionError.class, () -> Script.parallel(executor, failing, slow).execute());
+		assertTrue(finished.get());
+	}
+
+	@Test @DisplayName ("Timeout exceeded") void timeout() {
+		Script slow = args -> {
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException ignored) {
+			}
+		};
+		Script limited = slow.withTimeout(Duration.ofMillis(50), executor);
+		assertThrows(ScriptTimeoutException.class, limited::execute);
+	}
+
+	@Test @DisplayName ("Timeout not exceeded") void timeoutFast() {
+		Script failing = args -> {
+			throw new IllegalArgumentException(args[0]);
+		};
+		assertDoesNotThrow(() -> ((Script) args -> {}).withTimeout(Duration.ofSeconds(5), executor).execute());
+		IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+		                                               () -> failing.withTimeout(Duration.ofSeconds(5), executor)
+		                                                            .execute("reason"));
+		assertEquals("reason", thrown.getMessage());
+	}
+
+	@Test @DisplayName ("Asynchronous execution") void async() throws Exception {
+		CompletableFuture<Void> future = ((Script) args -> {}).executeAsync(executor);
+		assertNull(future.get(5, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A manual benchmark comparing the builder based {@link StringUtils} operations with the string based implementations
+ * they replaced. It is meant to be run from the IDE, the numbers are only indicative
+ */
+public class StringUtilsBenchmark {
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 2_000_000;
+	/**
+	 * Accumulates results so that the JIT compiler cannot discard the benchmarked code
+	 */
+	private static long sink;
+
+	public static void main(String[] args) {
+		List<Object> animals = new ArrayList<>(List.of("Cat", "Dog", "Bird", "Fish", "Mouse", "Horse", "Cow", "Owl"));
+		StringBuilder builder = new StringBuilder(256);
+
+		run("listOut(List)    legacy ", () -> legacyListOut(", ", " and ", animals).length());
+		run("listOut(List)    builder", () -> {
+			builder.setLength(0);
+			return StringUtils.listOut(", ", " and ", animals, builder).length();
+		});
+		run("padLeft          legacy ", () -> legacyPadLeft("cat", 32, ' ').length());
+		run("padLeft          current", () -> StringUtils.padLeft("cat", 32, ' ').length());
+		run("padLeft          builder", () -> {
+			builder.setLength(0);
+			return StringUtils.padLeft("cat", 32, ' ', builder).length();
+		});
+		run("fixedLength      legacy ", () -> legacyFixedLength("  a rather long cell  ", 8, '.', true).length());
+		run("fixedLength      current", () -> StringUtils.fixedLength("  a rather long cell  ", 8, '.', true).length());
+		run("fixedLength      builder", () -> {
+			builder.setLength(0);
+			return StringUtils.fixedLength("  a rather long cell  ", 8, '.', true, builder).length();
+		});
+		System.out.println(sink);
+	}
+
+	private static void run(String name, Operation operation) {
+		for (int i = 0; i < WARMUP; i++) {
+			sink += operation.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += operation.run();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%s: %6.1f ns/op%n", name, (double) elapsed / ITERATIONS);
+	}
+
+	@FunctionalInterface
+	private interface Operation {
+		int run();
+	}
+
+	//------------------------------------------------------------------------------------------------------------------
+	// LEGACY IMPLEMENTATIONS
+	//------------------------------------------------------------------------------------------------------------------
+
+	private static String legacyListOut(String separator, String finalizer, List<?> objects) {
+		Object[] listArray = objects.toArray(new Object[0]);
+		Arrays.stream(listArray).forEach(o -> o = o.toString());
+		String[] varargs = Arrays.copyOf(listArray, listArray.length, String[].class);
+		return StringUtils.listOut(separator, finalizer, varargs);
+	}
+
+	private static String legacyTrim(String string, int length) {
+		if (length > string.length() || length < string.length() * -1)
+			return string;
+		if (length < 0) {
+			String trimmed = string.trim();
+			return trimmed.substring(trimmed.length() + length);
+		}
+		return string.trim().substring(0, length);
+	}
+
+	private static String legacyPadRight(String string, int length, char filler) {
+		return string + String.valueOf(filler).repeat(Math.max(0, length - string.length()));
+	}
+
+	private static String legacyPadLeft(String string, int length, char filler) {
+		return String.valueOf(filler).repeat(Math.max(0, length - string.length())) + string;
+	}
+
+	private static String legacyFixedLength(String str, int desiredLength, char filler, boolean reversed) {
+		if (reversed) {
+			return legacyPadLeft(legacyTrim(str, -1 * desiredLength), desiredLength, filler);
+		} else {
+			return legacyPadRight(legacyTrim(str, desiredLength), desiredLength, filler);
+		}
+	}
+}
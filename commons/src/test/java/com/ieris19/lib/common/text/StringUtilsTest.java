@@ -19,8 +19,11 @@ package com.ieris19.lib.common.text;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -35,6 +38,17 @@ class StringUtilsTest {
         assertEquals(expected, StringUtils.titleCase(test));
     }
 
+    @Test
+    void titleCaseEmpty() {
+        assertEquals("", StringUtils.titleCase(""));
+    }
+
+    @Test
+    void titleCaseBuilder() {
+        StringBuilder builder = new StringBuilder("> ");
+        assertEquals("> Hello World", StringUtils.titleCase("hELLO wORLD", builder).toString());
+    }
+
     //------------------------------------------------------------------------------------------------------------------
     // CONCATENATION
     //------------------------------------------------------------------------------------------------------------------
@@ -86,6 +100,32 @@ class StringUtilsTest {
         assertEquals(expected, StringUtils.listOut(", ", " and ", list));
     }
 
+    @Test
+    void listOutNonStrings() {
+        List<Integer> list = List.of(1, 2, 3);
+        assertEquals("1, 2 or 3", StringUtils.listOut(", ", " or ", list));
+    }
+
+    @Test
+    void listOutIterable() {
+        StringBuilder builder = new StringBuilder();
+        assertEquals("Cat", StringUtils.listOut(", ", " and ", Set.of("Cat"), builder).toString());
+    }
+
+    @Test
+    void enumerateBuilder() {
+        StringBuilder builder = new StringBuilder("Pets: ");
+        StringUtils.enumerate(new String[]{"Cat", "Dog", "Bird"}, builder);
+        assertEquals("Pets: Cat, Dog and Bird", builder.toString());
+    }
+
+    @Test
+    void concatenateAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+        StringUtils.concatenate("-", new String[]{"a", "b", "c"}, writer);
+        assertEquals("a-b-c", writer.toString());
+    }
+
     //------------------------------------------------------------------------------------------------------------------
     // LENGTH
     //------------------------------------------------------------------------------------------------------------------
@@ -115,6 +155,18 @@ class StringUtilsTest {
         assertEquals("cat", StringUtils.trim(provided, -50));
     }
 
+    @Test
+    void trimBuilder() {
+        String provided = "   supercalifragilisticexpialidocious   ";
+        assertEquals("super", StringUtils.trim(provided, 5, new StringBuilder()).toString());
+    }
+
+    @Test
+    void trimBeyondWhitespace() {
+        assertEquals("ab", StringUtils.trim("  ab  ", 5));
+        assertEquals("ab", StringUtils.trim("  ab  ", -5));
+    }
+
     @Test
     void padRightSpace() {
         String expected = "cat       ";
@@ -158,4 +210,20 @@ class StringUtilsTest {
         String expected = "cat";
         assertEquals(expected, StringUtils.fixedLength("cat, mouse and dog", 3, ' ', false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void fixedLengthBuilder() {
+        StringBuilder builder = new StringBuilder();
+        StringUtils.fixedLength("cat", 5, '.', false, builder).append('|');
+        StringUtils.fixedLength("a mouse", 5, '.', true, builder);
+        assertEquals("cat..|mouse", builder.toString());
+    }
+
+    @Test
+    void padAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+        StringUtils.padLeft("7", 3, '0', writer);
+        StringUtils.padRight("1", 3, '0', writer);
+        assertEquals("007100", writer.toString());
+    }
+}
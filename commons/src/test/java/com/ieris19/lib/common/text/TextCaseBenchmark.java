@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+/**
+ * A manual benchmark of {@link TextCase} on long inputs, comparing the ASCII fast path and the Unicode path with the
+ * previous implementation of {@link StringUtils#titleCase(String)}. It is meant to be run from the IDE, the numbers are
+ * only indicative
+ */
+public class TextCaseBenchmark {
+	private static final int LENGTH = 1 << 20;
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 100;
+	/**
+	 * Accumulates results so that the JIT compiler cannot discard the benchmarked code
+	 */
+	private static long sink;
+
+	public static void main(String[] args) {
+		String ascii = repeat("the quickBrown FOX jumps_over the-lazy dog ");
+		String unicode = repeat("\u00E9l ni\u00F1o \u00C4rger \uD801\uDC28x gro\u00DFe Stra\u00DFe ");
+
+		run("legacy titleCase  ascii  ", () -> legacyTitleCase(ascii).length());
+		run("TITLE             ascii  ", () -> TextCase.TITLE.apply(ascii).length());
+		run("legacy titleCase  unicode", () -> legacyTitleCase(unicode).length());
+		run("TITLE             unicode", () -> TextCase.TITLE.apply(unicode).length());
+		run("SNAKE             ascii  ", () -> TextCase.SNAKE.apply(ascii).length());
+		run("SNAKE             unicode", () -> TextCase.SNAKE.apply(unicode).length());
+		run("CAMEL             ascii  ", () -> TextCase.CAMEL.apply(ascii).length());
+		System.out.println(sink);
+	}
+
+	private static String repeat(String sample) {
+		return sample.repeat(LENGTH / sample.length() + 1).substring(0, LENGTH);
+	}
+
+	private static void run(String name, Operation operation) {
+		for (int i = 0; i < WARMUP; i++) {
+			sink += operation.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += operation.run();
+		}
+		double elapsed = (System.nanoTime() - start) / (double) ITERATIONS;
+		System.out.printf("%s: %6.2f ms/op, %5.2f ns/char%n", name, elapsed / 1e6, elapsed / LENGTH);
+	}
+
+	@FunctionalInterface
+	private interface Operation {
+		int run();
+	}
+
+	private static String legacyTitleCase(String str) {
+		char[] string = str.toCharArray();
+		string[0] = Character.toUpperCase(string[0]);
+		for (int i = 1; i < string.length; i++) {
+			if (Character.isWhitespace(string[i - 1])) {
+				string[i] = Character.toUpperCase(string[i]);
+			} else {
+				string[i] = Character.toLowerCase(string[i]);
+			}
+		}
+		return new String(string);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextCaseTest {
+    @Test
+    void title() {
+        assertEquals("This Is  A\tTest", TextCase.TITLE.apply("thIs is  a\ttEST"));
+    }
+
+    @Test
+    void titleUnicode() {
+        assertEquals("\u00C9l \u00D1and\u00FA", TextCase.TITLE.apply("\u00E9L \u00F1AND\u00DA"));
+    }
+
+    @Test
+    void titleSurrogatePairs() {
+        // U+10428 DESERET SMALL LETTER LONG I, uppercase U+10400
+        assertEquals("\uD801\uDC00\uD801\uDC28 \uD801\uDC00", TextCase.TITLE.apply("\uD801\uDC28\uD801\uDC00 \uD801\uDC28"));
+    }
+
+    @Test
+    void empty() {
+        for (TextCase textCase : TextCase.values()) {
+            assertEquals("", textCase.apply(""));
+        }
+    }
+
+    @Test
+    void snake() {
+        assertEquals("http_server_config_v2", TextCase.SNAKE.apply("HTTPServerConfig v2"));
+        assertEquals("file_name", TextCase.SNAKE.apply("fileName"));
+        assertEquals("already_snake", TextCase.SNAKE.apply("__already__snake__"));
+    }
+
+    @Test
+    void kebab() {
+        assertEquals("my-property-name", TextCase.KEBAB.apply("My property_Name"));
+    }
+
+    @Test
+    void camel() {
+        assertEquals("httpServerConfig", TextCase.CAMEL.apply("HTTP_SERVER-config"));
+        assertEquals("version2Beta", TextCase.CAMEL.apply("version 2 beta"));
+    }
+
+    @Test
+    void pascal() {
+        assertEquals("ThisIsPascal", TextCase.PASCAL.apply("this-is-pascal"));
+    }
+
+    @Test
+    void unicodeWords() {
+        assertEquals("gr\u00F6\u00DFe_\u00E4ndern", TextCase.SNAKE.apply("Gr\u00F6\u00DFe\u00C4ndern"));
+        assertEquals("cafe\u0301Noir", TextCase.CAMEL.apply("cafe\u0301 noir"));
+    }
+
+    @Test
+    void asciiMatchesUnicodePath() {
+        String text = "Some mixedCASE Text_with-XMLHttpRequest and 42 numbers9Here";
+        for (TextCase textCase : TextCase.values()) {
+            assertEquals(textCase.apply(text, new StringBuilder()).toString(), textCase.apply(text));
+        }
+    }
+
+    @Test
+    void bytes() {
+        byte[] source = "loadAssetFile".getBytes(StandardCharsets.US_ASCII);
+        byte[] target = new byte[TextCase.KEBAB.maxLength(source.length)];
+        int written = TextCase.KEBAB.apply(source, 0, source.length, target, 0);
+        assertEquals("load-asset-file", new String(target, 0, written, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void bytesNotAscii() {
+        byte[] source = "\u00F1".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class,
+                     () -> TextCase.SNAKE.apply(source, 0, source.length, new byte[8], 0));
+    }
+}
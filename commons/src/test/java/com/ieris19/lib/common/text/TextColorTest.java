@@ -18,8 +18,12 @@
 package com.ieris19.lib.common.text;import com.ieris19.lib.common.text.TextColor;
 import org.junit.jupiter.api.Test;
 
+import java.nio.CharBuffer;
 import java.util.Arrays;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 public class TextColorTest {
     @Test
     public void testFormatter() {
@@ -37,4 +41,49 @@ public class TextColorTest {
         String expected = "\u001B[32m\u001B[31mtest\u001B[0m\u001B[0m";
         assert result.equals(expected);
     }
+
+    @Test
+    public void testFormatterBuilder() {
+        StringBuilder builder = new StringBuilder("> ");
+        TextColor.format("test", TextColor.RED, builder);
+        assertEquals("> \u001B[31mtest\u001B[0m", builder.toString());
+    }
+
+    @Test
+    public void testFormatterBuffer() {
+        CharBuffer buffer = CharBuffer.allocate(16);
+        TextColor.format("test", TextColor.RED, buffer);
+        assertEquals("\u001B[31mtest\u001B[0m", buffer.flip().toString());
+    }
+
+    @Test
+    public void testClear() {
+        String colored = TextColor.format(TextColor.format("test", TextColor.RED), TextColor.GREEN);
+        assertEquals("test", TextColor.clear(colored));
+    }
+
+    @Test
+    public void testClearUnformatted() {
+        String test = "test";
+        assertSame(test, TextColor.clear(test));
+    }
+
+    @Test
+    public void testClearExtendedSequences() {
+        String test = "\u001B[1;38;5;208mbold\u001B[m and \u001B[48;2;10;20;30mtrue color\u001B[0m";
+        assertEquals("bold and true color", TextColor.clear(test));
+    }
+
+    @Test
+    public void testClearKeepsOtherSequences() {
+        String test = "\u001B[2Jscreen\u001B[31m";
+        assertEquals("\u001B[2Jscreen", TextColor.clear(test));
+    }
+
+    @Test
+    public void testClearBuffer() {
+        CharBuffer buffer = CharBuffer.allocate(8);
+        TextColor.clear(TextColor.format("test", TextColor.BLUE), buffer);
+        assertEquals("test", buffer.flip().toString());
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextStyleTest {
+    @Test
+    void plain() {
+        assertEquals("test", TextStyle.plain().format("test"));
+    }
+
+    @Test
+    void sameAsTextColor() {
+        assertEquals(TextColor.format("test", TextColor.RED), TextStyle.of(TextColor.RED).format("test"));
+    }
+
+    @Test
+    void combinedAttributes() {
+        TextStyle style = TextStyle.of(TextColor.GREEN).bold().underline();
+        assertEquals("\u001B[32;1;4mtest\u001B[0m", style.format("test"));
+    }
+
+    @Test
+    void background() {
+        assertEquals("\u001B[44m", TextStyle.plain().background(TextColor.BLUE).toString());
+    }
+
+    @Test
+    void palette() {
+        assertEquals("\u001B[38;5;208;48;5;16m", TextStyle.plain().foreground(208).background(16).toString());
+    }
+
+    @Test
+    void trueColor() {
+        assertEquals("\u001B[38;2;255;165;0m", TextStyle.plain().foreground(255, 165, 0).toString());
+    }
+
+    @Test
+    void invalidChannel() {
+        assertThrows(IllegalArgumentException.class, () -> TextStyle.plain().foreground(256));
+        assertThrows(IllegalArgumentException.class, () -> TextStyle.plain().background(0, -1, 0));
+    }
+
+    @Test
+    void buffer() {
+        CharBuffer buffer = CharBuffer.allocate(32);
+        TextStyle.plain().bold().format("test", buffer);
+        assertEquals("\u001B[1mtest\u001B[0m", buffer.flip().toString());
+    }
+
+    @Test
+    void clearable() {
+        TextStyle style = TextStyle.plain().italic().foreground(10, 20, 30).background(100);
+        assertEquals("test", TextColor.clear(style.format("test")));
+    }
+
+    @Test
+    void equality() {
+        assertEquals(TextStyle.plain().bold(), TextStyle.plain().bold());
+        assertNotEquals(TextStyle.plain().bold(), TextStyle.plain().italic());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.common.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextTableTest {
+    @Test
+    void alignedColumns() {
+        TextTable table = new TextTable(2);
+        table.addRow("Cat", 1);
+        table.addRow("Horse", 200);
+        assertEquals("Cat   | 1\nHorse | 200\n", table.toString());
+    }
+
+    @Test
+    void header() {
+        TextTable table = new TextTable("Player", "Score");
+        table.setAlignment(1, TextTable.Alignment.RIGHT);
+        table.addRow("Alice", 120);
+        String expected = """
+                Player | Score
+                --------------
+                Alice  |   120
+                """;
+        assertEquals(expected, table.toString());
+    }
+
+    @Test
+    void center() {
+        TextTable table = new TextTable(1).setAlignment(0, TextTable.Alignment.CENTER);
+        table.addRow("abcde");
+        table.addRow("a");
+        assertEquals("abcde\n  a  \n", table.toString());
+    }
+
+    @Test
+    void missingCells() {
+        TextTable table = new TextTable(3).setSeparator(",");
+        table.addRow("a", "b", "c");
+        table.addRow("a");
+        assertEquals("a,b,c\na, ,\n", table.toString());
+    }
+
+    @Test
+    void tooManyCells() {
+        assertThrows(IllegalArgumentException.class, () -> new TextTable(1).addRow("a", "b"));
+    }
+
+    @Test
+    void coloredCells() {
+        TextTable table = new TextTable(2);
+        table.addRow(TextColor.RED, "Bob", 7);
+        table.addRow("Alice", 120);
+        table.setColor(1, 1, TextColor.GREEN);
+        String expected = TextColor.format("Bob", TextColor.RED) + "   | " + TextColor.format("7", TextColor.RED) +
+                          "\nAlice | " + TextColor.format("120", TextColor.GREEN) + "\n";
+        assertEquals(expected, table.toString());
+        assertEquals("Bob   | 7\nAlice | 120\n", TextColor.clear(table.toString()));
+    }
+
+    @Test
+    void preformattedCells() {
+        TextTable table = new TextTable(2);
+        table.addRow(TextColor.format("Bob", TextColor.RED), "x");
+        table.addRow("Alice", "y");
+        assertEquals("Bob   | x\nAlice | y\n", TextColor.clear(table.toString()));
+    }
+
+    @Test
+    void renderedLengthIsExact() {
+        TextTable table = new TextTable("Name", "Value").setAlignment(1, TextTable.Alignment.RIGHT);
+        for (int i = 0; i < 1000; i++) {
+            table.addRow(TextColor.BLUE, "row" + i, i * i);
+        }
+        assertEquals(table.renderedLength(), table.toString().length());
+    }
+
+    @Test
+    void appendable() throws IOException {
+        TextTable table = new TextTable(1);
+        table.addRow("a");
+        assertEquals("a\n", table.render(new StringWriter()).toString());
+    }
+}
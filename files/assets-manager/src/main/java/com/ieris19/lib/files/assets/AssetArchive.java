@@ -0,0 +1,332 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A single file packing the assets of a category, built by {@link AssetArchiveBuilder}. The archive starts with an
+ * index of the name, position and length of every asset, followed by their content, each one either stored as is or
+ * compressed with deflate. <br><br>
+ *
+ * Opening an archive maps the whole file into memory and reads its index into a hash table, so finding an asset takes
+ * constant time and reading it opens no file. Assets that are stored as is are served as slices of the mapping without
+ * copying them, compressed assets are inflated every time they're read. <br><br>
+ *
+ * The file starts with the magic number {@code IAPK}, the format version and the amount of assets. Every asset in the
+ * index has the length and UTF-8 bytes of its name, the position of its content relative to the end of the index, the
+ * length of its stored content, its length once inflated and the method it's stored with. Numbers are big-endian.
+ */
+public final class AssetArchive {
+	/**
+	 * The extension of archive files
+	 */
+	public static final String EXTENSION = ".pack";
+	/**
+	 * The first bytes of every archive, {@code IAPK}
+	 */
+	static final int MAGIC = 0x4941504B;
+	/**
+	 * The version of the archive format
+	 */
+	static final int VERSION = 1;
+	/**
+	 * The method of assets stored as is
+	 */
+	static final byte STORED = 0;
+	/**
+	 * The method of assets compressed with deflate
+	 */
+	static final byte DEFLATED = 1;
+
+	/**
+	 * The archive file
+	 */
+	private final Path file;
+	/**
+	 * The content of the assets, mapped from the archive
+	 */
+	private final MappedByteBuffer data;
+	/**
+	 * The index of the assets by name, in the order they were packed
+	 */
+	private final Map<String, Entry> entries;
+
+	/**
+	 * Creates an archive from its mapped content and index
+	 *
+	 * @param file    the archive file
+	 * @param data    the content of the assets
+	 * @param entries the index of the assets
+	 */
+	private AssetArchive(Path file, MappedByteBuffer data, Map<String, Entry> entries) {
+		this.file = file;
+		this.data = data;
+		this.entries = entries;
+	}
+
+	/**
+	 * Opens an archive, mapping it into memory and reading its index
+	 *
+	 * @param file the archive file
+	 *
+	 * @return the opened archive
+	 *
+	 * @throws IllegalArgumentException if the file is not a valid archive or is larger than 2 GiB
+	 * @throws IOException              if an I/O error occurs
+	 */
+	public static AssetArchive open(Path file) throws IOException, IllegalArgumentException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Archive " + file + " is too large to be mapped");
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		try {
+			if (mapped.getInt() != MAGIC)
+				throw new IllegalArgumentException(file + " is not an asset archive");
+			if (mapped.getInt() != VERSION)
+				throw new IllegalArgumentException("Unsupported version of asset archive " + file);
+			int count = mapped.getInt();
+			if (count < 0)
+				throw new IllegalArgumentException("Corrupted asset archive " + file);
+			Map<String, Entry> entries = new LinkedHashMap<>(Math.min(count, mapped.remaining()) * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				int length = mapped.getInt();
+				if (length < 0 || length > mapped.remaining())
+					throw new IllegalArgumentException("Corrupted asset archive " + file);
+				byte[] name = new byte[length];
+				mapped.get(name);
+				entries.put(new String(name, StandardCharsets.UTF_8),
+				            new Entry(mapped.getInt(), mapped.getInt(), mapped.getInt(), mapped.get()));
+			}
+			MappedByteBuffer data = mapped.slice();
+			for (Entry entry : entries.values()) {
+				if (entry.offset < 0 || entry.storedLength < 0 || entry.length < 0 ||
+				    entry.offset > data.capacity() - entry.storedLength ||
+				    (entry.method != STORED && entry.method != DEFLATED) ||
+				    (entry.method == STORED && entry.storedLength != entry.length))
+					throw new IllegalArgumentException("Corrupted asset archive " + file);
+			}
+			return new AssetArchive(file, data, entries);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Corrupted asset archive " + file, e);
+		}
+	}
+
+	/**
+	 * The archive file
+	 *
+	 * @return the path of the archive
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Whether the archive contains an asset
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return true if the archive contains the asset
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * The names of the assets in the archive, in the order they were packed
+	 *
+	 * @return the names of the assets
+	 */
+	public Set<String> names() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * The length of an asset once inflated
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return the length of the asset, or -1 if the archive does not contain it
+	 */
+	public long length(String name) {
+		Entry entry = entries.get(name);
+		return entry == null ? -1 : entry.length;
+	}
+
+	/**
+	 * Gets the content of an asset. Assets stored as is are slices of the mapped archive, compressed assets are inflated
+	 * into a new buffer
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return a read-only buffer with the content of the asset, or null if the archive does not contain it
+	 *
+	 * @throws IOException if the compressed content of the asset is corrupted
+	 */
+	public ByteBuffer get(String name) throws IOException {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			return null;
+		ByteBuffer stored = data.slice(entry.offset, entry.storedLength).asReadOnlyBuffer();
+		if (entry.method == STORED)
+			return stored;
+		ByteBuffer inflated = ByteBuffer.allocate(entry.length);
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			while (inflated.hasRemaining() && !inflater.finished()) {
+				if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					break;
+			}
+			if (inflated.hasRemaining() || !inflater.finished())
+				throw new IOException("Compressed content of asset " + name + " is truncated");
+		} catch (DataFormatException e) {
+			throw new IOException("Compressed content of asset " + name + " is corrupted", e);
+		} finally {
+			inflater.end();
+		}
+		return inflated.flip().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Reads the stored content of an asset into memory, so reading it later does not wait for the storage device
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return true if the archive contains the asset
+	 */
+	boolean load(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			return false;
+		data.slice(entry.offset, entry.storedLength).load();
+		return true;
+	}
+
+	/**
+	 * Opens a stream over the content of an asset. Compressed assets are inflated as the stream is read
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return a stream of the content of the asset, or null if the archive does not contain it
+	 */
+	public InputStream openStream(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			return null;
+		InputStream stored = new BufferInputStream(data.slice(entry.offset, entry.storedLength));
+		return entry.method == STORED ? stored : new InflaterInputStream(stored);
+	}
+
+	/**
+	 * The position and length of an asset in the archive
+	 */
+	private static final class Entry {
+		/**
+		 * The position of the content of the asset, relative to the end of the index
+		 */
+		private final int offset;
+		/**
+		 * The length of the stored content
+		 */
+		private final int storedLength;
+		/**
+		 * The length of the asset once inflated
+		 */
+		private final int length;
+		/**
+		 * The method the asset is stored with
+		 */
+		private final byte method;
+
+		/**
+		 * Creates the index entry of an asset
+		 *
+		 * @param offset       the position of the content of the asset
+		 * @param storedLength the length of the stored content
+		 * @param length       the length of the asset once inflated
+		 * @param method       the method the asset is stored with
+		 */
+		private Entry(int offset, int storedLength, int length, byte method) {
+			this.offset = offset;
+			this.storedLength = storedLength;
+			this.length = length;
+			this.method = method;
+		}
+	}
+
+	/**
+	 * A stream reading a buffer
+	 */
+	private static final class BufferInputStream extends InputStream {
+		/**
+		 * The buffer being read
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Creates a stream reading a buffer from its position to its limit
+		 *
+		 * @param buffer the buffer to read
+		 */
+		private BufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override public int read(byte[] bytes, int offset, int length) {
+			if (length == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			int read = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, read);
+			return read;
+		}
+
+		@Override public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override public int available() {
+			return buffer.remaining();
+		}
+	}
+}
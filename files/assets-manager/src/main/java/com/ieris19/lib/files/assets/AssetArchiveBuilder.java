@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Packs a folder of assets into an {@link AssetArchive}. Every regular file in the folder and its subfolders becomes an
+ * asset named after its path relative to the folder, with {@code /} as separator. <br><br>
+ *
+ * Packing the folder of a category, {@code assets/<key>/}, into {@code assets/<key>.pack} makes
+ * {@link AssetHandler#getInstance(String)} read that category from the archive. It can be done from the command line:
+ * <pre>{@code
+ * java com.ieris19.lib.files.assets.AssetArchiveBuilder [--compress] <folder> [archive]
+ * }</pre>
+ */
+public final class AssetArchiveBuilder {
+	/**
+	 * This class only has static methods
+	 */
+	private AssetArchiveBuilder() {
+	}
+
+	/**
+	 * Packs a folder from the command line. The arguments are an optional {@code --compress} flag, the folder to pack and
+	 * optionally the archive to create, which defaults to the folder name with the {@code .pack} extension next to it
+	 *
+	 * @param args the command line arguments
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean compress = args.length > 0 && args[0].equals("--compress");
+		int first = compress ? 1 : 0;
+		if (args.length - first < 1 || args.length - first > 2) {
+			System.err.println("Usage: AssetArchiveBuilder [--compress] <folder> [archive]");
+			System.exit(2);
+			return;
+		}
+		Path folder = Path.of(args[first]).toAbsolutePath().normalize();
+		Path archive = args.length - first == 2 ?
+		               Path.of(args[first + 1]) : folder.resolveSibling(folder.getFileName() + AssetArchive.EXTENSION);
+		int count = pack(folder, archive, compress);
+		System.out.println("Packed " + count + " assets into " + archive);
+	}
+
+	/**
+	 * Packs every file of a folder into an archive, replacing the archive if it exists
+	 *
+	 * @param folder   the folder to pack
+	 * @param archive  the archive to create
+	 * @param compress whether assets are compressed, each asset is only stored compressed if that makes it smaller
+	 *
+	 * @return the amount of assets packed
+	 *
+	 * @throws IllegalArgumentException if the folder is not a directory or the archive would be larger than 2 GiB
+	 * @throws IOException              if an I/O error occurs
+	 */
+	public static int pack(Path folder, Path archive, boolean compress) throws IOException, IllegalArgumentException {
+		if (!Files.isDirectory(folder))
+			throw new IllegalArgumentException(folder + " is not a directory");
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(folder)) {
+			Path target = archive.toAbsolutePath().normalize();
+			files = walk.filter(Files::isRegularFile)
+			            .filter(file -> !file.toAbsolutePath().normalize().equals(target))
+			            .sorted()
+			            .collect(Collectors.toList());
+		}
+		Path directory = archive.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path content = Files.createTempFile(directory, "." + archive.getFileName(), ".content");
+		Path temporary = Files.createTempFile(directory, "." + archive.getFileName(), ".tmp");
+		try {
+			ByteArrayOutputStream index = new ByteArrayOutputStream();
+			DataOutputStream indexOut = new DataOutputStream(index);
+			indexOut.writeInt(AssetArchive.MAGIC);
+			indexOut.writeInt(AssetArchive.VERSION);
+			indexOut.writeInt(files.size());
+			long offset = 0;
+			try (OutputStream contentOut = Files.newOutputStream(content)) {
+				for (Path file : files) {
+					byte[] bytes = Files.readAllBytes(file);
+					byte method = AssetArchive.STORED;
+					byte[] stored = bytes;
+					if (compress) {
+						byte[] deflated = deflate(bytes);
+						if (deflated.length < bytes.length) {
+							method = AssetArchive.DEFLATED;
+							stored = deflated;
+						}
+					}
+					byte[] name = nameOf(folder, file).getBytes(StandardCharsets.UTF_8);
+					indexOut.writeInt(name.length);
+					indexOut.write(name);
+					indexOut.writeInt((int) offset);
+					indexOut.writeInt(stored.length);
+					indexOut.writeInt(bytes.length);
+					indexOut.writeByte(method);
+					contentOut.write(stored);
+					offset += stored.length;
+					if (offset + index.size() > Integer.MAX_VALUE)
+						throw new IllegalArgumentException("The archive would be larger than 2 GiB");
+				}
+			}
+			try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE);
+			     FileChannel in = FileChannel.open(content, StandardOpenOption.READ)) {
+				ByteBuffer header = ByteBuffer.wrap(index.toByteArray());
+				while (header.hasRemaining()) {
+					out.write(header);
+				}
+				long position = 0;
+				while (position < offset) {
+					position += in.transferTo(position, offset - position, out);
+				}
+				out.force(true);
+			}
+			try {
+				Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(content);
+			Files.deleteIfExists(temporary);
+		}
+		return files.size();
+	}
+
+	/**
+	 * The name of a packed file, its path relative to the packed folder with {@code /} as separator
+	 *
+	 * @param folder the packed folder
+	 * @param file   the packed file
+	 *
+	 * @return the name of the asset
+	 */
+	private static String nameOf(Path folder, Path file) {
+		Path relative = folder.relativize(file);
+		StringBuilder name = new StringBuilder();
+		for (Path part : relative) {
+			if (name.length() > 0)
+				name.append('/');
+			name.append(part);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Compresses bytes with deflate
+	 *
+	 * @param bytes the bytes to compress
+	 *
+	 * @return the compressed bytes
+	 *
+	 * @throws IOException never, as the bytes are compressed in memory
+	 */
+	private static byte[] deflate(byte[] bytes) throws IOException {
+		ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 2 + 16);
+		try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+			out.write(bytes);
+		}
+		return deflated.toByteArray();
+	}
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the content of asset files, bounded by the total amount of bytes it holds. Assets are served as read-only
+ * {@link ByteBuffer}s that share the cached content, so reading a cached asset copies nothing. When the cache is full,
+ * the least recently used assets are evicted. <br><br>
+ *
+ * Every access compares the modification time and size of the file with those it had when it was cached, and reads it
+ * again if they changed, so a cache never serves outdated content. A file cached within two seconds of its last
+ * modification could still be rewritten without changing either, so it's read again on every access until it's cached
+ * after that window. Assets larger than the whole cache are read every time and never cached. <br><br>
+ *
+ * The content of every file read is hashed, and files with identical content share a single buffer, so the size of
+ * the cache grows with the distinct content it holds rather than with the amount of files. <br><br>
+ *
+ * The content can be kept in the heap, in the heap behind soft references that the garbage collector clears when
+ * memory runs low, or in direct buffers outside the heap. See {@link Storage}.
+ */
+public final class AssetCache {
+	/**
+	 * How long after its modification time a file must have been read to trust its size and modification time, in
+	 * milliseconds, which covers the coarsest timestamps of common file systems
+	 */
+	private static final long RACY_WINDOW = 2000;
+	/**
+	 * The maximum amount of bytes held by the cache
+	 */
+	private final long maximumSize;
+	/**
+	 * How the content of the assets is stored
+	 */
+	private final Storage storage;
+	/**
+	 * The cached assets by absolute path, from the least to the most recently used. Guarded by itself
+	 */
+	private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * The distinct content held by the cache, by hash. Guarded by {@link #entries}
+	 */
+	private final Map<String, Content> contents = new HashMap<>();
+	/**
+	 * The amount of bytes of distinct content held by the cache. Guarded by {@link #entries}
+	 */
+	private long size;
+
+	/**
+	 * Creates an empty cache
+	 *
+	 * @param maximumSize the maximum amount of bytes held by the cache
+	 * @param storage     how the content of the assets is stored
+	 *
+	 * @throws IllegalArgumentException if the maximum size is negative
+	 */
+	public AssetCache(long maximumSize, Storage storage) throws IllegalArgumentException {
+		if (maximumSize < 0)
+			throw new IllegalArgumentException("The maximum size cannot be negative");
+		this.maximumSize = maximumSize;
+		this.storage = storage;
+	}
+
+	/**
+	 * Gets the content of a file, reading it only if it's not cached or it has changed since it was cached. Files read
+	 * through this method are hashed to share identical content
+	 *
+	 * @param file the file to read
+	 *
+	 * @return a read-only buffer with the content of the file
+	 *
+	 * @throws NoSuchFileException      if the file does not exist
+	 * @throws IllegalArgumentException if the file is too large to be held in a buffer
+	 * @throws IOException              if an I/O error occurs
+	 */
+	public ByteBuffer get(Path file) throws IOException, IllegalArgumentException {
+		return get(file, null);
+	}
+
+	/**
+	 * Gets the content of a file, reading it only if it's not cached or it has changed since it was cached. When the
+	 * file is read, the hash of its content is stored in the hashes of its folder, so asking for the hash of a file
+	 * that was read does not hash it again
+	 *
+	 * @param file   the file to read
+	 * @param hashes the hashes of the folder of the file, or null to hash the content
+	 *
+	 * @return a read-only buffer with the content of the file
+	 *
+	 * @throws NoSuchFileException      if the file does not exist
+	 * @throws IllegalArgumentException if the file is too large to be held in a buffer
+	 * @throws IOException              if an I/O error occurs
+	 */
+	ByteBuffer get(Path file, AssetHashes hashes) throws IOException, IllegalArgumentException {
+		Path key = file.toAbsolutePath().normalize();
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(key, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			invalidate(key);
+			throw e;
+		}
+		long checked = System.currentTimeMillis();
+		FileTime modified = attributes.lastModifiedTime();
+		long length = attributes.size();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry != null && entry.isCurrent(modified, length)) {
+			ByteBuffer content = entry.content.buffer();
+			if (content != null)
+				return content.duplicate();
+		}
+		ByteBuffer content = read(key, length).asReadOnlyBuffer();
+		if (content.remaining() <= maximumSize) {
+			String hash = hash(key, content, modified.toMillis(), length, hashes);
+			content = put(key, new Entry(modified, length, checked), hash, content);
+		}
+		return content.duplicate();
+	}
+
+	/**
+	 * Hashes the content read from a file and stores the hash in the hashes of its folder. The hash is only stored if
+	 * the file was not modified while it was read, since the file would not match the content otherwise. The hashes
+	 * already stored are never used instead, as they're trusted by the size and modification time of the file alone,
+	 * and a stale one would share the content of another file
+	 *
+	 * @param key      the absolute path of the file
+	 * @param content  the content read from the file
+	 * @param modified the modification time of the file before it was read
+	 * @param length   the size of the file before it was read
+	 * @param hashes   the hashes of the folder of the file, or null
+	 *
+	 * @return the hash of the content, in hexadecimal
+	 *
+	 * @throws IOException if the file cannot be checked after reading it
+	 */
+	private static String hash(Path key, ByteBuffer content, long modified, long length, AssetHashes hashes)
+	throws IOException {
+		String hash = hash(content);
+		if (hashes != null) {
+			BasicFileAttributes after = Files.readAttributes(key, BasicFileAttributes.class);
+			if (after.lastModifiedTime().toMillis() == modified && after.size() == length)
+				hashes.record(key, hash, length, modified);
+		}
+		return hash;
+	}
+
+	/**
+	 * Removes a file from the cache, so the next access reads it again
+	 *
+	 * @param file the file to remove
+	 */
+	public void invalidate(Path file) {
+		Path key = file.toAbsolutePath().normalize();
+		synchronized (entries) {
+			Entry removed = entries.remove(key);
+			if (removed != null)
+				release(removed);
+		}
+	}
+
+	/**
+	 * Removes every file from the cache
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			contents.clear();
+			size = 0;
+		}
+	}
+
+	/**
+	 * The amount of bytes held by the cache, counting content shared by several files once. Content behind soft
+	 * references counts until its files are accessed again, even if the garbage collector already cleared it
+	 *
+	 * @return the amount of bytes held
+	 */
+	public long size() {
+		synchronized (entries) {
+			return size;
+		}
+	}
+
+	/**
+	 * The maximum amount of bytes held by the cache
+	 *
+	 * @return the maximum size of the cache
+	 */
+	public long maximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * How the content of the assets is stored
+	 *
+	 * @return the storage of the cache
+	 */
+	public Storage storage() {
+		return storage;
+	}
+
+	/**
+	 * Caches the content of a file, sharing the content already cached for another file if it's identical, and evicts
+	 * the least recently used files until the cache fits its maximum size
+	 *
+	 * @param key    the absolute path of the file
+	 * @param entry  the cached file, without its content yet
+	 * @param hash   the hash of the content
+	 * @param buffer the content of the file
+	 *
+	 * @return the cached content, which might be shared with other files
+	 */
+	private ByteBuffer put(Path key, Entry entry, String hash, ByteBuffer buffer) {
+		synchronized (entries) {
+			Content content = contents.get(hash);
+			if (content == null) {
+				content = new Content(hash, buffer.remaining(), buffer, storage);
+				contents.put(hash, content);
+				size += content.length;
+			} else {
+				ByteBuffer shared = content.buffer();
+				if (shared != null)
+					buffer = shared;
+				else
+					content.set(buffer, storage);
+			}
+			content.references++;
+			entry.content = content;
+			Entry previous = entries.put(key, entry);
+			if (previous != null)
+				release(previous);
+			Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+			while (size > maximumSize && eldest.hasNext()) {
+				Entry evicted = eldest.next().getValue();
+				eldest.remove();
+				release(evicted);
+			}
+			return buffer;
+		}
+	}
+
+	/**
+	 * Releases the content of a file removed from the cache, removing the content once no file shares it. Must be
+	 * called while holding the lock of {@link #entries}
+	 *
+	 * @param entry the removed file
+	 */
+	private void release(Entry entry) {
+		if (--entry.content.references == 0) {
+			contents.remove(entry.content.hash);
+			size -= entry.content.length;
+		}
+	}
+
+	/**
+	 * Reads the whole content of a file into a buffer of the storage of this cache
+	 *
+	 * @param file   the file to read
+	 * @param length the expected size of the file
+	 *
+	 * @return the content of the file, ready to be read
+	 *
+	 * @throws IllegalArgumentException if the file is too large to be held in a buffer
+	 * @throws IOException              if an I/O error occurs
+	 */
+	private ByteBuffer read(Path file, long length) throws IOException, IllegalArgumentException {
+		if (length > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Asset " + file + " is too large to be read into a buffer");
+		ByteBuffer buffer = storage == Storage.DIRECT ?
+		                    ByteBuffer.allocateDirect((int) length) : ByteBuffer.allocate((int) length);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Hashes content with SHA-256
+	 *
+	 * @param content the content to hash
+	 *
+	 * @return the hash of the content, in hexadecimal
+	 */
+	static String hash(ByteBuffer content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(content.duplicate());
+			return toHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Writes bytes in hexadecimal
+	 *
+	 * @param bytes the bytes to write
+	 *
+	 * @return the bytes in lowercase hexadecimal
+	 */
+	static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+			hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+		}
+		return new String(hex);
+	}
+
+	/**
+	 * How a cache stores the content of the assets
+	 */
+	public enum Storage {
+		/**
+		 * Content is kept in heap buffers until it's evicted
+		 */
+		HEAP,
+		/**
+		 * Content is kept in heap buffers behind soft references, so the garbage collector can reclaim it when memory
+		 * runs low. Reclaimed content is read again on the next access
+		 */
+		SOFT,
+		/**
+		 * Content is kept in direct buffers outside the heap, so it's not scanned or moved by the garbage collector
+		 */
+		DIRECT
+	}
+
+	/**
+	 * A cached file
+	 */
+	private static final class Entry {
+		/**
+		 * The modification time of the file when it was read
+		 */
+		private final FileTime modified;
+		/**
+		 * The size of the file when it was read
+		 */
+		private final long length;
+		/**
+		 * The time, in milliseconds since the epoch, the file was checked before reading it
+		 */
+		private final long checked;
+		/**
+		 * The content of the file, which might be shared with other files. Set once when the file is cached, guarded by
+		 * the entries of the cache
+		 */
+		private Content content;
+
+		/**
+		 * Creates a cached file
+		 *
+		 * @param modified the modification time of the file when it was read
+		 * @param length   the size of the file when it was read
+		 * @param checked  the time the file was checked before reading it, in milliseconds since the epoch
+		 */
+		private Entry(FileTime modified, long length, long checked) {
+			this.modified = modified;
+			this.length = length;
+			this.checked = checked;
+		}
+
+		/**
+		 * Whether the file still has the content it had when it was read. The size and modification time are only
+		 * trusted if the file was read more than {@link #RACY_WINDOW} after its modification, since a rewrite within the
+		 * resolution of the modification time would not change them
+		 *
+		 * @param modified the current modification time of the file
+		 * @param length   the current size of the file
+		 *
+		 * @return true if the cached content is the content of the file
+		 */
+		private boolean isCurrent(FileTime modified, long length) {
+			return this.modified.equals(modified) && this.length == length
+			       && this.modified.toMillis() + RACY_WINDOW < checked;
+		}
+	}
+
+	/**
+	 * Cached content, shared by every file with identical content
+	 */
+	private static final class Content {
+		/**
+		 * The hash of the content
+		 */
+		private final String hash;
+		/**
+		 * The length of the content
+		 */
+		private final long length;
+		/**
+		 * The content, either a buffer or a soft reference to it
+		 */
+		private volatile Object buffer;
+		/**
+		 * The amount of cached files with this content. Guarded by the entries of the cache
+		 */
+		private int references;
+
+		/**
+		 * Creates cached content
+		 *
+		 * @param hash    the hash of the content
+		 * @param length  the length of the content
+		 * @param buffer  the content
+		 * @param storage how the content is stored
+		 */
+		private Content(String hash, long length, ByteBuffer buffer, Storage storage) {
+			this.hash = hash;
+			this.length = length;
+			set(buffer, storage);
+		}
+
+		/**
+		 * Replaces the content, used when the garbage collector reclaimed it
+		 *
+		 * @param content the content
+		 * @param storage how the content is stored
+		 */
+		private void set(ByteBuffer content, Storage storage) {
+			this.buffer = storage == Storage.SOFT ? new SoftReference<>(content) : content;
+		}
+
+		/**
+		 * The content
+		 *
+		 * @return the content, or null if the garbage collector reclaimed it
+		 */
+		@SuppressWarnings("unchecked")
+		private ByteBuffer buffer() {
+			Object current = buffer;
+			return current instanceof SoftReference ? ((SoftReference<ByteBuffer>) current).get() : (ByteBuffer) current;
+		}
+	}
+}
@@ -20,10 +20,40 @@ package com.ieris19.lib.files.assets;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Class that handles the loading of assets from the assets folder
@@ -32,162 +62,723 @@ public class AssetHandler implements AutoCloseable {
 	/**
 	 * The path to the assets folder
 	 */
-	private static File assetRoot;
+	private static volatile File assetRoot;
 	/**
-	 * The map of subdirectories of assets
+	 * The handler of every subdirectory of assets, each one created the first time it's requested
 	 */
-	private static final HashMap<String, File> subdirectories = new HashMap<>();
+	private static final ConcurrentHashMap<String, AssetHandler> handlers = new ConcurrentHashMap<>();
+	/**
+	 * The cache of the content of assets, shared by every handler
+	 */
+	private static volatile AssetCache cache;
+	/**
+	 * Finds the class calling {@link #getResource(String)} and {@link #getResourceAsStream(String)}
+	 */
+	private static final StackWalker CALLER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+	/**
+	 * Marks resources that could not be found in {@link #RESOURCES}
+	 */
+	private static final Object MISSING = new Object();
+	/**
+	 * The URLs of the resources requested by every class, or {@link #MISSING} if they could not be found. The cache of a
+	 * class is dropped along with the class
+	 */
+	private static final ClassValue<ConcurrentHashMap<String, Object>> RESOURCES = new ClassValue<>() {
+		@Override protected ConcurrentHashMap<String, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
 
 	static {
 		assetRoot = new File("assets");
+		cache = new AssetCache(64 << 20, AssetCache.Storage.HEAP);
 	}
 
 	/**
 	 * Sets the subdirectory for the assets
 	 */
-	private File assetFolder;
+	private final File assetFolder;
+	/**
+	 * The archive packing the assets of this handler, or null if they're only in the folder
+	 */
+	private final AssetArchive archive;
+	/**
+	 * The index of the entries of the folder, built the first time it's needed
+	 */
+	private volatile AssetIndex index;
+	/**
+	 * The hashes of the files of the folder, read from their sidecar index the first time they're needed
+	 */
+	private volatile AssetHashes hashes;
+	/**
+	 * Whether the folder was checked for a sidecar index of its hashes by {@link #knownHashes()}
+	 */
+	private volatile boolean sidecarChecked;
+	/**
+	 * The hashes of the assets packed in the archive, by name
+	 */
+	private final ConcurrentHashMap<String, String> packedHashes = new ConcurrentHashMap<>();
 
 	/**
 	 * Sets the path to the assets folder
 	 *
 	 * @param path the path to the assets folder
 	 */
-	public static void setAssetRoot(String path) throws IllegalStateException {
-		if (subdirectories.isEmpty())
+	public static synchronized void setAssetRoot(String path) throws IllegalStateException {
+		if (handlers.isEmpty())
 			assetRoot = new File(path);
 		else
 			throw new IllegalStateException("Cannot change asset folder after assets have been loaded");
 	}
 
 	/**
-	 * Returns or creates an asset handler for the specified subdirectory
+	 * Sets the cache of the content of assets, shared by every handler. The default cache holds up to 64 MiB in the heap,
+	 * a cache with a maximum size of zero disables caching
+	 *
+	 * @param assetCache the cache of the content of assets
+	 */
+	public static void setCache(AssetCache assetCache) {
+		cache = Objects.requireNonNull(assetCache);
+	}
+
+	/**
+	 * Gets the cache of the content of assets, shared by every handler
+	 *
+	 * @return the cache of the content of assets
+	 */
+	public static AssetCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Returns or creates an asset handler for the specified subdirectory. Every subdirectory has a single handler, which
+	 * is created the first time it's requested and shared from then on, and requesting an existing handler takes no
+	 * lock. If the subdirectory was packed into an {@link AssetArchive} named after it, such as
+	 * {@code assets/icons.pack} for {@code assets/icons/}, the assets are read from the archive, and only those missing
+	 * from it are looked up in the subdirectory
+	 *
+	 * @param key the name of the subdirectory
+	 *
+	 * @return the asset handler for the subdirectory
+	 *
+	 * @throws IllegalArgumentException if the subdirectory is a file, or its archive is not valid
+	 * @throws IllegalStateException    if the archive of the subdirectory cannot be read
+	 */
+	public static AssetHandler getInstance(String key) throws IllegalArgumentException, IllegalStateException {
+		AssetHandler handler = handlers.get(key);
+		if (handler != null)
+			return handler;
+		synchronized (AssetHandler.class) {
+			return handlers.computeIfAbsent(key, AssetHandler::create);
+		}
+	}
+
+	/**
+	 * Creates the handler of a subdirectory, creating the subdirectory if it has no archive and does not exist
 	 *
 	 * @param key the name of the subdirectory
 	 *
 	 * @return the asset handler for the subdirectory
+	 *
+	 * @throws IllegalArgumentException if the subdirectory is a file, or its archive is not valid
+	 * @throws IllegalStateException    if the archive of the subdirectory cannot be read
+	 */
+	private static AssetHandler create(String key) throws IllegalArgumentException, IllegalStateException {
+		File assetFolder = new File(assetRoot, key);
+		File archiveFile = new File(assetRoot, key + AssetArchive.EXTENSION);
+		if (archiveFile.isFile()) {
+			try {
+				return new AssetHandler(assetFolder, AssetArchive.open(archiveFile.toPath()));
+			} catch (IOException e) {
+				throw new IllegalStateException("Asset archive " + archiveFile + " could not be read", e);
+			}
+		}
+		if (!assetFolder.mkdir()) {
+			if (!assetFolder.isDirectory()) {
+				throw new IllegalArgumentException("Asset type is not a directory");
+			}
+		}
+		return new AssetHandler(assetFolder, null);
+	}
+
+	/**
+	 * Gets the URL of the specified asset relative to the calling class resource folder. This means that it will try to
+	 * look for the asset in the same folder as the calling class file, to compile an asset into the calling class
+	 * resource folder you must use a resources folder mirroring your package structure, and place the asset in the same
+	 * package as the calling class <br> The calling class is found without walking the whole stack, and the URL of every
+	 * resource is cached per calling class, so repeated lookups of the same resource are a map lookup
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return the URL of the asset, or null if the asset cannot be found
+	 */
+	public static URL getResource(String name) {
+		return resourceOf(CALLER.getCallerClass(), name);
+	}
+
+	/**
+	 * Gets the input stream of the specified asset relative to the calling class resource folder. This means that it will
+	 * try to look for the asset in the same folder as the calling class file, to compile an asset into the calling class
+	 * resource folder you must use a resources folder mirroring your package structure, and place the asset in the same
+	 * package as the calling class
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return the input stream of the asset, or null if the asset cannot be found
+	 */
+	public static InputStream getResourceAsStream(String name) {
+		URL resource = resourceOf(CALLER.getCallerClass(), name);
+		if (resource == null)
+			return null;
+		try {
+			return resource.openStream();
+		} catch (IOException ignored) {
+			return null;
+		}
+	}
+
+	/**
+	 * Finds a resource relative to a class, remembering the result for later lookups from the same class
+	 *
+	 * @param caller the class the resource is relative to
+	 * @param name   the name of the resource
+	 *
+	 * @return the URL of the resource, or null if it cannot be found
 	 */
-	public static synchronized AssetHandler getInstance(String key) {
-		File assetFolder;
-		if (subdirectories.containsKey(key)) {
-			assetFolder = subdirectories.get(key);
-		} else {
-			assetFolder = new File(assetRoot, key);
-			if (!assetFolder.mkdir()) {
-				if (!assetFolder.isDirectory()) {
-					throw new IllegalArgumentException("Asset type is not a directory");
+	private static URL resourceOf(Class<?> caller, String name) {
+		Object resource = RESOURCES.get(caller).computeIfAbsent(name, missing -> {
+			URL found = caller.getResource(missing);
+			return found != null ? found : MISSING;
+		});
+		return resource == MISSING ? null : (URL) resource;
+	}
+
+	/**
+	 * Creates a new AssetHandler for the specified asset type subdirectory
+	 *
+	 * @param assetFolder the subdirectory from where to load assets
+	 */
+	public AssetHandler(File assetFolder) {
+		this(assetFolder, null);
+	}
+
+	/**
+	 * Creates a new AssetHandler for the specified asset type subdirectory and its archive
+	 *
+	 * @param assetFolder the subdirectory from where to load assets
+	 * @param archive     the archive packing the assets of the subdirectory, or null if there is none
+	 */
+	private AssetHandler(File assetFolder, AssetArchive archive) {
+		this.assetFolder = assetFolder;
+		this.archive = archive;
+	}
+
+	/**
+	 * Gets the file from the assets folder
+	 *
+	 * @param name The name to the file
+	 *
+	 * @return The file in the specified path
+	 */
+	public File getAsset(String name) {
+		return new File(assetRoot, name);
+	}
+
+	/**
+	 * Gets the file from the assets folder and opens it as a {@code FileInputStream}
+	 *
+	 * @param name The name to the file
+	 *
+	 * @return An input stream of the file binary contents
+	 *
+	 * @throws FileNotFoundException if the file does not exist
+	 */
+	public FileInputStream getAssetAsStream(String name) throws FileNotFoundException {
+		return new FileInputStream(new File(assetFolder, name));
+	}
+
+	/**
+	 * Opens a stream of an asset, whether it's a file or it's packed in the archive of this handler
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return an input stream of the content of the asset
+	 *
+	 * @throws FileNotFoundException if the asset does not exist
+	 */
+	public InputStream openAsset(String name) throws FileNotFoundException {
+		if (archive != null) {
+			InputStream packed = archive.openStream(name);
+			if (packed != null)
+				return packed;
+		}
+		return new FileInputStream(new File(assetFolder, name));
+	}
+
+	/**
+	 * Checks whether an asset exists, either as a file or packed in the archive of this handler. Assets directly in the
+	 * folder of this handler are looked up in its index, without touching the file system unless the index does not have
+	 * them. The index is updated by a background thread shortly after the folder changes, usually within a second but up
+	 * to several seconds on file systems that are polled, so a file is found as soon as it's created, but a deleted file
+	 * can still be reported as existing until the index is updated
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return true if the asset exists
+	 */
+	public boolean hasAsset(String name) {
+		if (archive != null && archive.contains(name))
+			return true;
+		if (name.indexOf('/') < 0 && name.indexOf(File.separatorChar) < 0)
+			return index().isFile(name);
+		return new File(assetFolder, name).isFile();
+	}
+
+	/**
+	 * Gets the content of an asset from the {@link #getCache() asset cache}, reading the file only the first time or
+	 * after it changes. Repeatedly loaded assets, such as icons, are served from memory without opening the file. Assets
+	 * packed in the archive of this handler are served from the mapped archive instead
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return a read-only buffer with the content of the asset
+	 *
+	 * @throws NoSuchFileException      if the asset does not exist
+	 * @throws IllegalArgumentException if the asset is too large to be held in a buffer
+	 * @throws IOException              if an I/O error occurs
+	 */
+	public ByteBuffer getAssetBuffer(String name) throws IOException, IllegalArgumentException {
+		if (archive != null) {
+			ByteBuffer packed = archive.get(name);
+			if (packed != null)
+				return packed;
+		}
+		return cache.get(new File(assetFolder, name).toPath(), knownHashes());
+	}
+
+	/**
+	 * Removes an asset from the {@link #getCache() asset cache}, so it's read again the next time it's requested
+	 *
+	 * @param name the name of the asset
+	 */
+	public void invalidate(String name) {
+		cache.invalidate(new File(assetFolder, name).toPath());
+	}
+
+	/**
+	 * Maps an asset into memory without reading it. The content is loaded by the operating system as it's accessed and
+	 * is never copied into the heap, which suits large assets like sprite sheets, sound banks or data packs. The mapping
+	 * stays valid until the buffer is garbage collected. Only files can be mapped, assets packed in an archive are
+	 * already mapped and read with {@link #getAssetBuffer(String)}
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return a read-only buffer mapped to the content of the asset
+	 *
+	 * @throws NoSuchFileException      if the asset does not exist
+	 * @throws IllegalArgumentException if the asset is larger than 2 GiB, which is the limit of a single mapping
+	 * @throws IOException              if an I/O error occurs
+	 */
+	public MappedByteBuffer mapAsset(String name) throws IOException, IllegalArgumentException {
+		try (FileChannel channel = FileChannel.open(new File(assetFolder, name).toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Asset " + name + " is too large to be mapped");
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	/**
+	 * Copies the content of an asset into a channel. When the channel is a file or a socket, the operating system copies
+	 * the content directly, without moving it through the heap. Assets packed in the archive of this handler are written
+	 * from the mapped archive
+	 *
+	 * @param name   the name of the asset
+	 * @param target the channel receiving the content of the asset
+	 *
+	 * @return the amount of bytes copied
+	 *
+	 * @throws NoSuchFileException if the asset does not exist
+	 * @throws IOException         if an I/O error occurs
+	 */
+	public long transferAsset(String name, WritableByteChannel target) throws IOException {
+		if (archive != null) {
+			ByteBuffer packed = archive.get(name);
+			if (packed != null) {
+				long written = 0;
+				while (packed.hasRemaining()) {
+					written += target.write(packed);
 				}
+				return written;
 			}
-				subdirectories.put(key, assetFolder);
+		}
+		try (FileChannel channel = FileChannel.open(new File(assetFolder, name).toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				long transferred = channel.transferTo(position, size - position, target);
+				if (transferred <= 0)
+					break;
+				position += transferred;
 			}
-			return new AssetHandler(assetFolder);
+			return position;
 		}
+	}
 
-		/**
-		 * Gets the URL of the specified asset relative to the calling class resource folder. This means that it will try to
-		 * look for the asset in the same folder as the calling class file, to compile an asset into the calling class
-		 * resource folder you must use a resources folder mirroring your package structure, and place the asset in the same
-		 * package as the calling class
-		 *
-		 * @param name the name of the asset
-		 *
-		 * @return the URL of the asset, null if the caller class cannot be found, or the asset cannot be found
-		 */
-		public static URL getResource (String name){
-			try {
-				Class<?> resourceCaller = Class.forName(Thread.currentThread().getStackTrace()[2].getClassName());
-				return resourceCaller.getResource(name);
-			} catch (ClassNotFoundException ignored) {
-				return null;
+	/**
+	 * Copies the content of an asset into an output stream, through {@link #transferAsset(String, WritableByteChannel)}
+	 *
+	 * @param name the name of the asset
+	 * @param out  the stream receiving the content of the asset, which is not closed
+	 *
+	 * @return the amount of bytes copied
+	 *
+	 * @throws NoSuchFileException if the asset does not exist
+	 * @throws IOException         if an I/O error occurs
+	 */
+	public long transferAsset(String name, OutputStream out) throws IOException {
+		return transferAsset(name, Channels.newChannel(out));
+	}
+
+	/**
+	 * Preloads the assets whose names match a glob pattern, such as {@code *.png} or {@code sprites/**}, on the shared
+	 * preloading threads. Names are relative to the folder of this handler with {@code /} as separator, and the
+	 * subfolders are searched as well, so {@code sprites/**} matches every file under {@code sprites/}
+	 *
+	 * @param glob     the pattern the names of the assets must match, in the syntax of
+	 *                 {@link java.nio.file.FileSystem#getPathMatcher(String)}
+	 * @param listener the listener notified of the progress, or null
+	 *
+	 * @return a future completed once every asset has been loaded, or exceptionally if the folder cannot be searched
+	 *
+	 * @throws IllegalArgumentException if the pattern is not valid
+	 * @see #preload(Collection, Executor, PreloadListener)
+	 */
+	public CompletableFuture<Void> preload(String glob, PreloadListener listener) throws IllegalArgumentException {
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+		Set<String> names = new LinkedHashSet<>();
+		if (archive != null)
+			names.addAll(archive.names());
+		Path folder = assetFolder.toPath();
+		if (Files.isDirectory(folder)) {
+			try (Stream<Path> files = Files.walk(folder)) {
+				files.filter(Files::isRegularFile).map(file -> nameOf(folder, file)).sorted().forEach(names::add);
+			} catch (IOException | UncheckedIOException e) {
+				return CompletableFuture.failedFuture(e instanceof UncheckedIOException ? e.getCause() : e);
 			}
 		}
+		List<String> matching = new ArrayList<>();
+		for (String name : names) {
+			if (matcher.matches(Path.of(name)))
+				matching.add(name);
+		}
+		return preload(matching, listener);
+	}
 
-		/**
-		 * Gets the input stream of the specified asset relative to the calling class resource folder. This means that it will
-		 * try to look for the asset in the same folder as the calling class file, to compile an asset into the calling class
-		 * resource folder you must use a resources folder mirroring your package structure, and place the asset in the same
-		 * package as the calling class
-		 *
-		 * @param name the name of the asset
-		 *
-		 * @return the input stream of the asset, null if the caller class cannot be found, or the asset cannot be found
-		 */
-		public static InputStream getResourceAsStream (String name){
+	/**
+	 * The name of a file of the folder of this handler, its path relative to the folder with {@code /} as separator
+	 *
+	 * @param folder the folder of this handler
+	 * @param file   the file
+	 *
+	 * @return the name of the asset
+	 */
+	private static String nameOf(Path folder, Path file) {
+		StringBuilder name = new StringBuilder();
+		for (Path part : folder.relativize(file)) {
+			if (name.length() > 0)
+				name.append('/');
+			name.append(part);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Preloads assets on the shared preloading threads, which are as many as processors up to four
+	 *
+	 * @param names    the names of the assets to load
+	 * @param listener the listener notified of the progress, or null
+	 *
+	 * @return a future completed once every asset has been loaded
+	 *
+	 * @see #preload(Collection, Executor, PreloadListener)
+	 */
+	public CompletableFuture<Void> preload(Collection<String> names, PreloadListener listener) {
+		return preload(names, Preloader.EXECUTOR, listener);
+	}
+
+	/**
+	 * Preloads assets in parallel, so they're served from memory when they're first used. Files are read into the
+	 * {@link #getCache() asset cache}, and assets packed in an archive have their part of the archive read into memory.
+	 * Preloading more assets than the cache can hold evicts the assets loaded first. <br> The returned future completes
+	 * once every asset has been loaded, or completes exceptionally with the failure of the first asset that could not
+	 * be loaded, after trying the rest. Exceptions thrown by the listener are failures as well, and never keep the
+	 * future from completing. Cancelling it skips the assets that did not start loading yet
+	 *
+	 * @param names    the names of the assets to load
+	 * @param executor the executor loading the assets, which bounds how many are loaded at once
+	 * @param listener the listener notified of the progress, or null
+	 *
+	 * @return a future completed once every asset has been loaded
+	 */
+	public CompletableFuture<Void> preload(Collection<String> names, Executor executor, PreloadListener listener) {
+		List<String> assets = List.copyOf(names);
+		int total = assets.size();
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		if (total == 0) {
+			result.complete(null);
+			return result;
+		}
+		// Progress is reported with completed, while finished counts the assets whose listener returned as well, so the
+		// future only completes once no listener can add a failure anymore
+		AtomicInteger completed = new AtomicInteger();
+		AtomicInteger finished = new AtomicInteger();
+		Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		for (String name : assets) {
+			Runnable load = () -> {
+				try {
+					if (!result.isDone())
+						load(name);
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+				try {
+					int done = completed.incrementAndGet();
+					if (listener != null && !result.isDone())
+						listener.assetLoaded(name, done, total);
+				} catch (Throwable e) {
+					failures.add(e);
+				} finally {
+					if (finished.incrementAndGet() == total)
+						complete(result, failures);
+				}
+			};
 			try {
-				Class<?> resourceCaller = Class.forName(Thread.currentThread().getStackTrace()[2].getClassName());
-				return resourceCaller.getResourceAsStream(name);
-			} catch (ClassNotFoundException ignored) {
-				return null;
+				executor.execute(load);
+			} catch (RejectedExecutionException e) {
+				failures.add(e);
+				completed.incrementAndGet();
+				if (finished.incrementAndGet() == total)
+					complete(result, failures);
 			}
 		}
+		return result;
+	}
 
-		/**
-		 * Creates a new AssetHandler for the specified asset type subdirectory
-		 *
-		 * @param assetFolder the subdirectory from where to load assets
-		 */
-	public AssetHandler(File assetFolder) {
-			this.assetFolder = assetFolder;
+	/**
+	 * Loads an asset into memory
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @throws IOException if the asset cannot be read
+	 */
+	private void load(String name) throws IOException {
+		if (archive != null && archive.contains(name))
+			archive.load(name);
+		else
+			cache.get(new File(assetFolder, name).toPath(), knownHashes());
+	}
+
+	/**
+	 * Completes a preload once every asset has been loaded
+	 *
+	 * @param result   the future of the preload
+	 * @param failures the failures of the assets that could not be loaded
+	 */
+	private static void complete(CompletableFuture<Void> result, Queue<Throwable> failures) {
+		Throwable failure = failures.poll();
+		if (failure == null) {
+			result.complete(null);
+			return;
+		}
+		for (Throwable other : failures) {
+			failure.addSuppressed(other);
 		}
+		result.completeExceptionally(failure);
+	}
 
-		/**
-		 * Gets the file from the assets folder
-		 *
-		 * @param name The name to the file
-		 *
-		 * @return The file in the specified path
-		 */
-		public File getAsset (String name){
-			return new File(assetRoot, name);
+	/**
+	 * Gets the hash of the content of an asset, which changes whenever the content does, and can serve as an entity tag
+	 * or to check the integrity of the asset. The hashes of files are kept in a sidecar index next to the folder, such
+	 * as {@code assets/icons.hashes}, along with the size and modification time of every file, so a file is only read
+	 * to hash it the first time and after it changes, even across restarts
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return the SHA-256 hash of the content of the asset, in lowercase hexadecimal
+	 *
+	 * @throws NoSuchFileException if the asset does not exist
+	 * @throws IOException         if an I/O error occurs
+	 */
+	public String getAssetHash(String name) throws IOException {
+		if (archive != null && archive.contains(name)) {
+			String hash = packedHashes.get(name);
+			if (hash == null) {
+				hash = AssetCache.hash(archive.get(name));
+				packedHashes.put(name, hash);
+			}
+			return hash;
 		}
+		return hashes().hash(name);
+	}
 
-		/**
-		 * Gets the file from the assets folder and opens it as a {@code FileInputStream}
-		 *
-		 * @param name The name to the file
-		 *
-		 * @return An input stream of the file binary contents
-		 *
-		 * @throws FileNotFoundException if the file does not exist
-		 */
-		public FileInputStream getAssetAsStream (String name) throws FileNotFoundException {
-			return new FileInputStream(new File(assetFolder, name));
+	/**
+	 * The hashes of the files of the folder to store the hashes computed by the asset cache in, which are those already
+	 * read or those of a sidecar index that exists, so reading assets never creates a sidecar index by itself
+	 *
+	 * @return the hashes of the folder, or null if it has none
+	 */
+	private AssetHashes knownHashes() {
+		AssetHashes current = hashes;
+		if (current == null && !sidecarChecked) {
+			sidecarChecked = true;
+			if (Files.isRegularFile(AssetHashes.sidecarOf(assetFolder.toPath())))
+				current = hashes();
 		}
+		return current;
+	}
 
-		/**
-		 * Gets the URL of the specified asset from this asset handler's folder
-		 *
-		 * @param name the name of the asset
-		 *
-		 * @return the URL of the asset
-		 *
-		 * @throws IllegalStateException if the URL is malformed, this should never happen unless the file structure is
-		 *                               invalid
-		 */
-		public URL getAssetURL (String name) throws IllegalStateException {
-			try {
-				return new File(assetFolder, name).toURI().toURL();
-			} catch (MalformedURLException e) {
-				throw new IllegalStateException(
-						"Asset URL is malformed, there might have been an error or the file structure is invalid", e);
+	/**
+	 * The hashes of the files of the folder, reading them from their sidecar index if they were not read yet
+	 *
+	 * @return the hashes of the folder
+	 */
+	private AssetHashes hashes() {
+		AssetHashes current = hashes;
+		if (current == null) {
+			synchronized (this) {
+				current = hashes;
+				if (current == null) {
+					current = new AssetHashes(assetFolder.toPath());
+					hashes = current;
+				}
 			}
 		}
+		return current;
+	}
 
-		/**
-		 * Gets all the files from the assets folder
-		 *
-		 * @return All the files from the specified path
-		 *
-		 * @throws IllegalArgumentException if the path is not a folder
-		 */
-		public File[] getAssets () throws IllegalArgumentException {
-			return assetFolder.listFiles();
+	/**
+	 * Gets the URL of the specified asset from this asset handler's folder
+	 *
+	 * @param name the name of the asset
+	 *
+	 * @return the URL of the asset
+	 *
+	 * @throws IllegalStateException if the URL is malformed, this should never happen unless the file structure is
+	 *                               invalid
+	 */
+	public URL getAssetURL(String name) throws IllegalStateException {
+		try {
+			return new File(assetFolder, name).toURI().toURL();
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(
+					"Asset URL is malformed, there might have been an error or the file structure is invalid", e);
 		}
+	}
 
+	/**
+	 * Gets the names of all the assets of this handler, those packed in its archive followed by the files of its folder
+	 * that are not packed. The files are listed from the index of the folder, which is updated by a background thread
+	 * shortly after the folder changes, usually within a second but up to several seconds on file systems that are
+	 * polled, so files created or deleted in the meantime are not reflected yet
+	 *
+	 * @return the names of the assets
+	 */
+	public List<String> getAssetNames() {
+		List<String> names = new ArrayList<>();
+		if (archive != null)
+			names.addAll(archive.names());
+		Map<String, Boolean> entries = index().entries();
+		if (entries != null) {
+			for (Map.Entry<String, Boolean> entry : entries.entrySet()) {
+				if (!entry.getValue() && (archive == null || !archive.contains(entry.getKey())))
+					names.add(entry.getKey());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Gets all the files from the assets folder. The files are listed from the index of the folder, without touching
+	 * the file system, so changes to the folder are reflected with the delay described in {@link #getAssetNames()}
+	 *
+	 * @return All the files from the specified path, or null if the folder does not exist
+	 *
+	 * @throws IllegalArgumentException if the path is not a folder
+	 */
+	public File[] getAssets() throws IllegalArgumentException {
+		Map<String, Boolean> entries = index().entries();
+		if (entries == null)
+			return null;
+		File[] files = new File[entries.size()];
+		int i = 0;
+		for (String name : entries.keySet()) {
+			files[i++] = new File(assetFolder, name);
+		}
+		return files;
+	}
+
+	/**
+	 * The index of the entries of the folder, building it if it was not built yet or it no longer reflects the folder
+	 *
+	 * @return the index of the folder
+	 */
+	private AssetIndex index() {
+		AssetIndex current = index;
+		if (current == null || !current.isValid()) {
+			synchronized (this) {
+				current = index;
+				if (current == null || !current.isValid()) {
+					current = new AssetIndex(assetFolder.toPath());
+					index = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Closes this resource, relinquishing any underlying resources. This method is invoked automatically on objects
+	 * managed by the {@code try}-with-resources statement. <br> Handlers are shared, so closing a handler only stops
+	 * watching its folder and writes the pending changes to its hashes, and the handler keeps working, watching the
+	 * folder again once it's needed
+	 *
+	 * @throws RuntimeException if the sidecar index of the hashes cannot be written
+	 */
+	@Override public void close() throws RuntimeException {
+		AssetIndex current;
+		synchronized (this) {
+			current = index;
+			index = null;
+		}
+		if (current != null)
+			current.close();
+		AssetHashes currentHashes = hashes;
+		if (currentHashes != null) {
+			try {
+				currentHashes.flush();
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to save asset hashes", e);
+			}
+		}
+	}
+
+	/**
+	 * Holder of the threads preloading assets, which are only started once assets are preloaded
+	 */
+	private static final class Preloader {
 		/**
-		 * Closes this resource, relinquishing any underlying resources. This method is invoked automatically on objects
-		 * managed by the {@code try}-with-resources statement.
+		 * The executor preloading the assets of every handler that is given no executor
 		 */
-		@Override public void close () {
-			assetFolder = null;
+		private static final ExecutorService EXECUTOR;
+
+		static {
+			AtomicInteger threads = new AtomicInteger();
+			EXECUTOR = Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()), task -> {
+				Thread thread = new Thread(task, "ierislib-assets-preload-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
 		}
 	}
+}
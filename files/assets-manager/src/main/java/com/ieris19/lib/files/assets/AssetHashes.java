@@ -0,0 +1,322 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The SHA-256 hashes of the files of an asset folder, persisted in a sidecar index next to the folder, such as
+ * {@code assets/icons.hashes} for {@code assets/icons/}. Every hash is stored with the size and modification time the
+ * file had when it was hashed, so a file is only read and hashed again once those change. <br> The index is a text
+ * file with a line per file holding its hash, size, modification time in milliseconds and name, separated by spaces.
+ * Changes to the index are written in the background, a second after the last one.
+ */
+final class AssetHashes {
+	/**
+	 * The extension of sidecar index files
+	 */
+	static final String EXTENSION = ".hashes";
+	/**
+	 * The time, in milliseconds, between a change to the index and writing it
+	 */
+	private static final long SAVE_DELAY = 1000;
+
+	/**
+	 * The hashed folder
+	 */
+	private final Path directory;
+	/**
+	 * The absolute path of the hashed folder, to find the names of files given by their absolute path
+	 */
+	private final Path root;
+	/**
+	 * The sidecar index of the folder
+	 */
+	private final Path sidecar;
+	/**
+	 * The hash of every file, by name
+	 */
+	private final Map<String, Record> records = new ConcurrentHashMap<>();
+	/**
+	 * Whether a write of the index is pending
+	 */
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+	/**
+	 * Creates the hashes of a folder, reading its sidecar index if there is one. Invalid lines are ignored
+	 *
+	 * @param directory the hashed folder
+	 */
+	AssetHashes(Path directory) {
+		this.directory = directory;
+		this.root = directory.toAbsolutePath().normalize();
+		this.sidecar = sidecarOf(directory);
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(sidecar, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return;
+		}
+		for (String line : lines) {
+			String[] fields = line.split(" ", 4);
+			if (fields.length != 4 || fields[0].length() != 64)
+				continue;
+			try {
+				records.put(fields[3], new Record(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+			} catch (NumberFormatException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * The sidecar index of a folder
+	 *
+	 * @param directory the hashed folder
+	 *
+	 * @return the path of the sidecar index, next to the folder
+	 */
+	static Path sidecarOf(Path directory) {
+		return directory.resolveSibling(directory.getFileName() + EXTENSION);
+	}
+
+	/**
+	 * Gets the hash of a file, hashing it only if it changed since it was last hashed
+	 *
+	 * @param name the name of the file in the folder
+	 *
+	 * @return the SHA-256 hash of the content of the file, in hexadecimal
+	 *
+	 * @throws NoSuchFileException if the file does not exist
+	 * @throws IOException         if an I/O error occurs
+	 */
+	String hash(String name) throws IOException {
+		Path file = directory.resolve(name);
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			if (records.remove(name) != null)
+				scheduleSave();
+			throw e;
+		}
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+		Record record = records.get(name);
+		if (record != null && record.size == size && record.modified == modified)
+			return record.hash;
+		String hash = digest(file);
+		records.put(name, new Record(hash, size, modified));
+		if (name.indexOf('\n') < 0 && name.indexOf('\r') < 0)
+			scheduleSave();
+		return hash;
+	}
+
+	/**
+	 * Gets the stored hash of a file without reading it, if the file still has the size and modification time it had
+	 * when it was hashed
+	 *
+	 * @param file     the absolute path of the file
+	 * @param size     the current size of the file
+	 * @param modified the current modification time of the file, in milliseconds
+	 *
+	 * @return the SHA-256 hash of the content of the file, or null if it's not in the folder or not hashed yet
+	 */
+	String stored(Path file, long size, long modified) {
+		String name = nameOf(file);
+		Record record = name == null ? null : records.get(name);
+		return record != null && record.size == size && record.modified == modified ? record.hash : null;
+	}
+
+	/**
+	 * Stores the hash of a file that was hashed elsewhere, so it's not hashed again
+	 *
+	 * @param file     the absolute path of the file
+	 * @param hash     the SHA-256 hash of the content of the file
+	 * @param size     the size of the file when it was read
+	 * @param modified the modification time of the file when it was read, in milliseconds
+	 */
+	void record(Path file, String hash, long size, long modified) {
+		String name = nameOf(file);
+		if (name == null)
+			return;
+		Record previous = records.put(name, new Record(hash, size, modified));
+		boolean changed = previous == null || previous.size != size || previous.modified != modified;
+		if (changed && name.indexOf('\n') < 0 && name.indexOf('\r') < 0)
+			scheduleSave();
+	}
+
+	/**
+	 * The name of a file of the folder, its path relative to the folder with {@code /} as separator
+	 *
+	 * @param file the absolute path of the file
+	 *
+	 * @return the name of the file, or null if it's not in the folder
+	 */
+	private String nameOf(Path file) {
+		if (!file.startsWith(root) || file.equals(root))
+			return null;
+		StringBuilder name = new StringBuilder();
+		for (Path part : root.relativize(file)) {
+			if (name.length() > 0)
+				name.append('/');
+			name.append(part);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Writes the index if there are pending changes
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	void flush() throws IOException {
+		if (saveScheduled.getAndSet(false))
+			save();
+	}
+
+	/**
+	 * Schedules writing the index, unless a write is already pending
+	 */
+	private void scheduleSave() {
+		if (saveScheduled.compareAndSet(false, true)) {
+			Saver.EXECUTOR.schedule(() -> {
+				try {
+					flush();
+				} catch (IOException ignored) {
+				}
+			}, SAVE_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Writes the index to a temporary file that then replaces the sidecar, so it's never left half-written
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private synchronized void save() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<String, Record> entry : new TreeMap<>(records).entrySet()) {
+			String name = entry.getKey();
+			if (name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0)
+				continue;
+			Record record = entry.getValue();
+			text.append(record.hash).append(' ').append(record.size).append(' ').append(record.modified).append(' ')
+			    .append(name).append('\n');
+		}
+		Path temporary = Files.createTempFile(sidecar.toAbsolutePath().getParent(), "." + sidecar.getFileName(), ".tmp");
+		try {
+			Files.writeString(temporary, text, StandardCharsets.UTF_8);
+			try {
+				Files.move(temporary, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Hashes the content of a file without reading it into the heap
+	 *
+	 * @param file the file to hash
+	 *
+	 * @return the SHA-256 hash of the content, in hexadecimal
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static String digest(Path file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64 << 10);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (channel.read(buffer.clear()) >= 0) {
+				digest.update(buffer.flip());
+			}
+		}
+		return AssetCache.toHex(digest.digest());
+	}
+
+	/**
+	 * The hash of a file, with the size and modification time it had when it was hashed
+	 */
+	private static final class Record {
+		/**
+		 * The hash of the content of the file, in hexadecimal
+		 */
+		private final String hash;
+		/**
+		 * The size of the file when it was hashed
+		 */
+		private final long size;
+		/**
+		 * The modification time of the file when it was hashed, in milliseconds
+		 */
+		private final long modified;
+
+		/**
+		 * Creates the hash of a file
+		 *
+		 * @param hash     the hash of the content of the file
+		 * @param size     the size of the file when it was hashed
+		 * @param modified the modification time of the file when it was hashed
+		 */
+		private Record(String hash, long size, long modified) {
+			this.hash = hash;
+			this.size = size;
+			this.modified = modified;
+		}
+	}
+
+	/**
+	 * Holder of the thread writing sidecar indexes, which is only started once an index changes
+	 */
+	private static final class Saver {
+		/**
+		 * The executor writing the sidecar indexes of every folder
+		 */
+		private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "ierislib-assets-hashes");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
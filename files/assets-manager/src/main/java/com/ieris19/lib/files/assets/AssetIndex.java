@@ -0,0 +1,279 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory index of the entries of an asset folder, kept up to date by a {@link WatchService}. Listing the index
+ * never touches the file system, the shared watcher thread applies the changes to the folder as the file system reports
+ * them, so changes made to the folder are visible shortly after they happen rather than immediately. That is usually
+ * within a second, but can take several seconds on file systems where the watch service polls the folder. A file
+ * missing from the index is looked up in the file system, so a file is found as soon as it's created, while a deleted
+ * file is still indexed until its deletion is reported. <br> Folders that
+ * cannot be watched, because they don't exist or their file system does not support it, are listed on every lookup
+ * instead.
+ */
+final class AssetIndex {
+	/**
+	 * The indexed folder
+	 */
+	private final Path directory;
+	/**
+	 * The registration of the folder with the watcher, or null if it's not watched
+	 */
+	private final WatchKey key;
+	/**
+	 * Whether each entry of the folder is a directory, by name. Replaced as a whole on every change
+	 */
+	private volatile Map<String, Boolean> entries;
+	/**
+	 * Whether the index still reflects the folder, it stops doing so when the folder is deleted or the index is closed
+	 */
+	private volatile boolean valid = true;
+
+	/**
+	 * Creates the index of a folder, watching it if possible
+	 *
+	 * @param directory the folder to index
+	 */
+	AssetIndex(Path directory) {
+		this.directory = directory;
+		this.key = Watcher.register(this);
+		synchronized (this) {
+			this.entries = list(directory);
+		}
+	}
+
+	/**
+	 * The entries of the folder
+	 *
+	 * @return whether each entry is a directory, by name, or null if the folder does not exist
+	 */
+	Map<String, Boolean> entries() {
+		return key != null ? entries : list(directory);
+	}
+
+	/**
+	 * Whether the folder has a file with the given name. Files missing from the index are looked up in the file system,
+	 * as they may have been created after the last change reported by the watcher
+	 *
+	 * @param name the name of the file
+	 *
+	 * @return true if the folder has the file
+	 */
+	boolean isFile(String name) {
+		Map<String, Boolean> current = entries();
+		if (current == null)
+			return false;
+		Boolean directory = current.get(name);
+		if (directory != null)
+			return !directory;
+		return key != null && Files.isRegularFile(this.directory.resolve(name));
+	}
+
+	/**
+	 * Whether the index still reflects the folder. An invalid index must be replaced by a new one
+	 *
+	 * @return true if the index is valid
+	 */
+	boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Stops watching the folder. Indexes of the same folder share its registration, which is only cancelled once the
+	 * last of them is closed
+	 */
+	void close() {
+		valid = false;
+		if (key != null)
+			Watcher.unregister(this);
+	}
+
+	/**
+	 * Applies the changes reported by the watcher
+	 *
+	 * @param events the changes to the folder
+	 */
+	private synchronized void apply(Iterable<WatchEvent<?>> events) {
+		Map<String, Boolean> next = null;
+		for (WatchEvent<?> event : events) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				entries = list(directory);
+				return;
+			}
+			if (next == null)
+				next = entries == null ? new HashMap<>() : new HashMap<>(entries);
+			Path name = (Path) event.context();
+			if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE)
+				next.remove(name.toString());
+			else
+				next.put(name.toString(), Files.isDirectory(directory.resolve(name)));
+			if (event.kind() != StandardWatchEventKinds.ENTRY_CREATE)
+				AssetHandler.getCache().invalidate(directory.resolve(name));
+		}
+		if (next != null)
+			entries = Collections.unmodifiableMap(next);
+	}
+
+	/**
+	 * Lists the entries of a folder
+	 *
+	 * @param directory the folder to list
+	 *
+	 * @return whether each entry is a directory, by name, or null if the folder cannot be listed
+	 */
+	private static Map<String, Boolean> list(Path directory) {
+		Map<String, Boolean> entries = new HashMap<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path entry : stream) {
+				entries.put(entry.getFileName().toString(), Files.isDirectory(entry));
+			}
+		} catch (IOException e) {
+			return null;
+		}
+		return Collections.unmodifiableMap(entries);
+	}
+
+	/**
+	 * Holder of the watch service and the thread applying its events, which are only started once a folder is indexed
+	 */
+	private static final class Watcher {
+		/**
+		 * The indexes of every watched folder, by registration. A folder indexed more than once is registered once, so
+		 * its indexes share the registration. Guarded by the class lock
+		 */
+		private static final Map<WatchKey, List<AssetIndex>> indexes = new HashMap<>();
+		/**
+		 * The watch service of the default file system, or null if it does not support watching
+		 */
+		private static final WatchService SERVICE;
+
+		static {
+			WatchService service;
+			try {
+				service = FileSystems.getDefault().newWatchService();
+			} catch (IOException | UnsupportedOperationException e) {
+				service = null;
+			}
+			SERVICE = service;
+			if (service != null) {
+				Thread thread = new Thread(Watcher::run, "ierislib-assets-watcher");
+				thread.setDaemon(true);
+				thread.start();
+			}
+		}
+
+		/**
+		 * Starts watching the folder of an index
+		 *
+		 * @param index the index of the folder
+		 *
+		 * @return the registration of the folder, or null if it cannot be watched
+		 */
+		private static synchronized WatchKey register(AssetIndex index) {
+			if (SERVICE == null || index.directory.getFileSystem() != FileSystems.getDefault())
+				return null;
+			try {
+				WatchKey key = index.directory.register(SERVICE, StandardWatchEventKinds.ENTRY_CREATE,
+				                                        StandardWatchEventKinds.ENTRY_DELETE,
+				                                        StandardWatchEventKinds.ENTRY_MODIFY);
+				indexes.computeIfAbsent(key, registered -> new ArrayList<>()).add(index);
+				return key;
+			} catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Stops watching the folder of an index, cancelling its registration if no other index of the folder uses it
+		 *
+		 * @param index the closed index
+		 */
+		private static synchronized void unregister(AssetIndex index) {
+			List<AssetIndex> sharing = indexes.get(index.key);
+			if (sharing == null)
+				return;
+			sharing.remove(index);
+			if (sharing.isEmpty()) {
+				indexes.remove(index.key);
+				index.key.cancel();
+			}
+		}
+
+		/**
+		 * The indexes sharing a registration
+		 *
+		 * @param key the registration of a folder
+		 *
+		 * @return a copy of the indexes of the folder, empty if it's no longer watched
+		 */
+		private static synchronized List<AssetIndex> indexes(WatchKey key) {
+			List<AssetIndex> sharing = indexes.get(key);
+			return sharing == null ? List.of() : List.copyOf(sharing);
+		}
+
+		/**
+		 * Forgets a registration that is no longer valid, invalidating every index that shared it
+		 *
+		 * @param key the cancelled registration of a folder
+		 */
+		private static synchronized void cancelled(WatchKey key) {
+			List<AssetIndex> sharing = indexes.remove(key);
+			if (sharing != null) {
+				for (AssetIndex index : sharing) {
+					index.valid = false;
+				}
+			}
+		}
+
+		/**
+		 * Applies the events of every watched folder to its indexes until the virtual machine exits
+		 */
+		private static void run() {
+			while (true) {
+				WatchKey key;
+				try {
+					key = SERVICE.take();
+				} catch (InterruptedException | ClosedWatchServiceException e) {
+					return;
+				}
+				List<WatchEvent<?>> events = key.pollEvents();
+				for (AssetIndex index : indexes(key)) {
+					index.apply(events);
+				}
+				if (!key.reset())
+					cancelled(key);
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+/**
+ * A listener notified of the progress of preloading assets with
+ * {@link AssetHandler#preload(java.util.Collection, PreloadListener)}. It's called on the threads loading the assets,
+ * so it should return quickly and hand any work that touches a user interface over to its own thread.
+ */
+@FunctionalInterface
+public interface PreloadListener {
+	/**
+	 * Called once for every asset that finished loading, whether it was loaded or failed
+	 *
+	 * @param name      the name of the asset
+	 * @param completed the amount of assets finished so far, including this one
+	 * @param total     the amount of assets being preloaded
+	 */
+	void assetLoaded(String name, int completed, int total);
+}
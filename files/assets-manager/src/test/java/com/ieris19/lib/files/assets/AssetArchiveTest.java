@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.assets;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Asset Archive Test")
+class AssetArchiveTest {
+	@TempDir Path directory;
+	private Path folder;
+	private Path archive;
+	private final byte[] text = "a line of text that repeats, ".repeat(64).getBytes(StandardCharsets.UTF_8);
+	private final byte[] binary = new byte[256];
+
+	@BeforeEach void setUp() throws IOException {
+		folder = directory.resolve("icons");
+		archive = directory.resolve("icons" + AssetArchive.EXTENSION);
+		for (int i = 0; i < binary.length; i++) {
+			binary[i] = (byte) (i * 31);
+		}
+		Files.createDirectories(folder.resolve("sub"));
+		Files.write(folder.resolve("text.txt"), text);
+		Files.write(folder.resolve("sub").resolve("binary.bin"), binary);
+		Files.write(folder.resolve("empty"), new byte[0]);
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	private void assertPacked(AssetArchive opened) throws IOException {
+		assertEquals(List.of("empty", "sub/binary.bin", "text.txt"), List.copyOf(opened.names()));
+		assertArrayEquals(text, bytes(opened.get("text.txt")));
+		assertArrayEquals(binary, bytes(opened.get("sub/binary.bin")));
+		assertEquals(0, opened.get("empty").remaining());
+		assertEquals(text.length, opened.length("text.txt"));
+		assertEquals(-1, opened.length("missing"));
+		assertNull(opened.get("missing"));
+		assertFalse(opened.contains("sub"));
+		try (InputStream stream = opened.openStream("text.txt")) {
+			assertArrayEquals(text, stream.readAllBytes());
+		}
+	}
+
+	@Test @DisplayName ("Stored assets are read as they were packed") void storedRoundTrip() throws IOException {
+		assertEquals(3, AssetArchiveBuilder.pack(folder, archive, false));
+		assertPacked(AssetArchive.open(archive));
+	}
+
+	@Test @DisplayName ("Compressed assets are read as they were packed") void compressedRoundTrip() throws IOException {
+		AssetArchiveBuilder.pack(folder, archive, true);
+		assertTrue(Files.size(archive) < text.length);
+		assertPacked(AssetArchive.open(archive));
+	}
+
+	@Test @DisplayName ("Packing replaces the archive and skips it when it's inside the folder") void repack()
+	throws IOException {
+		Path inside = folder.resolve("icons" + AssetArchive.EXTENSION);
+		AssetArchiveBuilder.pack(folder, inside, false);
+		assertEquals(3, AssetArchiveBuilder.pack(folder, inside, false));
+		assertFalse(AssetArchive.open(inside).contains("icons" + AssetArchive.EXTENSION));
+		assertThrows(IllegalArgumentException.class,
+		             () -> AssetArchiveBuilder.pack(folder.resolve("text.txt"), archive, false));
+	}
+
+	@Test @DisplayName ("Files that are not archives are rejected") void notAnArchive() throws IOException {
+		Files.write(archive, new byte[0]);
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+		Files.write(archive, "not an archive at all".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+		AssetArchiveBuilder.pack(folder, archive, false);
+		byte[] bytes = Files.readAllBytes(archive);
+		bytes[7] = 9;
+		Files.write(archive, bytes);
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+	}
+
+	@Test @DisplayName ("Truncated archives are rejected") void truncated() throws IOException {
+		AssetArchiveBuilder.pack(folder, archive, false);
+		byte[] bytes = Files.readAllBytes(archive);
+		for (int length : new int[] {10, 14, 20, 40, bytes.length - 1}) {
+			Files.write(archive, Arrays.copyOf(bytes, length));
+			assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive), "length " + length);
+		}
+	}
+
+	@Test @DisplayName ("Archives with a corrupted index are rejected") void corruptedIndex() throws IOException {
+		AssetArchiveBuilder.pack(folder, archive, false);
+		byte[] packed = Files.readAllBytes(archive);
+		byte[] bytes = packed.clone();
+		// The length of the first name, which would not fit in memory
+		ByteBuffer.wrap(bytes).putInt(12, Integer.MAX_VALUE);
+		Files.write(archive, bytes);
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+		ByteBuffer.wrap(bytes).putInt(12, -1);
+		Files.write(archive, bytes);
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+		bytes = packed.clone();
+		// The method of the first asset, after its name "empty"
+		bytes[12 + 4 + 5 + 12] = 7;
+		Files.write(archive, bytes);
+		assertThrows(IllegalArgumentException.class, () -> AssetArchive.open(archive));
+	}
+
+	@Test @DisplayName ("Corrupted compressed assets fail when read") void corruptedContent() throws IOException {
+		AssetArchiveBuilder.pack(folder, archive, true);
+		byte[] bytes = Files.readAllBytes(archive);
+		Arrays.fill(bytes, bytes.length - 8, bytes.length, (byte) 0);
+		Files.write(archive, bytes);
+		AssetArchive opened = AssetArchive.open(archive);
+		assertThrows(IOException.class, () -> opened.get("text.txt"));
+	}
+}
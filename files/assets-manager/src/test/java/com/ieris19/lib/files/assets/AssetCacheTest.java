@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Asset Cache Test")
+class AssetCacheTest {
+	private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+
+	@TempDir Path directory;
+
+	private Path file(String name, String content, FileTime modified) throws IOException {
+		Path file = directory.resolve(name);
+		Files.writeString(file, content);
+		Files.setLastModifiedTime(file, modified);
+		return file;
+	}
+
+	private static String text(ByteBuffer buffer) {
+		return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+	}
+
+	@Test @DisplayName ("Unchanged files are served from the cache") void cached() throws IOException {
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		Path file = file("a.png", "aaaa", OLD);
+		assertEquals("aaaa", text(cache.get(file)));
+		assertEquals(4, cache.size());
+		// a rewrite that keeps the size and an old modification time is trusted to be the same file
+		file("a.png", "bbbb", OLD);
+		assertEquals("aaaa", text(cache.get(file)));
+		assertTrue(cache.get(file).isReadOnly());
+	}
+
+	@Test @DisplayName ("Modified files are read again") void modified() throws IOException {
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		Path file = file("a.png", "aaaa", OLD);
+		assertEquals("aaaa", text(cache.get(file)));
+		file("a.png", "bbbbbb", OLD);
+		assertEquals("bbbbbb", text(cache.get(file)));
+		file("a.png", "cccccc", FileTime.fromMillis(OLD.toMillis() + 1000));
+		assertEquals("cccccc", text(cache.get(file)));
+		assertEquals(6, cache.size());
+	}
+
+	@Test @DisplayName ("Recent rewrites keeping the size and modification time are read again") void racyRewrite()
+	throws IOException {
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+		Path file = file("a.png", "aaaa", now);
+		assertEquals("aaaa", text(cache.get(file)));
+		file("a.png", "bbbb", now);
+		assertEquals("bbbb", text(cache.get(file)));
+		assertEquals(4, cache.size());
+	}
+
+	@Test @DisplayName ("The least recently used files are evicted once the cache is full") void evicted()
+	throws IOException {
+		AssetCache cache = new AssetCache(10, AssetCache.Storage.HEAP);
+		Path a = file("a.png", "aaaa", OLD);
+		Path b = file("b.png", "bbbb", OLD);
+		Path c = file("c.png", "cccc", OLD);
+		cache.get(a);
+		cache.get(b);
+		assertEquals(8, cache.size());
+		cache.get(a);
+		cache.get(c);
+		assertEquals(8, cache.size());
+		// cached files keep serving their content, evicted ones are read again
+		file("a.png", "AAAA", OLD);
+		file("b.png", "BBBB", OLD);
+		assertEquals("aaaa", text(cache.get(a)));
+		assertEquals("BBBB", text(cache.get(b)));
+		assertEquals(8, cache.size());
+	}
+
+	@Test @DisplayName ("Files larger than the cache are read without being cached") void oversized() throws IOException {
+		AssetCache cache = new AssetCache(3, AssetCache.Storage.HEAP);
+		Path file = file("a.png", "aaaa", OLD);
+		assertEquals("aaaa", text(cache.get(file)));
+		assertEquals(0, cache.size());
+		file("a.png", "bbbb", OLD);
+		assertEquals("bbbb", text(cache.get(file)));
+	}
+
+	@Test @DisplayName ("Identical files share their content") void shared() throws IOException {
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		cache.get(file("a.png", "same", OLD));
+		cache.get(file("b.png", "same", OLD));
+		assertEquals(4, cache.size());
+		cache.invalidate(directory.resolve("a.png"));
+		assertEquals(4, cache.size());
+		cache.invalidate(directory.resolve("b.png"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test @DisplayName ("Every storage serves the content of the files") void storages() throws IOException {
+		Path file = file("a.png", "aaaa", OLD);
+		for (AssetCache.Storage storage : AssetCache.Storage.values()) {
+			AssetCache cache = new AssetCache(1 << 20, storage);
+			assertSame(storage, cache.storage());
+			ByteBuffer content = cache.get(file);
+			assertEquals("aaaa", text(content), storage.name());
+			assertEquals(storage == AssetCache.Storage.DIRECT, content.isDirect(), storage.name());
+			assertEquals("aaaa", text(cache.get(file)), storage.name());
+			assertEquals(4, cache.size(), storage.name());
+			cache.invalidateAll();
+			assertEquals(0, cache.size(), storage.name());
+		}
+	}
+
+	@Test @DisplayName ("Deleted files are dropped from the cache") void deleted() throws IOException {
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		Path file = file("a.png", "aaaa", OLD);
+		cache.get(file);
+		Files.delete(file);
+		assertThrows(NoSuchFileException.class, () -> cache.get(file));
+		assertEquals(0, cache.size());
+	}
+
+	@Test @DisplayName ("Negative maximum sizes are rejected") void negativeSize() {
+		assertThrows(IllegalArgumentException.class, () -> new AssetCache(-1, AssetCache.Storage.HEAP));
+	}
+}
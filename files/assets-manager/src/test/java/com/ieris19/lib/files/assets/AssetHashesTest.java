@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.assets;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Asset Hashes Test")
+class AssetHashesTest {
+	private static final String FAKE = "f".repeat(64);
+	private static final FileTime MODIFIED = FileTime.fromMillis(1_600_000_000_000L);
+
+	@TempDir Path directory;
+	private Path folder;
+
+	@BeforeEach void setUp() throws IOException {
+		folder = Files.createDirectory(directory.resolve("icons"));
+	}
+
+	private Path file(String name, String content) throws IOException {
+		Path file = folder.resolve(name);
+		Files.writeString(file, content);
+		Files.setLastModifiedTime(file, MODIFIED);
+		return file.toAbsolutePath().normalize();
+	}
+
+	private static String line(String hash, long size, String name) {
+		return hash + " " + size + " " + MODIFIED.toMillis() + " " + name + "\n";
+	}
+
+	private static String text(ByteBuffer buffer) {
+		return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+	}
+
+	@Test @DisplayName ("Invalid lines of the index only discard themselves") void invalidLine() throws IOException {
+		Path a = file("a.png", "a");
+		Path c = file("c.png", "c");
+		Files.writeString(AssetHashes.sidecarOf(folder),
+		                  line(FAKE, 1, "a.png") + FAKE + " size 0 b.png\n" + "short 1 2 x\n" + line(FAKE, 1, "c.png"));
+		AssetHashes hashes = new AssetHashes(folder);
+		assertEquals(FAKE, hashes.stored(a, 1, MODIFIED.toMillis()));
+		assertEquals(FAKE, hashes.stored(c, 1, MODIFIED.toMillis()));
+		assertEquals(FAKE, hashes.hash("c.png"));
+		assertNull(hashes.stored(c, 2, MODIFIED.toMillis()));
+	}
+
+	@Test @DisplayName ("Hashes of files read by the cache are stored") void recordedByCache() throws IOException {
+		Path a = file("a.png", "content");
+		AssetHashes hashes = new AssetHashes(folder);
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		String hash = AssetCache.hash(cache.get(a, hashes));
+		assertEquals(hash, hashes.stored(a, 7, MODIFIED.toMillis()));
+		assertEquals(hash, hashes.hash("a.png"));
+		hashes.flush();
+		assertEquals(hash, new AssetHashes(folder).stored(a, 7, MODIFIED.toMillis()));
+	}
+
+	@Test @DisplayName ("The cache shares content by the hash of the bytes it reads") void ignoredByCache()
+	throws IOException {
+		Path a = file("a.png", "same");
+		Path b = file("b.png", "same");
+		Path c = file("c.png", "diff");
+		Files.writeString(AssetHashes.sidecarOf(folder), line(FAKE, 4, "a.png") + line(FAKE, 4, "c.png"));
+		AssetHashes hashes = new AssetHashes(folder);
+		AssetCache cache = new AssetCache(1 << 20, AssetCache.Storage.HEAP);
+		assertEquals("same", text(cache.get(a, hashes)));
+		assertEquals("same", text(cache.get(b, hashes)));
+		assertEquals("diff", text(cache.get(c, hashes)));
+		// the stale stored hashes neither split the identical files nor merge the different ones
+		assertEquals(8, cache.size());
+		assertEquals(AssetCache.hash(cache.get(a)), hashes.stored(a, 4, MODIFIED.toMillis()));
+	}
+}
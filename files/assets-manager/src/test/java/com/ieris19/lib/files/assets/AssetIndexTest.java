@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.assets;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Asset Index Test")
+class AssetIndexTest {
+	@TempDir Path directory;
+	private AssetIndex index;
+
+	@BeforeEach void setUp() throws IOException {
+		Files.writeString(directory.resolve("old.png"), "old");
+		Files.createDirectory(directory.resolve("sub"));
+		index = new AssetIndex(directory);
+	}
+
+	@AfterEach void tearDown() {
+		index.close();
+	}
+
+	@Test @DisplayName ("Indexed files are found") void indexed() {
+		assertTrue(index.isFile("old.png"));
+		assertFalse(index.isFile("sub"));
+		assertFalse(index.isFile("missing.png"));
+	}
+
+	@Test @DisplayName ("Files are found as soon as they're created") void created() throws IOException {
+		Files.writeString(directory.resolve("new.png"), "new");
+		assertTrue(index.isFile("new.png"));
+		Files.createDirectory(directory.resolve("folder"));
+		assertFalse(index.isFile("folder"));
+	}
+
+	@Test @DisplayName ("Deleted files leave the index once the deletion is reported") void deleted()
+	throws IOException, InterruptedException {
+		Files.delete(directory.resolve("old.png"));
+		long end = System.nanoTime() + 20_000_000_000L;
+		while (index.isFile("old.png") && System.nanoTime() < end) {
+			Thread.sleep(20);
+		}
+		assertFalse(index.isFile("old.png"));
+	}
+
+	@Test @DisplayName ("Indexes of the same folder all receive its changes") void shared()
+	throws IOException, InterruptedException {
+		AssetIndex other = new AssetIndex(directory.resolve("sub").getParent());
+		try {
+			Files.delete(directory.resolve("old.png"));
+			awaitDeletion(index, "old.png");
+			awaitDeletion(other, "old.png");
+			assertFalse(index.isFile("old.png"));
+			assertFalse(other.isFile("old.png"));
+		} finally {
+			other.close();
+		}
+	}
+
+	@Test @DisplayName ("Closing one index of a folder keeps the others watching it") void closeShared()
+	throws IOException, InterruptedException {
+		new AssetIndex(directory).close();
+		assertTrue(index.isValid());
+		Files.delete(directory.resolve("old.png"));
+		awaitDeletion(index, "old.png");
+		assertFalse(index.isFile("old.png"));
+	}
+
+	private static void awaitDeletion(AssetIndex index, String name) throws InterruptedException {
+		long end = System.nanoTime() + 20_000_000_000L;
+		while (index.isFile(name) && System.nanoTime() < end) {
+			Thread.sleep(20);
+		}
+	}
+}
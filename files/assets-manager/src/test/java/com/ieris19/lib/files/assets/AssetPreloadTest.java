@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.assets;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Asset Preload Test")
+class AssetPreloadTest {
+	/**
+	 * The root of the assets, which can only be set before the first handler is created
+	 */
+	private static final Path ROOT;
+
+	static {
+		try {
+			ROOT = Files.createTempDirectory("ierislib-assets");
+			ROOT.toFile().deleteOnExit();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		AssetHandler.setAssetRoot(ROOT.toString());
+	}
+
+	private static final AtomicInteger categories = new AtomicInteger();
+	private AssetHandler handler;
+
+	@BeforeEach void setUp() throws IOException {
+		String category = "category" + categories.incrementAndGet();
+		Path folder = ROOT.resolve(category);
+		Files.createDirectories(folder.resolve("sprites").resolve("player"));
+		Files.writeString(folder.resolve("icon.png"), "icon");
+		Files.writeString(folder.resolve("sprites").resolve("tree.png"), "tree");
+		Files.writeString(folder.resolve("sprites").resolve("player").resolve("idle.png"), "idle");
+		Files.writeString(folder.resolve("sprites").resolve("notes.txt"), "notes");
+		handler = AssetHandler.getInstance(category);
+	}
+
+	@AfterEach void tearDown() {
+		handler.close();
+	}
+
+	private static void await(CompletableFuture<Void> future) throws InterruptedException, ExecutionException {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			fail("The preload never completed");
+		}
+	}
+
+	@Test @DisplayName ("Globs match the assets of subfolders") void globInSubfolders() throws Exception {
+		Set<String> loaded = ConcurrentHashMap.newKeySet();
+		await(handler.preload("sprites/**", (name, completed, total) -> loaded.add(name)));
+		assertEquals(Set.of("sprites/tree.png", "sprites/player/idle.png", "sprites/notes.txt"), loaded);
+		loaded.clear();
+		await(handler.preload("**.png", (name, completed, total) -> loaded.add(name)));
+		assertEquals(Set.of("icon.png", "sprites/tree.png", "sprites/player/idle.png"), loaded);
+		loaded.clear();
+		await(handler.preload("*.png", (name, completed, total) -> loaded.add(name)));
+		assertEquals(Set.of("icon.png"), loaded);
+	}
+
+	@Test @DisplayName ("Listeners throwing on the last asset do not keep the preload from completing")
+	void throwingListener() throws InterruptedException {
+		CompletableFuture<Void> future = handler.preload(List.of("icon.png", "sprites/tree.png"), Runnable::run,
+		                                                 (name, completed, total) -> {
+			                                                 if (completed == total)
+				                                                 throw new IllegalStateException("listener");
+		                                                 });
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> await(future));
+		assertTrue(failure.getCause() instanceof IllegalStateException);
+	}
+
+	@Test @DisplayName ("Errors complete the preload exceptionally") void error() throws InterruptedException {
+		CompletableFuture<Void> future = handler.preload(List.of("icon.png"), (name, completed, total) -> {
+			throw new AssertionError("listener");
+		});
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> await(future));
+		assertTrue(failure.getCause() instanceof AssertionError);
+	}
+
+	@Test @DisplayName ("Missing assets fail the preload after loading the rest") void missingAsset() {
+		AtomicInteger notified = new AtomicInteger();
+		CompletableFuture<Void> future = handler.preload(List.of("missing.png", "icon.png"), Runnable::run,
+		                                                 (name, completed, total) -> notified.incrementAndGet());
+		assertTrue(future.isCompletedExceptionally());
+		assertEquals(2, notified.get());
+	}
+}
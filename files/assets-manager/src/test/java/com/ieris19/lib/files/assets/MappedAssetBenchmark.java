@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Manual benchmark comparing the ways of reading an asset: reading all of {@link AssetHandler#getAssetAsStream(String)}
+ * into the heap, copying the stream into a file through a small buffer, scanning
+ * {@link AssetHandler#mapAsset(String)} and copying the asset into a file with
+ * {@link AssetHandler#transferAsset(String, java.nio.channels.WritableByteChannel)}. Every run reports the throughput
+ * and the bytes allocated in the heap by the reading thread. <br> The largest asset is 1 GiB by default, a smaller
+ * limit in MiB can be passed as the first argument.
+ */
+public class MappedAssetBenchmark {
+	/**
+	 * The amount of times every run is repeated, the first repetition only warms up
+	 */
+	private static final int REPETITIONS = 4;
+	/**
+	 * Receives the sums of the mapped scans, so they're not optimized away
+	 */
+	private static volatile long blackhole;
+
+	public static void main(String[] args) throws Exception {
+		long maxMiB = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+		Path root = Files.createTempDirectory("ierislib-benchmark");
+		try {
+			AssetHandler.setAssetRoot(root.toString());
+			AssetHandler assets = AssetHandler.getInstance("benchmark");
+			Path sink = root.resolve("sink");
+			for (long mib = 1; mib <= maxMiB; mib *= 4) {
+				String name = mib + "MiB";
+				write(root.resolve("benchmark").resolve(name), mib << 20);
+				System.out.println(name);
+				run("stream readAllBytes", mib, () -> {
+					try (InputStream in = assets.getAssetAsStream(name)) {
+						return in.readAllBytes().length;
+					}
+				});
+				run("stream copy        ", mib, () -> {
+					try (InputStream in = assets.getAssetAsStream(name);
+					     OutputStream out = Files.newOutputStream(sink)) {
+						return in.transferTo(out);
+					}
+				});
+				run("mapped scan        ", mib, () -> {
+					MappedByteBuffer buffer = assets.mapAsset(name);
+					long sum = 0;
+					while (buffer.remaining() >= Long.BYTES) {
+						sum += buffer.getLong();
+					}
+					blackhole = sum;
+					return buffer.position();
+				});
+				run("transferTo         ", mib, () -> {
+					try (FileChannel out = FileChannel.open(sink, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+						return assets.transferAsset(name, out);
+					}
+				});
+				Files.delete(root.resolve("benchmark").resolve(name));
+			}
+		} finally {
+			try (Stream<Path> files = Files.walk(root)) {
+				files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+
+	/**
+	 * Runs a way of reading an asset several times, reporting the best throughput and the heap allocated by the last run
+	 *
+	 * @param name   the name of the way of reading
+	 * @param mib    the size of the asset, in MiB
+	 * @param reader reads the asset, returning the amount of bytes read
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void run(String name, long mib, Reader reader) throws IOException {
+		double best = 0;
+		long allocated = 0;
+		for (int i = 0; i < REPETITIONS; i++) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			long read = reader.read();
+			long elapsed = System.nanoTime() - start;
+			allocated = allocatedBytes() - allocatedBefore;
+			if (read != mib << 20)
+				throw new IllegalStateException("Read " + read + " bytes instead of " + (mib << 20));
+			if (i > 0)
+				best = Math.max(best, mib * 1e9 / elapsed);
+		}
+		System.out.printf("  %s %10.1f MiB/s %12d bytes allocated%n", name, best, allocated);
+	}
+
+	/**
+	 * Writes a file of the given size
+	 *
+	 * @param file the file to write
+	 * @param size the size of the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void write(Path file, long size) throws IOException {
+		ByteBuffer chunk = ByteBuffer.allocate(1 << 20);
+		for (int i = 0; i < chunk.capacity(); i++) {
+			chunk.put(i, (byte) i);
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		                                            StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (long written = 0; written < size; written += chunk.capacity()) {
+				channel.write(chunk.clear());
+			}
+		}
+	}
+
+	/**
+	 * The bytes allocated in the heap by the current thread, if the virtual machine can measure them
+	 *
+	 * @return the bytes allocated by the current thread, or zero if they cannot be measured
+	 */
+	private static long allocatedBytes() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+			return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * A way of reading an asset
+	 */
+	@FunctionalInterface
+	private interface Reader {
+		/**
+		 * Reads the asset
+		 *
+		 * @return the amount of bytes read
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		long read() throws IOException;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.assets;
+
+import java.net.URL;
+import java.util.function.Function;
+
+/**
+ * Manual benchmark comparing {@link AssetHandler#getResource(String)} with the way it used to find its caller, which
+ * captured the whole stack trace and loaded the calling class by name on every lookup. Every run looks up the class
+ * file of this benchmark from a few frames deep, and reports the lookups per millisecond.
+ */
+public class ResourceLookupBenchmark {
+	/**
+	 * The time every run lasts, in milliseconds
+	 */
+	private static final long RUN_MILLIS = 1000;
+	/**
+	 * The amount of frames between the benchmark loop and the lookup, so the stack is not trivially short
+	 */
+	private static final int DEPTH = 32;
+	/**
+	 * The resource looked up, the class file of this benchmark
+	 */
+	private static final String RESOURCE = "ResourceLookupBenchmark.class";
+
+	public static void main(String[] args) {
+		for (int i = 0; i < 3; i++) {
+			run("getStackTrace + forName", ResourceLookupBenchmark::stackTraceLookup);
+			run("StackWalker + cache    ", AssetHandler::getResource);
+		}
+	}
+
+	/**
+	 * Looks up the resource the way {@link AssetHandler#getResource(String)} used to
+	 *
+	 * @param name the name of the resource
+	 *
+	 * @return the URL of the resource
+	 */
+	private static URL stackTraceLookup(String name) {
+		try {
+			Class<?> caller = Class.forName(Thread.currentThread().getStackTrace()[2].getClassName());
+			return caller.getResource(name);
+		} catch (ClassNotFoundException ignored) {
+			return null;
+		}
+	}
+
+	/**
+	 * Looks up the resource repeatedly for a while and reports the throughput
+	 *
+	 * @param name   the name of the lookup
+	 * @param lookup looks up a resource relative to its caller
+	 */
+	private static void run(String name, Function<String, URL> lookup) {
+		long count = 0;
+		long end = System.nanoTime() + RUN_MILLIS * 1_000_000;
+		while (System.nanoTime() < end) {
+			for (int i = 0; i < 100; i++) {
+				if (nested(DEPTH, lookup) == null)
+					throw new IllegalStateException("Resource not found");
+			}
+			count += 100;
+		}
+		System.out.printf("%s %12.1f lookups/ms%n", name, (double) count / RUN_MILLIS);
+	}
+
+	/**
+	 * Looks up the resource from a number of nested frames
+	 *
+	 * @param depth  the amount of frames left
+	 * @param lookup looks up a resource relative to its caller
+	 *
+	 * @return the URL of the resource
+	 */
+	private static URL nested(int depth, Function<String, URL> lookup) {
+		return depth == 0 ? lookup.apply(RESOURCE) : nested(depth - 1, lookup);
+	}
+}
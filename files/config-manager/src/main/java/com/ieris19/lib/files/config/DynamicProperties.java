@@ -19,14 +19,61 @@ package com.ieris19.lib.files.config;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 
 /**
- * Properties that can be dynamically changed. The properties are stored in a file and read from a file for each access.
- * This class is expensive in terms of performance, so it is recommended to use it only for properties that are changed
- * frequently or for properties that are not used frequently but need to be manually changed without interrupting the
- * program.
+ * Properties that can be dynamically changed. The properties are stored in a file, which is checked for changes before
+ * each access. Whenever the file has been modified since it was last read, the properties are reloaded. Otherwise, the
+ * properties are read from an in-memory snapshot. <br> A change is detected by comparing the last modification time and
+ * the size of the file. A file loaded within two seconds of its last modification could still be rewritten with the
+ * same size and modification time, so until then its content is compared as well. By default, the file is checked on
+ * every access, which costs a file system lookup but no parsing. Properties that are read often can limit how frequently the file is checked with
+ * {@link #setReloadInterval(Duration)}, at the cost of noticing changes later. <br> Properties created, modified or
+ * deleted through this class are saved to the file, either immediately or in batches with
+ * {@link #setSaveDelay(Duration)}. <br> A reload that fails, because the file cannot be read, is not valid in its
+ * format or does not satisfy the {@link #setSchema(PropertySchema) schema}, is rejected as a whole: the properties keep
+ * their previous values and the failure is available through {@link #getReloadFailure()} until the file changes
+ * again.
  */
 public class DynamicProperties extends IerisProperties implements AutoCloseable {
+	/**
+	 * How long after its modification time a file must have been loaded to trust its size and modification time, in
+	 * milliseconds, which covers the coarsest timestamps of common file systems
+	 */
+	private static final long RACY_WINDOW = 2000;
+	/**
+	 * The path of the properties file, resolved once when the properties are first loaded
+	 */
+	private volatile Path path;
+	/**
+	 * The minimum time, in nanoseconds, between two checks of the properties file
+	 */
+	private volatile long reloadInterval;
+	/**
+	 * The {@link System#nanoTime()} of the last check of the properties file
+	 */
+	private volatile long lastCheck;
+	/**
+	 * The last modification time of the properties file when it was last loaded, or null if it could not be read
+	 */
+	private volatile FileTime loadedModified;
+	/**
+	 * The size of the properties file when it was last loaded
+	 */
+	private volatile long loadedSize;
+	/**
+	 * The time, in milliseconds since the epoch, the properties file was last loaded
+	 */
+	private volatile long loadedAt;
+	/**
+	 * The reason the last reload was rejected, or null if it succeeded
+	 */
+	private volatile RuntimeException reloadFailure;
+
 	/**
 	 * Initializes the class by creating and reading the properties file.
 	 *
@@ -73,120 +120,240 @@ public class DynamicProperties extends IerisProperties implements AutoCloseable
 	}
 
 	/**
-	 * Loads properties from the file and promptly runs {@link IerisProperties#getProperty(String)}
+	 * Sets the minimum time between two checks of the properties file for changes. Within this interval, properties are
+	 * read from memory even if the file has changed. The default interval is zero, which checks the file on every
+	 * access
 	 *
-	 * @param key the name of the desired property
+	 * @param interval the minimum time between two checks
 	 *
-	 * @return the value of the property corresponding to the key
+	 * @throws IllegalArgumentException if the interval is negative
+	 */
+	public void setReloadInterval(Duration interval) throws IllegalArgumentException {
+		if (interval.isNegative())
+			throw new IllegalArgumentException("The reload interval cannot be negative");
+		this.reloadInterval = interval.toNanos();
+	}
+
+	/**
+	 * Loads the properties from the file, remembering its modification time and size in order to detect later changes
 	 *
-	 * @throws IllegalArgumentException if the property does not exist
+	 * @throws IllegalStateException   if the file cannot be read or is not valid in its format
+	 * @throws PropertySchemaException if the properties in the file do not satisfy the schema
+	 */
+	@Override protected synchronized void loadProperties() throws IllegalStateException, PropertySchemaException {
+		BasicFileAttributes attributes = attributes();
+		super.loadProperties();
+		remember(attributes);
+		this.reloadFailure = null;
+		this.lastCheck = System.nanoTime();
+	}
+
+	/**
+	 * Reloads the properties if the file has changed since it was last loaded. The file is checked at most once per
+	 * {@link #setReloadInterval(Duration) reload interval}. If the reload fails, the current properties are kept and the
+	 * file is not loaded again until it changes
 	 */
-	@Override public String getProperty(String key) throws IllegalArgumentException {
-		loadProperties();
-		return super.getProperty(key);
+	public void reloadIfChanged() {
+		long now = System.nanoTime();
+		if (now - lastCheck < reloadInterval)
+			return;
+		lastCheck = now;
+		BasicFileAttributes attributes = attributes();
+		if (attributes == null || hasChanged(attributes)) {
+			synchronized (this) {
+				attributes = attributes();
+				if (attributes == null || hasChanged(attributes)) {
+					try {
+						loadProperties();
+					} catch (IllegalStateException | PropertySchemaException e) {
+						remember(attributes);
+						this.reloadFailure = e;
+					}
+				}
+			}
+		}
 	}
 
 	/**
-	 * Loads properties from the file and promptly runs {@link IerisProperties#modifyProperty(String, String)}
+	 * The reason the last reload of the properties file was rejected
+	 *
+	 * @return the failure of the last reload, or null if it succeeded
+	 */
+	public RuntimeException getReloadFailure() {
+		return reloadFailure;
+	}
+
+	/**
+	 * Remembers the modification time and size of the file, so it's only loaded again once they change
+	 *
+	 * @param attributes the attributes of the file, or null if they could not be read
+	 */
+	private void remember(BasicFileAttributes attributes) {
+		if (attributes != null) {
+			this.loadedModified = attributes.lastModifiedTime();
+			this.loadedSize = attributes.size();
+			this.loadedAt = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Whether the file differs from the file when it was last loaded. The attributes are compared first, and if the
+	 * file was loaded within {@link #RACY_WINDOW} of its modification, a rewrite may not have changed them, so the
+	 * content of the file is compared with the text last loaded or saved
+	 *
+	 * @param attributes the current attributes of the file
+	 *
+	 * @return true if the file has changed
+	 */
+	private boolean hasChanged(BasicFileAttributes attributes) {
+		FileTime modified = loadedModified;
+		if (!attributes.lastModifiedTime().equals(modified) || attributes.size() != loadedSize)
+			return true;
+		if (modified.toMillis() + RACY_WINDOW < loadedAt)
+			return false;
+		try {
+			return !PropertyFiles.read(path).equals(loadedText());
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Reads the attributes of the properties file in a single file system lookup
+	 *
+	 * @return the attributes of the file, or null if they could not be read
+	 */
+	private BasicFileAttributes attributes() {
+		try {
+			Path file = path;
+			if (file == null) {
+				file = getPropertyFile().toPath();
+				path = file;
+			}
+			return Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reloads the properties if the file has changed and returns the resulting snapshot
+	 *
+	 * @return the current snapshot of the properties
+	 */
+	@Override protected PropertySnapshot snapshot() {
+		reloadIfChanged();
+		return super.snapshot();
+	}
+
+	/**
+	 * Reloads the properties if the file has changed and promptly runs
+	 * {@link IerisProperties#modifyProperty(String, String)} followed by {@link #persist()}
 	 *
 	 * @param key   name of the property
 	 * @param value actual value of the property
 	 *
 	 * @throws IllegalArgumentException if the new value is the same as the current
 	 * @throws IllegalStateException    if the property doesn't exist
+	 * @throws PropertySchemaException  if the new value does not satisfy the schema
+	 * @throws RuntimeException         if the property file encounters an error while saving
 	 */
 	@Override public synchronized void modifyProperty(String key, String value)
-	throws IllegalArgumentException, IllegalStateException {
-		loadProperties();
+	throws IllegalArgumentException, IllegalStateException, PropertySchemaException {
+		reloadIfChanged();
 		super.modifyProperty(key, value);
+		persist(key, value);
 	}
 
 	/**
-	 * Calls {@link IerisProperties#createProperty(String, String)} followed by {@link #saveProperties()}
+	 * Calls {@link IerisProperties#createProperty(String, String)} followed by {@link #persist()}
 	 *
 	 * @param key   name of the property
 	 * @param value actual value of the property
 	 *
 	 * @throws IllegalArgumentException if the property already exists
+	 * @throws PropertySchemaException  if the value does not satisfy the schema
 	 * @throws RuntimeException         if the property file encounters an error while saving
 	 */
 	@Override public synchronized void createProperty(String key, String value) throws RuntimeException {
 		super.createProperty(key, value);
-		try {
-			saveProperties();
-		} catch (IOException e) {
-			throw new RuntimeException(
-					"Failed to save properties \n" + "Property: \"" + key + "\" with Value: \"" + value + "\"" +
-					" will not persist beyond the current session", e);
-		}
+		persist(key, value);
 	}
 
 	/**
-	 * Retrieves the byte value from a property based on the provided key
+	 * Calls {@link IerisProperties#deleteProperty(String)} followed by {@link #persist()}
 	 *
-	 * @param key the name of the desired property
+	 * @param key name of the property
 	 *
-	 * @return the byte value of the property corresponding to the key
-	 *
-	 * @throws IllegalArgumentException if the property does not exist
-	 * @throws PropertyTypeException    if the property is not a Byte
+	 * @throws IllegalArgumentException if the property doesn't exist
+	 * @throws PropertySchemaException  if the property is required by the schema
+	 * @throws RuntimeException         if the property file encounters an error while saving
 	 */
-	@Override public byte getPropertyByte(String key) throws IllegalArgumentException, PropertyTypeException {
-		loadProperties();
-		return super.getPropertyByte(key);
+	@Override public synchronized void deleteProperty(String key)
+	throws IllegalArgumentException, PropertySchemaException {
+		super.deleteProperty(key);
+		persist(key, null);
 	}
 
 	/**
-	 * Retrieves the short value from a property based on the provided key
+	 * Reloads the properties if the file has changed and promptly runs
+	 * {@link IerisProperties#compareAndSetProperty(String, String, String)}, followed by {@link #persist()} if the
+	 * property was set
 	 *
-	 * @param key the name of the desired property
+	 * @param key      name of the property
+	 * @param expected the expected value of the property, or null if the property is expected not to exist
+	 * @param value    the new value of the property, or null to delete it
 	 *
-	 * @return the short value of the property corresponding to the key
+	 * @return true if the property was set, false if its value was not the expected one
 	 *
-	 * @throws IllegalArgumentException if the property does not exist
-	 * @throws PropertyTypeException    if the property is not a Short
+	 * @throws PropertySchemaException if the value does not satisfy the schema
+	 * @throws RuntimeException        if the property file encounters an error while saving
 	 */
-	@Override public short getPropertyShort(String key) throws IllegalArgumentException, PropertyTypeException {
-		loadProperties();
-		return super.getPropertyShort(key);
+	@Override public synchronized boolean compareAndSetProperty(String key, String expected, String value)
+	throws RuntimeException {
+		reloadIfChanged();
+		if (!super.compareAndSetProperty(key, expected, value))
+			return false;
+		persist(key, value);
+		return true;
 	}
 
 	/**
-	 * Retrieves the integer value from a property based on the provided key
+	 * Persists a change to a property, reporting a failed save as an unchecked exception
 	 *
-	 * @param key the name of the desired property
+	 * @param key   name of the changed property
+	 * @param value new value of the property, or null if it was deleted
 	 *
-	 * @return the integer value of the property corresponding to the key
-	 *
-	 * @throws IllegalArgumentException if the property does not exist
-	 * @throws PropertyTypeException    if the property is not an Integer
+	 * @throws RuntimeException if the property file encounters an error while saving
 	 */
-	@Override public int getPropertyInt(String key) throws IllegalArgumentException, PropertyTypeException {
-		loadProperties();
-		return super.getPropertyInt(key);
+	private void persist(String key, String value) throws RuntimeException {
+		try {
+			persist();
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"Failed to save properties \n" + "Property: \"" + key + "\" with Value: \"" + value + "\"" +
+					" will not persist beyond the current session", e);
+		}
 	}
 
 	/**
-	 * Retrieves the boolean value from a property based on the provided key
-	 *
-	 * @param key the name of the desired property
-	 *
-	 * @return the boolean value of the property corresponding to the key
+	 * Writes out the properties into the property file, and remembers the file as loaded so that writing it does not
+	 * trigger a reload
 	 *
-	 * @throws IllegalArgumentException if the property does not exist
-	 * @throws PropertyTypeException    if the property is not a boolean
+	 * @throws IOException if an I/O error occurs
 	 */
-	@Override public boolean getPropertyBoolean(String key) throws IllegalArgumentException, PropertyTypeException {
-		loadProperties();
-		return super.getPropertyBoolean(key);
+	@Override public synchronized void saveProperties() throws IOException {
+		super.saveProperties();
+		remember(attributes());
 	}
 
 	/**
-	 * Saves the properties to the file and promptly disposes of the object
+	 * Saves any unsaved changes to the file and promptly disposes of the object. A file without changes is not written
 	 */
 	@Override public void close() {
 		try {
-			saveProperties();
+			if (isDirty())
+				saveProperties();
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to save properties", e);
 		}
@@ -20,30 +20,80 @@ package com.ieris19.lib.files.config;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Properties that are read from a specific type. Every time a {@link FileProperties} object is created, the properties
  * are read from the file. Whenever the properties stop being used, the {@link #close()} method should be called to
  * release the resources and save the properties to the file. This class is ideally used in {@code try-with-resources}
- * blocks.
+ * blocks. <br><br>
+ *
+ * Instances are kept in a concurrent registry, where looking up a loaded file takes no lock and loading a file only
+ * blocks the callers asking for that same file. The registry can be bounded with {@link #setMaximumSize(int)}, which
+ * evicts the least recently used instances, and with {@link #setIdleTimeout(Duration)}, which evicts instances that
+ * have not been used for a while. Reading or changing the properties of an instance counts as using it, so an
+ * instance kept in a field is not evicted while it's in use. Evicted instances with unsaved changes are saved first,
+ * and the next request for their file loads it again. An evicted instance that is used again rejoins the registry,
+ * unless its file has been loaded again by another instance in the meantime, in which case using it throws an
+ * {@link IllegalStateException} instead of letting both instances diverge.
  */
 public class FileProperties extends IerisProperties implements Closeable {
 	/**
-	 * Multiton instance Hashmap
+	 * The minimum time, in nanoseconds, between two updates of the last access of an instance. Updating it on every
+	 * access would make threads sharing an instance contend on it
+	 */
+	private static final long ACCESS_GRANULARITY = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Multiton instance registry
 	 */
-	private static final HashMap<String, FileProperties> instances;
+	private static final ConcurrentHashMap<String, FileProperties> instances;
 
 	/**
 	 * Static configuration directory for {@code FileProperties}
 	 */
-	private static File configDir;
+	private static volatile File configDir;
+	/**
+	 * The maximum amount of instances kept in the registry
+	 */
+	private static volatile int maximumSize;
+	/**
+	 * The time, in nanoseconds, after which an instance that has not been requested is evicted, or zero to keep it
+	 */
+	private static volatile long idleTimeout;
+	/**
+	 * The task periodically evicting idle instances, or null if there is no idle timeout
+	 */
+	private static ScheduledFuture<?> sweeper;
 
 	static {
-		instances = new HashMap<>();
+		instances = new ConcurrentHashMap<>();
 		configDir = new File("config");
+		maximumSize = Integer.MAX_VALUE;
 	}
 
+	/**
+	 * The {@link System#nanoTime()} of the last time this instance was requested or used
+	 */
+	private volatile long lastAccess;
+	/**
+	 * Whether this instance has been removed from the registry by an eviction or by {@link #close()}
+	 */
+	private volatile boolean detached;
+	/**
+	 * Held for reading while the properties are changed and for writing while this instance is evicted, so a change
+	 * cannot land in this instance between saving it and removing it from the registry
+	 */
+	private final ReentrantReadWriteLock eviction = new ReentrantReadWriteLock();
+
 	/**
 	 * Creates a {@code FileProperties} instance for the specified name
 	 *
@@ -51,6 +101,7 @@ public class FileProperties extends IerisProperties implements Closeable {
 	 */
 	private FileProperties(String key) {
 		super(key, configDir);
+		this.lastAccess = System.nanoTime();
 	}
 
 	/**
@@ -67,10 +118,48 @@ public class FileProperties extends IerisProperties implements Closeable {
 			throw new IllegalStateException("Properties directory is already in use");
 	}
 
+	/**
+	 * Sets the maximum amount of instances kept at once. When a new file is loaded and the registry is full, the least
+	 * recently requested instances are evicted. There is no limit by default
+	 *
+	 * @param size the maximum amount of instances
+	 *
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public static void setMaximumSize(int size) throws IllegalArgumentException {
+		if (size <= 0)
+			throw new IllegalArgumentException("The maximum size must be positive");
+		maximumSize = size;
+		evictLeastRecentlyUsed(null);
+	}
+
+	/**
+	 * Sets the time after which an instance that has not been requested or used is evicted. Idle instances are looked
+	 * for in the background, about twice per timeout. A timeout of zero, the default, keeps idle instances
+	 *
+	 * @param timeout the time an instance can stay idle
+	 *
+	 * @throws IllegalArgumentException if the timeout is negative
+	 */
+	public static synchronized void setIdleTimeout(Duration timeout) throws IllegalArgumentException {
+		if (timeout.isNegative())
+			throw new IllegalArgumentException("The idle timeout cannot be negative");
+		idleTimeout = timeout.toNanos();
+		if (sweeper != null) {
+			sweeper.cancel(false);
+			sweeper = null;
+		}
+		if (idleTimeout > 0) {
+			long period = Math.max(idleTimeout / 2, TimeUnit.MILLISECONDS.toNanos(1));
+			sweeper = Sweeper.EXECUTOR.scheduleAtFixedRate(FileProperties::evictIdle, period, period,
+			                                               TimeUnit.NANOSECONDS);
+		}
+	}
+
 	/**
 	 * Returns an instance of this class that can exist during runtime. The first time it's called for a given key, it
 	 * will create said instance, but any subsequent call will return the existing instance. If the instance has been
-	 * previously closed, it will be treated as the first call again <br><br>
+	 * previously closed or evicted, it will be treated as the first call again <br><br>
 	 *
 	 * If settings have not been previously set, it will instantiate in the default "/config/" directory. <br> Make sure
 	 * to configure the path before calling this method if your properties file has a different path
@@ -79,28 +168,243 @@ public class FileProperties extends IerisProperties implements Closeable {
 	 *
 	 * @return The instance of this class.
 	 */
-	public static synchronized FileProperties getInstance(String key) {
+	public static FileProperties getInstance(String key) {
 		FileProperties instance = instances.get(key);
 		if (instance == null) {
-			instance = new FileProperties(key);
-			instances.put(key, instance);
+			instance = instances.computeIfAbsent(key, FileProperties::new);
+			if (instances.size() > maximumSize)
+				evictLeastRecentlyUsed(instance);
 		}
+		instance.recordAccess();
 		return instance;
 	}
 
+	/**
+	 * Evicts every instance that has not been requested or used within the idle timeout
+	 */
+	public static void evictIdle() {
+		long timeout = idleTimeout;
+		if (timeout == 0)
+			return;
+		long now = System.nanoTime();
+		for (FileProperties instance : instances.values()) {
+			if (now - instance.lastAccess > timeout)
+				evict(instance);
+		}
+	}
+
+	/**
+	 * Evicts the least recently requested instances until the registry fits its maximum size
+	 *
+	 * @param keep an instance that must not be evicted, or null
+	 */
+	private static void evictLeastRecentlyUsed(FileProperties keep) {
+		while (instances.size() > maximumSize) {
+			FileProperties oldest = null;
+			for (FileProperties instance : instances.values()) {
+				if (instance != keep && (oldest == null || instance.lastAccess - oldest.lastAccess < 0))
+					oldest = instance;
+			}
+			if (oldest == null || !evict(oldest))
+				return;
+		}
+	}
+
+	/**
+	 * Removes an instance from the registry, saving it first if it has unsaved changes. Instances being changed are not
+	 * evicted, and changes wait for the eviction to finish, so every change is either saved or made once the instance
+	 * rejoins the registry
+	 *
+	 * @param instance the instance to evict
+	 *
+	 * @return true if the instance was evicted, false if it's being changed or could not be saved and is kept
+	 */
+	private static boolean evict(FileProperties instance) {
+		Lock lock = instance.eviction.writeLock();
+		if (!lock.tryLock())
+			return false;
+		try {
+			if (instance.isDirty())
+				instance.saveProperties();
+			instance.detach();
+			return true;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The current snapshot of the properties, recording that this instance is in use
+	 *
+	 * @return the current snapshot of the properties
+	 *
+	 * @throws IllegalStateException if this instance was evicted and its file has been loaded again by another instance
+	 */
+	@Override protected PropertySnapshot snapshot() throws IllegalStateException {
+		use();
+		return super.snapshot();
+	}
+
+	/**
+	 * Inserts a key/value pair as a property, recording that this instance is in use
+	 *
+	 * @param key   name of the property
+	 * @param value actual value of the property
+	 *
+	 * @throws PropertySchemaException if the value does not satisfy the schema
+	 * @throws IllegalStateException   if this instance was evicted and its file has been loaded again by another instance
+	 */
+	@Override protected void setProperties(String key, String value)
+	throws PropertySchemaException, IllegalStateException {
+		change(() -> {
+			super.setProperties(key, value);
+			return null;
+		});
+	}
+
+	/**
+	 * Sets a property only if its current value is the expected one, atomically, recording that this instance is in use
+	 *
+	 * @param key      name of the property
+	 * @param expected the expected value of the property, or null if the property is expected not to exist
+	 * @param value    the new value of the property, or null to delete it
+	 *
+	 * @return true if the property was set, false if its value was not the expected one
+	 *
+	 * @throws PropertySchemaException if the value does not satisfy the schema
+	 * @throws IllegalStateException   if this instance was evicted and its file has been loaded again by another instance
+	 */
+	@Override public boolean compareAndSetProperty(String key, String expected, String value)
+	throws PropertySchemaException, IllegalStateException {
+		return change(() -> super.compareAndSetProperty(key, expected, value));
+	}
+
+	/**
+	 * Creates a property, recording that this instance is in use
+	 *
+	 * @param key   name of the property
+	 * @param value actual value of the property
+	 *
+	 * @throws IllegalArgumentException if the property already exists
+	 * @throws PropertySchemaException  if the value does not satisfy the schema
+	 * @throws IllegalStateException    if this instance was evicted and its file has been loaded again by another
+	 *                                  instance
+	 */
+	@Override public void createProperty(String key, String value)
+	throws IllegalArgumentException, PropertySchemaException, IllegalStateException {
+		change(() -> {
+			super.createProperty(key, value);
+			return null;
+		});
+	}
+
+	/**
+	 * Records that this instance is in use, so it's not evicted as idle, and returns it to the registry if it was
+	 * evicted
+	 *
+	 * @throws IllegalStateException if this instance was evicted and its file has been loaded again by another instance
+	 */
+	private void use() throws IllegalStateException {
+		recordAccess();
+		if (detached && attach())
+			evictLeastRecentlyUsed(this);
+	}
+
+	/**
+	 * Changes the properties while this instance is in the registry, so an eviction cannot save and remove this
+	 * instance in the middle of the change and leave the change unsaved
+	 *
+	 * @param change the change to the properties
+	 * @param <T>    the result of the change
+	 *
+	 * @return the result of the change
+	 *
+	 * @throws IllegalStateException if this instance was evicted and its file has been loaded again by another instance
+	 */
+	private <T> T change(Supplier<T> change) throws IllegalStateException {
+		Lock lock = eviction.readLock();
+		boolean attached = false;
+		T result;
+		lock.lock();
+		try {
+			recordAccess();
+			if (detached)
+				attached = attach();
+			result = change.get();
+		} finally {
+			lock.unlock();
+		}
+		if (attached)
+			evictLeastRecentlyUsed(this);
+		return result;
+	}
+
+	/**
+	 * Updates the last access of this instance, unless it was updated very recently
+	 */
+	private void recordAccess() {
+		long now = System.nanoTime();
+		if (now - lastAccess > ACCESS_GRANULARITY)
+			lastAccess = now;
+	}
+
+	/**
+	 * Returns this instance to the registry after it was evicted or closed. The registry might exceed its maximum size
+	 * afterwards, so callers evict other instances once they no longer hold the eviction lock of this one
+	 *
+	 * @return true if this instance rejoined the registry, false if it was already in it
+	 *
+	 * @throws IllegalStateException if its file has been loaded again by another instance
+	 */
+	private synchronized boolean attach() throws IllegalStateException {
+		if (!detached)
+			return false;
+		FileProperties current = instances.putIfAbsent(getName(), this);
+		if (current != null && current != this)
+			throw new IllegalStateException("The properties " + getName() + " were evicted and loaded again, " +
+			                                "use getInstance to get the current instance");
+		detached = false;
+		return true;
+	}
+
+	/**
+	 * Removes this instance from the registry. It's done while holding the lock of the instance, so it cannot interleave
+	 * with {@link #attach()}
+	 */
+	private synchronized void detach() {
+		detached = true;
+		instances.remove(getName(), this);
+	}
+
 	/**
 	 * Closes this stream and releases any system resources associated with it. If the stream is already closed then
-	 * invoking this method has no effect.
+	 * invoking this method has no effect. Unsaved changes are saved first, and a file without changes is not written
 	 *
 	 * @throws IOException if an I/O error occurs
 	 */
 	@Override public void close() throws IOException {
 		try {
-			this.saveProperties();
-			FileProperties self = instances.remove(this.getName());
-			self = null;
+			if (isDirty())
+				this.saveProperties();
+			detach();
 		} catch (IOException e) {
 			throw new IOException("Could not store the properties, the properties have been deleted", e);
 		}
 	}
+
+	/**
+	 * Holder of the thread evicting idle instances, which is only started once an idle timeout is set
+	 */
+	private static final class Sweeper {
+		/**
+		 * The executor running the eviction of idle instances
+		 */
+		private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "ierislib-file-properties-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
 }
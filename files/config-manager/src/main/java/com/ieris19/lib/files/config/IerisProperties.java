@@ -18,8 +18,21 @@
 package com.ieris19.lib.files.config;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A class container for properties and other constants in the system. They're defined in
@@ -29,28 +42,80 @@ import java.util.Properties;
 public abstract class IerisProperties implements AutoCloseable {
 	/**
 	 * Name of the properties file. It's full path is from the working directory: <br>
-	 * "{@code /configDirectory/name.properties}"
+	 * "{@code /configDirectory/name.properties}", unless the name ends with the extension of a {@link PropertyCodec}
 	 */
 	private final String name;
+	/**
+	 * The name of the file, with its extension
+	 */
+	private final String fileName;
+	/**
+	 * The format of the properties file
+	 */
+	private final PropertyCodec codec;
 	/**
 	 * Directory for configuration files and home of the properties file. It will be {@code /config/} by default
 	 */
 	private final File configDir;
 	/**
-	 * A hashtable consisting of {@link String} keys and <code>String</code> values that define the properties and
-	 * constants to be used by the application
+	 * The properties and constants to be used by the application. They're kept as an immutable, typed snapshot that is
+	 * replaced with a compare-and-set whenever the properties change, so reads never take a lock or wait for a
+	 * modification or a reload in progress, and typed reads reuse values that were already parsed. The schema is
+	 * replaced along with the snapshot, so a snapshot is never installed after being checked against an older schema
+	 */
+	private final AtomicReference<State> store;
+	/**
+	 * The text of the properties file when it was last loaded or saved, which codecs use to keep its layout when saving
+	 */
+	private volatile String text;
+	/**
+	 * The snapshot that was last loaded from or saved to the properties file
+	 */
+	private volatile PropertySnapshot saved;
+	/**
+	 * The listeners notified of changes to the properties
+	 */
+	private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+	/**
+	 * The executor listeners are notified on, or null to use the shared notifier thread
+	 */
+	private volatile Executor listenerExecutor;
+	/**
+	 * Lock held while saving, so that saves from different threads are written one after the other
 	 */
-	private final Properties properties;
+	private final Object saveLock = new Object();
+	/**
+	 * Whether a background save is pending
+	 */
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+	/**
+	 * The failure of the last save, cleared by the next successful save
+	 */
+	private volatile Exception saveFailure;
+	/**
+	 * The time, in nanoseconds, {@link #persist()} waits before saving the properties
+	 */
+	private volatile long saveDelay;
+	/**
+	 * Whether saves are forced to the storage device
+	 */
+	private volatile boolean syncOnSave;
 
 	/**
 	 * Initializes the class by reading the properties file. The constructor is not public as this should only be
-	 * instantiated through {@link GlobalProperties} or {@link DynamicProperties} wrappers
+	 * instantiated through {@link GlobalProperties} or {@link DynamicProperties} wrappers <br> The file is a properties
+	 * file named after the name with the {@code .properties} extension, unless the name already ends with an extension
+	 * registered in {@link PropertyCodecs}, such as {@code server.json}, in which case it's read in that format
 	 *
 	 * @param name      the properties file name
 	 * @param configDir the properties parent folder
 	 */
 	protected IerisProperties(String name, File configDir) {
 		this.name = name;
+		int dot = name.lastIndexOf('.');
+		PropertyCodec named = dot > 0 ? PropertyCodecs.forExtension(name.substring(dot + 1)) : null;
+		this.codec = named != null ? named : PropertyCodecs.defaultCodec();
+		this.fileName = named != null ? name : name + ".properties";
 		if (!configDir.mkdir()) {
 			if (!configDir.isDirectory()) {
 				throw new IllegalArgumentException(
@@ -58,7 +123,7 @@ public abstract class IerisProperties implements AutoCloseable {
 			}
 		}
 		this.configDir = configDir;
-		this.properties = new Properties();
+		this.store = new AtomicReference<>(new State(PropertySnapshot.empty(), PropertySchema.empty()));
 		loadProperties();
 	}
 
@@ -98,49 +163,201 @@ public abstract class IerisProperties implements AutoCloseable {
 	}
 
 	/**
-	 * Loads the file values into the {@link Properties} object
+	 * Loads the file values, replacing every property with those in the file. The file is not read if
+	 * {@link PropertySnapshotCache} has a snapshot of its current version. The loaded properties are checked against
+	 * the {@link #setSchema(PropertySchema) schema} as a whole, and if they do not satisfy it the current properties are
+	 * kept
+	 *
+	 * @throws IllegalStateException   if the file cannot be read or is not valid in its format
+	 * @throws PropertySchemaException if the properties in the file do not satisfy the schema
 	 */
-	protected void loadProperties() {
-		try (InputStream input = new FileInputStream(getPropertyFile())) {
-			this.properties.load(input);
-		} catch (IOException exception) {
+	protected void loadProperties() throws IllegalStateException, PropertySchemaException {
+		PropertySnapshotCache.Content loaded;
+		try {
+			loaded = PropertySnapshotCache.load(getPropertyFile().toPath(), codec);
+		} catch (IOException | IllegalArgumentException exception) {
 			throw new IllegalStateException("Properties could not be loaded", exception);
 		}
+		PropertySnapshot next = new PropertySnapshot(loaded.properties);
+		State current;
+		do {
+			current = store.get();
+			current.schema.check(next);
+		} while (!store.compareAndSet(current, new State(next, current.schema)));
+		PropertySnapshot previous = current.snapshot;
+		this.text = loaded.text;
+		this.saved = next;
+		if (!listeners.isEmpty())
+			notifyListeners(previous.changesTo(next));
+	}
+
+	/**
+	 * The text of the properties file when it was last loaded or saved
+	 *
+	 * @return the text of the file, or null if it was never loaded
+	 */
+	String loadedText() {
+		return text;
+	}
+
+	/**
+	 * The current immutable snapshot of the properties. Subclasses can override this method to refresh the properties
+	 * before they are read
+	 *
+	 * @return the current snapshot of the properties
+	 */
+	protected PropertySnapshot snapshot() {
+		return store.get().snapshot;
+	}
+
+	/**
+	 * The current snapshot of the properties. A snapshot never changes, so every read from it sees the same values even
+	 * if the properties are modified or reloaded in the meantime
+	 *
+	 * @return the current snapshot of the properties
+	 */
+	public PropertySnapshot getSnapshot() {
+		return snapshot();
+	}
+
+	/**
+	 * Sets the schema the properties must satisfy. The current properties are checked against it first, and the schema
+	 * is only set if they satisfy it. From then on, the whole file is checked every time it's loaded, and a file that
+	 * does not satisfy the schema is rejected without replacing the current properties. Every change made through this
+	 * object is checked as well. Reading properties never checks them again, and the typed values parsed while checking
+	 * are reused by the typed getters. The schema is set atomically with the properties it was checked against, so a
+	 * concurrent change is either checked against it as well or makes this method check the changed properties again
+	 *
+	 * @param schema the schema of the properties, {@link PropertySchema#empty()} to stop checking them
+	 *
+	 * @throws PropertySchemaException if the current properties do not satisfy the schema
+	 */
+	public void setSchema(PropertySchema schema) throws PropertySchemaException {
+		State current;
+		do {
+			current = store.get();
+			schema.check(current.snapshot);
+		} while (!store.compareAndSet(current, new State(current.snapshot, schema)));
+	}
+
+	/**
+	 * The schema the properties must satisfy
+	 *
+	 * @return the schema of the properties
+	 */
+	public PropertySchema getSchema() {
+		return store.get().schema;
+	}
+
+	/**
+	 * Binds the properties to a record or an interface. Every component of the record, or every abstract method of the
+	 * interface, is read from the property with the same name and converted to its type, which can be a
+	 * {@link PropertyType} or an enum. <br> The code converting the properties is created once per type, and the
+	 * binding creates a new instance only when the properties change, so reading a value from the instance is as cheap
+	 * as reading a field. The canonical constructor of a record must be public, use
+	 * {@link #bind(Class, MethodHandles.Lookup)} otherwise
+	 *
+	 * @param type the record or interface to bind
+	 * @param <T>  the bound type
+	 *
+	 * @return the binding, providing instances of the type with the current properties
+	 *
+	 * @throws IllegalArgumentException if the type is not a record or an interface, or it has components that cannot be
+	 *                                  read from properties
+	 */
+	public <T> PropertyBinding<T> bind(Class<T> type) throws IllegalArgumentException {
+		return bind(type, MethodHandles.publicLookup());
+	}
+
+	/**
+	 * Binds the properties to a record or an interface, using the given lookup to access the canonical constructor of
+	 * the record. This allows binding records that are not public, using a lookup obtained with
+	 * {@link MethodHandles#lookup()} by a class that has access to the record
+	 *
+	 * @param type   the record or interface to bind
+	 * @param lookup the lookup with access to the canonical constructor of the record
+	 * @param <T>    the bound type
+	 *
+	 * @return the binding, providing instances of the type with the current properties
+	 *
+	 * @throws IllegalArgumentException if the type is not a record or an interface, it has components that cannot be
+	 *                                  read from properties or the lookup has no access to it
+	 * @see #bind(Class)
+	 */
+	public <T> PropertyBinding<T> bind(Class<T> type, MethodHandles.Lookup lookup) throws IllegalArgumentException {
+		return new PropertyBinding<>(this, type, null, PropertyBinder.of(type, lookup));
+	}
+
+	/**
+	 * Binds a section of the properties to a record or an interface. The components of the type are read from the
+	 * properties inside the section, so binding the section {@code db.pool} reads the component {@code size} from the
+	 * property {@code db.pool.size}
+	 *
+	 * @param section the name of the section
+	 * @param type    the record or interface to bind
+	 * @param <T>     the bound type
+	 *
+	 * @return the binding, providing instances of the type with the current properties of the section
+	 *
+	 * @throws IllegalArgumentException if the type is not a record or an interface, or it has components that cannot be
+	 *                                  read from properties
+	 * @see #bind(Class)
+	 * @see PropertySnapshot#subset(String)
+	 */
+	public <T> PropertyBinding<T> bind(String section, Class<T> type) throws IllegalArgumentException {
+		return new PropertyBinding<>(this, type, section, PropertyBinder.of(type, MethodHandles.publicLookup()));
+	}
+
+	/**
+	 * The properties inside a section, with the name of the section removed from their keys
+	 *
+	 * @param section the name of the section
+	 *
+	 * @return a snapshot of the properties in the section
+	 *
+	 * @see PropertySnapshot#subset(String)
+	 */
+	public PropertySnapshot subset(String section) {
+		return snapshot().subset(section);
+	}
+
+	/**
+	 * Lists the keys of the properties starting with a prefix, in lexicographic order
+	 *
+	 * @param prefix the start of the keys
+	 *
+	 * @return the keys starting with the prefix
+	 *
+	 * @see PropertySnapshot#keysWithPrefix(String)
+	 */
+	public List<String> keysWithPrefix(String prefix) {
+		return snapshot().keysWithPrefix(prefix);
 	}
 
 	/**
 	 * Creates an empty Properties file for the application. This is used when the application is run without the basic
-	 * set of configuration options
+	 * set of configuration options. The defaults are written in the format of the codec of the file, so the file can be
+	 * loaded afterwards, and atomically replace any existing file
 	 */
 	public void createPropertiesFile(String[] keys, String[] defaultValues) {
 		if (keys.length == 0) {
 			return;
 		}
-		try (FileWriter fileWriter = new FileWriter(getPropertyFile())) {
-			if (keys.length < 1) {
-				throw new IndexOutOfBoundsException("There must be at least 1 key");
-			}
-			if (keys.length == defaultValues.length) {
-				for (int i = 0; i < keys.length; i++) {
-					fileWriter.write(keys[i] + "=" + defaultValues[i] + '\n');
-				}
-			}
-			if (keys.length > defaultValues.length) {
-				for (int i = 0; i < defaultValues.length; i++) {
-					fileWriter.write(keys[i] + "=" + defaultValues[i] + '\n');
-				}
-				for (int i = defaultValues.length; i < keys.length; i++) {
-					fileWriter.write(keys[i] + "=" + '\n');
-				}
-			} else {
-				for (String key : keys) {
-					fileWriter.write(key + "=null\n");
-				}
+		try {
+			Map<String, String> defaults = new LinkedHashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				String value;
+				if (keys.length > defaultValues.length)
+					value = i < defaultValues.length ? defaultValues[i] : "";
+				else if (keys.length == defaultValues.length)
+					value = defaultValues[i];
+				else
+					value = "null";
+				defaults.put(Objects.requireNonNull(keys[i]), String.valueOf(value));
 			}
+			PropertyFiles.write(getPropertyFile().toPath(), codec.write(defaults, ""), syncOnSave);
 		} catch (IOException fileException) {
 			throw new IllegalStateException("The properties file is inaccessible or an error has occurred", fileException);
-		} catch (IndexOutOfBoundsException arrayException) {
-			throw new IllegalArgumentException("One of the provided arrays has insufficient arguments", arrayException);
 		} catch (NullPointerException nullException) {
 			throw new IllegalArgumentException("One of the provided arrays is null", nullException);
 		} catch (Exception unexpectedException) {
@@ -207,7 +424,6 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws IOException if an I/O error occurs
 	 */
 	protected File getPropertyFile() throws IOException {
-		String fileName = name + ".properties";
 		File configFile = new File(configDir, fileName);
 		if (!configFile.createNewFile()) {
 			if (!configFile.exists()) {
@@ -225,8 +441,9 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @return a copy of the Properties object
 	 */
 	public Properties getProperties() {
-		Properties temp = (Properties) Map.copyOf(this.properties);
-		return properties;
+		Properties copy = new Properties();
+		copy.putAll(snapshot().asMap());
+		return copy;
 	}
 
 	/**
@@ -239,10 +456,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws IllegalArgumentException if the property does not exist
 	 */
 	public String getProperty(String key) throws IllegalArgumentException {
-		String propertyValue;
-		synchronized (properties) {
-			propertyValue = properties.getProperty(key);
-		}
+		String propertyValue = snapshot().get(key);
 		if (propertyValue == null) {
 			throw new IllegalArgumentException("Invalid Property Name");
 		}
@@ -255,10 +469,127 @@ public abstract class IerisProperties implements AutoCloseable {
 	 *
 	 * @param key   name of the property
 	 * @param value actual value of the property
+	 *
+	 * @throws PropertySchemaException if the value does not satisfy the schema
 	 */
-	protected void setProperties(String key, String value) {
-		synchronized (properties) {
-			properties.put(key, value);
+	protected void setProperties(String key, String value) throws PropertySchemaException {
+		State current;
+		PropertySnapshot next;
+		do {
+			current = store.get();
+			next = current.snapshot.with(key, value);
+			current.schema.check(next, key);
+		} while (!store.compareAndSet(current, new State(next, current.schema)));
+		notifyListeners(key, current.snapshot.get(key), value);
+	}
+
+	/**
+	 * Sets a property only if its current value is the expected one, atomically. Concurrent changes to other properties
+	 * do not make this method fail, only a change to the same property does
+	 *
+	 * @param key      name of the property
+	 * @param expected the expected value of the property, or null if the property is expected not to exist
+	 * @param value    the new value of the property, or null to delete it
+	 *
+	 * @return true if the property was set, false if its value was not the expected one
+	 *
+	 * @throws PropertySchemaException if the value does not satisfy the schema
+	 */
+	public boolean compareAndSetProperty(String key, String expected, String value) throws PropertySchemaException {
+		return replace(key, expected, value);
+	}
+
+	/**
+	 * Implementation of {@link #compareAndSetProperty(String, String, String)} shared by the methods changing a
+	 * property, so they're not affected by subclasses overriding it
+	 *
+	 * @param key      name of the property
+	 * @param expected the expected value of the property, or null if the property is expected not to exist
+	 * @param value    the new value of the property, or null to delete it
+	 *
+	 * @return true if the property was set, false if its value was not the expected one
+	 *
+	 * @throws PropertySchemaException if the value does not satisfy the schema
+	 */
+	private boolean replace(String key, String expected, String value) throws PropertySchemaException {
+		while (true) {
+			State current = store.get();
+			if (!Objects.equals(current.snapshot.get(key), expected))
+				return false;
+			PropertySnapshot next = value == null ? current.snapshot.without(key) : current.snapshot.with(key, value);
+			current.schema.check(next, key);
+			if (store.compareAndSet(current, new State(next, current.schema))) {
+				notifyListeners(key, expected, value);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Registers a listener notified of every change to the properties, whether it's made through this object or by
+	 * reloading the properties file
+	 *
+	 * @param listener the listener to notify
+	 */
+	public void addListener(PropertyListener listener) {
+		listeners.add(new Subscription(null, Objects.requireNonNull(listener)));
+	}
+
+	/**
+	 * Registers a listener notified of every change to a single property
+	 *
+	 * @param key      the name of the property
+	 * @param listener the listener to notify
+	 */
+	public void addListener(String key, PropertyListener listener) {
+		listeners.add(new Subscription(Objects.requireNonNull(key), Objects.requireNonNull(listener)));
+	}
+
+	/**
+	 * Unregisters a listener from every property it was listening to
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(PropertyListener listener) {
+		listeners.removeIf(subscription -> subscription.listener == listener);
+	}
+
+	/**
+	 * Sets the executor listeners are notified on. By default, listeners are notified one change at a time, in order,
+	 * on a thread shared by every instance
+	 *
+	 * @param executor the executor running the listeners
+	 */
+	public void setListenerExecutor(Executor executor) {
+		this.listenerExecutor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * Notifies the listeners of a change to a single property, unless the value did not change
+	 *
+	 * @param key      the name of the property
+	 * @param oldValue the value before the change, or null if it did not exist
+	 * @param newValue the value after the change, or null if it was deleted
+	 */
+	private void notifyListeners(String key, String oldValue, String newValue) {
+		if (!listeners.isEmpty() && !Objects.equals(oldValue, newValue))
+			notifyListeners(List.of(new PropertyChange(key, oldValue, newValue)));
+	}
+
+	/**
+	 * Notifies every listener of the changes it's interested in, on the listener executor
+	 *
+	 * @param changes the changes to the properties
+	 */
+	private void notifyListeners(List<PropertyChange> changes) {
+		if (changes.isEmpty())
+			return;
+		Executor executor = listenerExecutor != null ? listenerExecutor : Notifier.EXECUTOR;
+		for (Subscription subscription : listeners) {
+			for (PropertyChange change : changes) {
+				if (subscription.key == null || subscription.key.equals(change.getKey()))
+					executor.execute(() -> subscription.listener.propertyChanged(change));
+			}
 		}
 	}
 
@@ -271,17 +602,20 @@ public abstract class IerisProperties implements AutoCloseable {
 	 *
 	 * @throws IllegalArgumentException if the new value is the same as the current
 	 * @throws IllegalStateException    if the property doesn't exist
+	 * @throws PropertySchemaException  if the new value does not satisfy the schema
 	 */
-	public synchronized void modifyProperty(String key, String value)
-	throws IllegalArgumentException, IllegalStateException {
-		String oldValue = getProperty(key);
-		if (oldValue == null) {
-			throw new IllegalStateException("Property doesn't exist");
-		}
-		if (oldValue.equals(value)) {
-			throw new IllegalArgumentException("Property value is already " + value);
-		}
-		setProperties(key, value);
+	public void modifyProperty(String key, String value)
+	throws IllegalArgumentException, IllegalStateException, PropertySchemaException {
+		String oldValue;
+		do {
+			oldValue = snapshot().get(key);
+			if (oldValue == null) {
+				throw new IllegalStateException("Property doesn't exist");
+			}
+			if (oldValue.equals(value)) {
+				throw new IllegalArgumentException("Property value is already " + value);
+			}
+		} while (!replace(key, oldValue, value));
 	}
 
 	/**
@@ -291,12 +625,10 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @param value actual value of the property
 	 *
 	 * @throws IllegalArgumentException if the property already exists
+	 * @throws PropertySchemaException  if the value does not satisfy the schema
 	 */
-	public synchronized void createProperty(String key, String value) throws IllegalArgumentException {
-		String property = properties.getProperty(key);
-		if (property == null) {
-			setProperties(key, value);
-		} else {
+	public void createProperty(String key, String value) throws IllegalArgumentException, PropertySchemaException {
+		if (!replace(key, null, value)) {
 			throw new IllegalArgumentException("Property already exists");
 		}
 	}
@@ -307,13 +639,16 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @param key name of the property
 	 *
 	 * @throws IllegalArgumentException if the property doesn't exist
+	 * @throws PropertySchemaException  if the property is required by the schema
 	 */
-	public synchronized void deleteProperty(String key) throws IllegalArgumentException {
-		String property = properties.getProperty(key);
-		if (property == null) {
-			throw new IllegalArgumentException("Property doesn't exist");
-		}
-		properties.remove(key);
+	public void deleteProperty(String key) throws IllegalArgumentException, PropertySchemaException {
+		String property;
+		do {
+			property = snapshot().get(key);
+			if (property == null) {
+				throw new IllegalArgumentException("Property doesn't exist");
+			}
+		} while (!replace(key, property, null));
 	}
 
 	/**
@@ -327,11 +662,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Byte
 	 */
 	public byte getPropertyByte(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Byte.parseByte(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Byte");
-		}
+		return snapshot().get(key, PropertyType.BYTE);
 	}
 
 	/**
@@ -345,11 +676,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Short
 	 */
 	public short getPropertyShort(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Short.parseShort(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Short");
-		}
+		return snapshot().get(key, PropertyType.SHORT);
 	}
 
 	/**
@@ -363,11 +690,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not an Integer
 	 */
 	public int getPropertyInt(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Integer.parseInt(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Integer");
-		}
+		return snapshot().get(key, PropertyType.INTEGER);
 	}
 
 	/**
@@ -381,11 +704,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Long
 	 */
 	public long getPropertyLong(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Long.parseLong(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Long");
-		}
+		return snapshot().get(key, PropertyType.LONG);
 	}
 
 	/**
@@ -399,11 +718,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Float
 	 */
 	public float getPropertyFloat(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Float.parseFloat(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Float");
-		}
+		return snapshot().get(key, PropertyType.FLOAT);
 	}
 
 	/**
@@ -417,11 +732,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Double
 	 */
 	public double getPropertyDouble(String key) throws IllegalArgumentException, PropertyTypeException {
-		try {
-			return Double.parseDouble(getProperty(key));
-		} catch (NumberFormatException e) {
-			throw new PropertyTypeException(properties, key, "Double");
-		}
+		return snapshot().get(key, PropertyType.DOUBLE);
 	}
 
 	/**
@@ -435,11 +746,7 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a Character
 	 */
 	public char getPropertyCharacter(String key) throws IllegalArgumentException, PropertyTypeException {
-		String value = getProperty(key);
-		if (value.length() != 1 || value.matches("\\d")) {
-			throw new PropertyTypeException(properties, key, "Character");
-		}
-		return value.charAt(0);
+		return snapshot().get(key, PropertyType.CHARACTER);
 	}
 
 	/**
@@ -453,25 +760,180 @@ public abstract class IerisProperties implements AutoCloseable {
 	 * @throws PropertyTypeException    if the property is not a boolean
 	 */
 	public boolean getPropertyBoolean(String key) throws IllegalArgumentException, PropertyTypeException {
-		String value = getProperty(key);
-		if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("1"))
-			return true;
-		if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("0"))
-			return false;
-		else
-			throw new PropertyTypeException(properties, key, "Boolean");
+		return snapshot().get(key, PropertyType.BOOLEAN);
+	}
+
+	/**
+	 * Sets whether saving the properties forces them to the storage device before returning. Synchronized saves survive
+	 * a power loss or an operating system crash, at the cost of slower saves. Saves are not synchronized by default
+	 *
+	 * @param sync true to force saved properties to the storage device
+	 */
+	public void setSyncOnSave(boolean sync) {
+		this.syncOnSave = sync;
 	}
 
 	/**
-	 * Writes out the properties into the property file where they were read from
+	 * Sets how long {@link #persist()} waits before saving the properties. Every change persisted within the delay is
+	 * written by a single save in the background. A delay of zero, the default, saves the properties immediately. <br>
+	 * Pending saves are written by {@link #flush()}, and are lost if the application exits without calling it
+	 *
+	 * @param delay the time to wait before saving the properties
+	 *
+	 * @throws IllegalArgumentException if the delay is negative
+	 */
+	public void setSaveDelay(Duration delay) throws IllegalArgumentException {
+		if (delay.isNegative())
+			throw new IllegalArgumentException("The save delay cannot be negative");
+		this.saveDelay = delay.toNanos();
+	}
+
+	/**
+	 * Persists the changes made to the properties. Without a {@link #setSaveDelay(Duration) save delay} the properties
+	 * are saved immediately, otherwise a save is scheduled in the background unless one is already pending
+	 *
+	 * @throws IOException if the properties are saved immediately and an I/O error occurs
+	 */
+	protected void persist() throws IOException {
+		long delay = saveDelay;
+		if (delay == 0) {
+			saveProperties();
+		} else if (saveScheduled.compareAndSet(false, true)) {
+			Saver.EXECUTOR.schedule(this::saveInBackground, delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Saves the properties if a background save is still pending. A failed save is remembered and thrown by the next
+	 * {@link #flush()}
+	 */
+	private void saveInBackground() {
+		if (!saveScheduled.get())
+			return;
+		try {
+			saveProperties();
+		} catch (IOException | RuntimeException e) {
+			saveFailure = e;
+		}
+	}
+
+	/**
+	 * Saves the properties if a background save is pending or the last one failed
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void flush() throws IOException {
+		if (saveScheduled.get() || saveFailure != null)
+			saveProperties();
+	}
+
+	/**
+	 * Whether the properties have changed since they were last loaded or saved
+	 *
+	 * @return true if there are changes that have not been saved
+	 */
+	public boolean isDirty() {
+		return store.get().snapshot != saved;
+	}
+
+	/**
+	 * Writes out the properties into the property file where they were read from. The properties are written to a
+	 * temporary file that atomically replaces the property file, so the file is never left half-written
 	 *
 	 * @throws IOException if an I/O error occurs
 	 */
 	public void saveProperties() throws IOException {
-		try {
-			properties.store(new FileWriter(getPropertyFile()), name.substring(0, 1).toUpperCase() + name.substring(1));
-		} catch (IOException e) {
-			throw new IOException("Could not save the properties", e);
+		synchronized (saveLock) {
+			saveScheduled.set(false);
+			PropertySnapshot saving = store.get().snapshot;
+			String written = codec.write(saving.asMap(), text);
+			try {
+				PropertyFiles.write(getPropertyFile().toPath(), written, syncOnSave);
+				text = written;
+				saved = saving;
+				saveFailure = null;
+			} catch (IOException e) {
+				saveFailure = e;
+				throw new IOException("Could not save the properties", e);
+			}
+		}
+	}
+
+	/**
+	 * The current properties and the schema they were checked against, replaced together
+	 */
+	private static final class State {
+		/**
+		 * The current snapshot of the properties
+		 */
+		private final PropertySnapshot snapshot;
+		/**
+		 * The schema the snapshot satisfies
+		 */
+		private final PropertySchema schema;
+
+		/**
+		 * Creates the state of the properties
+		 *
+		 * @param snapshot the snapshot of the properties
+		 * @param schema   the schema the snapshot satisfies
+		 */
+		private State(PropertySnapshot snapshot, PropertySchema schema) {
+			this.snapshot = snapshot;
+			this.schema = schema;
+		}
+	}
+
+	/**
+	 * A listener and the property it listens to
+	 */
+	private static final class Subscription {
+		/**
+		 * The name of the property, or null to listen to every property
+		 */
+		private final String key;
+		/**
+		 * The listener to notify
+		 */
+		private final PropertyListener listener;
+
+		/**
+		 * Creates a subscription
+		 *
+		 * @param key      the name of the property, or null to listen to every property
+		 * @param listener the listener to notify
+		 */
+		private Subscription(String key, PropertyListener listener) {
+			this.key = key;
+			this.listener = listener;
 		}
 	}
+
+	/**
+	 * Holder of the thread notifying listeners, which is only started once a listener is notified
+	 */
+	private static final class Notifier {
+		/**
+		 * The executor notifying the listeners of every instance that has no executor of its own
+		 */
+		private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "ierislib-properties-listeners");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Holder of the thread running background saves, which is only started once a save is scheduled
+	 */
+	private static final class Saver {
+		/**
+		 * The executor running background saves of every instance
+		 */
+		private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "ierislib-properties-saver");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
 }
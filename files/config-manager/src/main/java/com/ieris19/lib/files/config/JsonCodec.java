@@ -0,0 +1,580 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes JSON configuration files, registered for the {@code json} extension. The document must be an object,
+ * whose members are flattened into dotted keys, so {@code {"db": {"pool": {"size": 8}}}} becomes
+ * {@code db.pool.size=8}. Array elements are keyed by their index, starting at zero, and {@code null} members are
+ * left out. Numbers and booleans keep the text they were written with. <br> Saving rewrites only the values that
+ * changed, keeping whether they were strings, numbers or booleans, and keeps arrays, empty objects, {@code null}
+ * members and the formatting of the rest of the document, see {@link StructuredDocument}. New properties are added to
+ * the deepest object that already contains their key, and values that look like numbers or booleans are written
+ * without quotes. A new file is written with the keys nested again and indented by two spaces.
+ */
+final class JsonCodec implements PropertyCodec {
+	/**
+	 * The values written as JSON numbers
+	 */
+	private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+	/**
+	 * The way values and new members are written into an existing document
+	 */
+	private static final StructuredDocument.Format FORMAT = new Format();
+
+	/**
+	 * Creates the codec
+	 */
+	JsonCodec() {
+	}
+
+	/**
+	 * The extensions of JSON files
+	 *
+	 * @return the {@code json} extension
+	 */
+	@Override public List<String> extensions() {
+		return List.of("json");
+	}
+
+	/**
+	 * Reads a JSON document, flattening it into dotted keys
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the properties, in the order they appear in the document
+	 *
+	 * @throws IllegalArgumentException if the text is not a JSON object
+	 */
+	@Override public Map<String, String> read(String text) throws IllegalArgumentException {
+		return parse(text).values();
+	}
+
+	/**
+	 * Writes properties as a JSON object. If the file already has content, only the values that changed are rewritten
+	 * and the rest of the document is kept, otherwise the dotted keys are nested into a new document
+	 *
+	 * @param properties the properties to write
+	 * @param previous   the previous text of the file
+	 *
+	 * @return the text of the file
+	 */
+	@Override public String write(Map<String, String> properties, String previous) {
+		if (!previous.isBlank()) {
+			try {
+				return parse(previous).render(properties, FORMAT);
+			} catch (IllegalArgumentException ignored) {
+				// The previous content is not valid JSON, so there is no layout to keep
+			}
+		}
+		StringBuilder text = new StringBuilder(64 + properties.size() * 32);
+		writeObject(PropertyTree.of(properties), "", text);
+		return text.append('\n').toString();
+	}
+
+	/**
+	 * Parses a JSON document, keeping the span of text of every value
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the document
+	 *
+	 * @throws IllegalArgumentException if the text is not a JSON object
+	 */
+	static StructuredDocument parse(String text) throws IllegalArgumentException {
+		StructuredDocument document = new StructuredDocument(text);
+		Parser parser = new Parser(text, document);
+		parser.skipWhitespace();
+		if (parser.position == text.length())
+			return document;
+		if (parser.peek() != '{')
+			throw parser.error("Expected an object");
+		StructuredDocument.Node root = document.open(null, StructuredDocument.Kind.OBJECT, "", parser.position,
+		                                             parser.position);
+		parser.object(root, "");
+		document.close(root, parser.position, parser.position);
+		parser.skipWhitespace();
+		if (parser.position != text.length())
+			throw parser.error("Unexpected content after the document");
+		return document;
+	}
+
+	/**
+	 * Writes a node of the tree as an object
+	 *
+	 * @param node   the node to write
+	 * @param indent the indentation of the line where the object starts
+	 * @param text   the builder receiving the text
+	 */
+	private static void writeObject(PropertyTree node, String indent, StringBuilder text) {
+		if (node.values().isEmpty() && node.children().isEmpty()) {
+			text.append("{}");
+			return;
+		}
+		text.append('{');
+		String memberIndent = indent + "  ";
+		boolean first = true;
+		for (Map.Entry<String, String> value : node.values().entrySet()) {
+			first = writeName(value.getKey(), first, memberIndent, text);
+			writeValue(value.getValue(), text);
+		}
+		for (Map.Entry<String, PropertyTree> child : node.children().entrySet()) {
+			first = writeName(child.getKey(), first, memberIndent, text);
+			writeObject(child.getValue(), memberIndent, text);
+		}
+		text.append('\n').append(indent).append('}');
+	}
+
+	/**
+	 * Writes the name of a member, preceded by a comma if it's not the first one
+	 *
+	 * @param name   the name of the member
+	 * @param first  whether it's the first member of its object
+	 * @param indent the indentation of the member
+	 * @param text   the builder receiving the text
+	 *
+	 * @return false, as the next member is not the first one
+	 */
+	private static boolean writeName(String name, boolean first, String indent, StringBuilder text) {
+		if (!first)
+			text.append(',');
+		text.append('\n').append(indent);
+		writeString(name, text);
+		text.append(": ");
+		return false;
+	}
+
+	/**
+	 * Writes a new value, without quotes if it looks like a number or a boolean
+	 *
+	 * @param value the value
+	 * @param text  the builder receiving the text
+	 */
+	private static void writeValue(String value, StringBuilder text) {
+		if (isLiteral(value))
+			text.append(value);
+		else
+			writeString(value, text);
+	}
+
+	/**
+	 * Whether a value can be written as a JSON number or boolean
+	 *
+	 * @param value the value
+	 *
+	 * @return true if the value is a number or a boolean
+	 */
+	private static boolean isLiteral(String value) {
+		return NUMBER.matcher(value).matches() || value.equals("true") || value.equals("false");
+	}
+
+	/**
+	 * Writes a JSON string
+	 *
+	 * @param value the content of the string
+	 * @param text  the builder receiving the text
+	 */
+	private static void writeString(String value, StringBuilder text) {
+		text.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"' -> text.append("\\\"");
+				case '\\' -> text.append("\\\\");
+				case '\n' -> text.append("\\n");
+				case '\r' -> text.append("\\r");
+				case '\t' -> text.append("\\t");
+				case '\b' -> text.append("\\b");
+				case '\f' -> text.append("\\f");
+				default -> {
+					if (c < 0x20)
+						text.append(String.format("\\u%04x", (int) c));
+					else
+						text.append(c);
+				}
+			}
+		}
+		text.append('"');
+	}
+
+	/**
+	 * Writes changed values and new members into an existing JSON document
+	 */
+	private static final class Format implements StructuredDocument.Format {
+		/**
+		 * Writes a changed value as a string if it replaces a string, or if it no longer looks like a number or a
+		 * boolean
+		 *
+		 * @param value the new value
+		 * @param kind  the kind of the value it replaces
+		 *
+		 * @return the text of the value
+		 */
+		@Override public String literal(String value, StructuredDocument.Kind kind) {
+			StringBuilder text = new StringBuilder(value.length() + 2);
+			if (kind == StructuredDocument.Kind.STRING)
+				writeString(value, text);
+			else
+				writeValue(value, text);
+			return text.toString();
+		}
+
+		/**
+		 * Removed array elements are replaced by {@code null}, which is not a property
+		 *
+		 * @return {@code null}
+		 */
+		@Override public String placeholder() {
+			return "null";
+		}
+
+		/**
+		 * Adds new members after the last member of an object, or new elements at the end of an array, on their own
+		 * lines with the indentation of the existing members
+		 *
+		 * @param document  the document
+		 * @param container the object or array receiving the properties
+		 * @param last      the last member of the container that is kept, or null if there is none
+		 * @param additions the properties to add, with keys relative to the container, sorted by key
+		 * @param edits     the changes to the text of the file, receiving the insertion
+		 */
+		@Override public void insert(StructuredDocument document, StructuredDocument.Node container,
+		                             StructuredDocument.Node last, Map<String, String> additions,
+		                             List<StructuredDocument.Edit> edits) {
+			String containerIndent = document.indentation(container.valueStart);
+			boolean multiline = last == null || document.isOnAnotherLine(container.valueStart, last.start);
+			String indent = last != null && multiline ? document.indentation(last.start) : containerIndent + "  ";
+			PropertyTree tree = PropertyTree.of(additions);
+			List<String> names = new ArrayList<>(tree.values().keySet());
+			names.addAll(tree.children().keySet());
+			if (container.kind == StructuredDocument.Kind.ARRAY)
+				names.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+			StringBuilder text = new StringBuilder();
+			boolean first = last == null;
+			int next = StructuredDocument.nextIndex(container, last);
+			for (String name : names) {
+				// Elements after a gap keep their index, with null filling the gap
+				int gap = container.kind == StructuredDocument.Kind.ARRAY ? Integer.parseInt(name) - next : 0;
+				for (int i = 0; i <= gap; i++) {
+					if (!first)
+						text.append(',');
+					first = false;
+					text.append(multiline ? "\n" + indent : " ");
+					if (i < gap)
+						text.append("null");
+				}
+				next += gap + 1;
+				if (container.kind != StructuredDocument.Kind.ARRAY) {
+					writeString(name, text);
+					text.append(": ");
+				}
+				String value = tree.values().get(name);
+				if (value != null)
+					writeValue(value, text);
+				else
+					writeObject(tree.children().get(name), indent, text);
+			}
+			if (last == null)
+				text.append('\n').append(containerIndent);
+			int position = last != null ? last.end : container.valueStart + 1;
+			edits.add(new StructuredDocument.Edit(position, position, text.toString()));
+		}
+	}
+
+	/**
+	 * A single pass over a JSON document, adding every value to the document as soon as it's read
+	 */
+	private static final class Parser {
+		/**
+		 * The text of the document
+		 */
+		private final String text;
+		/**
+		 * The document receiving the values
+		 */
+		private final StructuredDocument document;
+		/**
+		 * The position of the next character to read
+		 */
+		private int position;
+
+		/**
+		 * Creates a parser
+		 *
+		 * @param text     the text of the document
+		 * @param document the document receiving the values
+		 */
+		private Parser(String text, StructuredDocument document) {
+			this.text = text;
+			this.document = document;
+		}
+
+		/**
+		 * Reads a value, adding it or its members to the document
+		 *
+		 * @param parent the object or array containing the value
+		 * @param key    the key of the value
+		 * @param start  the index where the entry of the value starts
+		 *
+		 * @throws IllegalArgumentException if the value is not valid JSON
+		 */
+		private void value(StructuredDocument.Node parent, String key, int start) throws IllegalArgumentException {
+			int valueStart = position;
+			char c = peek();
+			switch (c) {
+				case '{', '[' -> {
+					StructuredDocument.Kind kind = c == '{' ? StructuredDocument.Kind.OBJECT :
+					                               StructuredDocument.Kind.ARRAY;
+					StructuredDocument.Node node = document.open(parent, kind, key, start, valueStart);
+					if (c == '{')
+						object(node, key);
+					else
+						array(node, key);
+					document.close(node, position, position);
+				}
+				case '"' -> {
+					String value = string();
+					document.value(parent, StructuredDocument.Kind.STRING, key, value, start, valueStart, position);
+				}
+				case 'n' -> {
+					literal("null");
+					document.value(parent, StructuredDocument.Kind.NULL, key, null, start, valueStart, position);
+				}
+				default -> {
+					String value = c == 't' ? literal("true") : c == 'f' ? literal("false") : number();
+					document.value(parent, StructuredDocument.Kind.LITERAL, key, value, start, valueStart, position);
+				}
+			}
+		}
+
+		/**
+		 * Reads an object, prefixing the names of its members with its key
+		 *
+		 * @param node the node of the object
+		 * @param key  the key of the object, or an empty string for the document
+		 *
+		 * @throws IllegalArgumentException if the object is not valid JSON
+		 */
+		private void object(StructuredDocument.Node node, String key) throws IllegalArgumentException {
+			position++;
+			skipWhitespace();
+			if (peek() == '}') {
+				position++;
+				return;
+			}
+			while (true) {
+				skipWhitespace();
+				if (peek() != '"')
+					throw error("Expected the name of a member");
+				int start = position;
+				String name = string();
+				skipWhitespace();
+				expect(':');
+				skipWhitespace();
+				value(node, key.isEmpty() ? name : key + '.' + name, start);
+				skipWhitespace();
+				if (peek() == ',') {
+					position++;
+				} else {
+					expect('}');
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads an array, keying its elements by their index
+		 *
+		 * @param node the node of the array
+		 * @param key  the key of the array
+		 *
+		 * @throws IllegalArgumentException if the array is not valid JSON
+		 */
+		private void array(StructuredDocument.Node node, String key) throws IllegalArgumentException {
+			position++;
+			skipWhitespace();
+			if (peek() == ']') {
+				position++;
+				return;
+			}
+			for (int index = 0; ; index++) {
+				skipWhitespace();
+				value(node, key + '.' + index, position);
+				skipWhitespace();
+				if (peek() == ',') {
+					position++;
+				} else {
+					expect(']');
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads a string, resolving its escape sequences
+		 *
+		 * @return the content of the string
+		 *
+		 * @throws IllegalArgumentException if the string is not valid JSON
+		 */
+		private String string() throws IllegalArgumentException {
+			int start = ++position;
+			StringBuilder builder = null;
+			while (true) {
+				if (position >= text.length())
+					throw error("Unterminated string");
+				char c = text.charAt(position);
+				if (c == '"') {
+					String value = builder == null ? text.substring(start, position) :
+					               builder.append(text, start, position).toString();
+					position++;
+					return value;
+				}
+				if (c < 0x20)
+					throw error("Control character in string");
+				if (c != '\\') {
+					position++;
+					continue;
+				}
+				if (builder == null)
+					builder = new StringBuilder();
+				builder.append(text, start, position);
+				if (++position >= text.length())
+					throw error("Unterminated string");
+				char escaped = text.charAt(position++);
+				switch (escaped) {
+					case '"', '\\', '/' -> builder.append(escaped);
+					case 'b' -> builder.append('\b');
+					case 'f' -> builder.append('\f');
+					case 'n' -> builder.append('\n');
+					case 'r' -> builder.append('\r');
+					case 't' -> builder.append('\t');
+					case 'u' -> {
+						if (position + 4 > text.length())
+							throw error("Malformed unicode escape");
+						try {
+							builder.append((char) Integer.parseInt(text, position, position + 4, 16));
+						} catch (NumberFormatException e) {
+							throw error("Malformed unicode escape");
+						}
+						position += 4;
+					}
+					default -> throw error("Invalid escape sequence");
+				}
+				start = position;
+			}
+		}
+
+		/**
+		 * Reads a number, keeping the text it was written with
+		 *
+		 * @return the text of the number
+		 *
+		 * @throws IllegalArgumentException if the number is not valid JSON
+		 */
+		private String number() throws IllegalArgumentException {
+			int start = position;
+			while (position < text.length() && "+-.eE0123456789".indexOf(text.charAt(position)) >= 0) {
+				position++;
+			}
+			String number = text.substring(start, position);
+			if (!NUMBER.matcher(number).matches())
+				throw error("Invalid value");
+			return number;
+		}
+
+		/**
+		 * Reads a literal
+		 *
+		 * @param literal the expected literal
+		 *
+		 * @return the literal
+		 *
+		 * @throws IllegalArgumentException if the text is not the literal
+		 */
+		private String literal(String literal) throws IllegalArgumentException {
+			if (!text.startsWith(literal, position))
+				throw error("Invalid value");
+			position += literal.length();
+			return literal;
+		}
+
+		/**
+		 * Reads an expected character
+		 *
+		 * @param expected the character
+		 *
+		 * @throws IllegalArgumentException if the next character is a different one
+		 */
+		private void expect(char expected) throws IllegalArgumentException {
+			if (peek() != expected)
+				throw error("Expected '" + expected + "'");
+			position++;
+		}
+
+		/**
+		 * The next character, without reading it
+		 *
+		 * @return the next character
+		 *
+		 * @throws IllegalArgumentException if the document has ended
+		 */
+		private char peek() throws IllegalArgumentException {
+			if (position >= text.length())
+				throw error("Unexpected end of the document");
+			return text.charAt(position);
+		}
+
+		/**
+		 * Skips whitespace
+		 */
+		private void skipWhitespace() {
+			while (position < text.length()) {
+				char c = text.charAt(position);
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+					return;
+				position++;
+			}
+		}
+
+		/**
+		 * Creates an exception pointing at the current position
+		 *
+		 * @param message the description of the problem
+		 *
+		 * @return the exception
+		 */
+		private IllegalArgumentException error(String message) {
+			int line = 1;
+			int column = 1;
+			for (int i = 0; i < Math.min(position, text.length()); i++) {
+				if (text.charAt(i) == '\n') {
+					line++;
+					column = 1;
+				} else {
+					column++;
+				}
+			}
+			return new IllegalArgumentException(message + " at line " + line + ", column " + column);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Properties merged from several layers, where each layer overrides the ones before it:
+ * <ol>
+ *     <li>Default values, given when the object is created</li>
+ *     <li>A properties file, read through any {@link IerisProperties}</li>
+ *     <li>System properties, usually given with {@code -Dkey=value}, whose names start with a prefix</li>
+ *     <li>Environment variables whose names start with a prefix. The prefix is removed and the rest of the name is
+ *     turned into a property key by lowercasing it and replacing underscores with dots, so {@code APP_DB_POOL_SIZE}
+ *     with the prefix {@code APP_} overrides {@code db.pool.size}</li>
+ * </ol>
+ * The layers are merged into a single {@link PropertySnapshot} ahead of time, so reading a property is a single lookup
+ * regardless of the amount of layers. The merged view is only rebuilt when a layer changes: the file layer is checked
+ * on every read by comparing snapshots, which costs nothing when the file has not changed, while system properties and
+ * environment variables are read again by {@link #refresh()}.
+ */
+public class LayeredProperties {
+	/**
+	 * The default values of the properties
+	 */
+	private final Map<String, String> defaults;
+	/**
+	 * The properties file, or null if there is no file layer
+	 */
+	private final IerisProperties file;
+	/**
+	 * The prefix of the system properties layer, or null if system properties are not included
+	 */
+	private volatile String systemPrefix;
+	/**
+	 * The prefix of the environment layer, or null if environment variables are not included
+	 */
+	private volatile String environmentPrefix;
+	/**
+	 * The properties read from system properties
+	 */
+	private volatile Map<String, String> system;
+	/**
+	 * The properties read from environment variables
+	 */
+	private volatile Map<String, String> environment;
+	/**
+	 * The merged view of every layer, with the snapshot of the file it was built from
+	 */
+	private volatile Merged merged;
+
+	/**
+	 * Creates layered properties with default values and a properties file
+	 *
+	 * @param defaults the default values of the properties, which are copied
+	 * @param file     the properties file overriding the defaults, or null if there is no file layer
+	 */
+	public LayeredProperties(Map<String, String> defaults, IerisProperties file) {
+		this.defaults = Map.copyOf(defaults);
+		this.file = file;
+		this.system = Map.of();
+		this.environment = Map.of();
+		rebuild();
+	}
+
+	/**
+	 * Creates layered properties on top of a properties file, without default values
+	 *
+	 * @param file the properties file
+	 */
+	public LayeredProperties(IerisProperties file) {
+		this(Map.of(), file);
+	}
+
+	/**
+	 * Includes the system properties whose names start with a prefix, which is removed from the property key. An empty
+	 * prefix includes every system property
+	 *
+	 * @param prefix the prefix of the system properties to include
+	 *
+	 * @return this object
+	 */
+	public LayeredProperties includeSystemProperties(String prefix) {
+		this.systemPrefix = prefix;
+		refresh();
+		return this;
+	}
+
+	/**
+	 * Includes the environment variables whose names start with a prefix. The prefix is removed, and the rest of the
+	 * name is lowercased and its underscores replaced with dots to obtain the property key
+	 *
+	 * @param prefix the prefix of the environment variables to include
+	 *
+	 * @return this object
+	 */
+	public LayeredProperties includeEnvironment(String prefix) {
+		this.environmentPrefix = prefix;
+		refresh();
+		return this;
+	}
+
+	/**
+	 * Reads the system properties and environment variables again, rebuilding the merged view if they changed
+	 */
+	public synchronized void refresh() {
+		Map<String, String> system = readSystemProperties();
+		Map<String, String> environment = readEnvironment();
+		if (!system.equals(this.system) || !environment.equals(this.environment)) {
+			this.system = system;
+			this.environment = environment;
+			rebuild();
+		}
+	}
+
+	/**
+	 * The merged view of every layer. The file layer is checked for changes first, rebuilding the view if needed. The
+	 * snapshot of the file is only requested once, since {@link DynamicProperties} checks the file every time
+	 *
+	 * @return the snapshot of the merged properties
+	 */
+	public PropertySnapshot getSnapshot() {
+		Merged current = merged;
+		if (file == null)
+			return current.view;
+		PropertySnapshot fileSnapshot = file.snapshot();
+		if (current.file != fileSnapshot) {
+			synchronized (this) {
+				current = merged;
+				if (current.file != fileSnapshot)
+					current = rebuild(fileSnapshot);
+			}
+		}
+		return current.view;
+	}
+
+	/**
+	 * Retrieves the value of a property from the topmost layer that defines it
+	 *
+	 * @param key the name of the property
+	 *
+	 * @return the value of the property
+	 *
+	 * @throws IllegalArgumentException if no layer defines the property
+	 */
+	public String getProperty(String key) throws IllegalArgumentException {
+		String value = getSnapshot().get(key);
+		if (value == null)
+			throw new IllegalArgumentException("Invalid Property Name");
+		return value;
+	}
+
+	/**
+	 * Retrieves a property from the topmost layer that defines it, parsed as the given type
+	 *
+	 * @param key  the name of the property
+	 * @param type the type of the property
+	 * @param <T>  the Java type of the value
+	 *
+	 * @return the parsed value of the property
+	 *
+	 * @throws IllegalArgumentException if no layer defines the property
+	 * @throws PropertyTypeException    if the property is not of the given type
+	 */
+	public <T> T getProperty(String key, PropertyType<T> type) throws IllegalArgumentException, PropertyTypeException {
+		return getSnapshot().get(key, type);
+	}
+
+	/**
+	 * Merges every layer into a new view and publishes it
+	 *
+	 * @return the new merged view
+	 */
+	private synchronized Merged rebuild() {
+		return rebuild(file != null ? file.snapshot() : PropertySnapshot.empty());
+	}
+
+	/**
+	 * Merges every layer into a new view and publishes it, using a snapshot of the file that was already requested
+	 *
+	 * @param fileSnapshot the snapshot of the file layer
+	 *
+	 * @return the new merged view
+	 */
+	private synchronized Merged rebuild(PropertySnapshot fileSnapshot) {
+		Map<String, String> values = new HashMap<>(defaults);
+		values.putAll(fileSnapshot.asMap());
+		values.putAll(system);
+		values.putAll(environment);
+		Merged rebuilt = new Merged(fileSnapshot, new PropertySnapshot(values));
+		this.merged = rebuilt;
+		return rebuilt;
+	}
+
+	/**
+	 * Reads the system properties layer
+	 *
+	 * @return the system properties starting with the prefix, without it
+	 */
+	private Map<String, String> readSystemProperties() {
+		String prefix = systemPrefix;
+		if (prefix == null)
+			return Map.of();
+		Map<String, String> values = new HashMap<>();
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith(prefix) && name.length() > prefix.length())
+				values.put(name.substring(prefix.length()), System.getProperty(name));
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the environment layer
+	 *
+	 * @return the environment variables starting with the prefix, converted to property keys
+	 */
+	private Map<String, String> readEnvironment() {
+		String prefix = environmentPrefix;
+		if (prefix == null)
+			return Map.of();
+		Map<String, String> values = new HashMap<>();
+		for (Map.Entry<String, String> variable : System.getenv().entrySet()) {
+			String key = environmentKey(variable.getKey(), prefix);
+			if (key != null)
+				values.put(key, variable.getValue());
+		}
+		return values;
+	}
+
+	/**
+	 * Converts the name of an environment variable into a property key, removing the prefix, lowercasing the rest of
+	 * the name and replacing its underscores with dots
+	 *
+	 * @param name   the name of the environment variable
+	 * @param prefix the prefix of the environment layer
+	 *
+	 * @return the property key, or null if the name does not start with the prefix or is only the prefix
+	 */
+	static String environmentKey(String name, String prefix) {
+		if (!name.startsWith(prefix) || name.length() == prefix.length())
+			return null;
+		return name.substring(prefix.length()).toLowerCase(Locale.ROOT).replace('_', '.');
+	}
+
+	/**
+	 * A merged view and the snapshot of the file it was built from
+	 */
+	private static final class Merged {
+		/**
+		 * The snapshot of the file layer used to build the view
+		 */
+		private final PropertySnapshot file;
+		/**
+		 * The merged properties
+		 */
+		private final PropertySnapshot view;
+
+		/**
+		 * Pairs a merged view with the file snapshot it was built from
+		 *
+		 * @param file the snapshot of the file layer
+		 * @param view the merged properties
+		 */
+		private Merged(PropertySnapshot file, PropertySnapshot view) {
+			this.file = file;
+			this.view = view;
+		}
+	}
+}
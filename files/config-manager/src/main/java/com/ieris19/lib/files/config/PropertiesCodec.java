@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes properties files following the format of {@link java.util.Properties}, registered for the
+ * {@code properties} extension. Files are read as UTF-8, and {@code \}{@code uXXXX} escapes are always understood, so
+ * files written by older versions in ISO-8859-1 are still read correctly. <br> Entries without escapes are read as
+ * substrings of the file, so most entries are parsed without copying their characters one at a time. Writing keeps the
+ * comments, blank lines and order of the previous content of the file, see {@link PropertiesDocument}.
+ */
+final class PropertiesCodec implements PropertyCodec {
+	/**
+	 * Creates the codec
+	 */
+	PropertiesCodec() {
+	}
+
+	/**
+	 * The extensions of properties files
+	 *
+	 * @return the {@code properties} extension
+	 */
+	@Override public List<String> extensions() {
+		return List.of("properties");
+	}
+
+	/**
+	 * Reads the properties of a properties file
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the properties, in the order they appear in the file
+	 *
+	 * @throws IllegalArgumentException if the text contains a malformed {@code \}{@code uXXXX} escape
+	 */
+	@Override public Map<String, String> read(String text) throws IllegalArgumentException {
+		return parse(text).values();
+	}
+
+	/**
+	 * Writes properties using the layout of the previous content of the file
+	 *
+	 * @param properties the properties to write
+	 * @param previous   the previous text of the file
+	 *
+	 * @return the text of the file
+	 */
+	@Override public String write(Map<String, String> properties, String previous) {
+		return parse(previous).render(properties);
+	}
+
+	/**
+	 * Parses the text of a properties file
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the document of the file
+	 *
+	 * @throws IllegalArgumentException if the text contains a malformed {@code \}{@code uXXXX} escape
+	 */
+	static PropertiesDocument parse(String text) throws IllegalArgumentException {
+		List<PropertiesDocument.Line> lines = new ArrayList<>();
+		String lineSeparator = null;
+		int length = text.length();
+		int position = 0;
+		while (position < length) {
+			int lineStart = position;
+			int start = skipWhitespace(text, position, length);
+			int end = lineEnd(text, start, length);
+			if (lineSeparator == null && end < length)
+				lineSeparator = end + 1 < length && text.charAt(end) == '\r' && text.charAt(end + 1) == '\n' ? "\r\n" :
+				                String.valueOf(text.charAt(end));
+			if (start == end || text.charAt(start) == '#' || text.charAt(start) == '!') {
+				lines.add(new PropertiesDocument.Line(text.substring(lineStart, end), null, null));
+				position = nextLine(text, end, length);
+				continue;
+			}
+			String logical;
+			if (isContinued(text, start, end)) {
+				StringBuilder builder = new StringBuilder();
+				builder.append(text, start, end - 1);
+				// Like java.util.Properties, a backslash at the end of the file continues the entry into nothing
+				while (end < length) {
+					position = nextLine(text, end, length);
+					int continuationStart = skipWhitespace(text, position, length);
+					end = lineEnd(text, continuationStart, length);
+					boolean continued = isContinued(text, continuationStart, end);
+					builder.append(text, continuationStart, continued ? end - 1 : end);
+					if (!continued)
+						break;
+				}
+				logical = builder.toString();
+			} else {
+				logical = text.substring(start, end);
+			}
+			lines.add(entry(text.substring(lineStart, end), logical));
+			position = nextLine(text, end, length);
+		}
+		return new PropertiesDocument(lines, lineSeparator != null ? lineSeparator : "\n");
+	}
+
+	/**
+	 * Splits a logical line into its key and value
+	 *
+	 * @param text    the text of the entry as it was read
+	 * @param logical the entry with its continuation lines joined
+	 *
+	 * @return the line of the entry
+	 */
+	private static PropertiesDocument.Line entry(String text, String logical) {
+		int length = logical.length();
+		int keyEnd = 0;
+		boolean escaped = false;
+		while (keyEnd < length) {
+			char c = logical.charAt(keyEnd);
+			if (c == '\\') {
+				escaped = true;
+				keyEnd += 2;
+				continue;
+			}
+			if (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f')
+				break;
+			keyEnd++;
+		}
+		keyEnd = Math.min(keyEnd, length);
+		int valueStart = skipWhitespace(logical, keyEnd, length);
+		if (valueStart < length && (logical.charAt(valueStart) == '=' || logical.charAt(valueStart) == ':'))
+			valueStart = skipWhitespace(logical, valueStart + 1, length);
+		String key = escaped ? unescape(logical, 0, keyEnd) : logical.substring(0, keyEnd);
+		return new PropertiesDocument.Line(text, key, unescape(logical, valueStart, length));
+	}
+
+	/**
+	 * Resolves the escape sequences of a part of a line
+	 *
+	 * @param line  the line
+	 * @param start the index of the first character
+	 * @param end   the index after the last character
+	 *
+	 * @return the text without escape sequences
+	 *
+	 * @throws IllegalArgumentException if the text contains a malformed {@code \}{@code uXXXX} escape
+	 */
+	private static String unescape(String line, int start, int end) throws IllegalArgumentException {
+		int backslash = line.indexOf('\\', start);
+		if (backslash < 0 || backslash >= end)
+			return line.substring(start, end);
+		StringBuilder builder = new StringBuilder(end - start);
+		builder.append(line, start, backslash);
+		for (int i = backslash; i < end; i++) {
+			char c = line.charAt(i);
+			if (c != '\\' || i + 1 >= end) {
+				builder.append(c);
+				continue;
+			}
+			c = line.charAt(++i);
+			switch (c) {
+				case 't' -> builder.append('\t');
+				case 'n' -> builder.append('\n');
+				case 'r' -> builder.append('\r');
+				case 'f' -> builder.append('\f');
+				case 'u' -> {
+					if (i + 4 >= end)
+						throw new IllegalArgumentException("Malformed \\uXXXX encoding");
+					try {
+						builder.append((char) Integer.parseInt(line, i + 1, i + 5, 16));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Malformed \\uXXXX encoding", e);
+					}
+					i += 4;
+				}
+				default -> builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Appends text escaped so that it's read back unchanged. Characters that are not printable are written as
+	 * {@code \}{@code uXXXX} escapes, the rest are written as they are since the file is UTF-8
+	 *
+	 * @param text  the text to escape
+	 * @param isKey whether the text is a key, which also escapes separators and comment characters
+	 * @param out   the builder receiving the escaped text
+	 */
+	static void escape(String text, boolean isKey, StringBuilder out) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+				case '\\' -> out.append("\\\\");
+				case '\t' -> out.append("\\t");
+				case '\n' -> out.append("\\n");
+				case '\r' -> out.append("\\r");
+				case '\f' -> out.append("\\f");
+				case ' ' -> out.append(isKey || i == 0 ? "\\ " : " ");
+				case '=', ':' -> out.append(isKey ? "\\" : "").append(c);
+				case '#', '!' -> out.append(i == 0 ? "\\" : "").append(c);
+				default -> {
+					if (c < 0x20 || c == 0x7F)
+						out.append(String.format("\\u%04X", (int) c));
+					else
+						out.append(c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Whether a line ends with an odd amount of backslashes, which continues it in the next line
+	 *
+	 * @param text  the text of the file
+	 * @param start the index where the line starts
+	 * @param end   the index where the line ends
+	 *
+	 * @return true if the line continues in the next one
+	 */
+	private static boolean isContinued(String text, int start, int end) {
+		int backslashes = 0;
+		for (int i = end - 1; i >= start && text.charAt(i) == '\\'; i--) {
+			backslashes++;
+		}
+		return (backslashes & 1) == 1;
+	}
+
+	/**
+	 * Skips spaces, tabs and form feeds
+	 *
+	 * @param text   the text to scan
+	 * @param start  the index to start from
+	 * @param length the length of the text
+	 *
+	 * @return the index of the first character that is not whitespace
+	 */
+	private static int skipWhitespace(String text, int start, int length) {
+		int i = start;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (c != ' ' && c != '\t' && c != '\f')
+				break;
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the end of a line
+	 *
+	 * @param text   the text to scan
+	 * @param start  the index to start from
+	 * @param length the length of the text
+	 *
+	 * @return the index of the line terminator, or the length of the text if it's the last line
+	 */
+	private static int lineEnd(String text, int start, int length) {
+		int i = start;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (c == '\n' || c == '\r')
+				break;
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Skips a line terminator, which can be {@code \n}, {@code \r} or {@code \r\n}
+	 *
+	 * @param text   the text to scan
+	 * @param end    the index of the line terminator
+	 * @param length the length of the text
+	 *
+	 * @return the index where the next line starts
+	 */
+	private static int nextLine(String text, int end, int length) {
+		if (end < length && text.charAt(end) == '\r' && end + 1 < length && text.charAt(end + 1) == '\n')
+			return end + 2;
+		return end + 1;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.*;
+
+/**
+ * The content of a properties file as it was written, keeping its comments, blank lines and the order and formatting
+ * of its entries. Saving properties through a document rewrites only the entries whose values changed, so a file keeps
+ * its layout and its diffs stay small.
+ */
+final class PropertiesDocument {
+	/**
+	 * The lines of the file, where entries spanning several lines count as a single one
+	 */
+	private final List<Line> lines;
+	/**
+	 * The value of every property, in the order they appear in the file
+	 */
+	private final Map<String, String> values;
+	/**
+	 * The position of the line defining every property. When a property is defined more than once, the last line wins
+	 */
+	private final Map<String, Integer> definitions;
+	/**
+	 * The line separator used by the file
+	 */
+	private final String lineSeparator;
+
+	/**
+	 * Creates a document
+	 *
+	 * @param lines         the lines of the file
+	 * @param lineSeparator the line separator used by the file
+	 */
+	PropertiesDocument(List<Line> lines, String lineSeparator) {
+		this.lines = List.copyOf(lines);
+		this.lineSeparator = lineSeparator;
+		this.values = new LinkedHashMap<>();
+		this.definitions = new HashMap<>();
+		for (int i = 0; i < this.lines.size(); i++) {
+			Line line = this.lines.get(i);
+			if (line.key != null) {
+				values.remove(line.key);
+				values.put(line.key, line.value);
+				definitions.put(line.key, i);
+			}
+		}
+	}
+
+	/**
+	 * The value of every property, in the order they appear in the file
+	 *
+	 * @return an unmodifiable map of the properties
+	 */
+	Map<String, String> values() {
+		return Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Writes the given properties using the layout of this document. Comments and blank lines are kept, entries whose
+	 * value did not change are written exactly as they were read, changed entries are rewritten in place, deleted ones
+	 * are dropped and new ones are appended at the end, sorted by key
+	 *
+	 * @param properties the properties to write
+	 *
+	 * @return the text of the file
+	 */
+	String render(Map<String, String> properties) {
+		StringBuilder text = new StringBuilder(64 + properties.size() * 32);
+		for (int i = 0; i < lines.size(); i++) {
+			Line line = lines.get(i);
+			if (line.key == null) {
+				text.append(line.text).append(lineSeparator);
+				continue;
+			}
+			if (definitions.get(line.key) != i)
+				continue;
+			String value = properties.get(line.key);
+			if (value == null)
+				continue;
+			if (value.equals(line.value))
+				text.append(line.text).append(lineSeparator);
+			else
+				appendEntry(text, line.key, value);
+		}
+		List<String> added = new ArrayList<>();
+		for (String key : properties.keySet()) {
+			if (!definitions.containsKey(key))
+				added.add(key);
+		}
+		Collections.sort(added);
+		for (String key : added) {
+			appendEntry(text, key, properties.get(key));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Appends an entry with its key and value escaped
+	 *
+	 * @param text  the text of the file
+	 * @param key   the name of the property
+	 * @param value the value of the property
+	 */
+	private void appendEntry(StringBuilder text, String key, String value) {
+		PropertiesCodec.escape(key, true, text);
+		text.append('=');
+		PropertiesCodec.escape(value, false, text);
+		text.append(lineSeparator);
+	}
+
+	/**
+	 * A line of a properties file, which can be a comment, a blank line or an entry
+	 */
+	static final class Line {
+		/**
+		 * The text of the line as it was read, without the line terminator
+		 */
+		private final String text;
+		/**
+		 * The name of the property, or null if the line is not an entry
+		 */
+		private final String key;
+		/**
+		 * The value of the property, or null if the line is not an entry
+		 */
+		private final String value;
+
+		/**
+		 * Creates a line
+		 *
+		 * @param text  the text of the line as it was read
+		 * @param key   the name of the property, or null if the line is not an entry
+		 * @param value the value of the property, or null if the line is not an entry
+		 */
+		Line(String text, String key, String value) {
+			this.text = text;
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Creates instances of a record or interface from a {@link PropertySnapshot}. Every component of a record, or every
+ * abstract method without parameters of an interface, is read from the property with the same name. <br> The code that
+ * reads and converts the properties is assembled once per type as a single {@link MethodHandle}, so creating an
+ * instance does not involve reflection.
+ */
+final class PropertyBinder {
+	/**
+	 * The binder of every type that has been bound so far, or an empty slot for types being bound for the first time.
+	 * The binder of a type is dropped along with the type, so binding classes of a class loader does not keep it alive.
+	 * The slot is filled by {@link #of(Class, MethodHandles.Lookup)}, as records need its lookup to be bound
+	 */
+	private static final ClassValue<AtomicReference<PropertyBinder>> BINDERS = new ClassValue<>() {
+		@Override protected AtomicReference<PropertyBinder> computeValue(Class<?> type) {
+			return new AtomicReference<>();
+		}
+	};
+	/**
+	 * Reads a property as a {@link PropertyType}, with the type {@code (PropertySnapshot, String, PropertyType)Object}
+	 */
+	private static final MethodHandle GET_TYPED;
+	/**
+	 * Reads a property as an enum constant, with the type {@code (PropertySnapshot, String, Class)Enum}
+	 */
+	private static final MethodHandle GET_ENUM;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			GET_TYPED = lookup.findVirtual(PropertySnapshot.class, "get",
+			                               MethodType.methodType(Object.class, String.class, PropertyType.class));
+			GET_ENUM = lookup.findStatic(PropertyBinder.class, "getEnum",
+			                             MethodType.methodType(Enum.class, PropertySnapshot.class, String.class,
+			                                                   Class.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * The bound type
+	 */
+	private final Class<?> type;
+	/**
+	 * Creates an instance of the type, or the values of an interface, with the type {@code (PropertySnapshot)Object}
+	 */
+	private final MethodHandle factory;
+	/**
+	 * The position of the value returned by every method of an interface, or null if the type is a record
+	 */
+	private final Map<Method, Integer> methods;
+
+	/**
+	 * Creates a binder
+	 *
+	 * @param type    the bound type
+	 * @param factory the handle that reads the properties from a snapshot
+	 * @param methods the position of the value of every method of an interface, or null for records
+	 */
+	private PropertyBinder(Class<?> type, MethodHandle factory, Map<Method, Integer> methods) {
+		this.type = type;
+		this.factory = factory;
+		this.methods = methods;
+	}
+
+	/**
+	 * Retrieves the binder of a type, creating it the first time the type is bound
+	 *
+	 * @param type   the record or interface to bind
+	 * @param lookup the lookup used to access the canonical constructor of a record
+	 *
+	 * @return the binder of the type
+	 *
+	 * @throws IllegalArgumentException if the type is not a record or an interface, it has components that cannot be
+	 *                                  read from properties or it is not accessible from the lookup
+	 */
+	static PropertyBinder of(Class<?> type, MethodHandles.Lookup lookup) throws IllegalArgumentException {
+		AtomicReference<PropertyBinder> slot = BINDERS.get(type);
+		PropertyBinder binder = slot.get();
+		if (binder == null) {
+			binder = type.isRecord() ? forRecord(type, lookup) : forInterface(type);
+			if (!slot.compareAndSet(null, binder))
+				binder = slot.get();
+		} else if (type.isRecord()) {
+			canonicalConstructor(type, lookup);
+		}
+		return binder;
+	}
+
+	/**
+	 * Creates an instance of the bound type with the values of a snapshot
+	 *
+	 * @param snapshot the snapshot to read the properties from
+	 *
+	 * @return an instance of the bound type
+	 *
+	 * @throws IllegalArgumentException if a property does not exist or an enum property has no matching constant
+	 * @throws PropertyTypeException    if a property is not of the type of its component
+	 */
+	Object create(PropertySnapshot snapshot) throws IllegalArgumentException, PropertyTypeException {
+		Object result;
+		try {
+			result = factory.invokeExact(snapshot);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Could not bind the properties to " + type.getName(), e);
+		}
+		if (methods == null)
+			return result;
+		Object[] values = (Object[]) result;
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, arguments) -> {
+			Integer index = methods.get(method);
+			if (index != null)
+				return values[index];
+			if (method.isDefault())
+				return InvocationHandler.invokeDefault(proxy, method, arguments);
+			return switch (method.getName()) {
+				case "equals" -> proxy == arguments[0];
+				case "hashCode" -> System.identityHashCode(proxy);
+				default -> type.getSimpleName() + methodValues(values);
+			};
+		});
+	}
+
+	/**
+	 * Describes the values of an interface instance
+	 *
+	 * @param values the values returned by the methods of the interface
+	 *
+	 * @return the name and value of every method
+	 */
+	private String methodValues(Object[] values) {
+		StringBuilder builder = new StringBuilder("[");
+		for (Map.Entry<Method, Integer> entry : methods.entrySet()) {
+			if (builder.length() > 1)
+				builder.append(", ");
+			builder.append(entry.getKey().getName()).append('=').append(values[entry.getValue()]);
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Creates the binder of a record, which calls the canonical constructor with the properties named after every
+	 * component
+	 *
+	 * @param type   the record
+	 * @param lookup the lookup used to access the canonical constructor
+	 *
+	 * @return the binder of the record
+	 *
+	 * @throws IllegalArgumentException if a component cannot be read from properties or the constructor is not
+	 *                                  accessible
+	 */
+	private static PropertyBinder forRecord(Class<?> type, MethodHandles.Lookup lookup)
+	throws IllegalArgumentException {
+		RecordComponent[] components = type.getRecordComponents();
+		MethodHandle[] readers = new MethodHandle[components.length];
+		for (int i = 0; i < components.length; i++) {
+			readers[i] = reader(type, components[i].getName(), components[i].getType());
+		}
+		return new PropertyBinder(type, combine(canonicalConstructor(type, lookup), readers), null);
+	}
+
+	/**
+	 * Finds the canonical constructor of a record. This also checks that the lookup has access to it, which is done
+	 * every time a record is bound, even if its binder was already created with another lookup
+	 *
+	 * @param type   the record
+	 * @param lookup the lookup used to access the constructor
+	 *
+	 * @return the handle of the constructor
+	 *
+	 * @throws IllegalArgumentException if the constructor is not accessible from the lookup
+	 */
+	private static MethodHandle canonicalConstructor(Class<?> type, MethodHandles.Lookup lookup)
+	throws IllegalArgumentException {
+		RecordComponent[] components = type.getRecordComponents();
+		Class<?>[] types = new Class<?>[components.length];
+		for (int i = 0; i < components.length; i++) {
+			types[i] = components[i].getType();
+		}
+		try {
+			return lookup.findConstructor(type, MethodType.methodType(void.class, types));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("The canonical constructor of " + type.getName() + " is not accessible",
+			                                   e);
+		}
+	}
+
+	/**
+	 * Creates the binder of an interface, which reads the property named after every abstract method without
+	 * parameters into an array that backs a proxy
+	 *
+	 * @param type the interface
+	 *
+	 * @return the binder of the interface
+	 *
+	 * @throws IllegalArgumentException if the type is not an interface, or it has abstract methods that cannot be read
+	 *                                  from properties
+	 */
+	private static PropertyBinder forInterface(Class<?> type) throws IllegalArgumentException {
+		if (!type.isInterface())
+			throw new IllegalArgumentException(type.getName() + " is neither a record nor an interface");
+		Map<Method, Integer> methods = new HashMap<>();
+		Method[] declared = type.getMethods();
+		MethodHandle[] readers = new MethodHandle[declared.length];
+		for (Method method : declared) {
+			if (!Modifier.isAbstract(method.getModifiers()))
+				continue;
+			if (method.getParameterCount() != 0)
+				throw new IllegalArgumentException("Method " + method.getName() + " of " + type.getName() +
+				                                   " cannot be bound to a property as it has parameters");
+			int index = methods.size();
+			readers[index] = reader(type, method.getName(), method.getReturnType())
+					.asType(MethodType.methodType(Object.class, PropertySnapshot.class));
+			methods.put(method, index);
+		}
+		MethodHandle array = MethodHandles.identity(Object[].class).asCollector(Object[].class, methods.size());
+		MethodHandle[] used = new MethodHandle[methods.size()];
+		System.arraycopy(readers, 0, used, 0, used.length);
+		return new PropertyBinder(type, combine(array, used), Map.copyOf(methods));
+	}
+
+	/**
+	 * Feeds the result of every reader into the matching parameter of the target
+	 *
+	 * @param target  the handle receiving the values
+	 * @param readers the handles reading each value from a snapshot
+	 *
+	 * @return a handle with the type {@code (PropertySnapshot)Object}
+	 */
+	private static MethodHandle combine(MethodHandle target, MethodHandle[] readers) {
+		MethodHandle filtered = MethodHandles.filterArguments(target, 0, readers);
+		MethodHandle single = MethodHandles.permuteArguments(
+				filtered, MethodType.methodType(filtered.type().returnType(), PropertySnapshot.class),
+				new int[readers.length]);
+		return single.asType(MethodType.methodType(Object.class, PropertySnapshot.class));
+	}
+
+	/**
+	 * Creates a handle that reads a property from a snapshot as the given class
+	 *
+	 * @param owner     the bound type, used in error messages
+	 * @param key       the name of the property
+	 * @param valueType the class of the value
+	 *
+	 * @return a handle with the type {@code (PropertySnapshot)valueType}
+	 *
+	 * @throws IllegalArgumentException if properties cannot be read as the class
+	 */
+	private static MethodHandle reader(Class<?> owner, String key, Class<?> valueType) throws IllegalArgumentException {
+		MethodHandle reader;
+		PropertyType<?> propertyType = PropertyType.of(valueType);
+		if (propertyType != null) {
+			reader = MethodHandles.insertArguments(GET_TYPED, 1, key, propertyType);
+		} else if (valueType.isEnum()) {
+			reader = MethodHandles.insertArguments(GET_ENUM, 1, key, valueType);
+		} else {
+			throw new IllegalArgumentException("Property " + key + " of " + owner.getName() + " cannot be read as " +
+			                                   valueType.getName());
+		}
+		return reader.asType(MethodType.methodType(valueType, PropertySnapshot.class));
+	}
+
+	/**
+	 * Reads a property as an enum constant
+	 *
+	 * @param snapshot the snapshot to read the property from
+	 * @param key      the name of the property
+	 * @param enumType the enum class
+	 *
+	 * @return the constant named after the value of the property
+	 *
+	 * @throws IllegalArgumentException if the property does not exist or there is no constant with its name
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Enum<?> getEnum(PropertySnapshot snapshot, String key, Class enumType)
+	throws IllegalArgumentException {
+		return Enum.valueOf(enumType, snapshot.get(key, PropertyType.STRING).trim());
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.function.Supplier;
+
+/**
+ * A record or interface bound to a set of properties, created by {@link IerisProperties#bind(Class)}. The instance
+ * returned by {@link #get()} is built from a single snapshot of the properties, so its values are always consistent
+ * with each other. Once the properties change, the next call to {@link #get()} builds a new instance, while instances
+ * that were already handed out keep their values.
+ *
+ * @param <T> the bound type
+ */
+public final class PropertyBinding<T> implements Supplier<T> {
+	/**
+	 * The properties being bound
+	 */
+	private final IerisProperties properties;
+	/**
+	 * The bound type
+	 */
+	private final Class<T> type;
+	/**
+	 * The section the type is bound to, or null if it's bound to every property
+	 */
+	private final String section;
+	/**
+	 * The binder creating instances of the type
+	 */
+	private final PropertyBinder binder;
+	/**
+	 * The last instance created, with the snapshot it was created from
+	 */
+	private volatile Bound<T> current;
+
+	/**
+	 * Creates a binding
+	 *
+	 * @param properties the properties being bound
+	 * @param type       the bound type
+	 * @param section    the section the type is bound to, or null to bind it to every property
+	 * @param binder     the binder creating instances of the type
+	 */
+	PropertyBinding(IerisProperties properties, Class<T> type, String section, PropertyBinder binder) {
+		this.properties = properties;
+		this.type = type;
+		this.section = section;
+		this.binder = binder;
+	}
+
+	/**
+	 * The instance of the bound type for the current properties. It's only created again when the properties change
+	 *
+	 * @return an instance with the current values of the properties
+	 *
+	 * @throws IllegalArgumentException if a property does not exist
+	 * @throws PropertyTypeException    if a property is not of the type of its component
+	 */
+	@Override public T get() throws IllegalArgumentException, PropertyTypeException {
+		PropertySnapshot snapshot = properties.snapshot();
+		Bound<T> bound = current;
+		if (bound == null || bound.snapshot != snapshot) {
+			PropertySnapshot values = section == null ? snapshot : snapshot.subset(section);
+			bound = new Bound<>(snapshot, type.cast(binder.create(values)));
+			current = bound;
+		}
+		return bound.value;
+	}
+
+	/**
+	 * The bound type
+	 *
+	 * @return the class of the instances
+	 */
+	public Class<T> type() {
+		return type;
+	}
+
+	/**
+	 * An instance of the bound type and the snapshot it was created from
+	 *
+	 * @param <T> the bound type
+	 */
+	private static final class Bound<T> {
+		/**
+		 * The snapshot the instance was created from
+		 */
+		private final PropertySnapshot snapshot;
+		/**
+		 * The instance
+		 */
+		private final T value;
+
+		/**
+		 * Pairs an instance with its snapshot
+		 *
+		 * @param snapshot the snapshot the instance was created from
+		 * @param value    the instance
+		 */
+		private Bound(PropertySnapshot snapshot, T value) {
+			this.snapshot = snapshot;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.Objects;
+
+/**
+ * A change to a single property, delivered to every {@link PropertyListener} interested in it. A change can create a
+ * property, in which case there is no old value, delete it, in which case there is no new value, or modify its value.
+ */
+public final class PropertyChange {
+	/**
+	 * The name of the property
+	 */
+	private final String key;
+	/**
+	 * The value before the change, or null if the property was created
+	 */
+	private final String oldValue;
+	/**
+	 * The value after the change, or null if the property was deleted
+	 */
+	private final String newValue;
+
+	/**
+	 * Creates a change
+	 *
+	 * @param key      the name of the property
+	 * @param oldValue the value before the change, or null if the property was created
+	 * @param newValue the value after the change, or null if the property was deleted
+	 */
+	PropertyChange(String key, String oldValue, String newValue) {
+		this.key = key;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	/**
+	 * The name of the changed property
+	 *
+	 * @return the key of the property
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * The value of the property before the change
+	 *
+	 * @return the old value, or null if the property was created
+	 */
+	public String getOldValue() {
+		return oldValue;
+	}
+
+	/**
+	 * The value of the property after the change
+	 *
+	 * @return the new value, or null if the property was deleted
+	 */
+	public String getNewValue() {
+		return newValue;
+	}
+
+	/**
+	 * Whether the property did not exist before the change
+	 *
+	 * @return true if the property was created
+	 */
+	public boolean isCreated() {
+		return oldValue == null;
+	}
+
+	/**
+	 * Whether the property does not exist after the change
+	 *
+	 * @return true if the property was deleted
+	 */
+	public boolean isDeleted() {
+		return newValue == null;
+	}
+
+	/**
+	 * Whether another object is a change to the same property with the same old and new values
+	 *
+	 * @param other the object to compare to
+	 *
+	 * @return true if the other object is an identical change
+	 */
+	@Override public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof PropertyChange))
+			return false;
+		PropertyChange change = (PropertyChange) other;
+		return key.equals(change.key) && Objects.equals(oldValue, change.oldValue) &&
+		       Objects.equals(newValue, change.newValue);
+	}
+
+	/**
+	 * The hash code of the change, consistent with {@link #equals(Object)}
+	 *
+	 * @return the hash code of the key and values
+	 */
+	@Override public int hashCode() {
+		return Objects.hash(key, oldValue, newValue);
+	}
+
+	/**
+	 * A description of the change, such as {@code port: 8080 -> 8081}
+	 *
+	 * @return the key followed by the old and new values
+	 */
+	@Override public String toString() {
+		return key + ": " + oldValue + " -> " + newValue;
+	}
+}
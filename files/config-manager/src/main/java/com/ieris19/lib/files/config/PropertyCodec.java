@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A format of configuration files. A codec turns the text of a file into flat properties, where nested structures are
+ * flattened into dotted keys, and turns properties back into text. <br> Codecs are chosen by the extension of the file,
+ * see {@link PropertyCodecs}. Besides the built-in codecs, more codecs can be provided as services of this interface,
+ * or registered with {@link PropertyCodecs#register(PropertyCodec)}.
+ */
+public interface PropertyCodec {
+	/**
+	 * The extensions of the files written in this format, without the leading dot
+	 *
+	 * @return the extensions handled by this codec
+	 */
+	List<String> extensions();
+
+	/**
+	 * Reads the properties in the text of a file
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the properties, preferably in the order they appear in the file
+	 *
+	 * @throws IllegalArgumentException if the text is not valid in this format
+	 */
+	Map<String, String> read(String text) throws IllegalArgumentException;
+
+	/**
+	 * Writes properties as the text of a file
+	 *
+	 * @param properties the properties to write
+	 * @param previous   the previous text of the file, which codecs can use to keep its layout, or an empty string if
+	 *                   the file is new
+	 *
+	 * @return the text of the file
+	 */
+	String write(Map<String, String> properties, String previous);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the codecs available to read and write configuration files, looked up by file extension. The
+ * {@code properties}, {@code json} and {@code toml} formats are built in, and codecs provided as services of
+ * {@link PropertyCodec} are loaded the first time the registry is used. Codecs registered later replace those already
+ * registered for the same extensions.
+ */
+public final class PropertyCodecs {
+	/**
+	 * The codec of every extension
+	 */
+	private static final Map<String, PropertyCodec> codecs = new ConcurrentHashMap<>();
+
+	static {
+		register(new PropertiesCodec());
+		register(new JsonCodec());
+		register(new TomlCodec());
+		for (PropertyCodec codec : ServiceLoader.load(PropertyCodec.class, PropertyCodec.class.getClassLoader())) {
+			register(codec);
+		}
+	}
+
+	/**
+	 * This class only has static methods
+	 */
+	private PropertyCodecs() {
+	}
+
+	/**
+	 * Registers a codec for all of its extensions
+	 *
+	 * @param codec the codec to register
+	 */
+	public static void register(PropertyCodec codec) {
+		for (String extension : codec.extensions()) {
+			codecs.put(extension.toLowerCase(Locale.ROOT), codec);
+		}
+	}
+
+	/**
+	 * Finds the codec of an extension
+	 *
+	 * @param extension the extension of the file, without the leading dot
+	 *
+	 * @return the codec of the extension, or null if there is none
+	 */
+	public static PropertyCodec forExtension(String extension) {
+		return codecs.get(extension.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * The codec of the {@code properties} format, used for files without a known extension
+	 *
+	 * @return the codec of properties files
+	 */
+	static PropertyCodec defaultCodec() {
+		return forExtension("properties");
+	}
+}
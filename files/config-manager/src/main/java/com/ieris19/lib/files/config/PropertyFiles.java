@@ -0,0 +1,212 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+
+/**
+ * Reads and writes the text of configuration files. Files are encoded in UTF-8, but files that are not valid UTF-8 are
+ * read as ISO-8859-1, which is how older versions wrote them. Large files are memory-mapped instead of read into the
+ * heap. <br> Files are written so that a crash never leaves a truncated or half-written file behind. The content is
+ * written to a temporary file next to the target, which then replaces the target with an atomic rename. Readers of the
+ * file see either the previous or the new content, never a mix of both. The permissions and owner of the target are
+ * copied to the temporary file before the rename, and a target that is a symbolic link is resolved first, so the link
+ * is kept and the file it points to is replaced instead.
+ */
+final class PropertyFiles {
+	/**
+	 * The size from which files are memory-mapped instead of read
+	 */
+	private static final long MAP_THRESHOLD = 1 << 20;
+
+	/**
+	 * This class only has static methods
+	 */
+	private PropertyFiles() {
+	}
+
+	/**
+	 * Reads the text of a file
+	 *
+	 * @param file the file to read
+	 *
+	 * @return the text of the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	static String read(Path file) throws IOException {
+		return decode(readBytes(file));
+	}
+
+	/**
+	 * Reads the content of a file, memory-mapping it if it's large
+	 *
+	 * @param file the file to read
+	 *
+	 * @return the content of the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	static ByteBuffer readBytes(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size >= MAP_THRESHOLD)
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+			return buffer.flip();
+		}
+	}
+
+	/**
+	 * Decodes the bytes of a file as UTF-8, or as ISO-8859-1 if they're not valid UTF-8. A leading byte order mark is
+	 * removed
+	 *
+	 * @param bytes the bytes of the file
+	 *
+	 * @return the text of the file
+	 */
+	static String decode(ByteBuffer bytes) {
+		String text;
+		try {
+			CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+			                                         .onMalformedInput(CodingErrorAction.REPORT)
+			                                         .onUnmappableCharacter(CodingErrorAction.REPORT)
+			                                         .decode(bytes.duplicate());
+			text = chars.toString();
+		} catch (CharacterCodingException e) {
+			text = StandardCharsets.ISO_8859_1.decode(bytes.duplicate()).toString();
+		}
+		return !text.isEmpty() && text.charAt(0) == '\uFEFF' ? text.substring(1) : text;
+	}
+
+	/**
+	 * Writes text into a file, replacing it atomically
+	 *
+	 * @param target  the file to write
+	 * @param content the text to write
+	 * @param sync    whether the content and the rename are forced to the storage device before returning, so they
+	 *                survive a power loss
+	 *
+	 * @throws IOException if an I/O error occurs, in which case the target is left untouched
+	 */
+	static void write(Path target, String content, boolean sync) throws IOException {
+		write(target, ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), sync);
+	}
+
+	/**
+	 * Writes bytes into a file, replacing it atomically
+	 *
+	 * @param target  the file to write
+	 * @param content the bytes to write
+	 * @param sync    whether the content and the rename are forced to the storage device before returning, so they
+	 *                survive a power loss
+	 *
+	 * @throws IOException if an I/O error occurs, in which case the target is left untouched
+	 */
+	static void write(Path target, ByteBuffer content, boolean sync) throws IOException {
+		Path file = Files.exists(target) ? target.toRealPath() : target.toAbsolutePath();
+		Path directory = file.getParent();
+		Path temporary = Files.createTempFile(directory, "." + file.getFileName(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (content.hasRemaining()) {
+					channel.write(content);
+				}
+				if (sync)
+					channel.force(true);
+			}
+			copyAttributes(file, temporary);
+			move(temporary, file);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		if (sync)
+			syncDirectory(directory);
+	}
+
+	/**
+	 * Copies the POSIX permissions, owner and group of a file to the file replacing it. Temporary files are only readable
+	 * by their owner, so without this a save would change the permissions of the file. Nothing is copied if the file
+	 * does not exist yet or the file system does not support POSIX attributes. Changing the owner or the group requires
+	 * privileges the process might not have, in which case they're left as they are
+	 *
+	 * @param file        the file being replaced
+	 * @param replacement the file replacing it
+	 *
+	 * @throws IOException if the permissions cannot be copied
+	 */
+	private static void copyAttributes(Path file, Path replacement) throws IOException {
+		PosixFileAttributeView source = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+		if (source == null || !Files.exists(file))
+			return;
+		PosixFileAttributes attributes = source.readAttributes();
+		PosixFileAttributeView target = Files.getFileAttributeView(replacement, PosixFileAttributeView.class);
+		target.setPermissions(attributes.permissions());
+		try {
+			if (!attributes.owner().equals(Files.getOwner(replacement)))
+				target.setOwner(attributes.owner());
+			target.setGroup(attributes.group());
+		} catch (IOException ignored) {
+		}
+	}
+
+	/**
+	 * Replaces the target with the source, atomically if the file system allows it
+	 *
+	 * @param source the file to move
+	 * @param target the file to replace
+	 *
+	 * @throws IOException if the file cannot be moved
+	 */
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Forces the entries of a directory to the storage device, so a rename inside it is durable. Some platforms do not
+	 * allow opening directories, in which case nothing is done
+	 *
+	 * @param directory the directory to synchronize
+	 */
+	private static void syncDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ignored) {
+		}
+	}
+}
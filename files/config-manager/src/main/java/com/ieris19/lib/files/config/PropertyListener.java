@@ -0,0 +1,32 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+/**
+ * A listener notified of changes to properties, registered with {@link IerisProperties#addListener(PropertyListener)}.
+ * Listeners are called on the executor of the properties, never while the properties are being changed.
+ */
+@FunctionalInterface
+public interface PropertyListener {
+	/**
+	 * Called once for every property that changed
+	 *
+	 * @param change the change to the property
+	 */
+	void propertyChanged(PropertyChange change);
+}
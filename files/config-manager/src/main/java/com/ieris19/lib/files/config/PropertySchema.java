@@ -0,0 +1,382 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A declarative description of the properties an application expects: their types, whether they're required, the
+ * range of numeric properties and the pattern of textual ones. Every declaration is compiled into a validator when it's
+ * made, so checking a snapshot is a single pass over the declared properties that only parses each value and runs the
+ * precompiled checks. <br><br>
+ *
+ * Schemas are immutable, every declaration returns a new schema:
+ * <pre>{@code
+ * PropertySchema schema = PropertySchema.empty()
+ *         .require("server.port", PropertyType.INTEGER)
+ *         .range("server.port", 1, 65535)
+ *         .optional("server.host", PropertyType.STRING)
+ *         .pattern("server.host", "[a-z0-9.-]+");
+ * }</pre>
+ * Values are parsed through the snapshot being checked, so a snapshot that passes the check already holds the parsed
+ * value of every declared property and reading them later does not parse them again. Properties that are not declared
+ * are not checked.
+ *
+ * @see IerisProperties#setSchema(PropertySchema)
+ */
+public final class PropertySchema {
+	/**
+	 * The schema without any declared property
+	 */
+	private static final PropertySchema EMPTY = new PropertySchema(Map.of());
+
+	/**
+	 * The rule of every declared property, in the order they were declared
+	 */
+	private final Map<String, Rule> rules;
+	/**
+	 * The rules, in an array iterated by the validation pass
+	 */
+	private final Rule[] ordered;
+
+	/**
+	 * Creates a schema with the given rules
+	 *
+	 * @param rules the rule of every declared property
+	 */
+	private PropertySchema(Map<String, Rule> rules) {
+		this.rules = rules;
+		this.ordered = rules.values().toArray(new Rule[0]);
+	}
+
+	/**
+	 * The schema without any declared property, which every snapshot satisfies
+	 *
+	 * @return the empty schema
+	 */
+	public static PropertySchema empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Declares a property that must exist and be of the given type
+	 *
+	 * @param key  the name of the property
+	 * @param type the type of the property
+	 *
+	 * @return a schema with the declared property
+	 *
+	 * @throws IllegalArgumentException if the property is already declared
+	 */
+	public PropertySchema require(String key, PropertyType<?> type) throws IllegalArgumentException {
+		return declare(key, type, true);
+	}
+
+	/**
+	 * Declares a property that might not exist, but must be of the given type if it does
+	 *
+	 * @param key  the name of the property
+	 * @param type the type of the property
+	 *
+	 * @return a schema with the declared property
+	 *
+	 * @throws IllegalArgumentException if the property is already declared
+	 */
+	public PropertySchema optional(String key, PropertyType<?> type) throws IllegalArgumentException {
+		return declare(key, type, false);
+	}
+
+	/**
+	 * Restricts an integral property to a range of values
+	 *
+	 * @param key the name of the property
+	 * @param min the minimum value, inclusive
+	 * @param max the maximum value, inclusive
+	 *
+	 * @return a schema with the restricted property
+	 *
+	 * @throws IllegalArgumentException if the property is not declared as a byte, short, integer or long, or if the
+	 *                                  minimum is greater than the maximum
+	 */
+	public PropertySchema range(String key, long min, long max) throws IllegalArgumentException {
+		Rule rule = rule(key);
+		if (!isIntegral(rule.type))
+			throw new IllegalArgumentException("Property " + key + " is not an integral number");
+		if (min > max)
+			throw new IllegalArgumentException("The minimum cannot be greater than the maximum");
+		String violation = key + " is not between " + min + " and " + max;
+		return with(rule.and((raw, value) -> {
+			long number = ((Number) value).longValue();
+			return number < min || number > max ? violation : null;
+		}));
+	}
+
+	/**
+	 * Restricts a numeric property to a range of values
+	 *
+	 * @param key the name of the property
+	 * @param min the minimum value, inclusive
+	 * @param max the maximum value, inclusive
+	 *
+	 * @return a schema with the restricted property
+	 *
+	 * @throws IllegalArgumentException if the property is not declared as a number, or if the minimum is greater than
+	 *                                  the maximum
+	 */
+	public PropertySchema range(String key, double min, double max) throws IllegalArgumentException {
+		Rule rule = rule(key);
+		if (!isIntegral(rule.type) && rule.type != PropertyType.FLOAT && rule.type != PropertyType.DOUBLE)
+			throw new IllegalArgumentException("Property " + key + " is not a number");
+		if (!(min <= max))
+			throw new IllegalArgumentException("The minimum cannot be greater than the maximum");
+		String violation = key + " is not between " + min + " and " + max;
+		return with(rule.and((raw, value) -> {
+			double number = ((Number) value).doubleValue();
+			return number < min || number > max || Double.isNaN(number) ? violation : null;
+		}));
+	}
+
+	/**
+	 * Restricts the text of a property to a regular expression, which must match the whole text
+	 *
+	 * @param key   the name of the property
+	 * @param regex the regular expression the text of the property must match
+	 *
+	 * @return a schema with the restricted property
+	 *
+	 * @throws IllegalArgumentException if the property is not declared or the regular expression is not valid
+	 */
+	public PropertySchema pattern(String key, String regex) throws IllegalArgumentException {
+		Rule rule = rule(key);
+		Pattern pattern = Pattern.compile(regex);
+		String violation = key + " does not match " + regex;
+		return with(rule.and((raw, value) -> pattern.matcher(raw).matches() ? null : violation));
+	}
+
+	/**
+	 * Checks a snapshot against this schema in a single pass, collecting every violation
+	 *
+	 * @param snapshot the snapshot to check
+	 *
+	 * @return the description of every violation, empty if the snapshot satisfies the schema
+	 */
+	public List<String> validate(PropertySnapshot snapshot) {
+		List<String> violations = null;
+		for (Rule rule : ordered) {
+			String violation = rule.validate(snapshot);
+			if (violation != null) {
+				if (violations == null)
+					violations = new ArrayList<>();
+				violations.add(violation);
+			}
+		}
+		return violations == null ? List.of() : violations;
+	}
+
+	/**
+	 * Checks that a snapshot satisfies this schema
+	 *
+	 * @param snapshot the snapshot to check
+	 *
+	 * @throws PropertySchemaException if the snapshot does not satisfy the schema
+	 */
+	public void check(PropertySnapshot snapshot) throws PropertySchemaException {
+		List<String> violations = validate(snapshot);
+		if (!violations.isEmpty())
+			throw new PropertySchemaException(violations);
+	}
+
+	/**
+	 * Checks a single property of a snapshot, used when only that property changed since the snapshot was last checked
+	 *
+	 * @param snapshot the snapshot to check
+	 * @param key      the name of the property that changed
+	 *
+	 * @throws PropertySchemaException if the property does not satisfy the schema
+	 */
+	void check(PropertySnapshot snapshot, String key) throws PropertySchemaException {
+		Rule rule = rules.get(key);
+		String violation = rule == null ? null : rule.validate(snapshot);
+		if (violation != null)
+			throw new PropertySchemaException(List.of(violation));
+	}
+
+	/**
+	 * Whether this schema declares no property
+	 *
+	 * @return true if every snapshot satisfies this schema
+	 */
+	boolean isEmpty() {
+		return ordered.length == 0;
+	}
+
+	/**
+	 * Declares a property
+	 *
+	 * @param key      the name of the property
+	 * @param type     the type of the property
+	 * @param required whether the property must exist
+	 *
+	 * @return a schema with the declared property
+	 *
+	 * @throws IllegalArgumentException if the property is already declared
+	 */
+	private PropertySchema declare(String key, PropertyType<?> type, boolean required)
+	throws IllegalArgumentException {
+		if (rules.containsKey(key))
+			throw new IllegalArgumentException("Property " + key + " is already declared");
+		return with(new Rule(key, type, required, new Check[0]));
+	}
+
+	/**
+	 * Finds the rule of a declared property
+	 *
+	 * @param key the name of the property
+	 *
+	 * @return the rule of the property
+	 *
+	 * @throws IllegalArgumentException if the property is not declared
+	 */
+	private Rule rule(String key) throws IllegalArgumentException {
+		Rule rule = rules.get(key);
+		if (rule == null)
+			throw new IllegalArgumentException("Property " + key + " is not declared");
+		return rule;
+	}
+
+	/**
+	 * Creates a schema with a rule added or replaced
+	 *
+	 * @param rule the rule to add or replace
+	 *
+	 * @return the new schema
+	 */
+	private PropertySchema with(Rule rule) {
+		Map<String, Rule> next = new LinkedHashMap<>(rules);
+		next.put(rule.key, rule);
+		return new PropertySchema(next);
+	}
+
+	/**
+	 * Whether a type holds integral numbers
+	 *
+	 * @param type the type to test
+	 *
+	 * @return true if the type is a byte, short, integer or long
+	 */
+	private static boolean isIntegral(PropertyType<?> type) {
+		return type == PropertyType.BYTE || type == PropertyType.SHORT || type == PropertyType.INTEGER ||
+		       type == PropertyType.LONG;
+	}
+
+	/**
+	 * A precompiled check of the value of a property
+	 */
+	@FunctionalInterface
+	private interface Check {
+		/**
+		 * Checks the value of a property
+		 *
+		 * @param raw   the text of the property
+		 * @param value the parsed value of the property
+		 *
+		 * @return the description of the violation, or null if the value is valid
+		 */
+		String test(String raw, Object value);
+	}
+
+	/**
+	 * The validator of a declared property
+	 */
+	private static final class Rule {
+		/**
+		 * The name of the property
+		 */
+		private final String key;
+		/**
+		 * The type of the property
+		 */
+		private final PropertyType<?> type;
+		/**
+		 * Whether the property must exist
+		 */
+		private final boolean required;
+		/**
+		 * The checks of the parsed value, run in order until one fails
+		 */
+		private final Check[] checks;
+
+		/**
+		 * Creates the validator of a property
+		 *
+		 * @param key      the name of the property
+		 * @param type     the type of the property
+		 * @param required whether the property must exist
+		 * @param checks   the checks of the parsed value
+		 */
+		private Rule(String key, PropertyType<?> type, boolean required, Check[] checks) {
+			this.key = key;
+			this.type = type;
+			this.required = required;
+			this.checks = checks;
+		}
+
+		/**
+		 * Creates a validator with one more check
+		 *
+		 * @param check the check to add
+		 *
+		 * @return the new validator
+		 */
+		private Rule and(Check check) {
+			Check[] next = Arrays.copyOf(checks, checks.length + 1);
+			next[checks.length] = check;
+			return new Rule(key, type, required, next);
+		}
+
+		/**
+		 * Validates the property in a snapshot, parsing it through the snapshot so the parsed value is kept
+		 *
+		 * @param snapshot the snapshot to validate
+		 *
+		 * @return the description of the violation, or null if the property is valid
+		 */
+		private String validate(PropertySnapshot snapshot) {
+			String raw = snapshot.get(key);
+			if (raw == null)
+				return required ? key + " is required" : null;
+			Object value;
+			try {
+				value = snapshot.get(key, type);
+			} catch (PropertyTypeException e) {
+				return key + " with value " + raw + " is not " + (type.toString().matches("[AEIOU].*") ? "an " : "a ") +
+				       type;
+			}
+			for (Check check : checks) {
+				String violation = check.test(raw, value);
+				if (violation != null)
+					return violation;
+			}
+			return null;
+		}
+	}
+}
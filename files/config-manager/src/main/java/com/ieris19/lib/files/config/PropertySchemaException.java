@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import java.util.List;
+
+/**
+ * A type of exception that is thrown when properties do not satisfy their {@link PropertySchema}. It lists every
+ * violation found, not only the first one
+ */
+public class PropertySchemaException extends RuntimeException {
+	/**
+	 * The version of the serialized form of this exception
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * The description of every violation of the schema
+	 */
+	private final List<String> violations;
+
+	/**
+	 * Constructs a {@code PropertySchemaException} with a detail message listing the violations of the schema
+	 *
+	 * @param violations the description of every violation of the schema
+	 */
+	public PropertySchemaException(List<String> violations) {
+		super("Properties do not satisfy their schema: \n" + String.join("\n", violations));
+		this.violations = List.copyOf(violations);
+	}
+
+	/**
+	 * The violations of the schema
+	 *
+	 * @return the description of every violation of the schema
+	 */
+	public List<String> getViolations() {
+		return violations;
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable view of a set of properties at a point in time. Besides the text of each property, a snapshot keeps
+ * every value it has parsed, so reading the same property as the same {@link PropertyType type} parses it only once
+ * for as long as the snapshot lives. Reading a snapshot never locks, which makes it safe to share between threads and
+ * cheap to read from hot paths. <br> Whenever the properties change, a new snapshot replaces the previous one, which is
+ * left untouched for whoever is still reading it.
+ */
+public final class PropertySnapshot {
+	/**
+	 * An empty snapshot
+	 */
+	private static final PropertySnapshot EMPTY = new PropertySnapshot(Map.of());
+
+	/**
+	 * Marker cached for values that could not be parsed as the requested type
+	 */
+	private static final Object INVALID = new Object();
+
+	/**
+	 * The text of every property
+	 */
+	private final Map<String, String> values;
+	/**
+	 * The parsed values of every property, one map per property type. The maps are empty until a type is requested
+	 */
+	private final List<ConcurrentHashMap<String, Object>> parsed;
+	/**
+	 * Every key in lexicographic order, sorted the first time a prefix query is made
+	 */
+	private volatile String[] sortedKeys;
+
+	/**
+	 * Creates a snapshot of the given properties
+	 *
+	 * @param values the properties, which are copied
+	 */
+	PropertySnapshot(Map<String, String> values) {
+		this.values = Map.copyOf(values);
+		List<ConcurrentHashMap<String, Object>> caches = new ArrayList<>(PropertyType.COUNT);
+		for (int i = 0; i < PropertyType.COUNT; i++) {
+			caches.add(new ConcurrentHashMap<>());
+		}
+		this.parsed = List.copyOf(caches);
+	}
+
+	/**
+	 * Returns an empty snapshot
+	 *
+	 * @return a snapshot without properties
+	 */
+	public static PropertySnapshot empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Creates a snapshot with a property added or replaced. This snapshot is left untouched
+	 *
+	 * @param key   the name of the property
+	 * @param value the new text of the property
+	 *
+	 * @return a new snapshot with the property
+	 */
+	PropertySnapshot with(String key, String value) {
+		Map<String, String> copy = new HashMap<>(values);
+		copy.put(key, value);
+		return new PropertySnapshot(copy);
+	}
+
+	/**
+	 * Creates a snapshot without a property. This snapshot is left untouched
+	 *
+	 * @param key the name of the property
+	 *
+	 * @return a new snapshot without the property, or this snapshot if it does not contain the property
+	 */
+	PropertySnapshot without(String key) {
+		if (!values.containsKey(key))
+			return this;
+		Map<String, String> copy = new HashMap<>(values);
+		copy.remove(key);
+		return new PropertySnapshot(copy);
+	}
+
+	/**
+	 * Lists the properties that differ between this snapshot and another one
+	 *
+	 * @param next the snapshot that replaced this one
+	 *
+	 * @return a change for every property created, modified or deleted by the next snapshot
+	 */
+	List<PropertyChange> changesTo(PropertySnapshot next) {
+		List<PropertyChange> changes = new ArrayList<>();
+		for (Map.Entry<String, String> entry : next.values.entrySet()) {
+			String oldValue = values.get(entry.getKey());
+			if (!entry.getValue().equals(oldValue))
+				changes.add(new PropertyChange(entry.getKey(), oldValue, entry.getValue()));
+		}
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			if (!next.values.containsKey(entry.getKey()))
+				changes.add(new PropertyChange(entry.getKey(), entry.getValue(), null));
+		}
+		return changes;
+	}
+
+	/**
+	 * Retrieves the text of a property
+	 *
+	 * @param key the name of the property
+	 *
+	 * @return the text of the property, or null if it does not exist
+	 */
+	public String get(String key) {
+		return values.get(key);
+	}
+
+	/**
+	 * Retrieves a property parsed as the given type. The first time a property is read as a type, it's parsed and the
+	 * result is kept for further reads of this snapshot
+	 *
+	 * @param key  the name of the property
+	 * @param type the type of the property
+	 * @param <T>  the Java type of the value
+	 *
+	 * @return the parsed value of the property
+	 *
+	 * @throws IllegalArgumentException if the property does not exist
+	 * @throws PropertyTypeException    if the property is not of the given type
+	 */
+	public <T> T get(String key, PropertyType<T> type) throws IllegalArgumentException, PropertyTypeException {
+		ConcurrentHashMap<String, Object> cache = parsed.get(type.index());
+		Object value = cache.get(key);
+		if (value == null) {
+			String text = values.get(key);
+			if (text == null)
+				throw new IllegalArgumentException("Invalid Property Name");
+			try {
+				value = type.parse(text);
+			} catch (IllegalArgumentException e) {
+				value = INVALID;
+			}
+			cache.putIfAbsent(key, value);
+		}
+		if (value == INVALID)
+			throw new PropertyTypeException(key, values.get(key), type.toString());
+		return type.javaType().cast(value);
+	}
+
+	/**
+	 * Whether the snapshot contains a property
+	 *
+	 * @param key the name of the property
+	 *
+	 * @return true if the property exists
+	 */
+	public boolean contains(String key) {
+		return values.containsKey(key);
+	}
+
+	/**
+	 * Lists the keys starting with a prefix, in lexicographic order. The keys are found with a binary search in an index
+	 * sorted once per snapshot, so the cost of a query depends on the amount of keys found rather than on the size of
+	 * the snapshot
+	 *
+	 * @param prefix the start of the keys
+	 *
+	 * @return the keys starting with the prefix
+	 */
+	public List<String> keysWithPrefix(String prefix) {
+		String[] keys = sortedKeys();
+		int from = firstIndex(keys, prefix);
+		int to = from;
+		while (to < keys.length && keys[to].startsWith(prefix)) {
+			to++;
+		}
+		return Collections.unmodifiableList(Arrays.asList(keys).subList(from, to));
+	}
+
+	/**
+	 * Creates a snapshot with the properties inside a section. A section is made of every key starting with its name
+	 * followed by a dot, so the section {@code db.pool} contains {@code db.pool.size} as {@code size} and
+	 * {@code db.pool.timeout} as {@code timeout}
+	 *
+	 * @param section the name of the section, with or without the trailing dot
+	 *
+	 * @return a snapshot of the properties in the section, with the name of the section removed from their keys
+	 */
+	public PropertySnapshot subset(String section) {
+		String prefix = section.isEmpty() || section.endsWith(".") ? section : section + '.';
+		if (prefix.isEmpty())
+			return this;
+		Map<String, String> subset = new HashMap<>();
+		for (String key : keysWithPrefix(prefix)) {
+			if (key.length() > prefix.length())
+				subset.put(key.substring(prefix.length()), values.get(key));
+		}
+		return new PropertySnapshot(subset);
+	}
+
+	/**
+	 * The amount of properties in the snapshot
+	 *
+	 * @return the amount of properties
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * The text of every property in the snapshot
+	 *
+	 * @return an immutable map of the properties
+	 */
+	public Map<String, String> asMap() {
+		return values;
+	}
+
+	/**
+	 * Every key in lexicographic order, sorting them the first time they're needed
+	 *
+	 * @return the sorted keys
+	 */
+	private String[] sortedKeys() {
+		String[] keys = sortedKeys;
+		if (keys == null) {
+			keys = values.keySet().toArray(new String[0]);
+			Arrays.sort(keys);
+			sortedKeys = keys;
+		}
+		return keys;
+	}
+
+	/**
+	 * Finds the position of the first key that is not lower than a prefix, which is the first key starting with it if
+	 * there is any
+	 *
+	 * @param keys   the sorted keys
+	 * @param prefix the prefix to look for
+	 *
+	 * @return the index of the first key not lower than the prefix
+	 */
+	private static int firstIndex(String[] keys, String prefix) {
+		int index = Arrays.binarySearch(keys, prefix);
+		return index >= 0 ? index : -index - 1;
+	}
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An optional cache of parsed configuration files, which spares reading and parsing files that did not change since the
+ * last start. When a directory is set with {@link #setDirectory(File)}, the text of every configuration file and the
+ * properties parsed from it are stored there in a compact binary snapshot, along with the size, modification time and
+ * SHA-256 hash of the file and the codec that parsed it. <br><br>
+ *
+ * The next time the file is loaded, the snapshot is memory-mapped and used without opening the file if the file still
+ * has the same size and modification time. A file modified shortly before its snapshot was stored could be modified
+ * again within the same timestamp, so in that case, or when the size or modification time differ, the file is read and
+ * the snapshot is only used if the file still has the same hash. Otherwise the file is parsed again. <br><br>
+ *
+ * A snapshot is only a copy of what parsing the file would produce, so deleting the directory or a snapshot in it is
+ * always safe. Snapshots that cannot be read are ignored and replaced.
+ */
+public final class PropertySnapshotCache {
+	/**
+	 * The first bytes of every snapshot
+	 */
+	private static final int MAGIC = 0x49505343;
+	/**
+	 * The version of the snapshot format, snapshots of another version are ignored
+	 */
+	private static final int VERSION = 2;
+	/**
+	 * The length of the hash of the file content
+	 */
+	private static final int HASH_LENGTH = 32;
+	/**
+	 * The extension of snapshot files
+	 */
+	private static final String EXTENSION = ".snapshot";
+	/**
+	 * How long after its modification time a file must have been stored to trust its size and modification time, in
+	 * milliseconds, which covers the coarsest timestamps of common file systems
+	 */
+	private static final long RACY_WINDOW = 2000;
+
+	/**
+	 * The directory snapshots are stored in, or null if the cache is disabled
+	 */
+	private static volatile File directory;
+
+	/**
+	 * This class only has static methods
+	 */
+	private PropertySnapshotCache() {
+	}
+
+	/**
+	 * Sets the directory snapshots are stored in, enabling the cache. The cache is disabled by default
+	 *
+	 * @param dir the directory snapshots are stored in, or null to disable the cache
+	 *
+	 * @throws IllegalArgumentException if the directory cannot be created
+	 */
+	public static void setDirectory(File dir) throws IllegalArgumentException {
+		if (dir != null && !dir.mkdirs() && !dir.isDirectory())
+			throw new IllegalArgumentException("The snapshot cache directory could not be created");
+		directory = dir;
+	}
+
+	/**
+	 * The directory snapshots are stored in
+	 *
+	 * @return the directory snapshots are stored in, or null if the cache is disabled
+	 */
+	public static File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Reads and parses a configuration file, using its snapshot instead if the cache is enabled and the file did not
+	 * change since the snapshot was stored. Otherwise the file is parsed and a new snapshot is stored
+	 *
+	 * @param source the configuration file
+	 * @param codec  the format of the file
+	 *
+	 * @return the text and properties of the file
+	 *
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not valid in its format
+	 */
+	static Content load(Path source, PropertyCodec codec) throws IOException, IllegalArgumentException {
+		File dir = directory;
+		if (dir == null) {
+			String text = PropertyFiles.decode(PropertyFiles.readBytes(source));
+			return new Content(text, codec.read(text));
+		}
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+		byte[] format = codec.getClass().getName().getBytes(StandardCharsets.UTF_8);
+		Path snapshot = snapshotOf(dir, source);
+		Snapshot stored = read(snapshot, format);
+		if (stored != null && stored.size == size && stored.modified == modified
+				&& modified + RACY_WINDOW < stored.stored)
+			return stored.content;
+		ByteBuffer bytes = PropertyFiles.readBytes(source);
+		String text = PropertyFiles.decode(bytes);
+		byte[] hash = hash(bytes);
+		Content content = stored != null && Arrays.equals(stored.hash, hash)
+		                  ? new Content(text, stored.content.properties)
+		                  : new Content(text, codec.read(text));
+		write(snapshot, new Snapshot(size, modified, System.currentTimeMillis(), hash, content), format);
+		return content;
+	}
+
+	/**
+	 * The snapshot file of a configuration file. It's named after the file and the hash of its absolute path, so files
+	 * with the same name in different directories have different snapshots
+	 *
+	 * @param dir    the directory of the snapshots
+	 * @param source the configuration file
+	 *
+	 * @return the path of the snapshot
+	 */
+	private static Path snapshotOf(File dir, Path source) {
+		Path absolute = source.toAbsolutePath().normalize();
+		String id = Integer.toHexString(absolute.toString().hashCode());
+		return dir.toPath().resolve(absolute.getFileName() + "-" + id + EXTENSION);
+	}
+
+	/**
+	 * Reads a snapshot by memory-mapping it
+	 *
+	 * @param snapshot the snapshot file
+	 * @param format   the name of the codec of the configuration file
+	 *
+	 * @return the snapshot, or null if there is no valid snapshot for the codec
+	 */
+	private static Snapshot read(Path snapshot, byte[] format) {
+		try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+			long size = buffer.getLong();
+			long modified = buffer.getLong();
+			long stored = buffer.getLong();
+			byte[] hash = new byte[HASH_LENGTH];
+			buffer.get(hash);
+			if (!Arrays.equals(readBytes(buffer), format))
+				return null;
+			String text = readString(buffer);
+			int count = buffer.getInt();
+			if (count < 0)
+				return null;
+			Map<String, String> properties = new LinkedHashMap<>(Math.min(count, buffer.remaining() / 8) * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String key = readString(buffer);
+				properties.put(key, readString(buffer));
+			}
+			if (buffer.hasRemaining())
+				return null;
+			return new Snapshot(size, modified, stored, hash, new Content(text, properties));
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a snapshot of a configuration file. Failing to store it only means the file will be parsed again, so
+	 * errors are ignored
+	 *
+	 * @param snapshot the snapshot file
+	 * @param stored   the snapshot to store
+	 * @param format   the name of the codec of the configuration file
+	 */
+	private static void write(Path snapshot, Snapshot stored, byte[] format) {
+		Map<String, String> properties = stored.content.properties;
+		byte[] text = stored.content.text.getBytes(StandardCharsets.UTF_8);
+		byte[][] strings = new byte[properties.size() * 2][];
+		int size = 4 + 4 + 8 + 8 + 8 + HASH_LENGTH + 4 + format.length + 4 + text.length + 4;
+		int i = 0;
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			strings[i] = property.getKey().getBytes(StandardCharsets.UTF_8);
+			strings[i + 1] = property.getValue().getBytes(StandardCharsets.UTF_8);
+			size += 8 + strings[i].length + strings[i + 1].length;
+			i += 2;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(MAGIC).putInt(VERSION);
+		buffer.putLong(stored.size).putLong(stored.modified).putLong(stored.stored).put(stored.hash);
+		buffer.putInt(format.length).put(format);
+		buffer.putInt(text.length).put(text);
+		buffer.putInt(properties.size());
+		for (byte[] string : strings) {
+			buffer.putInt(string.length).put(string);
+		}
+		try {
+			Files.createDirectories(snapshot.getParent());
+			PropertyFiles.write(snapshot, buffer.flip(), false);
+		} catch (IOException ignored) {
+		}
+	}
+
+	/**
+	 * Reads a length-prefixed array of bytes
+	 *
+	 * @param buffer the buffer to read from
+	 *
+	 * @return the bytes read
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the bytes
+	 * @throws IllegalArgumentException if the length is not valid
+	 */
+	private static byte[] readBytes(ByteBuffer buffer) throws BufferUnderflowException, IllegalArgumentException {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining())
+			throw new IllegalArgumentException("Invalid length in snapshot");
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string
+	 *
+	 * @param buffer the buffer to read from
+	 *
+	 * @return the string read
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the string
+	 * @throws IllegalArgumentException if the length is not valid
+	 */
+	private static String readString(ByteBuffer buffer) throws BufferUnderflowException, IllegalArgumentException {
+		return new String(readBytes(buffer), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Hashes the content of a configuration file
+	 *
+	 * @param bytes the content of the file
+	 *
+	 * @return the SHA-256 hash of the content
+	 */
+	private static byte[] hash(ByteBuffer bytes) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(bytes.duplicate());
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * The text of a configuration file and the properties parsed from it
+	 */
+	static final class Content {
+		/**
+		 * The text of the file
+		 */
+		final String text;
+		/**
+		 * The properties of the file, in the order they're defined
+		 */
+		final Map<String, String> properties;
+
+		/**
+		 * Creates the content of a file
+		 *
+		 * @param text       the text of the file
+		 * @param properties the properties of the file
+		 */
+		Content(String text, Map<String, String> properties) {
+			this.text = text;
+			this.properties = properties;
+		}
+	}
+
+	/**
+	 * The content of a configuration file along with what identifies the version of the file it was read from
+	 */
+	private static final class Snapshot {
+		/**
+		 * The size of the file
+		 */
+		private final long size;
+		/**
+		 * The modification time of the file, in milliseconds since the epoch
+		 */
+		private final long modified;
+		/**
+		 * When the snapshot was stored, in milliseconds since the epoch
+		 */
+		private final long stored;
+		/**
+		 * The SHA-256 hash of the content of the file
+		 */
+		private final byte[] hash;
+		/**
+		 * The text and properties of the file
+		 */
+		private final Content content;
+
+		/**
+		 * Creates a snapshot
+		 *
+		 * @param size     the size of the file
+		 * @param modified the modification time of the file
+		 * @param stored   when the snapshot was stored
+		 * @param hash     the hash of the content of the file
+		 * @param content  the text and properties of the file
+		 */
+		private Snapshot(long size, long modified, long stored, byte[] hash, Content content) {
+			this.size = size;
+			this.modified = modified;
+			this.stored = stored;
+			this.hash = hash;
+			this.content = content;
+		}
+	}
+}
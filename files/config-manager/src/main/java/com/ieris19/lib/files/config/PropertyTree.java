@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.*;
+
+/**
+ * Flat properties arranged as a tree by splitting their keys at the dots, used to write nested formats. A key is nested
+ * as deep as possible, unless part of it is a property itself: {@code db} and {@code db.url} cannot both be nodes, so
+ * when both exist, {@code db.url} is kept as a single name next to {@code db}. Reading the tree back by joining names
+ * with dots always yields the original keys.
+ */
+final class PropertyTree {
+	/**
+	 * The values directly inside this node, by name
+	 */
+	private final Map<String, String> values = new LinkedHashMap<>();
+	/**
+	 * The nodes directly inside this node, by name
+	 */
+	private final Map<String, PropertyTree> children = new LinkedHashMap<>();
+
+	/**
+	 * Creates an empty node
+	 */
+	private PropertyTree() {
+	}
+
+	/**
+	 * Arranges properties as a tree, with names in lexicographic order
+	 *
+	 * @param properties the properties to arrange
+	 *
+	 * @return the root of the tree
+	 */
+	static PropertyTree of(Map<String, String> properties) {
+		PropertyTree root = new PropertyTree();
+		List<String> keys = new ArrayList<>(properties.keySet());
+		Collections.sort(keys);
+		for (String key : keys) {
+			int split = shortestPropertyPrefix(key, properties);
+			if (split < 0)
+				split = key.lastIndexOf('.');
+			else
+				split = key.lastIndexOf('.', split - 1);
+			PropertyTree node = root;
+			int start = 0;
+			while (start <= split) {
+				int dot = key.indexOf('.', start);
+				node = node.children.computeIfAbsent(key.substring(start, dot), name -> new PropertyTree());
+				start = dot + 1;
+			}
+			node.values.put(key.substring(start), properties.get(key));
+		}
+		return root;
+	}
+
+	/**
+	 * Finds the shortest part of a key, ending before a dot, that is a property itself
+	 *
+	 * @param key        the key
+	 * @param properties every property
+	 *
+	 * @return the length of the shortest prefix that is a property, or -1 if there is none
+	 */
+	private static int shortestPropertyPrefix(String key, Map<String, String> properties) {
+		for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', dot + 1)) {
+			if (properties.containsKey(key.substring(0, dot)))
+				return dot;
+		}
+		return -1;
+	}
+
+	/**
+	 * The values directly inside this node
+	 *
+	 * @return the values by name
+	 */
+	Map<String, String> values() {
+		return values;
+	}
+
+	/**
+	 * The nodes directly inside this node
+	 *
+	 * @return the nodes by name
+	 */
+	Map<String, PropertyTree> children() {
+		return children;
+	}
+}
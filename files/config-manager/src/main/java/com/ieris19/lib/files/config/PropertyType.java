@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The types a property can be read as. Every type knows how to parse the text of a property into a value of the type,
+ * which allows {@link PropertySnapshot snapshots} to parse each property once per requested type and reuse the result
+ *
+ * @param <T> the Java type of the parsed values
+ */
+public final class PropertyType<T> {
+	/**
+	 * The amount of types, used to size the caches of a snapshot
+	 */
+	static final int COUNT = 9;
+
+	/**
+	 * Properties read as text, without any parsing
+	 */
+	public static final PropertyType<String> STRING = new PropertyType<>(0, String.class, null, "String",
+	                                                                     value -> value);
+	/**
+	 * Properties read as a single byte
+	 */
+	public static final PropertyType<Byte> BYTE = new PropertyType<>(1, Byte.class, byte.class, "Byte",
+	                                                                 Byte::valueOf);
+	/**
+	 * Properties read as a short integer
+	 */
+	public static final PropertyType<Short> SHORT = new PropertyType<>(2, Short.class, short.class, "Short",
+	                                                                   Short::valueOf);
+	/**
+	 * Properties read as an integer
+	 */
+	public static final PropertyType<Integer> INTEGER = new PropertyType<>(3, Integer.class, int.class, "Integer",
+	                                                                       Integer::valueOf);
+	/**
+	 * Properties read as a long integer
+	 */
+	public static final PropertyType<Long> LONG = new PropertyType<>(4, Long.class, long.class, "Long",
+	                                                                 Long::valueOf);
+	/**
+	 * Properties read as a floating point number
+	 */
+	public static final PropertyType<Float> FLOAT = new PropertyType<>(5, Float.class, float.class, "Float",
+	                                                                   Float::valueOf);
+	/**
+	 * Properties read as a double precision floating point number
+	 */
+	public static final PropertyType<Double> DOUBLE = new PropertyType<>(6, Double.class, double.class, "Double",
+	                                                                     Double::valueOf);
+	/**
+	 * Properties read as a single character, which cannot be a digit
+	 */
+	public static final PropertyType<Character> CHARACTER = new PropertyType<>(7, Character.class, char.class,
+	                                                                           "Character", PropertyType::parseCharacter);
+	/**
+	 * Properties read as a boolean, which can be written as {@code true}, {@code false}, {@code 1} or {@code 0}
+	 */
+	public static final PropertyType<Boolean> BOOLEAN = new PropertyType<>(8, Boolean.class, boolean.class, "Boolean",
+	                                                                       PropertyType::parseBoolean);
+
+	/**
+	 * Every property type, in the order of their index
+	 */
+	private static final List<PropertyType<?>> TYPES = List.of(STRING, BYTE, SHORT, INTEGER, LONG, FLOAT, DOUBLE,
+	                                                           CHARACTER, BOOLEAN);
+
+	/**
+	 * The position of this type in the caches of a snapshot
+	 */
+	private final int index;
+	/**
+	 * The Java type of the parsed values
+	 */
+	private final Class<T> javaType;
+	/**
+	 * The primitive class whose wrapper is the Java type, or null if the values are not wrappers of a primitive
+	 */
+	private final Class<?> primitiveType;
+	/**
+	 * The human-readable name of this type, used in error messages
+	 */
+	private final String name;
+	/**
+	 * The function converting the text of a property into a value of this type
+	 */
+	private final Function<String, T> parser;
+
+	/**
+	 * Creates a property type
+	 *
+	 * @param index         the position of this type in the caches of a snapshot
+	 * @param javaType      the Java type of the parsed values
+	 * @param primitiveType the primitive class whose wrapper is the Java type, or null if there is none
+	 * @param name          the human-readable name of this type
+	 * @param parser        the function converting text into a value, throwing {@link IllegalArgumentException} if
+	 *                      the text is not valid
+	 */
+	private PropertyType(int index, Class<T> javaType, Class<?> primitiveType, String name,
+	                     Function<String, T> parser) {
+		this.index = index;
+		this.javaType = javaType;
+		this.primitiveType = primitiveType;
+		this.name = name;
+		this.parser = parser;
+	}
+
+	/**
+	 * Parses the text of a property
+	 *
+	 * @param value the text of the property
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws IllegalArgumentException if the text is not a valid value of this type
+	 */
+	public T parse(String value) throws IllegalArgumentException {
+		return parser.apply(value);
+	}
+
+	/**
+	 * The Java type of the values of this property type
+	 *
+	 * @return the class of the parsed values
+	 */
+	public Class<T> javaType() {
+		return javaType;
+	}
+
+	/**
+	 * The position of this type in the caches of a snapshot
+	 *
+	 * @return the index of this type
+	 */
+	int index() {
+		return index;
+	}
+
+	/**
+	 * Finds the property type whose values are of the given class. Primitive classes are matched with the type of their
+	 * wrapper
+	 *
+	 * @param javaType the class of the values
+	 *
+	 * @return the property type of the class, or null if properties cannot be read as the class
+	 */
+	static PropertyType<?> of(Class<?> javaType) {
+		for (PropertyType<?> type : TYPES) {
+			if (type.javaType == javaType || type.primitiveType == javaType)
+				return type;
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a character property
+	 *
+	 * @param value the text of the property
+	 *
+	 * @return the character
+	 *
+	 * @throws IllegalArgumentException if the text is not a single character, or it's a digit
+	 */
+	private static Character parseCharacter(String value) throws IllegalArgumentException {
+		if (value.length() != 1 || Character.isDigit(value.charAt(0)))
+			throw new IllegalArgumentException("Not a character: " + value);
+		return value.charAt(0);
+	}
+
+	/**
+	 * Parses a boolean property
+	 *
+	 * @param value the text of the property
+	 *
+	 * @return the boolean value
+	 *
+	 * @throws IllegalArgumentException if the text is not {@code true}, {@code false}, {@code 1} or {@code 0}
+	 */
+	private static Boolean parseBoolean(String value) throws IllegalArgumentException {
+		if (value.equalsIgnoreCase("true") || value.equals("1"))
+			return Boolean.TRUE;
+		if (value.equalsIgnoreCase("false") || value.equals("0"))
+			return Boolean.FALSE;
+		throw new IllegalArgumentException("Not a boolean: " + value);
+	}
+
+	/**
+	 * The human-readable name of this type
+	 *
+	 * @return the name of this type
+	 */
+	@Override public String toString() {
+		return name;
+	}
+}
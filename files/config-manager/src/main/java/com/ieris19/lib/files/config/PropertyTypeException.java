@@ -48,6 +48,17 @@ public class PropertyTypeException extends RuntimeException {
 		super(getDetailMessage(properties, key, castType), cause);
 	}
 
+	/**
+	 * Constructs a {@code PropertyTypeException} with a detail message built given the key, its value and the cast type
+	 *
+	 * @param key      key of the desired property
+	 * @param value    value of the property
+	 * @param castType type to which the property was trying to be parsed into
+	 */
+	public PropertyTypeException(String key, String value, String castType) {
+		super(getDetailMessage(key, value, castType));
+	}
+
 	/**
 	 * Constructs a {@code PropertyTypeException} with a detail message built given the current properties, key and cast
 	 * type
@@ -59,8 +70,20 @@ public class PropertyTypeException extends RuntimeException {
 	 * @return detail message built given the current properties, key and cast type
 	 */
 	private static String getDetailMessage(Properties properties, String key, String castType) {
-		return "Property cannot be returned, incompatible type requested: \n" + "Property: " + key + "with value: " +
-					 properties.getProperty(key) + " is not " + (castType.substring(0, 1).matches("[aeiou]") ? "an" : "a") +
-					 castType;
+		return getDetailMessage(key, properties.getProperty(key), castType);
+	}
+
+	/**
+	 * Constructs a detail message given the key, its value and the cast type
+	 *
+	 * @param key      key of the desired property
+	 * @param value    value of the property
+	 * @param castType type to which the property was trying to be parsed into
+	 *
+	 * @return detail message built given the key, value and cast type
+	 */
+	private static String getDetailMessage(String key, String value, String castType) {
+		return "Property cannot be returned, incompatible type requested: \n" + "Property: " + key + " with value: " +
+					 value + " is not " + (castType.substring(0, 1).matches("[AEIOUaeiou]") ? "an " : "a ") + castType;
 	}
 }
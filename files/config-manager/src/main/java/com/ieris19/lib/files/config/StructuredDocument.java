@@ -0,0 +1,529 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.*;
+
+/**
+ * The content of a JSON or TOML file as it was parsed, keeping the span of text every value was read from. Saving
+ * properties through a document rewrites only the values that changed, each one in place and with the type it was
+ * written with, so a string that looks like a number stays a string. Deleted values are removed with their separators,
+ * new ones are added to the deepest object, table or array that already contains their key, and everything else,
+ * including arrays, arrays of tables, empty objects and {@code null} members, is written exactly as it was read.
+ */
+final class StructuredDocument {
+	/**
+	 * The kind of a node of the document
+	 */
+	enum Kind {
+		/**
+		 * A quoted string
+		 */
+		STRING,
+		/**
+		 * A number, boolean or date, written without quotes
+		 */
+		LITERAL,
+		/**
+		 * A JSON {@code null}, which is not a property
+		 */
+		NULL,
+		/**
+		 * A JSON object or a TOML inline table, whose members are separated by commas
+		 */
+		OBJECT,
+		/**
+		 * An array, whose elements are separated by commas and keyed by their index
+		 */
+		ARRAY,
+		/**
+		 * A TOML table, whose entries are written one per line after its header
+		 */
+		TABLE,
+		/**
+		 * A TOML array of tables, which only exists through the headers of its tables
+		 */
+		TABLE_ARRAY
+	}
+
+	/**
+	 * The text of the file
+	 */
+	private final String text;
+	/**
+	 * The value of every property, in the order they appear in the file
+	 */
+	private final Map<String, String> values = new LinkedHashMap<>();
+	/**
+	 * The keys whose value is {@code null}
+	 */
+	private final Set<String> nulls = new HashSet<>();
+	/**
+	 * The objects, tables and arrays of the document by key, where a key defined twice maps to its last definition
+	 */
+	private final Map<String, Node> containers = new HashMap<>();
+	/**
+	 * The root object or table of the document
+	 */
+	private Node root;
+
+	/**
+	 * Creates an empty document for the text of a file, to be filled by a parser
+	 *
+	 * @param text the text of the file
+	 */
+	StructuredDocument(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * The text of the file
+	 *
+	 * @return the text the document was parsed from
+	 */
+	String text() {
+		return text;
+	}
+
+	/**
+	 * The value of every property, in the order they appear in the file
+	 *
+	 * @return an unmodifiable map of the properties
+	 */
+	Map<String, String> values() {
+		return Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * The root object or table of the document
+	 *
+	 * @return the root node
+	 */
+	Node root() {
+		return root;
+	}
+
+	/**
+	 * Adds an object, table or array to the document. A node without a parent is the root of the document
+	 *
+	 * @param parent     the node containing the new one, or null for the root
+	 * @param kind       the kind of the node
+	 * @param key        the full key of the node
+	 * @param start      the index where the entry of the node starts, including the name of a member
+	 * @param valueStart the index of the opening bracket, or where the table's entries start
+	 *
+	 * @return the new node, whose end is set by {@link #close(Node, int, int)}
+	 */
+	Node open(Node parent, Kind kind, String key, int start, int valueStart) {
+		Node node = new Node(kind, key, start, valueStart);
+		if (parent == null)
+			root = node;
+		else
+			parent.children.add(node);
+		if (parent != null || kind == Kind.TABLE_ARRAY)
+			containers.put(key, node);
+		return node;
+	}
+
+	/**
+	 * Registers a table of an array of tables. The array has no text of its own and is not part of the tree
+	 *
+	 * @param key the key of the array
+	 */
+	void tableArray(String key) {
+		containers.computeIfAbsent(key, name -> new Node(Kind.TABLE_ARRAY, name, -1, -1)).size++;
+	}
+
+	/**
+	 * Sets where an object, table or array ends
+	 *
+	 * @param node     the node
+	 * @param valueEnd the index after the closing bracket, or after the last entry of a table
+	 * @param end      the index where the entry of the node ends
+	 */
+	void close(Node node, int valueEnd, int end) {
+		node.valueEnd = valueEnd;
+		node.end = end;
+	}
+
+	/**
+	 * Adds a value to the document
+	 *
+	 * @param parent     the node containing the value
+	 * @param kind       the kind of the value
+	 * @param key        the full key of the value
+	 * @param value      the value, or null for a JSON {@code null}
+	 * @param start      the index where the entry of the value starts, including the name of a member
+	 * @param valueStart the index where the text of the value starts
+	 * @param valueEnd   the index after the text of the value
+	 *
+	 * @return the new node, whose end is the end of its value until changed
+	 */
+	Node value(Node parent, Kind kind, String key, String value, int start, int valueStart, int valueEnd) {
+		Node node = new Node(kind, key, start, valueStart);
+		node.valueEnd = valueEnd;
+		node.end = valueEnd;
+		parent.children.add(node);
+		if (kind == Kind.NULL)
+			nulls.add(key);
+		else
+			values.put(key, value);
+		return node;
+	}
+
+	/**
+	 * Writes the given properties using the layout of this document. Unchanged values are written exactly as they were
+	 * read, and if no property changed, the text of the file is returned as it is. Removed elements followed by other
+	 * elements of the same array are replaced by the placeholder of the format, so the elements after them keep their
+	 * index, or removed if the format has none
+	 *
+	 * @param properties the properties to write
+	 * @param format     the format of the file
+	 *
+	 * @return the text of the file
+	 */
+	String render(Map<String, String> properties, Format format) {
+		if (properties.equals(values))
+			return text;
+		Map<Node, Map<String, String>> additions = new LinkedHashMap<>();
+		for (String key : new TreeSet<>(properties.keySet())) {
+			if (values.containsKey(key) || nulls.contains(key))
+				continue;
+			Node container = containerOf(key, properties);
+			String relative = container == root ? key : key.substring(container.key.length() + 1);
+			additions.computeIfAbsent(container, node -> new LinkedHashMap<>()).put(relative, properties.get(key));
+		}
+		List<Edit> edits = new ArrayList<>();
+		visit(root, properties, additions, format, edits);
+		for (Map.Entry<Node, Map<String, String>> added : additions.entrySet()) {
+			if (added.getKey().kind == Kind.TABLE_ARRAY)
+				format.insert(this, added.getKey(), null, added.getValue(), edits);
+		}
+		edits.sort(Comparator.comparingInt((Edit edit) -> edit.start).thenComparingInt(edit -> edit.end));
+		StringBuilder rendered = new StringBuilder(text.length() + 64);
+		int position = 0;
+		for (Edit edit : edits) {
+			if (edit.start < position)
+				throw new IllegalStateException("Overlapping changes at index " + edit.start);
+			rendered.append(text, position, edit.start).append(edit.replacement);
+			position = edit.end;
+		}
+		return rendered.append(text, position, text.length()).toString();
+	}
+
+	/**
+	 * Writes the changes to the values inside a container, removes its deleted entries and adds its new ones
+	 *
+	 * @param container  the object, table or array
+	 * @param properties the properties to write
+	 * @param additions  the properties to add to every container, with keys relative to it
+	 * @param format     the format of the file
+	 * @param edits      the changes to the text of the file
+	 */
+	private void visit(Node container, Map<String, String> properties, Map<Node, Map<String, String>> additions,
+	                   Format format, List<Edit> edits) {
+		List<Node> children = container.children;
+		boolean separated = container.kind == Kind.OBJECT || container.kind == Kind.ARRAY;
+		Node last = null;
+		for (int i = 0; i < children.size(); i++) {
+			Node child = children.get(i);
+			if (!isRemoved(child, properties)) {
+				last = child;
+				if (child.children != null) {
+					visit(child, properties, additions, format, edits);
+				} else {
+					String value = properties.get(child.key);
+					if (value != null && !value.equals(values.get(child.key)))
+						edits.add(new Edit(child.valueStart, child.valueEnd, format.literal(value, child.kind)));
+				}
+				continue;
+			}
+			if (!separated) {
+				edits.add(new Edit(child.start, child.end, ""));
+				continue;
+			}
+			int runEnd = i;
+			while (runEnd + 1 < children.size() && isRemoved(children.get(runEnd + 1), properties)) {
+				runEnd++;
+			}
+			if (runEnd + 1 < children.size() && container.kind == Kind.ARRAY && format.placeholder() != null) {
+				for (int j = i; j <= runEnd; j++) {
+					Node removed = children.get(j);
+					edits.add(new Edit(removed.valueStart, removed.valueEnd, format.placeholder()));
+				}
+			} else if (runEnd + 1 < children.size()) {
+				edits.add(new Edit(child.start, children.get(runEnd + 1).start, ""));
+			} else if (last != null) {
+				edits.add(new Edit(last.end, children.get(runEnd).end, ""));
+			} else {
+				edits.add(new Edit(container.valueStart + 1, container.valueEnd - 1, ""));
+			}
+			i = runEnd;
+		}
+		Map<String, String> added = additions.get(container);
+		if (added != null)
+			format.insert(this, container, last, added, edits);
+	}
+
+	/**
+	 * Finds the deepest container that already holds a new key, skipping containers whose entries are all removed
+	 *
+	 * @param key        the new key
+	 * @param properties the properties to write
+	 *
+	 * @return the container the key is added to
+	 */
+	private Node containerOf(String key, Map<String, String> properties) {
+		for (int dot = key.lastIndexOf('.'); dot > 0; dot = key.lastIndexOf('.', dot - 1)) {
+			Node node = containers.get(key.substring(0, dot));
+			if (node == null || isRemoved(node, properties))
+				continue;
+			if (node.kind == Kind.ARRAY || node.kind == Kind.TABLE_ARRAY) {
+				int next = key.indexOf('.', dot + 1);
+				if (!isIndex(key.substring(dot + 1, next < 0 ? key.length() : next)))
+					continue;
+			}
+			return node;
+		}
+		return root;
+	}
+
+	/**
+	 * Whether a node is deleted by the properties. Values are deleted when their key is missing, and objects and arrays
+	 * when every value inside them is, while tables, {@code null} values and empty objects are always kept
+	 *
+	 * @param node       the node
+	 * @param properties the properties to write
+	 *
+	 * @return true if the node is removed from the file
+	 */
+	private static boolean isRemoved(Node node, Map<String, String> properties) {
+		if (node.kind == Kind.TABLE || node.kind == Kind.TABLE_ARRAY || node.kind == Kind.NULL)
+			return false;
+		if (node.children == null)
+			return !properties.containsKey(node.key);
+		return countValues(node, properties, true) > 0 && countValues(node, properties, false) == 0;
+	}
+
+	/**
+	 * Counts the values inside a node
+	 *
+	 * @param node       the node
+	 * @param properties the properties to write
+	 * @param all        whether to count every value, or only those that are kept
+	 *
+	 * @return the amount of values
+	 */
+	private static int countValues(Node node, Map<String, String> properties, boolean all) {
+		if (node.children == null)
+			return node.kind != Kind.NULL && (all || properties.containsKey(node.key)) ? 1 : 0;
+		int count = 0;
+		for (Node child : node.children) {
+			count += countValues(child, properties, all);
+		}
+		return count;
+	}
+
+	/**
+	 * The amount of elements an array has once its removed elements are written, which is the index of the first new
+	 * element unless the new elements leave a gap
+	 *
+	 * @param container the array or array of tables
+	 * @param last      the last element of the array that is kept, or null if there is none
+	 *
+	 * @return the index of the next element
+	 */
+	static int nextIndex(Node container, Node last) {
+		if (container.kind == Kind.TABLE_ARRAY)
+			return container.size;
+		return last == null ? 0 : container.children.indexOf(last) + 1;
+	}
+
+	/**
+	 * Whether part of a key is an array index
+	 *
+	 * @param name the part of the key
+	 *
+	 * @return true if it's made only of digits
+	 */
+	static boolean isIndex(String name) {
+		if (name.isEmpty())
+			return false;
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) < '0' || name.charAt(i) > '9')
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The whitespace at the start of the line containing an index
+	 *
+	 * @param index the index
+	 *
+	 * @return the indentation of the line
+	 */
+	String indentation(int index) {
+		int lineStart = text.lastIndexOf('\n', index - 1) + 1;
+		int end = lineStart;
+		while (end < text.length() && (text.charAt(end) == ' ' || text.charAt(end) == '\t')) {
+			end++;
+		}
+		return text.substring(lineStart, end);
+	}
+
+	/**
+	 * Whether there is a line break between two indexes
+	 *
+	 * @param from the first index
+	 * @param to   the second index
+	 *
+	 * @return true if the indexes are on different lines
+	 */
+	boolean isOnAnotherLine(int from, int to) {
+		int lineBreak = text.indexOf('\n', from);
+		return lineBreak >= 0 && lineBreak < to;
+	}
+
+	/**
+	 * The way a format writes values and adds entries to its containers
+	 */
+	interface Format {
+		/**
+		 * Writes a changed value, keeping the kind it was written with when the new value allows it
+		 *
+		 * @param value the new value
+		 * @param kind  the kind of the value it replaces, {@link Kind#NULL} if it replaces a {@code null}
+		 *
+		 * @return the text of the value
+		 */
+		String literal(String value, Kind kind);
+
+		/**
+		 * The text replacing a removed array element that is followed by other elements
+		 *
+		 * @return a value that does not define any property, or null to remove the element, so the elements after it
+		 *         move down one index
+		 */
+		String placeholder();
+
+		/**
+		 * Adds new properties to a container
+		 *
+		 * @param document  the document
+		 * @param container the object, table or array receiving the properties
+		 * @param last      the last entry of the container that is kept, or null if there is none
+		 * @param additions the properties to add, with keys relative to the container, sorted by key
+		 * @param edits     the changes to the text of the file, receiving the insertions
+		 */
+		void insert(StructuredDocument document, Node container, Node last, Map<String, String> additions,
+		            List<Edit> edits);
+	}
+
+	/**
+	 * A value, object, table or array of the document
+	 */
+	static final class Node {
+		/**
+		 * The kind of the node
+		 */
+		final Kind kind;
+		/**
+		 * The full key of the node, an empty string for the root
+		 */
+		final String key;
+		/**
+		 * The index where the entry of the node starts, which is the name of a member, the start of the line of a TOML
+		 * entry, or the value of an array element
+		 */
+		final int start;
+		/**
+		 * The index where the text of the value starts, which is the opening bracket of an object or array
+		 */
+		final int valueStart;
+		/**
+		 * The index after the text of the value
+		 */
+		int valueEnd;
+		/**
+		 * The index where the entry of the node ends, which is after the line break of a TOML entry
+		 */
+		int end;
+		/**
+		 * The index where entries are added to a table, after its last entry
+		 */
+		int insert;
+		/**
+		 * The amount of tables of an array of tables
+		 */
+		int size;
+		/**
+		 * The entries of an object, table or array, null for values
+		 */
+		final List<Node> children;
+
+		/**
+		 * Creates a node
+		 *
+		 * @param kind       the kind of the node
+		 * @param key        the full key of the node
+		 * @param start      the index where the entry of the node starts
+		 * @param valueStart the index where the text of the value starts
+		 */
+		private Node(Kind kind, String key, int start, int valueStart) {
+			this.kind = kind;
+			this.key = key;
+			this.start = start;
+			this.valueStart = valueStart;
+			this.insert = valueStart;
+			boolean container = kind == Kind.OBJECT || kind == Kind.ARRAY || kind == Kind.TABLE;
+			this.children = container ? new ArrayList<>() : null;
+		}
+	}
+
+	/**
+	 * A replacement of part of the text of the file
+	 */
+	static final class Edit {
+		/**
+		 * The index where the replaced text starts
+		 */
+		private final int start;
+		/**
+		 * The index after the replaced text, equal to the start for insertions
+		 */
+		private final int end;
+		/**
+		 * The text written instead
+		 */
+		private final String replacement;
+
+		/**
+		 * Creates an edit
+		 *
+		 * @param start       the index where the replaced text starts
+		 * @param end         the index after the replaced text
+		 * @param replacement the text written instead
+		 */
+		Edit(int start, int end, String replacement) {
+			this.start = start;
+			this.end = end;
+			this.replacement = replacement;
+		}
+	}
+}
@@ -0,0 +1,917 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes a subset of TOML, registered for the {@code toml} extension. Tables, arrays of tables, dotted and
+ * quoted keys, every kind of string, integers, floats, booleans, dates, arrays and inline tables can be read. Tables
+ * are flattened into dotted keys, arrays are keyed by the index of their elements and integers are written in decimal
+ * without underscores, while floats and dates keep the text they were written with. Unlike TOML, defining a key twice
+ * is not an error, the last definition wins. <br> Saving rewrites only the values that changed, keeping whether they
+ * were strings or not, and keeps comments, arrays, arrays of tables and the formatting of the rest of the document, see
+ * {@link StructuredDocument}. New properties are added at the end of the deepest table that already contains their
+ * key, with dotted keys, or in new tables at the end of the file, and values that look like integers, floats or
+ * booleans are written without quotes. A new file is written with a table for every group of dotted keys. <br> Arrays
+ * are written without gaps, since TOML has no empty value to fill them with: removing an element followed by others
+ * removes it from the array, and elements added past the end of an array follow its last element, so the elements
+ * take lower indexes once the file is read again. Arrays of tables keep their indexes, filling gaps with empty tables.
+ */
+final class TomlCodec implements PropertyCodec {
+	/**
+	 * The values written as TOML integers or floats
+	 */
+	private static final Pattern NUMBER = Pattern.compile("[+-]?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+	/**
+	 * The keys that can be written without quotes
+	 */
+	private static final Pattern BARE_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+	/**
+	 * The values that keep being written without quotes when they replace a date, a time or a special float
+	 */
+	private static final Pattern DATE_TIME = Pattern.compile(
+			"\\d{4}-\\d{2}-\\d{2}([Tt ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?([Zz]|[+-]\\d{2}:\\d{2})?)?|" +
+			"\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?|[+-]?(inf|nan)");
+	/**
+	 * The way values and new entries are written into an existing document
+	 */
+	private static final StructuredDocument.Format FORMAT = new Format();
+
+	/**
+	 * Creates the codec
+	 */
+	TomlCodec() {
+	}
+
+	/**
+	 * The extensions of TOML files
+	 *
+	 * @return the {@code toml} extension
+	 */
+	@Override public List<String> extensions() {
+		return List.of("toml");
+	}
+
+	/**
+	 * Reads a TOML document, flattening its tables into dotted keys
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the properties, in the order they appear in the document
+	 *
+	 * @throws IllegalArgumentException if the text is not valid in the supported subset of TOML
+	 */
+	@Override public Map<String, String> read(String text) throws IllegalArgumentException {
+		return parse(text).values();
+	}
+
+	/**
+	 * Writes properties as a TOML document. If the file already has content, only the values that changed are
+	 * rewritten and the rest of the document is kept, otherwise a table is written for every group of dotted keys
+	 *
+	 * @param properties the properties to write
+	 * @param previous   the previous text of the file
+	 *
+	 * @return the text of the file
+	 */
+	@Override public String write(Map<String, String> properties, String previous) {
+		if (!previous.isBlank()) {
+			try {
+				return parse(previous).render(properties, FORMAT);
+			} catch (IllegalArgumentException ignored) {
+				// The previous content is not valid TOML, so there is no layout to keep
+			}
+		}
+		StringBuilder text = new StringBuilder(64 + properties.size() * 32);
+		writeTable(PropertyTree.of(properties), "", text);
+		return text.toString();
+	}
+
+	/**
+	 * Parses a TOML document, keeping the span of text of every value
+	 *
+	 * @param text the text of the file
+	 *
+	 * @return the document
+	 *
+	 * @throws IllegalArgumentException if the text is not valid in the supported subset of TOML
+	 */
+	static StructuredDocument parse(String text) throws IllegalArgumentException {
+		StructuredDocument document = new StructuredDocument(text);
+		new Parser(text, document).document();
+		return document;
+	}
+
+	/**
+	 * Writes the values of a node under its table header, followed by the tables of its children
+	 *
+	 * @param node the node to write
+	 * @param path the header of the table, or an empty string for the root
+	 * @param text the builder receiving the text
+	 */
+	private static void writeTable(PropertyTree node, String path, StringBuilder text) {
+		if (!node.values().isEmpty()) {
+			if (!path.isEmpty()) {
+				if (text.length() > 0)
+					text.append('\n');
+				text.append('[').append(path).append("]\n");
+			}
+			for (Map.Entry<String, String> value : node.values().entrySet()) {
+				writeKey(value.getKey(), text);
+				text.append(" = ");
+				String literal = value.getValue();
+				writeValue(literal, text);
+				text.append('\n');
+			}
+		}
+		for (Map.Entry<String, PropertyTree> child : node.children().entrySet()) {
+			StringBuilder childPath = new StringBuilder(path);
+			if (!path.isEmpty())
+				childPath.append('.');
+			writeKey(child.getKey(), childPath);
+			writeTable(child.getValue(), childPath.toString(), text);
+		}
+	}
+
+	/**
+	 * Writes a key, quoting it if it's not a bare key
+	 *
+	 * @param key  the key
+	 * @param text the builder receiving the text
+	 */
+	private static void writeKey(String key, StringBuilder text) {
+		if (BARE_KEY.matcher(key).matches())
+			text.append(key);
+		else
+			writeString(key, text);
+	}
+
+	/**
+	 * Writes a key made of several keys separated by dots, quoting the ones that are not bare keys
+	 *
+	 * @param key  the dotted key
+	 * @param text the builder receiving the text
+	 */
+	private static void writeDottedKey(String key, StringBuilder text) {
+		int start = 0;
+		for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', start)) {
+			writeKey(key.substring(start, dot), text);
+			text.append('.');
+			start = dot + 1;
+		}
+		writeKey(key.substring(start), text);
+	}
+
+	/**
+	 * Writes a new value, without quotes if it looks like an integer, a float or a boolean
+	 *
+	 * @param value the value
+	 * @param text  the builder receiving the text
+	 */
+	private static void writeValue(String value, StringBuilder text) {
+		if (NUMBER.matcher(value).matches() || value.equals("true") || value.equals("false"))
+			text.append(value);
+		else
+			writeString(value, text);
+	}
+
+	/**
+	 * Writes a basic string
+	 *
+	 * @param value the content of the string
+	 * @param text  the builder receiving the text
+	 */
+	private static void writeString(String value, StringBuilder text) {
+		text.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"' -> text.append("\\\"");
+				case '\\' -> text.append("\\\\");
+				case '\n' -> text.append("\\n");
+				case '\r' -> text.append("\\r");
+				case '\t' -> text.append("\\t");
+				case '\b' -> text.append("\\b");
+				case '\f' -> text.append("\\f");
+				default -> {
+					if (c < 0x20 || c == 0x7F)
+						text.append(String.format("\\u%04X", (int) c));
+					else
+						text.append(c);
+				}
+			}
+		}
+		text.append('"');
+	}
+
+	/**
+	 * Writes changed values and new entries into an existing TOML document
+	 */
+	private static final class Format implements StructuredDocument.Format {
+		/**
+		 * Writes a changed value as a string if it replaces a string, or if it no longer looks like the integer, float,
+		 * boolean or date it replaces
+		 *
+		 * @param value the new value
+		 * @param kind  the kind of the value it replaces
+		 *
+		 * @return the text of the value
+		 */
+		@Override public String literal(String value, StructuredDocument.Kind kind) {
+			StringBuilder text = new StringBuilder(value.length() + 2);
+			if (kind == StructuredDocument.Kind.STRING)
+				writeString(value, text);
+			else if (kind == StructuredDocument.Kind.LITERAL && DATE_TIME.matcher(value).matches())
+				text.append(value);
+			else
+				writeValue(value, text);
+			return text.toString();
+		}
+
+		/**
+		 * Removed array elements are not replaced, since an empty inline table would mix types in arrays of other
+		 * values, so they're removed along with their separator and the elements after them move down
+		 *
+		 * @return null
+		 */
+		@Override public String placeholder() {
+			return null;
+		}
+
+		/**
+		 * Adds new entries to a container. Tables receive them as lines with dotted keys after their last entry, except
+		 * for the root table, whose nested keys are written as new tables at the end of the file. Arrays of tables
+		 * receive new tables at the end of the file, and arrays and inline tables receive them after their last entry
+		 *
+		 * @param document  the document
+		 * @param container the table, array or inline table receiving the properties
+		 * @param last      the last entry of the container that is kept, or null if there is none
+		 * @param additions the properties to add, with keys relative to the container, sorted by key
+		 * @param edits     the changes to the text of the file, receiving the insertions
+		 */
+		@Override public void insert(StructuredDocument document, StructuredDocument.Node container,
+		                             StructuredDocument.Node last, Map<String, String> additions,
+		                             List<StructuredDocument.Edit> edits) {
+			String text = document.text();
+			switch (container.kind) {
+				case TABLE -> {
+					StringBuilder lines = new StringBuilder();
+					StringBuilder tables = new StringBuilder();
+					if (container == document.root()) {
+						PropertyTree tree = PropertyTree.of(additions);
+						for (Map.Entry<String, String> value : tree.values().entrySet()) {
+							writeEntry(value.getKey(), value.getValue(), lines);
+							lines.append('\n');
+						}
+						for (Map.Entry<String, PropertyTree> child : tree.children().entrySet()) {
+							StringBuilder path = new StringBuilder();
+							writeKey(child.getKey(), path);
+							writeTable(child.getValue(), path.toString(), tables);
+						}
+					} else {
+						for (Map.Entry<String, String> value : additions.entrySet()) {
+							writeEntry(value.getKey(), value.getValue(), lines);
+							lines.append('\n');
+						}
+					}
+					if (lines.length() > 0) {
+						int position = container.insert;
+						if (position == text.length() && !text.isEmpty() && !text.endsWith("\n"))
+							lines.insert(0, '\n');
+						else if (position < text.length() && text.charAt(position) == '[')
+							lines.append('\n');
+						edits.add(new StructuredDocument.Edit(position, position, lines.toString()));
+					}
+					if (tables.length() > 0)
+						append(text, tables, edits);
+				}
+				case TABLE_ARRAY -> {
+					Map<String, Map<String, String>> elements = new TreeMap<>(
+							Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+					for (Map.Entry<String, String> value : additions.entrySet()) {
+						String key = value.getKey();
+						int dot = key.indexOf('.');
+						elements.computeIfAbsent(key.substring(0, dot), index -> new LinkedHashMap<>())
+						        .put(key.substring(dot + 1), value.getValue());
+					}
+					StringBuilder tables = new StringBuilder();
+					int next = StructuredDocument.nextIndex(container, last);
+					for (Map.Entry<String, Map<String, String>> element : elements.entrySet()) {
+						// Tables after a gap keep their index, with empty tables filling the gap
+						int index = Integer.parseInt(element.getKey());
+						for (; next <= index; next++) {
+							if (tables.length() > 0)
+								tables.append('\n');
+							tables.append("[[");
+							writeDottedKey(container.key, tables);
+							tables.append("]]\n");
+						}
+						for (Map.Entry<String, String> value : element.getValue().entrySet()) {
+							writeEntry(value.getKey(), value.getValue(), tables);
+							tables.append('\n');
+						}
+					}
+					append(text, tables, edits);
+				}
+				default -> {
+					StringBuilder entries = new StringBuilder();
+					boolean array = container.kind == StructuredDocument.Kind.ARRAY;
+					Map<String, Map<String, String>> grouped = array ? new TreeMap<>(
+							Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())) :
+					                                           new LinkedHashMap<>();
+					for (Map.Entry<String, String> value : additions.entrySet()) {
+						String key = value.getKey();
+						int dot = array ? key.indexOf('.') : -1;
+						grouped.computeIfAbsent(dot < 0 ? key : key.substring(0, dot), name -> new LinkedHashMap<>())
+						       .put(dot < 0 ? "" : key.substring(dot + 1), value.getValue());
+					}
+					for (Map.Entry<String, Map<String, String>> entry : grouped.entrySet()) {
+						// Arrays are written without gaps, elements past the end follow the last element
+						if (entries.length() > 0 || last != null)
+							entries.append(", ");
+						if (!array) {
+							writeEntry(entry.getKey(), entry.getValue().get(""), entries);
+						} else if (entry.getValue().containsKey("")) {
+							writeValue(entry.getValue().get(""), entries);
+						} else {
+							entries.append("{ ");
+							boolean first = true;
+							for (Map.Entry<String, String> member : entry.getValue().entrySet()) {
+								if (!first)
+									entries.append(", ");
+								first = false;
+								writeEntry(member.getKey(), member.getValue(), entries);
+							}
+							entries.append(" }");
+						}
+					}
+					if (last == null && !array)
+						entries.insert(0, ' ').append(' ');
+					int position = last != null ? last.end : container.valueStart + 1;
+					edits.add(new StructuredDocument.Edit(position, position, entries.toString()));
+				}
+			}
+		}
+
+		/**
+		 * Writes an entry with a dotted key
+		 *
+		 * @param key   the key, relative to the table of the entry
+		 * @param value the value
+		 * @param text  the builder receiving the text
+		 */
+		private static void writeEntry(String key, String value, StringBuilder text) {
+			writeDottedKey(key, text);
+			text.append(" = ");
+			writeValue(value, text);
+		}
+
+		/**
+		 * Appends new tables at the end of the file, separated from its content by a blank line
+		 *
+		 * @param text   the text of the file
+		 * @param tables the new tables
+		 * @param edits  the changes to the text of the file, receiving the insertion
+		 */
+		private static void append(String text, StringBuilder tables, List<StructuredDocument.Edit> edits) {
+			if (!text.isEmpty())
+				tables.insert(0, text.endsWith("\n") ? "\n" : "\n\n");
+			edits.add(new StructuredDocument.Edit(text.length(), text.length(), tables.toString()));
+		}
+	}
+
+	/**
+	 * A single pass over a TOML document, adding every value to the document as soon as it's read
+	 */
+	private static final class Parser {
+		/**
+		 * The text of the document
+		 */
+		private final String text;
+		/**
+		 * The document receiving the values
+		 */
+		private final StructuredDocument document;
+		/**
+		 * The amount of tables defined so far in every array of tables
+		 */
+		private final Map<String, Integer> tableArrays = new HashMap<>();
+		/**
+		 * The position of the next character to read
+		 */
+		private int position;
+
+		/**
+		 * Creates a parser
+		 *
+		 * @param text     the text of the document
+		 * @param document the document receiving the values
+		 */
+		private Parser(String text, StructuredDocument document) {
+			this.text = text;
+			this.document = document;
+		}
+
+		/**
+		 * Reads the whole document
+		 *
+		 * @throws IllegalArgumentException if the document is not valid in the supported subset of TOML
+		 */
+		private void document() throws IllegalArgumentException {
+			StructuredDocument.Node root = document.open(null, StructuredDocument.Kind.TABLE, "", 0, 0);
+			StructuredDocument.Node table = root;
+			int firstHeader = -1;
+			boolean rootEntries = false;
+			while (true) {
+				skipBlankLines();
+				if (position >= text.length())
+					break;
+				int lineStart = text.lastIndexOf('\n', position - 1) + 1;
+				if (peek() == '[') {
+					if (firstHeader < 0)
+						firstHeader = lineStart;
+					table = header(root, lineStart);
+					endOfLine();
+					table.insert = nextLine();
+				} else {
+					String key = key();
+					skipSpaces();
+					expect('=');
+					skipSpaces();
+					StructuredDocument.Node entry = value(table, table == root ? key : table.key + '.' + key, lineStart);
+					endOfLine();
+					entry.end = nextLine();
+					table.insert = entry.end;
+					rootEntries |= table == root;
+				}
+			}
+			if (!rootEntries)
+				root.insert = firstHeader >= 0 ? firstHeader : text.length();
+		}
+
+		/**
+		 * Reads a table header or an array of tables header
+		 *
+		 * @param root      the root table of the document
+		 * @param lineStart the index where the line of the header starts
+		 *
+		 * @return the table
+		 *
+		 * @throws IllegalArgumentException if the header is not valid
+		 */
+		private StructuredDocument.Node header(StructuredDocument.Node root, int lineStart)
+		throws IllegalArgumentException {
+			position++;
+			boolean array = peek() == '[';
+			if (array)
+				position++;
+			skipSpaces();
+			String name = key();
+			skipSpaces();
+			expect(']');
+			if (array) {
+				expect(']');
+				int index = tableArrays.merge(name, 1, Integer::sum) - 1;
+				document.tableArray(name);
+				name = name + '.' + index;
+			}
+			return document.open(root, StructuredDocument.Kind.TABLE, name, lineStart, lineStart);
+		}
+
+		/**
+		 * Reads a key, which can be made of several bare or quoted keys separated by dots
+		 *
+		 * @return the key, with its parts joined by dots
+		 *
+		 * @throws IllegalArgumentException if the key is not valid
+		 */
+		private String key() throws IllegalArgumentException {
+			StringBuilder key = new StringBuilder();
+			while (true) {
+				char c = peek();
+				if (c == '"') {
+					key.append(basicString());
+				} else if (c == '\'') {
+					key.append(literalString());
+				} else {
+					int start = position;
+					while (position < text.length() && isBareKeyCharacter(text.charAt(position))) {
+						position++;
+					}
+					if (start == position)
+						throw error("Expected a key");
+					key.append(text, start, position);
+				}
+				skipSpaces();
+				if (position < text.length() && text.charAt(position) == '.') {
+					position++;
+					skipSpaces();
+					key.append('.');
+				} else {
+					return key.toString();
+				}
+			}
+		}
+
+		/**
+		 * Reads a value, adding it or its elements to the document
+		 *
+		 * @param parent the table, array or inline table containing the value
+		 * @param key    the key of the value
+		 * @param start  the index where the entry of the value starts
+		 *
+		 * @return the node of the value
+		 *
+		 * @throws IllegalArgumentException if the value is not valid
+		 */
+		private StructuredDocument.Node value(StructuredDocument.Node parent, String key, int start)
+		throws IllegalArgumentException {
+			int valueStart = position;
+			char c = peek();
+			if (c == '[' || c == '{') {
+				StructuredDocument.Kind kind = c == '[' ? StructuredDocument.Kind.ARRAY : StructuredDocument.Kind.OBJECT;
+				StructuredDocument.Node node = document.open(parent, kind, key, start, valueStart);
+				if (c == '[')
+					array(node, key);
+				else
+					inlineTable(node, key);
+				document.close(node, position, position);
+				return node;
+			}
+			if (c != '"' && c != '\'') {
+				String value = scalar();
+				return document.value(parent, StructuredDocument.Kind.LITERAL, key, value, start, valueStart, position);
+			}
+			String value;
+			if (c == '"')
+				value = text.startsWith("\"\"\"", position) ? multilineString('"') : basicString();
+			else
+				value = text.startsWith("'''", position) ? multilineString('\'') : literalString();
+			return document.value(parent, StructuredDocument.Kind.STRING, key, value, start, valueStart, position);
+		}
+
+		/**
+		 * Reads an array, keying its elements by their index. Arrays can span several lines and contain comments
+		 *
+		 * @param node the node of the array
+		 * @param key  the key of the array
+		 *
+		 * @throws IllegalArgumentException if the array is not valid
+		 */
+		private void array(StructuredDocument.Node node, String key) throws IllegalArgumentException {
+			position++;
+			for (int index = 0; ; index++) {
+				skipBlankLines();
+				if (peek() == ']') {
+					position++;
+					return;
+				}
+				value(node, key + '.' + index, position);
+				skipBlankLines();
+				if (peek() == ',') {
+					position++;
+				} else {
+					expect(']');
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads an inline table, prefixing its keys with the key of the table
+		 *
+		 * @param node the node of the table
+		 * @param key  the key of the table
+		 *
+		 * @throws IllegalArgumentException if the table is not valid
+		 */
+		private void inlineTable(StructuredDocument.Node node, String key) throws IllegalArgumentException {
+			position++;
+			skipSpaces();
+			if (peek() == '}') {
+				position++;
+				return;
+			}
+			while (true) {
+				skipSpaces();
+				int start = position;
+				String name = key();
+				skipSpaces();
+				expect('=');
+				skipSpaces();
+				value(node, key + '.' + name, start);
+				skipSpaces();
+				if (peek() == ',') {
+					position++;
+				} else {
+					expect('}');
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads a boolean, number or date
+		 *
+		 * @return the text of the value, with integers converted to decimal and without underscores
+		 *
+		 * @throws IllegalArgumentException if there is no value
+		 */
+		private String scalar() throws IllegalArgumentException {
+			int start = position;
+			while (position < text.length()) {
+				char c = text.charAt(position);
+				if (c == ',' || c == ']' || c == '}' || c == '#' || c == '\n' || c == '\r')
+					break;
+				if (c == ' ' || c == '\t') {
+					// A date and a time can be separated by a space
+					boolean dateTime = position + 1 < text.length() && Character.isDigit(text.charAt(position + 1)) &&
+					                   position - start == 10 && text.charAt(start + 4) == '-';
+					if (!dateTime)
+						break;
+				}
+				position++;
+			}
+			String value = text.substring(start, position);
+			if (value.isEmpty())
+				throw error("Expected a value");
+			if (value.equals("true") || value.equals("false"))
+				return value;
+			String digits = value.indexOf('_') >= 0 ? value.replace("_", "") : value;
+			try {
+				if (digits.startsWith("0x"))
+					return Long.toString(Long.parseLong(digits.substring(2), 16));
+				if (digits.startsWith("0o"))
+					return Long.toString(Long.parseLong(digits.substring(2), 8));
+				if (digits.startsWith("0b"))
+					return Long.toString(Long.parseLong(digits.substring(2), 2));
+			} catch (NumberFormatException e) {
+				throw error("Invalid integer");
+			}
+			return NUMBER.matcher(digits).matches() ? digits : value;
+		}
+
+		/**
+		 * Reads a basic string, resolving its escape sequences
+		 *
+		 * @return the content of the string
+		 *
+		 * @throws IllegalArgumentException if the string is not valid
+		 */
+		private String basicString() throws IllegalArgumentException {
+			position++;
+			StringBuilder builder = new StringBuilder();
+			while (true) {
+				char c = peek();
+				if (c == '"') {
+					position++;
+					return builder.toString();
+				}
+				if (c == '\n' || c == '\r')
+					throw error("Unterminated string");
+				position++;
+				if (c == '\\')
+					escape(builder);
+				else
+					builder.append(c);
+			}
+		}
+
+		/**
+		 * Reads a literal string, which has no escape sequences
+		 *
+		 * @return the content of the string
+		 *
+		 * @throws IllegalArgumentException if the string is not valid
+		 */
+		private String literalString() throws IllegalArgumentException {
+			int start = ++position;
+			while (peek() != '\'') {
+				if (text.charAt(position) == '\n' || text.charAt(position) == '\r')
+					throw error("Unterminated string");
+				position++;
+			}
+			return text.substring(start, position++);
+		}
+
+		/**
+		 * Reads a multi-line basic or literal string. A newline right after the opening quotes is removed, and in basic
+		 * strings a backslash at the end of a line removes the line break and the whitespace that follows it
+		 *
+		 * @param quote the quote character, {@code "} for basic strings and {@code '} for literal strings
+		 *
+		 * @return the content of the string
+		 *
+		 * @throws IllegalArgumentException if the string is not valid
+		 */
+		private String multilineString(char quote) throws IllegalArgumentException {
+			String delimiter = String.valueOf(quote).repeat(3);
+			position += 3;
+			if (text.startsWith("\r\n", position))
+				position += 2;
+			else if (text.startsWith("\n", position))
+				position++;
+			StringBuilder builder = new StringBuilder();
+			while (true) {
+				if (text.startsWith(delimiter, position)) {
+					// Up to two quotes right before the closing delimiter belong to the string
+					int quotes = 3;
+					while (quotes < 5 && position + quotes < text.length() && text.charAt(position + quotes) == quote) {
+						quotes++;
+					}
+					builder.append(String.valueOf(quote).repeat(quotes - 3));
+					position += quotes;
+					return builder.toString();
+				}
+				char c = peek();
+				position++;
+				if (c != '\\' || quote == '\'') {
+					builder.append(c);
+				} else if (isLineEndingBackslash()) {
+					while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+						position++;
+					}
+				} else {
+					escape(builder);
+				}
+			}
+		}
+
+		/**
+		 * Whether the backslash just read is only followed by whitespace until the end of its line
+		 *
+		 * @return true if the backslash ends its line
+		 */
+		private boolean isLineEndingBackslash() {
+			int i = position;
+			while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+				i++;
+			}
+			return i < text.length() && (text.charAt(i) == '\n' || text.charAt(i) == '\r');
+		}
+
+		/**
+		 * Resolves the escape sequence following a backslash in a basic string
+		 *
+		 * @param builder the builder receiving the character
+		 *
+		 * @throws IllegalArgumentException if the escape sequence is not valid
+		 */
+		private void escape(StringBuilder builder) throws IllegalArgumentException {
+			char c = peek();
+			position++;
+			switch (c) {
+				case '"', '\\' -> builder.append(c);
+				case 'b' -> builder.append('\b');
+				case 't' -> builder.append('\t');
+				case 'n' -> builder.append('\n');
+				case 'f' -> builder.append('\f');
+				case 'r' -> builder.append('\r');
+				case 'u', 'U' -> {
+					int length = c == 'u' ? 4 : 8;
+					if (position + length > text.length())
+						throw error("Malformed unicode escape");
+					try {
+						builder.appendCodePoint(Integer.parseInt(text, position, position + length, 16));
+					} catch (IllegalArgumentException e) {
+						throw error("Malformed unicode escape");
+					}
+					position += length;
+				}
+				default -> throw error("Invalid escape sequence");
+			}
+		}
+
+		/**
+		 * Checks that nothing but a comment follows on the current line
+		 *
+		 * @throws IllegalArgumentException if there is more content on the line
+		 */
+		private void endOfLine() throws IllegalArgumentException {
+			skipSpaces();
+			if (position < text.length() && text.charAt(position) == '#')
+				skipComment();
+			if (position < text.length() && text.charAt(position) != '\n' && text.charAt(position) != '\r')
+				throw error("Expected the end of the line");
+		}
+
+		/**
+		 * The index where the next line starts, after the line break at the current position
+		 *
+		 * @return the index after the line break, or the length of the document if it has ended
+		 */
+		private int nextLine() {
+			if (text.startsWith("\r\n", position))
+				return position + 2;
+			return position < text.length() ? position + 1 : position;
+		}
+
+		/**
+		 * Skips whitespace, line breaks and comments
+		 */
+		private void skipBlankLines() {
+			while (position < text.length()) {
+				char c = text.charAt(position);
+				if (c == '#')
+					skipComment();
+				else if (c == ' ' || c == '\t' || c == '\n' || c == '\r')
+					position++;
+				else
+					return;
+			}
+		}
+
+		/**
+		 * Skips spaces and tabs
+		 */
+		private void skipSpaces() {
+			while (position < text.length() && (text.charAt(position) == ' ' || text.charAt(position) == '\t')) {
+				position++;
+			}
+		}
+
+		/**
+		 * Skips a comment until the end of its line
+		 */
+		private void skipComment() {
+			while (position < text.length() && text.charAt(position) != '\n' && text.charAt(position) != '\r') {
+				position++;
+			}
+		}
+
+		/**
+		 * Whether a character can be part of a bare key
+		 *
+		 * @param c the character
+		 *
+		 * @return true for letters, digits, underscores and hyphens in the ASCII range
+		 */
+		private static boolean isBareKeyCharacter(char c) {
+			return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+		}
+
+		/**
+		 * Reads an expected character
+		 *
+		 * @param expected the character
+		 *
+		 * @throws IllegalArgumentException if the next character is a different one
+		 */
+		private void expect(char expected) throws IllegalArgumentException {
+			if (peek() != expected)
+				throw error("Expected '" + expected + "'");
+			position++;
+		}
+
+		/**
+		 * The next character, without reading it
+		 *
+		 * @return the next character
+		 *
+		 * @throws IllegalArgumentException if the document has ended
+		 */
+		private char peek() throws IllegalArgumentException {
+			if (position >= text.length())
+				throw error("Unexpected end of the document");
+			return text.charAt(position);
+		}
+
+		/**
+		 * Creates an exception pointing at the current position
+		 *
+		 * @param message the description of the problem
+		 *
+		 * @return the exception
+		 */
+		private IllegalArgumentException error(String message) {
+			int line = 1;
+			int column = 1;
+			for (int i = 0; i < Math.min(position, text.length()); i++) {
+				if (text.charAt(i) == '\n') {
+					line++;
+					column = 1;
+				} else {
+					column++;
+				}
+			}
+			return new IllegalArgumentException(message + " at line " + line + ", column " + column);
+		}
+	}
+}
@@ -5,4 +5,6 @@
 module ierislib.files.config {
 
 	exports com.ieris19.lib.files.config;
+
+	uses com.ieris19.lib.files.config.PropertyCodec;
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Manual benchmark comparing contended reads of an integer property from a synchronized {@link Properties}, the way
+ * properties used to be read, and from {@link IerisProperties}. Every run starts a number of reader threads, plus one
+ * thread that keeps modifying another property, and reports the total amount of reads per millisecond.
+ */
+public class ContendedReadBenchmark {
+	/**
+	 * The time every run lasts, in milliseconds
+	 */
+	private static final long RUN_MILLIS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		File directory = Files.createTempDirectory("ierislib-benchmark").toFile();
+		Files.writeString(new File(directory, "benchmark.properties").toPath(), "port=8080\ncounter=0\n");
+		Properties properties = new Properties();
+		properties.setProperty("port", "8080");
+		properties.setProperty("counter", "0");
+		IerisProperties ierisProperties = new IerisProperties("benchmark", directory) {
+			@Override public void close() {
+			}
+		};
+		int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			run("Properties     ", threads, key -> Integer.parseInt(properties.getProperty(key)),
+			    value -> properties.setProperty("counter", value));
+			run("IerisProperties", threads, ierisProperties::getPropertyInt,
+			    value -> ierisProperties.setProperties("counter", value));
+		}
+	}
+
+	/**
+	 * Reads the {@code port} property from several threads while another thread writes the {@code counter} property
+	 *
+	 * @param name    the name of the benchmarked store
+	 * @param threads the amount of reader threads
+	 * @param reader  reads a property as an integer
+	 * @param writer  writes the counter property
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	private static void run(String name, int threads, ToIntFunction<String> reader, Consumer<String> writer)
+	throws InterruptedException {
+		AtomicBoolean running = new AtomicBoolean(true);
+		LongAdder reads = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] readers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			readers[i] = new Thread(() -> {
+				await(start);
+				long count = 0;
+				int sink = 0;
+				while (running.get()) {
+					sink += reader.applyAsInt("port");
+					count++;
+				}
+				reads.add(count + (sink == 42 ? 1 : 0));
+			});
+			readers[i].start();
+		}
+		Thread modifier = new Thread(() -> {
+			await(start);
+			for (int i = 0; running.get(); i++) {
+				writer.accept(Integer.toString(i));
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		});
+		modifier.start();
+		start.countDown();
+		Thread.sleep(RUN_MILLIS);
+		running.set(false);
+		for (Thread thread : readers) {
+			thread.join();
+		}
+		modifier.join();
+		System.out.printf("%s %2d threads: %,12d reads/ms%n", name, threads, reads.sum() / RUN_MILLIS);
+	}
+
+	/**
+	 * Waits for the run to start
+	 *
+	 * @param start the latch released when the run starts
+	 */
+	private static void await(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Dynamic Properties Test")
+class DynamicPropertiesTest {
+	@TempDir Path directory;
+	private Path file;
+
+	@BeforeEach void setUp() throws IOException {
+		file = directory.resolve("app.properties");
+		Files.writeString(file, "port=8080\n");
+	}
+
+	private void rewrite(String text, FileTime modified) throws IOException {
+		Files.writeString(file, text);
+		Files.setLastModifiedTime(file, modified);
+	}
+
+	@Test @DisplayName ("Changes to the file are reloaded on the next access") void reloaded() throws IOException {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			assertEquals("8080", properties.getProperty("port"));
+			rewrite("port=80\nhost=localhost\n", FileTime.fromMillis(System.currentTimeMillis() + 5000));
+			assertEquals("80", properties.getProperty("port"));
+			assertEquals("localhost", properties.getProperty("host"));
+		}
+	}
+
+	@Test @DisplayName ("Recent rewrites keeping the size and modification time are reloaded") void racyRewrite()
+	throws IOException {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			FileTime modified = Files.getLastModifiedTime(file);
+			assertEquals("8080", properties.getProperty("port"));
+			rewrite("port=8081\n", modified);
+			assertEquals("8081", properties.getProperty("port"));
+		}
+	}
+
+	@Test @DisplayName ("Files loaded well after their modification are trusted by their attributes") void trusted()
+	throws IOException {
+		FileTime modified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+		Files.setLastModifiedTime(file, modified);
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			assertEquals("8080", properties.getProperty("port"));
+			rewrite("port=8081\n", modified);
+			assertEquals("8080", properties.getProperty("port"));
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			assertEquals("8081", properties.getProperty("port"));
+		}
+	}
+
+	@Test @DisplayName ("The file is not checked again within the reload interval") void reloadInterval()
+	throws IOException {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			properties.setReloadInterval(Duration.ofHours(1));
+			assertEquals("8080", properties.getProperty("port"));
+			rewrite("port=80\n", FileTime.fromMillis(System.currentTimeMillis() + 5000));
+			assertEquals("8080", properties.getProperty("port"));
+			properties.setReloadInterval(Duration.ZERO);
+			assertEquals("80", properties.getProperty("port"));
+		}
+	}
+
+	@Test @DisplayName ("Negative reload intervals are rejected") void negativeInterval() {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			assertThrows(IllegalArgumentException.class, () -> properties.setReloadInterval(Duration.ofSeconds(-1)));
+		}
+	}
+
+	@Test @DisplayName ("Pending changes are kept while the file has not changed") void pending() throws IOException {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			properties.setSaveDelay(Duration.ofHours(1));
+			properties.modifyProperty("port", "80");
+			assertEquals("80", properties.getProperty("port"));
+			assertTrue(properties.isDirty());
+			properties.flush();
+			assertFalse(properties.isDirty());
+			assertEquals("80", properties.getProperty("port"));
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("File Properties Registry Test")
+class FilePropertiesTest {
+	@TempDir Path directory;
+	private final List<FileProperties> opened = new ArrayList<>();
+
+	@BeforeEach void setUp() throws IOException {
+		Files.writeString(directory.resolve("a.properties"), "value=0\n");
+		Files.writeString(directory.resolve("b.properties"), "value=0\n");
+		FileProperties.setDirectory(directory.toFile());
+	}
+
+	@AfterEach void tearDown() throws IOException {
+		FileProperties.setIdleTimeout(Duration.ZERO);
+		FileProperties.setMaximumSize(Integer.MAX_VALUE);
+		for (FileProperties properties : opened) {
+			properties.close();
+		}
+	}
+
+	private FileProperties open(String key) {
+		FileProperties properties = FileProperties.getInstance(key);
+		opened.add(properties);
+		return properties;
+	}
+
+	@Test @DisplayName ("Instances in use are not idle") void usedInstanceIsNotIdle() throws InterruptedException {
+		FileProperties properties = open("a");
+		FileProperties.setIdleTimeout(Duration.ofMillis(100));
+		long end = System.nanoTime() + Duration.ofMillis(400).toNanos();
+		for (int i = 0; System.nanoTime() < end; i++) {
+			properties.setProperties("value", Integer.toString(i));
+			properties.getPropertyInt("value");
+			Thread.sleep(10);
+		}
+		assertSame(properties, FileProperties.getInstance("a"));
+	}
+
+	@Test @DisplayName ("Changes made while instances are evicted are not lost") void changedDuringEviction() {
+		FileProperties.setIdleTimeout(Duration.ofNanos(1));
+		FileProperties current = null;
+		for (int i = 0; i < 2000; i++) {
+			current = FileProperties.getInstance("a");
+			current.setProperties("value", Integer.toString(i));
+			assertEquals(Integer.toString(i), FileProperties.getInstance("a").getProperty("value"));
+		}
+		opened.add(current);
+	}
+
+	@Test @DisplayName ("Evicted instances rejoin the registry when used") void evictedInstanceRejoins() {
+		FileProperties a = open("a");
+		FileProperties.setMaximumSize(1);
+		FileProperties b = open("b");
+		a.setProperties("value", "1");
+		assertSame(a, FileProperties.getInstance("a"));
+		assertNotSame(b, FileProperties.getInstance("b"));
+		opened.add(FileProperties.getInstance("b"));
+	}
+
+	@Test @DisplayName ("Evicted instances replaced by another one fail") void evictedInstanceReplaced() throws IOException {
+		FileProperties a = open("a");
+		a.setProperties("value", "1");
+		FileProperties.setMaximumSize(1);
+		open("b");
+		FileProperties reloaded = open("a");
+		assertNotSame(a, reloaded);
+		assertEquals("1", reloaded.getProperty("value"));
+		assertThrows(IllegalStateException.class, () -> a.getProperty("value"));
+		opened.remove(a);
+	}
+
+	@Test @DisplayName ("Created files are written in the format of the file") void createdFileLoads() throws IOException {
+		FileProperties properties = open("created.json");
+		properties.createPropertiesFile(new String[] {"server.port", "name"}, new String[] {"8080", "a"});
+		assertTrue(Files.readString(directory.resolve("created.json")).startsWith("{"));
+		properties.loadProperties();
+		assertEquals("8080", properties.getProperty("server.port"));
+		assertEquals("a", properties.getProperty("name"));
+	}
+
+	@Test @DisplayName ("Closing unchanged instances does not rewrite the file") void unchangedFileKept() throws IOException {
+		String text = "{\"port\": \"8080\", \"list\": [1, 2], \"empty\": {}}";
+		Files.writeString(directory.resolve("kept.json"), text);
+		FileProperties properties = open("kept.json");
+		properties.close();
+		opened.remove(properties);
+		assertEquals(text, Files.readString(directory.resolve("kept.json")));
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("JSON Codec Test")
+class JsonCodecTest {
+	private final JsonCodec codec = new JsonCodec();
+
+	private String edit(String text, Consumer<Map<String, String>> change) {
+		Map<String, String> properties = new LinkedHashMap<>(codec.read(text));
+		change.accept(properties);
+		String written = codec.write(properties, text);
+		assertEquals(properties, codec.read(written));
+		return written;
+	}
+
+	@Test @DisplayName ("Unchanged documents are written as they were read") void unchanged() {
+		String text = "{\n\t\"port\": \"8080\",  \"ratio\": 1.0,\n\t\"list\": [1, 2], \"empty\": {}, \"none\": null\n}";
+		assertEquals(text, edit(text, properties -> { }));
+	}
+
+	@Test @DisplayName ("Changed values keep the rest of the document") void changed() {
+		String text = "{\n  \"port\": \"8080\",\n  \"ratio\": 1.0,\n  \"list\": [1, 2],\n  \"empty\": {},\n  \"none\": null\n}\n";
+		String written = edit(text, properties -> properties.put("list.1", "3"));
+		assertEquals(text.replace("[1, 2]", "[1, 3]"), written);
+	}
+
+	@Test @DisplayName ("Values keep their type") void types() {
+		String text = "{\"port\": \"8080\", \"count\": 1, \"flag\": true}";
+		String written = edit(text, properties -> {
+			properties.put("port", "9090");
+			properties.put("count", "2");
+			properties.put("flag", "false");
+		});
+		assertEquals("{\"port\": \"9090\", \"count\": 2, \"flag\": false}", written);
+	}
+
+	@Test @DisplayName ("Added and removed values keep arrays and objects") void addedAndRemoved() {
+		String text = "{\n  \"server\": {\n    \"host\": \"a\",\n    \"port\": 1\n  },\n  \"list\": [1, 2, 3]\n}\n";
+		String written = edit(text, properties -> {
+			properties.remove("server.host");
+			properties.put("server.name", "b");
+			properties.remove("list.1");
+			properties.put("list.4", "x");
+			properties.put("other.key", "c");
+		});
+		assertTrue(written.contains("\"list\": [1, null, 3, null, \"x\"]"), written);
+		assertFalse(written.contains("\"0\""), written);
+	}
+
+	@Test @DisplayName ("New documents nest dotted keys") void fresh() {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("server.port", "8080");
+		properties.put("server.host", "localhost");
+		properties.put("name", "test");
+		String written = codec.write(properties, "");
+		assertEquals(properties, codec.read(written));
+		assertTrue(written.contains("\"server\": {"), written);
+	}
+
+	@Test @DisplayName ("Malformed documents are rejected") void malformed() {
+		assertThrows(IllegalArgumentException.class, () -> codec.read("[1, 2]"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("{\"a\": 1"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("{\"a\": \"\\u12\"}"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("{\"a\": 1} x"));
+	}
+}
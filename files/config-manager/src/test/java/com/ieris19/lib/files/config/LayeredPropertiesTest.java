@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Layered Properties Test")
+class LayeredPropertiesTest {
+	private static final String PREFIX = "ierislib.layered.";
+
+	@TempDir Path directory;
+	private Path file;
+	private DynamicProperties properties;
+
+	@BeforeEach void setUp() throws IOException {
+		file = directory.resolve("app.properties");
+		Files.writeString(file, "file=file\nsystem=file\npath=file\n");
+		properties = new DynamicProperties("app", directory.toFile());
+	}
+
+	@AfterEach void tearDown() {
+		properties.close();
+		System.clearProperty(PREFIX + "system");
+		System.clearProperty(PREFIX + "path");
+	}
+
+	@Test @DisplayName ("Each layer overrides the layers before it") void precedence() {
+		System.setProperty(PREFIX + "system", "system");
+		System.setProperty(PREFIX + "path", "system");
+		Map<String, String> defaults = Map.of("default", "default", "file", "default", "system", "default",
+		                                      "path", "default");
+		LayeredProperties layered = new LayeredProperties(defaults, properties).includeSystemProperties(PREFIX);
+		assertEquals("default", layered.getProperty("default"));
+		assertEquals("file", layered.getProperty("file"));
+		assertEquals("system", layered.getProperty("system"));
+		assertEquals("system", layered.getProperty("path"));
+		// every environment defines PATH, which an empty prefix turns into the path key
+		layered.includeEnvironment("");
+		assertEquals(System.getenv("PATH"), layered.getProperty("path"));
+		assertEquals("system", layered.getProperty("system"));
+		assertThrows(IllegalArgumentException.class, () -> layered.getProperty("missing"));
+	}
+
+	@Test @DisplayName ("Environment variables are mapped to lowercase dotted keys") void environmentKeys() {
+		assertEquals("db.pool.size", LayeredProperties.environmentKey("APP_DB_POOL_SIZE", "APP_"));
+		assertEquals("port", LayeredProperties.environmentKey("APP_PORT", "APP_"));
+		assertEquals("app.port", LayeredProperties.environmentKey("APP_PORT", ""));
+		assertNull(LayeredProperties.environmentKey("APP_", "APP_"));
+		assertNull(LayeredProperties.environmentKey("OTHER_PORT", "APP_"));
+	}
+
+	@Test @DisplayName ("Changes to the file rebuild the merged view") void fileChanged() throws IOException {
+		LayeredProperties layered = new LayeredProperties(Map.of("file", "default"), properties);
+		PropertySnapshot snapshot = layered.getSnapshot();
+		assertSame(snapshot, layered.getSnapshot());
+		Files.writeString(file, "other=file\n");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		assertEquals("default", layered.getProperty("file"));
+		assertEquals("file", layered.getProperty("other"));
+		assertNotSame(snapshot, layered.getSnapshot());
+	}
+
+	@Test @DisplayName ("System properties are read again when refreshed") void refreshed() {
+		LayeredProperties layered = new LayeredProperties(properties).includeSystemProperties(PREFIX);
+		assertEquals("file", layered.getProperty("system"));
+		System.setProperty(PREFIX + "system", "system");
+		assertEquals("file", layered.getProperty("system"));
+		layered.refresh();
+		assertEquals("system", layered.getProperty("system"));
+	}
+
+	@Test @DisplayName ("Defaults are read without a file layer") void withoutFile() {
+		LayeredProperties layered = new LayeredProperties(Map.of("port", "8080"), null);
+		assertEquals(8080, (int) layered.getProperty("port", PropertyType.INTEGER));
+		assertSame(layered.getSnapshot(), layered.getSnapshot());
+	}
+}
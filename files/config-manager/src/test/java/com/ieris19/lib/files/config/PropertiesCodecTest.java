@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Properties Codec Test")
+class PropertiesCodecTest {
+	private final PropertiesCodec codec = new PropertiesCodec();
+
+	@Test @DisplayName ("Entries are read like java.util.Properties") void readsLikeProperties() throws IOException {
+		List<String> files = List.of("a=b\nc = d\n", "a:b\n  c d\n", "# comment\n! comment\n\na=b", "a=b\\\n    c\n",
+		                             "a=b\\\\\nc=d", "a\\ b=c\\ d", "a=\\u00e9\\t", "a=b\\", "k\\", "a=b\\\n", "a=b\\\n c\\",
+		                             "a=1\r\nb=2\rc=3", "a=b\\\r\n c");
+		for (String file : files) {
+			Properties properties = new Properties();
+			properties.load(new StringReader(file));
+			Map<String, String> expected = new HashMap<>();
+			for (String name : properties.stringPropertyNames()) {
+				expected.put(name, properties.getProperty(name));
+			}
+			assertEquals(expected, new HashMap<>(codec.read(file)), file);
+		}
+	}
+
+	@Test @DisplayName ("Malformed unicode escapes are rejected") void malformedEscape() {
+		assertThrows(IllegalArgumentException.class, () -> codec.read("a=\\u00"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("a=\\uXYZW"));
+	}
+
+	@Test @DisplayName ("Unchanged files are written as they were read") void unchanged() {
+		String file = "# Server\nport = 8080\n\n! Database\ndb.url : jdbc:h2\\\n   :mem\n";
+		assertEquals(file, codec.write(codec.read(file), file));
+	}
+
+	@Test @DisplayName ("Only changed entries are rewritten") void changed() {
+		String file = "# Server\nport = 8080\nhost=localhost\nold=1\n";
+		Map<String, String> properties = new LinkedHashMap<>(codec.read(file));
+		properties.put("port", "9090");
+		properties.remove("old");
+		properties.put("new key", "a=b");
+		String written = codec.write(properties, file);
+		assertEquals("# Server\nport=9090\nhost=localhost\nnew\\ key=a=b\n", written);
+		assertEquals(properties, codec.read(written));
+	}
+
+	@Test @DisplayName ("Special characters survive a round trip") void roundTrip() {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("key:with=separators", " leading space");
+		properties.put("#comment", "!value");
+		properties.put("control", "tab\there\nnew line\u0001");
+		properties.put("unicode", "\u00e9\u4e2d\ud83d\ude00");
+		properties.put("backslash", "C:\\path\\");
+		assertEquals(properties, codec.read(codec.write(properties, "")));
+	}
+}
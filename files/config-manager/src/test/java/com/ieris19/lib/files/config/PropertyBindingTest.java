@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Property Binding Test")
+class PropertyBindingTest {
+	@TempDir Path directory;
+	private DynamicProperties properties;
+
+	enum Mode {FAST, SAFE}
+
+	record Server(String host, int port, Mode mode) {
+	}
+
+	interface Pool {
+		int size();
+
+		boolean enabled();
+	}
+
+	@BeforeEach void setUp() throws IOException {
+		Files.writeString(directory.resolve("app.properties"),
+		                  "host=localhost\nport=8080\nmode=SAFE\ndb.pool.size=4\ndb.pool.enabled=true\n");
+		properties = new DynamicProperties("app", directory.toFile());
+	}
+
+	@AfterEach void tearDown() {
+		properties.close();
+	}
+
+	@Test @DisplayName ("Records are built from the properties named after their components") void record() {
+		Server server = properties.bind(Server.class, MethodHandles.lookup()).get();
+		assertEquals(new Server("localhost", 8080, Mode.SAFE), server);
+	}
+
+	@Test @DisplayName ("Interfaces in a section read the properties named after their methods") void sectionInterface() {
+		Pool pool = properties.bind("db.pool", Pool.class).get();
+		assertEquals(4, pool.size());
+		assertTrue(pool.enabled());
+	}
+
+	@Test @DisplayName ("Instances are only built again once the properties change") void rebinding() {
+		PropertyBinding<Server> binding = properties.bind(Server.class, MethodHandles.lookup());
+		Server first = binding.get();
+		assertSame(first, binding.get());
+		properties.modifyProperty("port", "9090");
+		Server second = binding.get();
+		assertEquals(9090, second.port());
+		assertEquals(8080, first.port());
+		assertSame(second, binding.get());
+	}
+
+	@Test @DisplayName ("Types that cannot be bound are rejected") void invalidTypes() {
+		assertThrows(IllegalArgumentException.class, () -> properties.bind(String.class));
+		// The record is not public, so the public lookup cannot reach its constructor
+		assertThrows(IllegalArgumentException.class, () -> properties.bind(Server.class));
+	}
+
+	@Test @DisplayName ("Missing and invalid properties fail when the instance is built") void invalidProperties() {
+		PropertyBinding<Server> binding = properties.bind(Server.class, MethodHandles.lookup());
+		properties.modifyProperty("port", "eighty");
+		assertThrows(PropertyTypeException.class, binding::get);
+		properties.modifyProperty("port", "80");
+		properties.deleteProperty("mode");
+		assertThrows(IllegalArgumentException.class, binding::get);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Atomic Property File Test")
+class PropertyFilesTest {
+	@TempDir Path directory;
+
+	@Test @DisplayName ("Content is replaced without temporary files left behind") void write() throws IOException {
+		Path file = directory.resolve("app.properties");
+		Files.writeString(file, "a=1\n");
+		PropertyFiles.write(file, "a=2\n", true);
+		assertEquals("a=2\n", PropertyFiles.read(file));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test @DisplayName ("Permissions are kept") void permissions() throws IOException {
+		Path file = directory.resolve("app.properties");
+		Files.writeString(file, "a=1\n");
+		if (Files.getFileAttributeView(file, PosixFileAttributeView.class) == null)
+			return;
+		Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+		PropertyFiles.write(file, "a=2\n", false);
+		assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+	}
+
+	@Test @DisplayName ("Symbolic links are kept") void symbolicLink() throws IOException {
+		Path file = directory.resolve("real.properties");
+		Files.writeString(file, "a=1\n");
+		Path link = directory.resolve("app.properties");
+		try {
+			Files.createSymbolicLink(link, file.getFileName());
+		} catch (UnsupportedOperationException | IOException e) {
+			return;
+		}
+		PropertyFiles.write(link, "a=2\n", false);
+		assertTrue(Files.isSymbolicLink(link));
+		assertEquals("a=2\n", Files.readString(file));
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Property Listener Test")
+class PropertyListenerTest {
+	@TempDir Path directory;
+	private DynamicProperties properties;
+	private final List<PropertyChange> changes = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach void setUp() throws IOException {
+		Files.writeString(directory.resolve("app.properties"), "port=8080\n");
+		properties = new DynamicProperties("app", directory.toFile());
+	}
+
+	@AfterEach void tearDown() {
+		properties.close();
+	}
+
+	@Test @DisplayName ("Listeners are notified of every change") void notified() {
+		properties.setListenerExecutor(Runnable::run);
+		properties.addListener(changes::add);
+		properties.createProperty("host", "a");
+		properties.modifyProperty("port", "80");
+		properties.deleteProperty("host");
+		assertEquals(List.of(new PropertyChange("host", null, "a"), new PropertyChange("port", "8080", "80"),
+		                     new PropertyChange("host", "a", null)), changes);
+		assertTrue(changes.get(0).isCreated());
+		assertTrue(changes.get(2).isDeleted());
+	}
+
+	@Test @DisplayName ("Listeners of a property are only notified of its changes") void keyed() {
+		properties.setListenerExecutor(Runnable::run);
+		properties.addListener("port", changes::add);
+		properties.createProperty("host", "a");
+		properties.modifyProperty("port", "80");
+		assertEquals(List.of(new PropertyChange("port", "8080", "80")), changes);
+	}
+
+	@Test @DisplayName ("Values set to the value they had are not notified") void unchanged() {
+		properties.setListenerExecutor(Runnable::run);
+		properties.addListener(changes::add);
+		assertTrue(properties.compareAndSetProperty("port", "8080", "8080"));
+		assertFalse(properties.compareAndSetProperty("port", "80", "81"));
+		assertTrue(changes.isEmpty());
+	}
+
+	@Test @DisplayName ("Removed listeners are no longer notified") void removed() {
+		properties.setListenerExecutor(Runnable::run);
+		PropertyListener listener = changes::add;
+		properties.addListener(listener);
+		properties.addListener("port", listener);
+		properties.removeListener(listener);
+		properties.modifyProperty("port", "80");
+		assertTrue(changes.isEmpty());
+	}
+
+	@Test @DisplayName ("Reloading the file notifies the properties it changed") void reloaded() throws IOException {
+		properties.setListenerExecutor(Runnable::run);
+		properties.addListener(changes::add);
+		Path file = directory.resolve("app.properties");
+		Files.writeString(file, "port=80\nhost=a\n");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		assertEquals("80", properties.getProperty("port"));
+		assertEquals(2, changes.size());
+		assertTrue(changes.contains(new PropertyChange("port", "8080", "80")));
+		assertTrue(changes.contains(new PropertyChange("host", null, "a")));
+	}
+
+	@Test @DisplayName ("Listeners are notified in the order of the changes") void ordered() throws InterruptedException {
+		int count = 100;
+		CountDownLatch notified = new CountDownLatch(count);
+		properties.addListener(change -> {
+			changes.add(change);
+			notified.countDown();
+		});
+		for (int i = 0; i < count; i++) {
+			properties.setProperties("port", Integer.toString(i));
+		}
+		assertTrue(notified.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < count; i++) {
+			assertEquals(Integer.toString(i), changes.get(i).getNewValue());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Property Schema Test")
+class PropertySchemaTest {
+	@TempDir Path directory;
+	private final PropertySchema port = PropertySchema.empty()
+	                                                  .require("port", PropertyType.INTEGER)
+	                                                  .range("port", 1, 65535);
+
+	@BeforeEach void setUp() throws IOException {
+		Files.writeString(directory.resolve("app.properties"), "port=8080\n");
+	}
+
+	@Test @DisplayName ("Reloads rejected by the schema keep the current properties") void rejectedReload()
+	throws IOException {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			properties.setSchema(port);
+			Path file = directory.resolve("app.properties");
+			Files.writeString(file, "port=eighty\n");
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+			assertEquals("8080", properties.getProperty("port"));
+			assertTrue(properties.getReloadFailure() instanceof PropertySchemaException);
+			Files.writeString(file, "port=80\n");
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+			assertEquals("80", properties.getProperty("port"));
+			assertNull(properties.getReloadFailure());
+		}
+	}
+
+	@Test @DisplayName ("Changes rejected by the schema are not applied") void rejectedChange() {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			properties.setSchema(port);
+			assertThrows(PropertySchemaException.class, () -> properties.modifyProperty("port", "70000"));
+			assertThrows(PropertySchemaException.class, () -> properties.deleteProperty("port"));
+			assertFalse(properties.isDirty());
+			assertEquals("8080", properties.getProperty("port"));
+		}
+	}
+
+	@Test @DisplayName ("Schemas the current properties do not satisfy are not set") void rejectedSchema() {
+		try (DynamicProperties properties = new DynamicProperties("app", directory.toFile())) {
+			PropertySchema host = PropertySchema.empty().require("host", PropertyType.STRING);
+			assertThrows(PropertySchemaException.class, () -> properties.setSchema(host));
+			assertNotSame(host, properties.getSchema());
+			properties.createProperty("host", "localhost");
+			properties.setSchema(host);
+			assertSame(host, properties.getSchema());
+		}
+	}
+
+	@Test @DisplayName ("Concurrent changes cannot bypass a schema being set") void concurrentSchema()
+	throws InterruptedException {
+		FileProperties.setDirectory(directory.toFile());
+		FileProperties properties = FileProperties.getInstance("app");
+		try {
+			for (int round = 0; round < 1000; round++) {
+				properties.setSchema(PropertySchema.empty());
+				properties.setProperties("port", "1");
+				AtomicBoolean running = new AtomicBoolean(true);
+				Thread writer = new Thread(() -> {
+					for (int i = 0; running.get(); i++) {
+						try {
+							properties.setProperties("port", i % 2 == 0 ? "eighty" : "1");
+						} catch (PropertySchemaException ignored) {
+						}
+					}
+				});
+				writer.start();
+				while (true) {
+					try {
+						properties.setSchema(port);
+						break;
+					} catch (PropertySchemaException ignored) {
+					}
+				}
+				running.set(false);
+				writer.join();
+				assertEquals("1", properties.getProperty("port"));
+			}
+		} finally {
+			properties.setSchema(PropertySchema.empty());
+			try {
+				properties.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Property Snapshot Cache Test")
+class PropertySnapshotCacheTest {
+	@TempDir Path directory;
+	private Path file;
+	private final PropertyCodec codec = new PropertiesCodec();
+
+	@BeforeEach void setUp() throws IOException {
+		file = directory.resolve("app.properties");
+		PropertySnapshotCache.setDirectory(directory.resolve("cache").toFile());
+	}
+
+	@AfterEach void tearDown() {
+		PropertySnapshotCache.setDirectory(null);
+	}
+
+	private void write(String text, FileTime modified) throws IOException {
+		Files.writeString(file, text);
+		Files.setLastModifiedTime(file, modified);
+	}
+
+	@Test @DisplayName ("Unchanged files are loaded from their snapshot without reading them") void statHit()
+	throws IOException {
+		FileTime modified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+		write("a=1\n", modified);
+		assertEquals("1", PropertySnapshotCache.load(file, codec).properties.get("a"));
+		// Same size and modification time, so only the snapshot is used
+		write("a=2\n", modified);
+		PropertySnapshotCache.Content content = PropertySnapshotCache.load(file, codec);
+		assertEquals("1", content.properties.get("a"));
+		assertEquals("a=1\n", content.text);
+	}
+
+	@Test @DisplayName ("Files changed within the same timestamp are detected by their hash") void racyFile()
+	throws IOException {
+		FileTime modified = FileTime.fromMillis(System.currentTimeMillis());
+		write("a=1\n", modified);
+		assertEquals("1", PropertySnapshotCache.load(file, codec).properties.get("a"));
+		write("a=2\n", modified);
+		assertEquals("2", PropertySnapshotCache.load(file, codec).properties.get("a"));
+	}
+
+	@Test @DisplayName ("Changed files are parsed again") void changedFile() throws IOException {
+		write("a=1\n", FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		PropertySnapshotCache.load(file, codec);
+		write("a=22\n", FileTime.fromMillis(System.currentTimeMillis() - 30_000));
+		PropertySnapshotCache.Content content = PropertySnapshotCache.load(file, codec);
+		assertEquals("22", content.properties.get("a"));
+		assertEquals("a=22\n", content.text);
+	}
+
+	@Test @DisplayName ("Damaged snapshots are ignored") void damagedSnapshot() throws IOException {
+		write("a=1\n", FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		PropertySnapshotCache.load(file, codec);
+		try (Stream<Path> snapshots = Files.list(directory.resolve("cache"))) {
+			for (Path snapshot : (Iterable<Path>) snapshots::iterator) {
+				byte[] bytes = Files.readAllBytes(snapshot);
+				Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+			}
+		}
+		write("a=2\n", FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		assertEquals("2", PropertySnapshotCache.load(file, codec).properties.get("a"));
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("Property Snapshot Test")
+class PropertySnapshotTest {
+	private final PropertySnapshot snapshot = new PropertySnapshot(
+			Map.of("port", "8080", "ratio", "1.5", "name", "eighty", "debug", "true"));
+	private final PropertySnapshot sections = new PropertySnapshot(
+			Map.of("db", "root", "db.host", "localhost", "db.pool.size", "4", "db.pool.enabled", "true", "dbx", "x",
+			       "app.name", "test"));
+
+	@Test @DisplayName ("Typed values are parsed once per snapshot") void parsedOnce() {
+		Integer port = snapshot.get("port", PropertyType.INTEGER);
+		assertEquals(8080, (int) port);
+		assertSame(port, snapshot.get("port", PropertyType.INTEGER));
+		Double ratio = snapshot.get("ratio", PropertyType.DOUBLE);
+		assertSame(ratio, snapshot.get("ratio", PropertyType.DOUBLE));
+		assertEquals(Boolean.TRUE, snapshot.get("debug", PropertyType.BOOLEAN));
+	}
+
+	@Test @DisplayName ("Every type keeps its own parsed values") void perType() {
+		assertEquals(8080, (int) snapshot.get("port", PropertyType.INTEGER));
+		assertEquals(8080L, (long) snapshot.get("port", PropertyType.LONG));
+		assertEquals("8080", snapshot.get("port", PropertyType.STRING));
+		Long port = snapshot.get("port", PropertyType.LONG);
+		assertSame(port, snapshot.get("port", PropertyType.LONG));
+	}
+
+	@Test @DisplayName ("Values that cannot be parsed keep failing") void invalid() {
+		assertThrows(PropertyTypeException.class, () -> snapshot.get("name", PropertyType.INTEGER));
+		assertThrows(PropertyTypeException.class, () -> snapshot.get("name", PropertyType.INTEGER));
+		assertEquals("eighty", snapshot.get("name", PropertyType.STRING));
+		assertThrows(PropertyTypeException.class, () -> snapshot.get("ratio", PropertyType.INTEGER));
+		assertEquals(1.5, snapshot.get("ratio", PropertyType.DOUBLE), 0);
+	}
+
+	@Test @DisplayName ("Missing properties are rejected") void missing() {
+		assertThrows(IllegalArgumentException.class, () -> snapshot.get("missing", PropertyType.INTEGER));
+		assertNull(snapshot.get("missing"));
+		assertFalse(snapshot.contains("missing"));
+	}
+
+	@Test @DisplayName ("Changed snapshots parse their own values") void changed() {
+		Integer port = snapshot.get("port", PropertyType.INTEGER);
+		PropertySnapshot next = snapshot.with("port", "80").without("name");
+		assertEquals(80, (int) next.get("port", PropertyType.INTEGER));
+		assertSame(port, snapshot.get("port", PropertyType.INTEGER));
+		assertTrue(snapshot.contains("name"));
+		assertFalse(next.contains("name"));
+		assertSame(next, next.without("name"));
+	}
+
+	@Test @DisplayName ("Keys are listed by prefix in lexicographic order") void prefixed() {
+		assertEquals(List.of("db", "db.host", "db.pool.enabled", "db.pool.size", "dbx"), sections.keysWithPrefix("db"));
+		assertEquals(List.of("db.host", "db.pool.enabled", "db.pool.size"), sections.keysWithPrefix("db."));
+		assertEquals(List.of("db.pool.size"), sections.keysWithPrefix("db.pool.size"));
+		assertEquals(List.of("app.name"), sections.keysWithPrefix("a"));
+		assertEquals(List.of("app.name", "db", "db.host", "db.pool.enabled", "db.pool.size", "dbx"),
+		             sections.keysWithPrefix(""));
+	}
+
+	@Test @DisplayName ("Prefixes without keys list nothing") void unprefixed() {
+		assertTrue(sections.keysWithPrefix("cache").isEmpty());
+		assertTrue(sections.keysWithPrefix("zzz").isEmpty());
+		assertTrue(sections.keysWithPrefix("db.pool.size.").isEmpty());
+		assertTrue(PropertySnapshot.empty().keysWithPrefix("").isEmpty());
+		List<String> keys = sections.keysWithPrefix("db");
+		assertThrows(UnsupportedOperationException.class, () -> keys.add("other"));
+	}
+
+	@Test @DisplayName ("Sections hold the keys after their name and a dot") void subset() {
+		PropertySnapshot db = sections.subset("db");
+		assertEquals(Map.of("host", "localhost", "pool.size", "4", "pool.enabled", "true"), db.asMap());
+		assertEquals(db.asMap(), sections.subset("db.").asMap());
+		assertEquals(sections.subset("db.pool").asMap(), db.subset("pool").asMap());
+		assertEquals(4, (int) db.subset("pool").get("size", PropertyType.INTEGER));
+		assertSame(sections, sections.subset(""));
+		assertEquals(0, sections.subset("cache").size());
+		assertEquals(0, sections.subset("db.host").size());
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Ieris19
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.ieris19.lib.files.config;
+
+import org.junit.jupiter.api.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName ("TOML Codec Test")
+class TomlCodecTest {
+	private final TomlCodec codec = new TomlCodec();
+
+	private String edit(String text, Consumer<Map<String, String>> change) {
+		Map<String, String> properties = new LinkedHashMap<>(codec.read(text));
+		change.accept(properties);
+		String written = codec.write(properties, text);
+		assertEquals(properties, codec.read(written));
+		return written;
+	}
+
+	@Test @DisplayName ("Unchanged documents are written as they were read") void unchanged() {
+		String text = "# server\nport = \"8080\" # quoted\nmask = 0xff\nwhen = 1979-05-27T07:32:00Z\n\n"
+				+ "[[srv]]\nname = \"a\"\n\n[[srv]]\nname = \"b\"\n";
+		assertEquals(text, edit(text, properties -> { }));
+	}
+
+	@Test @DisplayName ("Changed values keep comments, types and tables") void changed() {
+		String text = "# server\nport = \"8080\" # quoted\nratio = 1.0\n\n[[srv]]\nname = \"a\"\n\n[[srv]]\nname = \"b\"\n";
+		String written = edit(text, properties -> {
+			properties.put("port", "9090");
+			properties.put("srv.1.name", "c");
+		});
+		assertEquals(text.replace("8080", "9090").replace("\"b\"", "\"c\""), written);
+	}
+
+	@Test @DisplayName ("Added and removed values keep arrays and tables") void addedAndRemoved() {
+		String text = "list = [1, 2, 3]\n\n[db]\nhost = \"a\"\nport = 1\n\n[[srv]]\nname = \"a\"\n";
+		String written = edit(text, properties -> {
+			properties.remove("db.host");
+			properties.put("db.user", "root");
+			properties.put("list.3", "4");
+			properties.put("srv.1.name", "b");
+			properties.put("other.key", "c");
+		});
+		assertTrue(written.contains("list = [1, 2, 3, 4]"), written);
+		assertTrue(written.contains("[[srv]]\nname = \"b\""), written);
+		assertFalse(written.contains("[srv.0]"), written);
+	}
+
+	@Test @DisplayName ("Removed elements followed by others are removed from their array") void removedElement() {
+		String text = "hosts = [\"a\", \"b\", \"c\"]\narr = [\n  1, # one\n  2, # two\n  3,\n]\n";
+		Map<String, String> properties = new LinkedHashMap<>(codec.read(text));
+		properties.remove("hosts.0");
+		properties.remove("arr.1");
+		String written = codec.write(properties, text);
+		assertEquals("hosts = [\"b\", \"c\"]\narr = [\n  1, # one\n  3,\n]\n", written);
+		assertEquals(Map.of("hosts.0", "b", "hosts.1", "c", "arr.0", "1", "arr.1", "3"), codec.read(written));
+	}
+
+	@Test @DisplayName ("Elements added past the end of an array follow its last element") void gap() {
+		String text = "arr = [\n  1, # one\n  2,\n]\n";
+		Map<String, String> properties = new LinkedHashMap<>(codec.read(text));
+		properties.remove("arr.1");
+		properties.put("arr.3", "x");
+		String written = codec.write(properties, text);
+		assertFalse(written.contains("{}"), written);
+		assertEquals(Map.of("arr.0", "1", "arr.1", "x"), codec.read(written));
+	}
+
+	@Test @DisplayName ("New documents group dotted keys into tables") void fresh() {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("name", "test");
+		properties.put("server.port", "8080");
+		properties.put("server.host", "localhost");
+		String written = codec.write(properties, "");
+		assertEquals(properties, codec.read(written));
+		assertTrue(written.contains("[server]"), written);
+	}
+
+	@Test @DisplayName ("Malformed documents are rejected") void malformed() {
+		assertThrows(IllegalArgumentException.class, () -> codec.read("a = "));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("a = [1, 2"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("[a\nb = 1"));
+		assertThrows(IllegalArgumentException.class, () -> codec.read("a = \"open"));
+	}
+}